@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.ddms.v2;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.impl.CreateRequestImpl;
+import ddf.catalog.source.IngestException;
+import ddf.catalog.source.SourceUnavailableException;
+import ddf.catalog.transform.CatalogTransformerException;
+import java.io.InputStream;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Ingests DDMS 2.0 archives with a {@link Ddms20BatchReader}, sending one create request to the
+ * catalog for each batch, so only one batch of metacards is held in memory at a time.
+ */
+public class Ddms20ArchiveIngester {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(Ddms20ArchiveIngester.class);
+
+  private final CatalogFramework catalogFramework;
+
+  private final Ddms20InputTransformer transformer;
+
+  private int batchSize = Ddms20BatchReader.DEFAULT_BATCH_SIZE;
+
+  public Ddms20ArchiveIngester(
+      CatalogFramework catalogFramework, Ddms20InputTransformer transformer) {
+    this.catalogFramework = catalogFramework;
+    this.transformer = transformer;
+  }
+
+  /** @param batchSize the maximum number of metacards in each create request. */
+  public void setBatchSize(int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("argument 'batchSize' must be greater than 0.");
+    }
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Creates a metacard for each resource of the archive. The metacards are created on the calling
+   * thread, so the catalog operations run with the caller's security subject.
+   *
+   * @param archive the archive. It is not closed by this method.
+   * @return the number of metacards created.
+   * @throws CatalogTransformerException if the archive can't be read. Metacards created before the
+   *     failure remain in the catalog.
+   * @throws IngestException if the catalog fails to create a batch of metacards.
+   * @throws SourceUnavailableException if the catalog is unavailable.
+   */
+  public long ingest(InputStream archive)
+      throws CatalogTransformerException, IngestException, SourceUnavailableException {
+    long created = 0;
+    try (Ddms20BatchReader reader = new Ddms20BatchReader(transformer, archive, batchSize)) {
+      List<Metacard> batch;
+      while (!(batch = reader.nextBatch()).isEmpty()) {
+        CreateResponse response = catalogFramework.create(new CreateRequestImpl(batch));
+        created += response.getCreatedMetacards().size();
+      }
+      LOGGER.debug(
+          "Ingested {} of the {} DDMS 2.0 resources of an archive.", created, reader.getCount());
+    }
+    return created;
+  }
+}
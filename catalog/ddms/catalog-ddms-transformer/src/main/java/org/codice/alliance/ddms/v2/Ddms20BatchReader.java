@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.ddms.v2;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.transform.CatalogTransformerException;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.codice.ddf.platform.util.XMLUtils;
+import org.codice.ddms.DdmsResource;
+import org.codice.ddms.v2.reader.Ddms20XmlReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the DDMS 2.0 resources of a large archive into metacards, a batch at a time, on a single
+ * StAX cursor.
+ *
+ * <p>The input may be a single resource, a document that wraps any number of resources in other
+ * elements, or several such documents concatenated together. Only the resources of the current
+ * batch are held in memory, so batches can be sized for catalog create requests and the archive
+ * streamed through without its size affecting the heap.
+ *
+ * <p>The input must use an ASCII compatible encoding such as UTF-8.
+ */
+public class Ddms20BatchReader implements Closeable {
+
+  static final int DEFAULT_BATCH_SIZE = 250;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(Ddms20BatchReader.class);
+
+  private static final String DDMS_20_NAMESPACE = "http://metadata.dod.mil/mdr/ns/DDMS/2.0/";
+
+  private static final String RESOURCE = "Resource";
+
+  private static final String ROOT_START = "<ddms-batch>";
+
+  private static final String ROOT_END = "</ddms-batch>";
+
+  private final Ddms20InputTransformer transformer;
+
+  private final XMLStreamReader xmlStreamReader;
+
+  private final int batchSize;
+
+  private boolean exhausted;
+
+  private long count;
+
+  public Ddms20BatchReader(Ddms20InputTransformer transformer, InputStream input)
+      throws CatalogTransformerException {
+    this(transformer, input, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * @param transformer the transformer that creates the metacard of each resource.
+   * @param input the archive. It is not closed by this reader.
+   * @param batchSize the maximum number of metacards in a batch.
+   */
+  public Ddms20BatchReader(Ddms20InputTransformer transformer, InputStream input, int batchSize)
+      throws CatalogTransformerException {
+    if (transformer == null) {
+      throw new IllegalArgumentException(
+          String.format("argument '%s' may not be null.", "transformer"));
+    }
+    if (input == null) {
+      throw new IllegalArgumentException(String.format("argument '%s' may not be null.", "input"));
+    }
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("argument 'batchSize' must be greater than 0.");
+    }
+    this.transformer = transformer;
+    this.batchSize = batchSize;
+
+    InputStream wrapped =
+        new SequenceInputStream(
+            Collections.enumeration(
+                Arrays.asList(
+                    new ByteArrayInputStream(ROOT_START.getBytes(StandardCharsets.UTF_8)),
+                    new XmlDeclarationFilterInputStream(input),
+                    new ByteArrayInputStream(ROOT_END.getBytes(StandardCharsets.UTF_8)))));
+    try {
+      xmlStreamReader =
+          XMLUtils.getInstance()
+              .getSecureXmlInputFactory()
+              .createXMLStreamReader(wrapped, StandardCharsets.UTF_8.name());
+    } catch (XMLStreamException e) {
+      throw new CatalogTransformerException("Failed to read DDMS 2.0 archive", e);
+    }
+  }
+
+  /**
+   * @return the metacards of the next resources in the archive, at most {@code batchSize} of them,
+   *     or an empty list once the archive has been read.
+   * @throws CatalogTransformerException if the archive is not well formed XML or a resource is not
+   *     valid DDMS 2.0. The resources read before the failure are discarded.
+   */
+  public List<Metacard> nextBatch() throws CatalogTransformerException {
+    List<Metacard> batch = new ArrayList<>(batchSize);
+    try {
+      while (batch.size() < batchSize && nextResource()) {
+        ResourceStreamReader resourceReader = new ResourceStreamReader(xmlStreamReader);
+        DdmsResource ddms = new Ddms20XmlReader(resourceReader).read();
+        resourceReader.skipToEnd();
+        batch.add(transformer.transform(ddms, null));
+        count++;
+      }
+    } catch (XMLStreamException | RuntimeException e) {
+      throw new CatalogTransformerException(
+          String.format("Failed to parse DDMS 2.0 resource %d of archive", count + 1), e);
+    }
+    LOGGER.debug("Read a batch of {} DDMS 2.0 resources, {} in total.", batch.size(), count);
+    return batch;
+  }
+
+  /** @return the number of resources read so far. */
+  public long getCount() {
+    return count;
+  }
+
+  @Override
+  public void close() {
+    try {
+      xmlStreamReader.close();
+    } catch (XMLStreamException e) {
+      LOGGER.debug("Failed to close the DDMS 2.0 archive reader.", e);
+    }
+  }
+
+  /** Moves the cursor to the start tag of the next resource. */
+  private boolean nextResource() throws XMLStreamException {
+    while (!exhausted && xmlStreamReader.hasNext()) {
+      if (xmlStreamReader.next() == XMLStreamReader.START_ELEMENT
+          && RESOURCE.equals(xmlStreamReader.getLocalName())
+          && DDMS_20_NAMESPACE.equals(xmlStreamReader.getNamespaceURI())) {
+        return true;
+      }
+    }
+    exhausted = true;
+    return false;
+  }
+}
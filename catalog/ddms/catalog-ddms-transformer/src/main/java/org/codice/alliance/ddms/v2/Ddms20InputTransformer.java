@@ -34,6 +34,7 @@ import java.io.Serializable;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -69,6 +70,13 @@ import org.codice.ddms.v2.summary.geospatial.BoundingBox;
 import org.codice.ddms.v2.summary.geospatial.BoundingGeometry;
 import org.codice.ddms.v2.summary.geospatial.CountryCode;
 import org.codice.ddms.v2.summary.geospatial.FacilityIdentifier;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.io.WKTWriter;
+import org.locationtech.jts.operation.valid.IsValidOp;
+import org.locationtech.jts.operation.valid.TopologyValidationError;
+import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -83,12 +91,65 @@ public class Ddms20InputTransformer implements InputTransformer {
 
   private static final MetacardType DDMS_20_METACARD_TYPE = new Ddms20MetacardType();
 
+  /** A tolerance greater than 0 simplifies the location, preserving its topology. */
+  static final double DEFAULT_SIMPLIFY_TOLERANCE = 0;
+
+  static final boolean DEFAULT_VALIDATE_GEOMETRY = false;
+
+  /** Geographic WGS 84 CRSs whose positions are given latitude first. */
+  private static final Set<String> LAT_LON_SRS_NAMES =
+      Collections.unmodifiableSet(
+          new HashSet<>(
+              Arrays.asList(
+                  "EPSG:4326",
+                  "EPSG:4979",
+                  "urn:ogc:def:crs:EPSG::4326",
+                  "urn:ogc:def:crs:EPSG::4979",
+                  "http://www.opengis.net/def/crs/EPSG/0/4326",
+                  "http://www.opengis.net/def/crs/EPSG/0/4979")));
+
+  /** Geographic WGS 84 CRSs whose positions are given longitude first. */
+  private static final Set<String> LON_LAT_SRS_NAMES =
+      Collections.unmodifiableSet(
+          new HashSet<>(
+              Arrays.asList(
+                  "CRS:84",
+                  "CRS84",
+                  "urn:ogc:def:crs:OGC:1.3:CRS84",
+                  "http://www.opengis.net/def/crs/OGC/1.3/CRS84",
+                  "http://www.opengis.net/gml/srs/epsg.xml#4326")));
+
+  private final GeometryFactory geometryFactory = new GeometryFactory();
+
   private Gml3ToWkt gml3ToWkt;
 
+  private double simplifyTolerance = DEFAULT_SIMPLIFY_TOLERANCE;
+
+  private boolean validateGeometry = DEFAULT_VALIDATE_GEOMETRY;
+
   public Ddms20InputTransformer(Gml3ToWkt gml3ToWkt) {
     this.gml3ToWkt = gml3ToWkt;
   }
 
+  /**
+   * @param simplifyTolerance the distance tolerance, in degrees, used to simplify the location. A
+   *     tolerance of 0 leaves the location as it is in the DDMS.
+   */
+  public void setSimplifyTolerance(double simplifyTolerance) {
+    if (simplifyTolerance < 0) {
+      throw new IllegalArgumentException("argument 'simplifyTolerance' may not be negative.");
+    }
+    this.simplifyTolerance = simplifyTolerance;
+  }
+
+  /**
+   * @param validateGeometry whether geometries that are not topologically valid are left out of the
+   *     location and reported as validation errors.
+   */
+  public void setValidateGeometry(boolean validateGeometry) {
+    this.validateGeometry = validateGeometry;
+  }
+
   @Override
   public Metacard transform(InputStream input) throws CatalogTransformerException {
     return transform(input, null);
@@ -96,11 +157,18 @@ public class Ddms20InputTransformer implements InputTransformer {
 
   @Override
   public Metacard transform(InputStream input, String id) throws CatalogTransformerException {
+    return transform(parseDdms(input), id);
+  }
+
+  /**
+   * @param ddms a parsed DDMS resource.
+   * @param id the id of the metacard, or null.
+   * @return the metacard for {@code ddms}.
+   */
+  Metacard transform(DdmsResource ddms, String id) {
     MetacardImpl metacard = new MetacardImpl(DDMS_20_METACARD_TYPE);
     metacard.setId(id);
 
-    DdmsResource ddms = parseDdms(input);
-
     Set<Serializable> tags = new HashSet<>();
     List<Serializable> validationErrors = new ArrayList<>();
 
@@ -114,12 +182,14 @@ public class Ddms20InputTransformer implements InputTransformer {
     metacard.setAttribute(getLanguage(ddms));
     metacard.setAttribute(getDatatype(ddms));
     try {
-      metacard.setAttribute(getLocation(ddms));
+      metacard.setAttribute(getLocation(ddms, validationErrors));
     } catch (ValidationException e) {
       LOGGER.warn("Failed to extract location from DDMS", e);
-      tags.add("INVALID");
       validationErrors.add(e.getMessage());
     }
+    if (!validationErrors.isEmpty()) {
+      tags.add("INVALID");
+    }
 
     // Associated attributes
     metacard.setAttribute(getDerivedAssociations(ddms));
@@ -212,8 +282,10 @@ public class Ddms20InputTransformer implements InputTransformer {
     return new AttributeImpl(Core.TITLE, title);
   }
 
-  private Attribute getLocation(DdmsResource ddms) throws ValidationException {
-    GeometryCollectionBuilder geometryCollectionBuilder = new GeometryCollectionBuilder();
+  private Attribute getLocation(DdmsResource ddms, List<Serializable> validationErrors)
+      throws ValidationException {
+    GeometryCollectionBuilder geometryCollectionBuilder =
+        new GeometryCollectionBuilder(geometryFactory);
     for (GeospatialCoverage geospatialCoverage : ddms.getGeospatialCoverages()) {
       for (BoundingBox boundingBox : geospatialCoverage.getBoundingBoxes()) {
         geometryCollectionBuilder.polygon(
@@ -231,18 +303,116 @@ public class Ddms20InputTransformer implements InputTransformer {
 
       for (BoundingGeometry geometry : geospatialCoverage.getBoundingGeometries()) {
         for (Polygon p : geometry.getPolygons()) {
-          geometryCollectionBuilder.addWkt(gml3ToWkt.convert(p.toString()));
+          try {
+            addPolygon(geometryCollectionBuilder, p);
+          } catch (IllegalArgumentException e) {
+            validationErrors.add("Invalid DDMS polygon: " + e.getMessage());
+          }
         }
 
         for (Point p : geometry.getPoints()) {
-          geometryCollectionBuilder.addWkt(gml3ToWkt.convert(p.toString()));
+          try {
+            addPoint(geometryCollectionBuilder, p);
+          } catch (IllegalArgumentException e) {
+            validationErrors.add("Invalid DDMS point: " + e.getMessage());
+          }
         }
       }
     }
 
+    Geometry location = geometryCollectionBuilder.build();
+    if (location != null && validateGeometry) {
+      location = removeInvalidGeometries(location, validationErrors);
+    }
+    if (location != null && simplifyTolerance > 0) {
+      location = TopologyPreservingSimplifier.simplify(location, simplifyTolerance);
+    }
+
     // Can't return blank string or the Solr Catalog Provider will throw a NullPointerException
-    String location = geometryCollectionBuilder.toString();
-    return (StringUtils.isNotBlank(location)) ? new AttributeImpl(Core.LOCATION, location) : null;
+    return (location != null && !location.isEmpty())
+        ? new AttributeImpl(Core.LOCATION, new WKTWriter().write(location))
+        : null;
+  }
+
+  /**
+   * Builds the polygon directly from its parsed positions when they are in a geographic WGS 84 CRS,
+   * and converts its GML otherwise.
+   */
+  private void addPolygon(GeometryCollectionBuilder geometryCollectionBuilder, Polygon polygon)
+      throws ValidationException {
+    String srsName = polygon.getSrsAttributes().getSrsName();
+    boolean wgs84 =
+        polygon.getExterior().getPositions().stream()
+            .allMatch(
+                position ->
+                    getAxisOrder(position.getSrsAttributes().getSrsName(), srsName) != null);
+    if (!wgs84) {
+      geometryCollectionBuilder.addWkt(gml3ToWkt.convert(polygon.toString()));
+      return;
+    }
+
+    geometryCollectionBuilder.polygon(
+        polygon.getExterior().getPositions().stream()
+            .map(
+                position ->
+                    toCoordinate(
+                        position.getCoordinates(),
+                        getAxisOrder(position.getSrsAttributes().getSrsName(), srsName)))
+            .collect(Collectors.toList()));
+  }
+
+  private void addPoint(GeometryCollectionBuilder geometryCollectionBuilder, Point point)
+      throws ValidationException {
+    AxisOrder axisOrder =
+        getAxisOrder(
+            point.getPosition().getSrsAttributes().getSrsName(),
+            point.getSrsAttributes().getSrsName());
+    if (axisOrder == null) {
+      geometryCollectionBuilder.addWkt(gml3ToWkt.convert(point.toString()));
+      return;
+    }
+
+    geometryCollectionBuilder.add(
+        geometryFactory.createPoint(toCoordinate(point.getPosition().getCoordinates(), axisOrder)));
+  }
+
+  /**
+   * @return the axis order of the positions if their CRS is a geographic WGS 84 CRS, or null if it
+   *     is any other CRS. Positions without a CRS are read in document order.
+   */
+  private static AxisOrder getAxisOrder(String srsName, String parentSrsName) {
+    String name = StringUtils.isNotBlank(srsName) ? srsName : parentSrsName;
+    if (StringUtils.isBlank(name) || LON_LAT_SRS_NAMES.contains(name.trim())) {
+      return AxisOrder.LON_LAT;
+    }
+    return LAT_LON_SRS_NAMES.contains(name.trim()) ? AxisOrder.LAT_LON : null;
+  }
+
+  /** Any height is dropped. */
+  private static Coordinate toCoordinate(List<Double> values, AxisOrder axisOrder) {
+    if (values == null || values.size() < 2) {
+      throw new IllegalArgumentException("A position must have at least 2 coordinates");
+    }
+    return axisOrder == AxisOrder.LAT_LON
+        ? new Coordinate(values.get(1), values.get(0))
+        : new Coordinate(values.get(0), values.get(1));
+  }
+
+  private Geometry removeInvalidGeometries(Geometry location, List<Serializable> validationErrors) {
+    List<Geometry> valid = new ArrayList<>(location.getNumGeometries());
+    for (int i = 0; i < location.getNumGeometries(); i++) {
+      Geometry geometry = location.getGeometryN(i);
+      TopologyValidationError error = new IsValidOp(geometry).getValidationError();
+      if (error == null) {
+        valid.add(geometry);
+      } else {
+        validationErrors.add(
+            String.format("Invalid DDMS %s: %s", geometry.getGeometryType(), error.getMessage()));
+      }
+    }
+    return valid.isEmpty()
+        ? null
+        : geometryFactory.createGeometryCollection(valid.toArray(new Geometry[0]));
   }
 
   private Attribute getResourceUri(DdmsResource ddms) {
@@ -724,4 +894,9 @@ public class Ddms20InputTransformer implements InputTransformer {
         ? Date.from(Instant.from(ddmsDate.toRawTemporalAccessor()))
         : null;
   }
+
+  private enum AxisOrder {
+    LAT_LON,
+    LON_LAT
+  }
 }
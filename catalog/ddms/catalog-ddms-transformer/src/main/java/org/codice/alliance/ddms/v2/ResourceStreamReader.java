@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.ddms.v2;
+
+import java.util.NoSuchElementException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+
+/**
+ * Presents the element that a shared {@link XMLStreamReader} is positioned on as a document of its
+ * own, so that a reader of single documents can consume one element of a larger stream. The
+ * document starts before the element and ends after the element's end tag, leaving the shared
+ * reader on that end tag. Closing this reader does not close the shared reader.
+ */
+class ResourceStreamReader extends StreamReaderDelegate {
+
+  private boolean started;
+
+  private boolean ended;
+
+  private int depth;
+
+  /** @param reader a reader positioned on a start tag. */
+  ResourceStreamReader(XMLStreamReader reader) {
+    super(reader);
+    if (!reader.isStartElement()) {
+      throw new IllegalArgumentException("argument 'reader' must be positioned on a start tag.");
+    }
+  }
+
+  @Override
+  public int getEventType() {
+    if (!started) {
+      return START_DOCUMENT;
+    }
+    return ended ? END_DOCUMENT : super.getEventType();
+  }
+
+  @Override
+  public boolean hasNext() {
+    return !ended;
+  }
+
+  @Override
+  public int next() throws XMLStreamException {
+    if (ended) {
+      throw new NoSuchElementException();
+    }
+    if (!started) {
+      started = true;
+      depth = 1;
+      return START_ELEMENT;
+    }
+    if (depth == 0) {
+      ended = true;
+      return END_DOCUMENT;
+    }
+
+    int event = super.next();
+    if (event == START_ELEMENT) {
+      depth++;
+    } else if (event == END_ELEMENT) {
+      depth--;
+    }
+    return event;
+  }
+
+  @Override
+  public int nextTag() throws XMLStreamException {
+    int event = next();
+    while ((event == CHARACTERS && isWhiteSpace())
+        || (event == CDATA && isWhiteSpace())
+        || event == SPACE
+        || event == PROCESSING_INSTRUCTION
+        || event == COMMENT) {
+      event = next();
+    }
+    if (event != START_ELEMENT && event != END_ELEMENT) {
+      throw new XMLStreamException("expected start or end tag", getLocation());
+    }
+    return event;
+  }
+
+  @Override
+  public String getElementText() throws XMLStreamException {
+    String text = super.getElementText();
+    depth--;
+    return text;
+  }
+
+  @Override
+  public boolean isStartElement() {
+    return getEventType() == START_ELEMENT;
+  }
+
+  @Override
+  public boolean isEndElement() {
+    return getEventType() == END_ELEMENT;
+  }
+
+  @Override
+  public void close() {
+    // The shared reader is closed by its owner.
+  }
+
+  /** Moves the shared reader to the end tag of the element, skipping whatever was not read. */
+  void skipToEnd() throws XMLStreamException {
+    while (!ended && (!started || depth > 0)) {
+      next();
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.ddms.v2;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Removes XML declarations, such as {@code <?xml version="1.0"?>}, wherever they appear in a
+ * stream, so that concatenated documents can be read as the children of one root element. The
+ * stream must use an ASCII compatible encoding such as UTF-8.
+ *
+ * <p>The stream is read into a buffer a block at a time, and bulk reads copy everything up to the
+ * next {@code <} at once; only a {@code <} is examined for a declaration.
+ */
+class XmlDeclarationFilterInputStream extends FilterInputStream {
+
+  private static final byte[] DECLARATION = {'<', '?', 'x', 'm', 'l'};
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+
+  private int position;
+
+  private int limit;
+
+  XmlDeclarationFilterInputStream(InputStream in) {
+    super(in);
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!skipDeclarations()) {
+      return -1;
+    }
+    return buffer[position++] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] bytes, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!skipDeclarations()) {
+      return -1;
+    }
+    int count = nextRunLength(len);
+    System.arraycopy(buffer, position, bytes, off, count);
+    position += count;
+    return count;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = 0;
+    while (skipped < n && skipDeclarations()) {
+      int count = nextRunLength((int) Math.min(n - skipped, Integer.MAX_VALUE));
+      position += count;
+      skipped += count;
+    }
+    return skipped;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return 0;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  /**
+   * @param max the most bytes wanted.
+   * @return the number of buffered bytes, at most {@code max}, before the next {@code <} that
+   *     follows the current position.
+   */
+  private int nextRunLength(int max) {
+    int end = position + Math.min(max, limit - position);
+    int next = position + 1;
+    while (next < end && buffer[next] != '<') {
+      next++;
+    }
+    return next - position;
+  }
+
+  /**
+   * Skips any XML declarations at the current position.
+   *
+   * @return whether a byte that does not start a declaration is buffered, or false at the end of
+   *     the stream.
+   */
+  private boolean skipDeclarations() throws IOException {
+    while (fill(1)) {
+      if (buffer[position] != '<' || !isDeclaration()) {
+        return true;
+      }
+      skipDeclaration();
+    }
+    return false;
+  }
+
+  private boolean isDeclaration() throws IOException {
+    if (!fill(DECLARATION.length + 1)) {
+      return false;
+    }
+    for (int i = 1; i < DECLARATION.length; i++) {
+      if (buffer[position + i] != DECLARATION[i]) {
+        return false;
+      }
+    }
+    return isDeclarationEnd(buffer[position + DECLARATION.length]);
+  }
+
+  private void skipDeclaration() throws IOException {
+    position += DECLARATION.length + 1;
+    int previous = 0;
+    while (fill(1)) {
+      int b = buffer[position++];
+      if (previous == '?' && b == '>') {
+        return;
+      }
+      previous = b;
+    }
+  }
+
+  /**
+   * Reads from the underlying stream until at least {@code n} bytes are buffered.
+   *
+   * @return whether {@code n} bytes are buffered, which is false only at the end of the stream.
+   */
+  private boolean fill(int n) throws IOException {
+    if (limit - position >= n) {
+      return true;
+    }
+    if (position > 0) {
+      System.arraycopy(buffer, position, buffer, 0, limit - position);
+      limit -= position;
+      position = 0;
+    }
+    int read;
+    while (limit < n && (read = in.read(buffer, limit, buffer.length - limit)) >= 0) {
+      limit += read;
+    }
+    return limit >= n;
+  }
+
+  private static boolean isDeclarationEnd(int b) {
+    return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+  }
+}
@@ -13,17 +13,42 @@
  */
 package org.codice.alliance.ddms.wkt;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.commons.lang.StringUtils;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryCollection;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+import org.locationtech.jts.io.WKTWriter;
 
+/**
+ * Collects geometries as JTS objects and writes them out as a single WKT {@code
+ * GEOMETRYCOLLECTION}. Polygon rings that are not closed are closed by repeating their first point.
+ */
 public class GeometryCollectionBuilder {
-  private final StringBuilder stringBuilder;
-  private boolean notEmpty;
+  private final GeometryFactory geometryFactory;
+
+  private final List<Geometry> geometries = new ArrayList<>();
 
   public GeometryCollectionBuilder() {
-    stringBuilder = new StringBuilder();
-    stringBuilder.append("GEOMETRYCOLLECTION (");
+    this(new GeometryFactory());
+  }
+
+  public GeometryCollectionBuilder(GeometryFactory geometryFactory) {
+    if (geometryFactory == null) {
+      throw new IllegalArgumentException(
+          String.format("argument '%s' may not be null.", "geometryFactory"));
+    }
+    this.geometryFactory = geometryFactory;
   }
 
+  /**
+   * @param points the x and y of each point of the exterior ring, in order.
+   * @throws IllegalArgumentException if there is an odd number of values or fewer than 3 points.
+   */
   public GeometryCollectionBuilder polygon(double... points) {
     if (points.length % 2 != 0) {
       throw new IllegalArgumentException("Must have even number of points");
@@ -33,47 +58,73 @@ public class GeometryCollectionBuilder {
       throw new IllegalArgumentException("Must have at least 3 pairs of points");
     }
 
-    if (notEmpty) {
-      stringBuilder.append(", ");
+    List<Coordinate> coordinates = new ArrayList<>(points.length / 2 + 1);
+    for (int i = 0; i < points.length; i += 2) {
+      coordinates.add(new Coordinate(points[i], points[i + 1]));
     }
+    return polygon(coordinates);
+  }
 
-    stringBuilder.append("POLYGON ((");
-
-    for (int i = 0; i < points.length - 1; i++) {
-      stringBuilder.append(points[i]);
+  /**
+   * @param coordinates the points of the exterior ring, in order.
+   * @throws IllegalArgumentException if there are fewer than 3 points.
+   */
+  public GeometryCollectionBuilder polygon(List<Coordinate> coordinates) {
+    if (coordinates.size() < 3) {
+      throw new IllegalArgumentException("Must have at least 3 pairs of points");
+    }
 
-      if (i % 2 != 0) {
-        stringBuilder.append(", ");
-      } else {
-        stringBuilder.append(" ");
-      }
+    Coordinate first = coordinates.get(0);
+    Coordinate last = coordinates.get(coordinates.size() - 1);
+    Coordinate[] ring;
+    if (first.equals2D(last)) {
+      ring = coordinates.toArray(new Coordinate[0]);
+    } else {
+      ring = coordinates.toArray(new Coordinate[coordinates.size() + 1]);
+      ring[coordinates.size()] = new Coordinate(first);
     }
+    return add(geometryFactory.createPolygon(ring));
+  }
 
-    stringBuilder.append(points[points.length - 1]).append("))");
-    notEmpty = true;
+  public GeometryCollectionBuilder point(double x, double y) {
+    return add(geometryFactory.createPoint(new Coordinate(x, y)));
+  }
+
+  public GeometryCollectionBuilder add(Geometry geometry) {
+    if (geometry != null && !geometry.isEmpty()) {
+      geometries.add(geometry);
+    }
     return this;
   }
 
+  /** @throws IllegalArgumentException if {@code wkt} is not valid WKT. */
   public GeometryCollectionBuilder addWkt(String wkt) {
     if (StringUtils.isBlank(wkt)) {
       return this;
     }
 
-    if (notEmpty) {
-      stringBuilder.append(", ");
+    try {
+      return add(new WKTReader(geometryFactory).read(wkt));
+    } catch (ParseException e) {
+      throw new IllegalArgumentException("Invalid WKT: " + wkt, e);
     }
+  }
 
-    stringBuilder.append(wkt);
-    notEmpty = true;
-    return this;
+  public boolean isEmpty() {
+    return geometries.isEmpty();
+  }
+
+  /** @return the collected geometries, or null if none were added. */
+  public GeometryCollection build() {
+    if (geometries.isEmpty()) {
+      return null;
+    }
+    return geometryFactory.createGeometryCollection(geometries.toArray(new Geometry[0]));
   }
 
   @Override
   public String toString() {
-    if (notEmpty) {
-      return stringBuilder.toString() + ")";
-    } else {
-      return "";
-    }
+    GeometryCollection geometryCollection = build();
+    return geometryCollection == null ? "" : new WKTWriter().write(geometryCollection);
   }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.ddms.v2;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.operation.CreateRequest;
+import ddf.catalog.operation.CreateResponse;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import org.codice.ddf.transformer.xml.streaming.impl.Gml3ToWktImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class Ddms20ArchiveIngesterTest {
+
+  private CatalogFramework catalogFramework;
+
+  private Ddms20ArchiveIngester ingester;
+
+  private String ddms;
+
+  @Before
+  public void setUp() throws Exception {
+    catalogFramework = mock(CatalogFramework.class);
+    when(catalogFramework.create(any(CreateRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              CreateRequest request = (CreateRequest) invocation.getArguments()[0];
+              CreateResponse response = mock(CreateResponse.class);
+              when(response.getCreatedMetacards()).thenReturn(request.getMetacards());
+              return response;
+            });
+    ingester =
+        new Ddms20ArchiveIngester(
+            catalogFramework, new Ddms20InputTransformer(Gml3ToWktImpl.newGml3ToWkt()));
+    ddms =
+        new String(
+            Files.readAllBytes(Paths.get(getClass().getResource("/ddms-full.xml").toURI())),
+            StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testIngestCreatesABatchAtATime() throws Exception {
+    ingester.setBatchSize(2);
+
+    long created =
+        ingester.ingest(
+            new ByteArrayInputStream((ddms + ddms + ddms).getBytes(StandardCharsets.UTF_8)));
+
+    assertThat(created, is(3L));
+    ArgumentCaptor<CreateRequest> requests = ArgumentCaptor.forClass(CreateRequest.class);
+    verify(catalogFramework, times(2)).create(requests.capture());
+    List<CreateRequest> batches = requests.getAllValues();
+    assertThat(batches.get(0).getMetacards(), hasSize(2));
+    assertThat(batches.get(1).getMetacards(), hasSize(1));
+  }
+
+  @Test
+  public void testIngestEmptyArchive() throws Exception {
+    long created =
+        ingester.ingest(new ByteArrayInputStream("<archive/>".getBytes(StandardCharsets.UTF_8)));
+
+    assertThat(created, is(0L));
+    verify(catalogFramework, times(0)).create(any(CreateRequest.class));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBatchSize() {
+    ingester.setBatchSize(0);
+  }
+}
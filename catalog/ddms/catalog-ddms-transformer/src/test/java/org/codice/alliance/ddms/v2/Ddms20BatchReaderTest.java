@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.ddms.v2;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.transform.CatalogTransformerException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.codice.ddf.transformer.xml.streaming.impl.Gml3ToWktImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+public class Ddms20BatchReaderTest {
+
+  private static final String DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>";
+
+  private Ddms20InputTransformer transformer;
+
+  private String ddms;
+
+  @Before
+  public void setUp() throws Exception {
+    transformer = new Ddms20InputTransformer(Gml3ToWktImpl.newGml3ToWkt());
+    ddms =
+        new String(
+            Files.readAllBytes(
+                Paths.get(
+                    Thread.currentThread()
+                        .getContextClassLoader()
+                        .getResource("ddms-full.xml")
+                        .toURI())),
+            StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testSingleResource() throws Exception {
+    try (Ddms20BatchReader reader = newReader(ddms, 10)) {
+      List<Metacard> batch = reader.nextBatch();
+      assertThat(batch, hasSize(1));
+      assertThat(batch.get(0).getAttribute(Core.TITLE).getValue(), is("DDMS Title"));
+      assertThat(reader.nextBatch(), is(empty()));
+    }
+  }
+
+  @Test
+  public void testConcatenatedDocuments() throws Exception {
+    try (Ddms20BatchReader reader = newReader(ddms + "\n" + ddms + ddms, 2)) {
+      assertThat(reader.nextBatch(), hasSize(2));
+      assertThat(reader.nextBatch(), hasSize(1));
+      assertThat(reader.nextBatch(), is(empty()));
+      assertThat(reader.getCount(), is(3L));
+    }
+  }
+
+  @Test
+  public void testWrappedDocument() throws Exception {
+    String resource = ddms.substring(ddms.indexOf("<ddms:Resource"));
+    String archive =
+        DECLARATION
+            + "<archive><records><record>"
+            + resource
+            + "</record><record>"
+            + resource
+            + "</record></records></archive>";
+
+    try (Ddms20BatchReader reader = newReader(archive, 10)) {
+      List<Metacard> batch = reader.nextBatch();
+      assertThat(batch, hasSize(2));
+      assertThat(
+          batch.stream().map(Metacard::getLocation).distinct().collect(Collectors.toList()),
+          hasSize(1));
+      assertThat(reader.nextBatch(), is(empty()));
+    }
+  }
+
+  @Test
+  public void testNoResources() throws Exception {
+    try (Ddms20BatchReader reader = newReader(DECLARATION + "<archive/>", 10)) {
+      assertThat(reader.nextBatch(), is(empty()));
+    }
+  }
+
+  @Test(expected = CatalogTransformerException.class)
+  public void testMalformedArchive() throws Exception {
+    try (Ddms20BatchReader reader = newReader(ddms + "<ddms:Resource", 10)) {
+      reader.nextBatch();
+      reader.nextBatch();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBatchSize() throws Exception {
+    newReader(ddms, 0);
+  }
+
+  private Ddms20BatchReader newReader(String archive, int batchSize)
+      throws CatalogTransformerException {
+    return new Ddms20BatchReader(
+        transformer, new ByteArrayInputStream(archive.getBytes(StandardCharsets.UTF_8)), batchSize);
+  }
+}
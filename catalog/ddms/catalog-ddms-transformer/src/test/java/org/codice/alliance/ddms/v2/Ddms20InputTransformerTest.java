@@ -16,6 +16,7 @@ package org.codice.alliance.ddms.v2;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.startsWith;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNot.not;
 import static org.junit.Assert.assertThat;
@@ -28,7 +29,12 @@ import ddf.catalog.data.types.DateTime;
 import ddf.catalog.data.types.Location;
 import ddf.catalog.data.types.Media;
 import ddf.catalog.data.types.Topic;
+import ddf.catalog.data.types.Validation;
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.ZonedDateTime;
 import java.util.Date;
 import org.codice.alliance.catalog.core.api.types.Security;
@@ -62,9 +68,7 @@ public class Ddms20InputTransformerTest {
     // Core attributes
     assertThat(metacard.getAttribute(Core.ID).getValue(), is("0123456789abcdef"));
     assertThat(metacard.getAttribute(Core.TITLE).getValue(), is("DDMS Title"));
-    assertThat(
-        metacard.getLocation(),
-        containsString("POLYGON ((1.0 4.0, 2.0 4.0, 2.0 3.0, 1.0 3.0, 1.0 4.0))"));
+    assertThat(metacard.getLocation(), containsString("POLYGON ((1 4, 2 4, 2 3, 1 3, 1 4))"));
     assertThat(metacard.getLocation(), containsString("POLYGON ((0 0, 0 0, 0 0, 0 0))"));
     assertThat(metacard.getLocation(), containsString("POINT (0 0))"));
     assertThat(
@@ -188,4 +192,69 @@ public class Ddms20InputTransformerTest {
         metacard.getAttribute(Ddms20MetacardType.SUBTITLE).getValues(),
         hasItems("DDMS Subtitle 1", "DDMS Subtitle 2"));
   }
+
+  @Test
+  public void testValidateGeometryRemovesInvalidGeometries() throws Exception {
+    ddms20InputTransformer.setValidateGeometry(true);
+    Metacard metacard =
+        ddms20InputTransformer.transform(loadTestResource("ddms-full.xml"), "0123456789abcdef");
+
+    assertThat(
+        metacard.getLocation(),
+        is("GEOMETRYCOLLECTION (POLYGON ((1 4, 2 4, 2 3, 1 3, 1 4)), POINT (0 0))"));
+    assertThat(metacard.getAttribute(Core.METACARD_TAGS).getValues(), hasItem("INVALID"));
+    assertThat(
+        metacard.getAttribute(Validation.VALIDATION_ERRORS).getValues(),
+        hasItem(startsWith("Invalid DDMS Polygon")));
+  }
+
+  @Test
+  public void testSimplifyTolerance() throws Exception {
+    ddms20InputTransformer.setSimplifyTolerance(0.5);
+    Metacard metacard =
+        ddms20InputTransformer.transform(loadTestResource("ddms-full.xml"), "0123456789abcdef");
+
+    assertThat(metacard.getLocation(), containsString("POLYGON ((1 4, 2 4, 2 3, 1 3, 1 4))"));
+    assertThat(metacard.getLocation(), containsString("POINT (0 0)"));
+  }
+
+  @Test
+  public void testTransformAxisOrder() throws Exception {
+    String boundingGeometry =
+        "<ddms:boundingGeometry>"
+            + "<gml:Polygon srsName=\"urn:ogc:def:crs:EPSG::4326\" gml:id=\"latLonPolygon\">"
+            + "<gml:exterior><gml:LinearRing>"
+            + "<gml:pos>10.0 20.0</gml:pos>"
+            + "<gml:pos>10.0 21.0</gml:pos>"
+            + "<gml:pos>11.0 21.0</gml:pos>"
+            + "<gml:pos>10.0 20.0</gml:pos>"
+            + "</gml:LinearRing></gml:exterior>"
+            + "</gml:Polygon>"
+            + "<gml:Point srsName=\"EPSG:4979\" gml:id=\"latLonPoint\">"
+            + "<gml:pos>40.0 -70.0 1000</gml:pos>"
+            + "</gml:Point>"
+            + "<gml:Point srsName=\"CRS:84\" gml:id=\"lonLatPoint\">"
+            + "<gml:pos>30.0 15.0</gml:pos>"
+            + "</gml:Point>"
+            + "</ddms:boundingGeometry>";
+    String boundingGeometryPattern = "(?s)<ddms:boundingGeometry>.*</ddms:boundingGeometry>";
+    String ddms =
+        new String(
+                Files.readAllBytes(Paths.get(getClass().getResource("/ddms-full.xml").toURI())),
+                StandardCharsets.UTF_8)
+            .replaceFirst(boundingGeometryPattern, boundingGeometry);
+
+    Metacard metacard =
+        ddms20InputTransformer.transform(
+            new ByteArrayInputStream(ddms.getBytes(StandardCharsets.UTF_8)), "0123456789abcdef");
+
+    assertThat(metacard.getLocation(), containsString("POLYGON ((20 10, 21 10, 21 11, 20 10))"));
+    assertThat(metacard.getLocation(), containsString("POINT (-70 40)"));
+    assertThat(metacard.getLocation(), containsString("POINT (30 15)"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeSimplifyTolerance() {
+    ddms20InputTransformer.setSimplifyTolerance(-1);
+  }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.ddms.v2;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+public class XmlDeclarationFilterInputStreamTest {
+
+  private static final String DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>";
+
+  @Test
+  public void testBulkReadRemovesDeclarations() throws Exception {
+    String text = DECLARATION + "<a>one</a>\n" + DECLARATION + "<b>two</b>";
+
+    assertThat(readAll(newStream(text, text.length()), 1024), is("<a>one</a>\n<b>two</b>"));
+  }
+
+  @Test
+  public void testDeclarationsAcrossUnderlyingReads() throws Exception {
+    StringBuilder text = new StringBuilder();
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      text.append(DECLARATION).append("<r>").append(i).append("</r>");
+      expected.append("<r>").append(i).append("</r>");
+    }
+
+    assertThat(readAll(newStream(text.toString(), 3), 7), is(expected.toString()));
+  }
+
+  @Test
+  public void testOtherProcessingInstructionsAreKept() throws Exception {
+    String text = "<?xml-stylesheet href=\"s.xsl\"?><?xmlns ?><a/>";
+
+    assertThat(readAll(newStream(text, text.length()), 1024), is(text));
+  }
+
+  @Test
+  public void testSingleByteReads() throws Exception {
+    InputStream input = newStream(DECLARATION + "<a/>", 2);
+    StringBuilder read = new StringBuilder();
+    int b;
+    while ((b = input.read()) >= 0) {
+      read.append((char) b);
+    }
+
+    assertThat(read.toString(), is("<a/>"));
+  }
+
+  @Test
+  public void testSkip() throws Exception {
+    InputStream input = newStream("<a>" + DECLARATION + "<b/>", 5);
+
+    assertThat(input.skip(5), is(5L));
+    assertThat(readAll(input, 1024), is("/>"));
+  }
+
+  /** @return a filter over {@code text} that reads at most {@code chunk} bytes at a time. */
+  private static InputStream newStream(String text, int chunk) {
+    InputStream chunked =
+        new FilterInputStream(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))) {
+          @Override
+          public int read(byte[] bytes, int off, int len) throws IOException {
+            return super.read(bytes, off, Math.min(len, chunk));
+          }
+        };
+    return new XmlDeclarationFilterInputStream(chunked);
+  }
+
+  private static String readAll(InputStream input, int bufferSize) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    byte[] buffer = new byte[bufferSize];
+    int read;
+    while ((read = input.read(buffer)) >= 0) {
+      output.write(buffer, 0, read);
+    }
+    return new String(output.toByteArray(), StandardCharsets.UTF_8);
+  }
+}
@@ -14,6 +14,7 @@
 package org.codice.alliance.ddms.wkt;
 
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
 import static org.junit.Assert.assertThat;
 
 import org.junit.Test;
@@ -27,7 +28,7 @@ public class GeometryCollectionBuilderTest {
 
     assertThat(
         geometryCollectionBuilder.toString(),
-        is("GEOMETRYCOLLECTION (POLYGON ((0.0 0.0, 3.0 0.0, 3.0 4.0)))"));
+        is("GEOMETRYCOLLECTION (POLYGON ((0 0, 3 0, 3 4, 0 0)))"));
   }
 
   @Test(expected = IllegalArgumentException.class)
@@ -60,7 +61,7 @@ public class GeometryCollectionBuilderTest {
 
     assertThat(
         geometryCollectionBuilder.toString(),
-        is("GEOMETRYCOLLECTION (POLYGON ((0.0 0.0, 1.0 0.0, 1.0 1.0, 0.0 1.0)), POINT (0 0))"));
+        is("GEOMETRYCOLLECTION (POLYGON ((0 0, 1 0, 1 1, 0 1, 0 0)), POINT (0 0))"));
   }
 
   @Test
@@ -73,4 +74,37 @@ public class GeometryCollectionBuilderTest {
 
     assertThat(geometryCollectionBuilder.toString(), is(wkt));
   }
+
+  @Test
+  public void testClosedPolygonIsNotClosedAgain() {
+    GeometryCollectionBuilder geometryCollectionBuilder = new GeometryCollectionBuilder();
+    geometryCollectionBuilder.polygon(1.0, 4.0, 2.0, 4.0, 2.0, 3.0, 1.0, 3.0, 1.0, 4.0);
+
+    assertThat(
+        geometryCollectionBuilder.toString(),
+        is("GEOMETRYCOLLECTION (POLYGON ((1 4, 2 4, 2 3, 1 3, 1 4)))"));
+  }
+
+  @Test
+  public void testPoint() {
+    GeometryCollectionBuilder geometryCollectionBuilder = new GeometryCollectionBuilder();
+    geometryCollectionBuilder.point(1.5, -2.25);
+
+    assertThat(geometryCollectionBuilder.toString(), is("GEOMETRYCOLLECTION (POINT (1.5 -2.25))"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddInvalidWkt() {
+    GeometryCollectionBuilder geometryCollectionBuilder = new GeometryCollectionBuilder();
+    geometryCollectionBuilder.addWkt("POLYGON ((0 0, 1 1");
+  }
+
+  @Test
+  public void testEmpty() {
+    GeometryCollectionBuilder geometryCollectionBuilder = new GeometryCollectionBuilder();
+
+    assertThat(geometryCollectionBuilder.isEmpty(), is(true));
+    assertThat(geometryCollectionBuilder.build(), is(nullValue()));
+    assertThat(geometryCollectionBuilder.toString(), is(""));
+  }
 }
@@ -16,6 +16,8 @@ package org.codice.alliance.imaging.nitf.api;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
 import org.codice.imaging.nitf.core.common.NitfFormatException;
 import org.codice.imaging.nitf.fluent.NitfSegmentsFlow;
 
@@ -41,6 +43,24 @@ public interface NitfParserService {
   NitfSegmentsFlow parseNitf(File nitfFile, Boolean allData)
       throws NitfFormatException, FileNotFoundException;
 
+  /**
+   * @param channel a seekable channel positioned at the start of the NITF to be parsed. The channel
+   *     is not closed by this call.
+   * @param allData if 'true', then image data will be included in the parsed result. If 'false',
+   *     then the segment data is skipped by moving the channel position, so only the headers and
+   *     subheaders are read. Implementations that can't seek read the channel as a stream.
+   * @return a NitfSegmentsFlow object containing the parsed NITF data.
+   * @throws NitfFormatException when 'channel' can't be successfully parsed.
+   */
+  default NitfSegmentsFlow parseNitf(SeekableByteChannel channel, Boolean allData)
+      throws NitfFormatException {
+    if (channel == null) {
+      throw new IllegalArgumentException("method argument 'channel' may not be null.");
+    }
+
+    return parseNitf(Channels.newInputStream(channel), allData);
+  }
+
   /**
    * @param nitfSegmentsFlow - the NitfSegmentsFlow object to end. This method call will delete any
    *     temp files created by this route.
@@ -16,6 +16,7 @@ package org.codice.alliance.imaging.nitf.impl;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.util.Optional;
 import org.codice.alliance.imaging.nitf.api.NitfParserService;
 import org.codice.imaging.nitf.core.common.NitfFormatException;
@@ -39,6 +40,25 @@ public class NitfParserServiceImpl implements NitfParserService {
     return new NitfParserInputFlowImpl().inputStream(inputStream).headerOnly();
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public NitfSegmentsFlow parseNitf(SeekableByteChannel channel, Boolean allData)
+      throws NitfFormatException {
+    if (channel == null) {
+      throw new IllegalArgumentException("method argument 'channel' may not be null.");
+    }
+
+    if (allData != null && allData) {
+      return new NitfParserInputFlowImpl()
+          .inputStream(new SeekableChannelInputStream(channel))
+          .allData();
+    }
+
+    return new NitfParserInputFlowImpl()
+        .inputStream(new SeekableChannelInputStream(channel))
+        .headerOnly();
+  }
+
   /** {@inheritDoc} */
   @Override
   public NitfSegmentsFlow parseNitf(File nitfFile, Boolean allData)
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.imaging.nitf.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * An InputStream over a SeekableByteChannel whose {@link #skip(long)} moves the channel position
+ * instead of reading the skipped bytes. The header-only parse skips the image, graphic, text and
+ * DES data by the lengths in the file header, so only the headers and subheaders are read.
+ *
+ * <p>The channel belongs to the caller and is not closed by {@link #close()}.
+ */
+class SeekableChannelInputStream extends InputStream {
+
+  private final SeekableByteChannel channel;
+
+  private final ByteBuffer single = ByteBuffer.allocate(1);
+
+  private long bytesRead;
+
+  private long bytesSkipped;
+
+  SeekableChannelInputStream(SeekableByteChannel channel) {
+    this.channel = channel;
+  }
+
+  @Override
+  public int read() throws IOException {
+    single.clear();
+    int count;
+    do {
+      count = channel.read(single);
+    } while (count == 0);
+    if (count < 0) {
+      return -1;
+    }
+    bytesRead++;
+    return single.get(0) & 0xff;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    int count = channel.read(ByteBuffer.wrap(b, off, len));
+    if (count > 0) {
+      bytesRead += count;
+    }
+    return count;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    if (n <= 0) {
+      return 0;
+    }
+    long position = channel.position();
+    long skipped = Math.min(n, Math.max(0, channel.size() - position));
+    channel.position(position + skipped);
+    bytesSkipped += skipped;
+    return skipped;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return (int) Math.min(Integer.MAX_VALUE, Math.max(0, channel.size() - channel.position()));
+  }
+
+  @Override
+  public void close() {
+    // the channel is owned by the caller
+  }
+
+  /** @return the number of bytes that were read from the channel. */
+  long getBytesRead() {
+    return bytesRead;
+  }
+
+  /** @return the number of bytes that were skipped by moving the channel position. */
+  long getBytesSkipped() {
+    return bytesSkipped;
+  }
+}
@@ -14,21 +14,34 @@
 package org.codice.alliance.imaging.nitf.impl;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import org.codice.alliance.imaging.nitf.api.NitfParserService;
 import org.codice.imaging.nitf.core.common.NitfFormatException;
 import org.codice.imaging.nitf.fluent.NitfSegmentsFlow;
+import org.codice.imaging.nitf.fluent.impl.NitfParserInputFlowImpl;
 import org.hamcrest.CoreMatchers;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.hamcrest.core.Is;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class NitfParserServiceTest {
   private static final String GEO_NITF = "/i_3001a.ntf";
 
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   private NitfParserService nitfParserAdapter = null;
 
   @Before
@@ -46,6 +59,89 @@ public class NitfParserServiceTest {
     this.nitfParserAdapter.parseNitf((File) null, null);
   }
 
+  @Test(expected = IllegalArgumentException.class)
+  public void testParseNitfNullChannel() throws NitfFormatException {
+    this.nitfParserAdapter.parseNitf((SeekableByteChannel) null, null);
+  }
+
+  @Test
+  public void testParseNitfHeadersOnlyFromChannel() throws IOException, NitfFormatException {
+    try (FileChannel channel = openChannel(getFile(GEO_NITF))) {
+      NitfSegmentsFlow nitfSegmentsFlow = this.nitfParserAdapter.parseNitf(channel, false);
+      MatcherAssert.assertThat(nitfSegmentsFlow, Is.is(CoreMatchers.notNullValue()));
+    }
+  }
+
+  @Test
+  public void testParseNitfAllDataFromChannel() throws IOException, NitfFormatException {
+    try (FileChannel channel = openChannel(getFile(GEO_NITF))) {
+      NitfSegmentsFlow nitfSegmentsFlow = this.nitfParserAdapter.parseNitf(channel, true);
+      MatcherAssert.assertThat(nitfSegmentsFlow, Is.is(CoreMatchers.notNullValue()));
+    }
+  }
+
+  @Test
+  public void testDefaultChannelParseReadsTheChannelAsAStream()
+      throws IOException, NitfFormatException {
+    NitfParserService streamOnlyService =
+        new NitfParserService() {
+          @Override
+          public NitfSegmentsFlow parseNitf(InputStream inputStream, Boolean allData)
+              throws NitfFormatException {
+            return nitfParserAdapter.parseNitf(inputStream, allData);
+          }
+
+          @Override
+          public NitfSegmentsFlow parseNitf(File nitfFile, Boolean allData)
+              throws NitfFormatException, FileNotFoundException {
+            return nitfParserAdapter.parseNitf(nitfFile, allData);
+          }
+
+          @Override
+          public void endNitfSegmentsFlow(NitfSegmentsFlow nitfSegmentsFlow) {
+            nitfParserAdapter.endNitfSegmentsFlow(nitfSegmentsFlow);
+          }
+        };
+
+    try (FileChannel channel = openChannel(getFile(GEO_NITF))) {
+      NitfSegmentsFlow nitfSegmentsFlow = streamOnlyService.parseNitf(channel, false);
+      MatcherAssert.assertThat(nitfSegmentsFlow, Is.is(CoreMatchers.notNullValue()));
+    }
+  }
+
+  @Test
+  public void testParseNitfHeadersOnlyFromFileInputStream()
+      throws IOException, NitfFormatException {
+    try (FileInputStream is = new FileInputStream(getFile(GEO_NITF))) {
+      NitfSegmentsFlow nitfSegmentsFlow = this.nitfParserAdapter.parseNitf(is, false);
+      MatcherAssert.assertThat(nitfSegmentsFlow, Is.is(CoreMatchers.notNullValue()));
+    }
+  }
+
+  @Test
+  public void testHeadersOnlyParseSkipsSegmentData() throws IOException, NitfFormatException {
+    File file = getFile(GEO_NITF);
+    try (FileChannel channel = openChannel(file)) {
+      SeekableChannelInputStream is = new SeekableChannelInputStream(channel);
+      new NitfParserInputFlowImpl().inputStream(is).headerOnly();
+
+      MatcherAssert.assertThat(is.getBytesSkipped(), Matchers.greaterThan(0L));
+      MatcherAssert.assertThat(is.getBytesRead(), Matchers.lessThan(file.length()));
+    }
+  }
+
+  @Test
+  public void testSkipStopsAtEndOfChannel() throws IOException {
+    File file = getFile(GEO_NITF);
+    try (FileChannel channel = openChannel(file)) {
+      SeekableChannelInputStream is = new SeekableChannelInputStream(channel);
+
+      MatcherAssert.assertThat(is.skip(file.length() + 10), Is.is(file.length()));
+      MatcherAssert.assertThat(is.read(), Is.is(-1));
+      MatcherAssert.assertThat(is.getBytesRead(), Is.is(0L));
+    }
+  }
+
   @Test
   public void testParseNitfHeadersOnly() throws NitfFormatException {
     InputStream is = getInputStream(GEO_NITF);
@@ -60,6 +156,18 @@ public class NitfParserServiceTest {
     MatcherAssert.assertThat(nitfSegmentsFlow, Is.is(CoreMatchers.notNullValue()));
   }
 
+  private FileChannel openChannel(File file) throws IOException {
+    return FileChannel.open(file.toPath(), StandardOpenOption.READ);
+  }
+
+  private File getFile(String filename) throws IOException {
+    File file = temporaryFolder.newFile();
+    try (InputStream is = getInputStream(filename)) {
+      Files.copy(is, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+    return file;
+  }
+
   private InputStream getInputStream(String filename) {
     Assert.assertNotNull("Test file missing", getClass().getResource(filename));
     return getClass().getResourceAsStream(filename);
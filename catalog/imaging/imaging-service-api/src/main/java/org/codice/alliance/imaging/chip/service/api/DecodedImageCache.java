@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.imaging.chip.service.api;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.types.Core;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.util.Date;
+
+/**
+ * A cache of decoded images shared by the imaging transformers, so that an image decoded for one
+ * transformer is not decoded again by another. Images are keyed by source id, metacard id and
+ * qualifier, and remember the modified date of the metacard they were decoded for. A lookup with a
+ * newer modified date treats the cached image as stale.
+ *
+ * <p>The cache does not check access to the images it holds. Callers must retrieve the resource
+ * through the catalog framework before serving a cached image.
+ */
+public interface DecodedImageCache {
+
+  /**
+   * Adds the image to the cache, replacing any image previously cached under the same key.
+   *
+   * @param sourceId the id of the source the metacard came from. May be null.
+   * @param metacardId the id of the metacard the image belongs to.
+   * @param qualifier the resource qualifier the image was retrieved with.
+   * @param modified the modified time of the metacard, in milliseconds.
+   * @param image the decoded image.
+   */
+  void put(
+      String sourceId, String metacardId, String qualifier, long modified, BufferedImage image);
+
+  /**
+   * @param sourceId the id of the source the metacard came from. May be null.
+   * @param metacardId the id of the metacard the image belongs to.
+   * @param qualifier the resource qualifier the image was retrieved with.
+   * @param modified the current modified time of the metacard, in milliseconds.
+   * @return the width and height of the cached image, or null if it is not cached or is older than
+   *     {@code modified}.
+   */
+  Dimension getSize(String sourceId, String metacardId, String qualifier, long modified);
+
+  /**
+   * @param sourceId the id of the source the metacard came from. May be null.
+   * @param metacardId the id of the metacard the image belongs to.
+   * @param qualifier the resource qualifier the image was retrieved with.
+   * @param modified the current modified time of the metacard, in milliseconds.
+   * @return the cached image, or null if it is not cached or is older than {@code modified}.
+   */
+  BufferedImage get(String sourceId, String metacardId, String qualifier, long modified);
+
+  /**
+   * @param sourceId the id of the source the metacard came from. May be null.
+   * @param metacardId the id of the metacard the image belongs to.
+   * @param qualifier the resource qualifier the image was retrieved with.
+   * @param modified the current modified time of the metacard, in milliseconds.
+   * @param x the x coordinate of the top left corner of the region.
+   * @param y the y coordinate of the top left corner of the region.
+   * @param w the width of the region.
+   * @param h the height of the region.
+   * @return the requested region of the cached image, clipped to the bounds of the image, or null
+   *     if it is not cached or is older than {@code modified}.
+   */
+  BufferedImage getRegion(
+      String sourceId,
+      String metacardId,
+      String qualifier,
+      long modified,
+      int x,
+      int y,
+      int w,
+      int h);
+
+  /**
+   * Removes every cached image of the metacard, regardless of source and qualifier.
+   *
+   * @param metacardId the id of the metacard to invalidate.
+   */
+  void invalidate(String metacardId);
+
+  long getHitCount();
+
+  long getDiskHitCount();
+
+  long getMissCount();
+
+  /** @return the ratio of image lookups served from the cache, or 0 if there were no lookups. */
+  double getHitRate();
+
+  /**
+   * @param metacard the metacard an image was retrieved for.
+   * @return the modified time that images of the metacard are cached with, in milliseconds. This is
+   *     the metacard modified date, falling back to the resource modified date, or 0 when the
+   *     metacard has neither.
+   */
+  static long getModified(Metacard metacard) {
+    for (String name : new String[] {Core.METACARD_MODIFIED, Core.MODIFIED}) {
+      Attribute attribute = metacard.getAttribute(name);
+      if (attribute != null && attribute.getValue() instanceof Date) {
+        return ((Date) attribute.getValue()).getTime();
+      }
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.imaging.chip.service.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The local directory that a cache writes its entries to. A directory created by {@link
+ * #createTemporary(String)} belongs to the cache, and {@link #delete()} removes it along with
+ * anything left in it.
+ */
+public class CacheDirectory {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CacheDirectory.class);
+
+  private final File directory;
+
+  private final boolean temporary;
+
+  /** @param directory an existing directory that is not deleted by {@link #delete()}. */
+  public CacheDirectory(File directory) {
+    this(directory, false);
+  }
+
+  private CacheDirectory(File directory, boolean temporary) {
+    if (directory == null) {
+      throw new IllegalArgumentException("argument 'directory' may not be null.");
+    }
+    this.directory = directory;
+    this.temporary = temporary;
+  }
+
+  /**
+   * @param prefix the prefix of the directory name.
+   * @return a new temporary directory that is removed by {@link #delete()}.
+   * @throws IOException when the directory can't be created.
+   */
+  public static CacheDirectory createTemporary(String prefix) throws IOException {
+    return new CacheDirectory(Files.createTempDirectory(prefix).toFile(), true);
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+
+  /**
+   * @param prefix the prefix of the file name.
+   * @return a new, empty file in the directory.
+   * @throws IOException when the file can't be created.
+   */
+  public File createFile(String prefix) throws IOException {
+    if (!directory.exists() && !directory.mkdirs()) {
+      throw new IOException("unable to create directory " + directory);
+    }
+    return File.createTempFile(prefix, ".bin", directory);
+  }
+
+  /** @param file a file previously returned by {@link #createFile(String)}. */
+  public void deleteFile(File file) {
+    try {
+      Files.deleteIfExists(file.toPath());
+    } catch (IOException e) {
+      LOGGER.debug("Unable to delete cache file {}.", file, e);
+    }
+  }
+
+  /** Deletes the directory and its contents if it was created by this class. */
+  public void delete() {
+    if (!temporary || !directory.exists()) {
+      return;
+    }
+
+    try (Stream<Path> paths = Files.walk(directory.toPath())) {
+      paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(this::deleteFile);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to delete cache directory {}.", directory, e);
+    }
+  }
+}
@@ -0,0 +1,750 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.imaging.chip.service.impl;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import org.codice.alliance.imaging.chip.service.api.DecodedImageCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded, two-tier LRU cache of decoded image tiles. Images are split into square tiles keyed by
+ * source id, metacard id, qualifier and tile coordinate. Tiles are held on the heap until the
+ * memory limit is reached, after which the least recently used tiles are spilled to a local
+ * directory. Tiles that fall out of the disk tier are discarded, and the image they belong to is
+ * treated as a miss.
+ *
+ * <p>Each cached image remembers the modified date of the metacard it was decoded for, so a lookup
+ * with a newer modified date invalidates the stale tiles.
+ *
+ * <p>The lock only guards the bookkeeping of the two tiers. Tiles are split, copied, written and
+ * read outside of it, so a slow disk does not hold up lookups of other images.
+ */
+public class DecodedTileCache implements DecodedImageCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DecodedTileCache.class);
+
+  private static final long MEGABYTE = 1024L * 1024L;
+
+  private static final int DEFAULT_TILE_SIZE = 512;
+
+  private static final long DEFAULT_MAX_MEMORY_MB = 256;
+
+  private static final long DEFAULT_MAX_DISK_MB = 2048;
+
+  private final Object lock = new Object();
+
+  private final CacheDirectory directory;
+
+  private volatile int tileSize;
+
+  private volatile long maxMemoryBytes;
+
+  private volatile long maxDiskBytes;
+
+  private final Map<ImageKey, CachedImage> images = new HashMap<>();
+
+  private final LinkedHashMap<TileKey, WritableRaster> memoryTiles =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  private final Map<TileKey, WritableRaster> spillingTiles = new HashMap<>();
+
+  private final LinkedHashMap<TileKey, DiskTile> diskTiles = new LinkedHashMap<>(16, 0.75f, true);
+
+  private long memoryBytes;
+
+  private long diskBytes;
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong diskHits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  private final AtomicLong evictions = new AtomicLong();
+
+  private final AtomicLong invalidations = new AtomicLong();
+
+  public DecodedTileCache() throws IOException {
+    this(
+        DEFAULT_TILE_SIZE,
+        DEFAULT_MAX_MEMORY_MB * MEGABYTE,
+        DEFAULT_MAX_DISK_MB * MEGABYTE,
+        CacheDirectory.createTemporary("chip-tile-cache-"));
+  }
+
+  /**
+   * @param tileSize the width and height, in pixels, of each cached tile. Must be greater than 0.
+   * @param maxMemoryBytes the maximum number of raster bytes held on the heap.
+   * @param maxDiskBytes the maximum number of bytes spilled to {@code directory}. A value of 0
+   *     disables the disk tier.
+   * @param directory the directory that spilled tiles are written to.
+   */
+  public DecodedTileCache(int tileSize, long maxMemoryBytes, long maxDiskBytes, File directory) {
+    this(tileSize, maxMemoryBytes, maxDiskBytes, new CacheDirectory(directory));
+  }
+
+  private DecodedTileCache(
+      int tileSize, long maxMemoryBytes, long maxDiskBytes, CacheDirectory directory) {
+    setTileSize(tileSize);
+    this.maxMemoryBytes = maxMemoryBytes;
+    this.maxDiskBytes = maxDiskBytes;
+    this.directory = directory;
+  }
+
+  /**
+   * Sets the size of the tiles that images added from now on are split into. Images already in the
+   * cache keep their tile size.
+   *
+   * @param tileSize the width and height, in pixels, of each cached tile. Must be greater than 0.
+   */
+  public void setTileSize(int tileSize) {
+    if (tileSize <= 0) {
+      throw new IllegalArgumentException("argument 'tileSize' must be greater than 0.");
+    }
+    this.tileSize = tileSize;
+  }
+
+  /** @param maxMemoryMB the maximum number of megabytes of raster data held on the heap. */
+  public void setMaxMemoryMB(long maxMemoryMB) {
+    this.maxMemoryBytes = maxMemoryMB * MEGABYTE;
+  }
+
+  /**
+   * @param maxDiskMB the maximum number of megabytes spilled to disk. A value of 0 disables the
+   *     disk tier.
+   */
+  public void setMaxDiskMB(long maxDiskMB) {
+    this.maxDiskBytes = maxDiskMB * MEGABYTE;
+  }
+
+  /**
+   * Splits the image into tiles and adds them to the cache, replacing any tiles previously cached
+   * for the same image.
+   *
+   * @param sourceId the id of the source the metacard came from. May be null.
+   * @param metacardId the id of the metacard the image belongs to.
+   * @param qualifier the resource qualifier the image was retrieved with.
+   * @param modified the modified time of the metacard, in milliseconds.
+   * @param image the decoded image.
+   */
+  @Override
+  public void put(
+      String sourceId, String metacardId, String qualifier, long modified, BufferedImage image) {
+    validateNotNull(metacardId, "metacardId");
+    validateNotNull(qualifier, "qualifier");
+    validateNotNull(image, "image");
+
+    ImageKey imageKey = new ImageKey(sourceId, metacardId, qualifier);
+
+    WritableRaster source = image.getRaster();
+    CachedImage cachedImage =
+        new CachedImage(
+            modified,
+            tileSize,
+            image.getWidth(),
+            image.getHeight(),
+            image.getColorModel(),
+            source.createCompatibleWritableRaster(1, 1));
+
+    Map<TileKey, WritableRaster> tiles = new LinkedHashMap<>();
+    for (int row = 0; row < cachedImage.rows(); row++) {
+      for (int column = 0; column < cachedImage.columns(); column++) {
+        Rectangle bounds = cachedImage.tileBounds(column, row);
+        WritableRaster tile = cachedImage.createRaster(bounds.width, bounds.height);
+        tile.setRect(
+            source.createChild(
+                source.getMinX() + bounds.x,
+                source.getMinY() + bounds.y,
+                bounds.width,
+                bounds.height,
+                0,
+                0,
+                null));
+        tiles.put(new TileKey(imageKey, column, row), tile);
+      }
+    }
+
+    List<File> orphanedFiles = new ArrayList<>();
+    List<Map.Entry<TileKey, WritableRaster>> evictedTiles = new ArrayList<>();
+    synchronized (lock) {
+      remove(imageKey, orphanedFiles);
+      images.put(imageKey, cachedImage);
+      tiles.forEach((key, tile) -> addToMemory(key, tile, evictedTiles));
+    }
+
+    orphanedFiles.forEach(directory::deleteFile);
+    spillToDisk(evictedTiles);
+  }
+
+  /**
+   * @param sourceId the id of the source the metacard came from. May be null.
+   * @param metacardId the id of the metacard the image belongs to.
+   * @param qualifier the resource qualifier the image was retrieved with.
+   * @param modified the current modified time of the metacard, in milliseconds.
+   * @return the width and height of the cached image, or null if it is not cached or the cached
+   *     tiles are older than {@code modified}.
+   */
+  @Override
+  public Dimension getSize(String sourceId, String metacardId, String qualifier, long modified) {
+    CachedImage cachedImage =
+        getCachedImage(new ImageKey(sourceId, metacardId, qualifier), modified);
+    return cachedImage == null ? null : new Dimension(cachedImage.width, cachedImage.height);
+  }
+
+  /**
+   * @param sourceId the id of the source the metacard came from. May be null.
+   * @param metacardId the id of the metacard the image belongs to.
+   * @param qualifier the resource qualifier the image was retrieved with.
+   * @param modified the current modified time of the metacard, in milliseconds.
+   * @return the full image assembled from cached tiles, or null if any tile is missing or the
+   *     cached tiles are older than {@code modified}.
+   */
+  @Override
+  public BufferedImage get(String sourceId, String metacardId, String qualifier, long modified) {
+    return getRegion(sourceId, metacardId, qualifier, modified, null);
+  }
+
+  /**
+   * @param sourceId the id of the source the metacard came from. May be null.
+   * @param metacardId the id of the metacard the image belongs to.
+   * @param qualifier the resource qualifier the image was retrieved with.
+   * @param modified the current modified time of the metacard, in milliseconds.
+   * @param x the x coordinate of the top left corner of the region.
+   * @param y the y coordinate of the top left corner of the region.
+   * @param w the width of the region.
+   * @param h the height of the region.
+   * @return the requested region assembled from only the tiles it overlaps, or null if any of those
+   *     tiles is missing or stale. The region is clipped to the bounds of the image.
+   */
+  @Override
+  public BufferedImage getRegion(
+      String sourceId,
+      String metacardId,
+      String qualifier,
+      long modified,
+      int x,
+      int y,
+      int w,
+      int h) {
+    return getRegion(sourceId, metacardId, qualifier, modified, new Rectangle(x, y, w, h));
+  }
+
+  private BufferedImage getRegion(
+      String sourceId, String metacardId, String qualifier, long modified, Rectangle requested) {
+    ImageKey imageKey = new ImageKey(sourceId, metacardId, qualifier);
+    CachedImage cachedImage = getCachedImage(imageKey, modified);
+
+    if (cachedImage == null) {
+      misses.incrementAndGet();
+      return null;
+    }
+
+    Rectangle bounds = new Rectangle(0, 0, cachedImage.width, cachedImage.height);
+    Rectangle region = requested == null ? bounds : requested.intersection(bounds);
+
+    if (region.isEmpty()) {
+      misses.incrementAndGet();
+      return null;
+    }
+
+    WritableRaster raster = cachedImage.createRaster(region.width, region.height);
+
+    int firstColumn = region.x / cachedImage.tileSize;
+    int lastColumn = (region.x + region.width - 1) / cachedImage.tileSize;
+    int firstRow = region.y / cachedImage.tileSize;
+    int lastRow = (region.y + region.height - 1) / cachedImage.tileSize;
+
+    for (int row = firstRow; row <= lastRow; row++) {
+      for (int column = firstColumn; column <= lastColumn; column++) {
+        Raster tile = getTile(new TileKey(imageKey, column, row), cachedImage);
+        if (tile == null) {
+          LOGGER.debug(
+              "Tile {},{} for metacard {} ({}) is no longer cached.",
+              column,
+              row,
+              metacardId,
+              qualifier);
+          removeIfCurrent(imageKey, cachedImage);
+          misses.incrementAndGet();
+          return null;
+        }
+        copyOverlap(cachedImage.tileBounds(column, row), tile, region, raster);
+      }
+    }
+
+    hits.incrementAndGet();
+    return new BufferedImage(
+        cachedImage.colorModel, raster, cachedImage.colorModel.isAlphaPremultiplied(), null);
+  }
+
+  /**
+   * Removes every cached tile for the metacard, regardless of source and qualifier.
+   *
+   * @param metacardId the id of the metacard to invalidate.
+   */
+  @Override
+  public void invalidate(String metacardId) {
+    List<File> orphanedFiles = new ArrayList<>();
+    boolean removed = false;
+
+    synchronized (lock) {
+      for (ImageKey key : new ArrayList<>(images.keySet())) {
+        if (key.metacardId.equals(metacardId)) {
+          remove(key, orphanedFiles);
+          removed = true;
+        }
+      }
+    }
+
+    orphanedFiles.forEach(directory::deleteFile);
+
+    if (removed) {
+      invalidations.incrementAndGet();
+    }
+  }
+
+  /** Removes every tile from the memory and disk tiers. */
+  public void clear() {
+    List<File> orphanedFiles = new ArrayList<>();
+    synchronized (lock) {
+      new ArrayList<>(images.keySet()).forEach(key -> remove(key, orphanedFiles));
+    }
+    orphanedFiles.forEach(directory::deleteFile);
+  }
+
+  /** Removes every tile and deletes the directory the cache created for spilled tiles. */
+  public void destroy() {
+    clear();
+    directory.delete();
+  }
+
+  @Override
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  @Override
+  public long getDiskHitCount() {
+    return diskHits.get();
+  }
+
+  @Override
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  public long getEvictionCount() {
+    return evictions.get();
+  }
+
+  public long getInvalidationCount() {
+    return invalidations.get();
+  }
+
+  /** @return the ratio of image lookups served from the cache, or 0 if there were no lookups. */
+  @Override
+  public double getHitRate() {
+    long hitCount = hits.get();
+    long total = hitCount + misses.get();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  public long getMemoryBytes() {
+    synchronized (lock) {
+      return memoryBytes;
+    }
+  }
+
+  public long getDiskBytes() {
+    synchronized (lock) {
+      return diskBytes;
+    }
+  }
+
+  private CachedImage getCachedImage(ImageKey imageKey, long modified) {
+    validateNotNull(imageKey.metacardId, "metacardId");
+    validateNotNull(imageKey.qualifier, "qualifier");
+
+    List<File> orphanedFiles = new ArrayList<>();
+    synchronized (lock) {
+      CachedImage cachedImage = images.get(imageKey);
+      if (cachedImage == null || cachedImage.modified == modified) {
+        return cachedImage;
+      }
+      LOGGER.debug(
+          "Discarding stale tiles for metacard {} ({}).", imageKey.metacardId, imageKey.qualifier);
+      remove(imageKey, orphanedFiles);
+    }
+
+    orphanedFiles.forEach(directory::deleteFile);
+    invalidations.incrementAndGet();
+    return null;
+  }
+
+  /**
+   * Copies the part of the tile that overlaps the region. The source is narrowed to the overlap
+   * first because some rasters ignore negative offsets when clipping in {@code setRect}.
+   */
+  private void copyOverlap(
+      Rectangle tileBounds, Raster tile, Rectangle region, WritableRaster destination) {
+    Rectangle overlap = tileBounds.intersection(region);
+    destination.setRect(
+        overlap.x - region.x,
+        overlap.y - region.y,
+        tile.createChild(
+            overlap.x - tileBounds.x,
+            overlap.y - tileBounds.y,
+            overlap.width,
+            overlap.height,
+            0,
+            0,
+            null));
+  }
+
+  private Raster getTile(TileKey key, CachedImage cachedImage) {
+    DiskTile diskTile;
+    synchronized (lock) {
+      WritableRaster tile = memoryTiles.get(key);
+      if (tile == null) {
+        tile = spillingTiles.get(key);
+      }
+      if (tile != null) {
+        return tile;
+      }
+
+      diskTile = diskTiles.remove(key);
+      if (diskTile == null) {
+        return null;
+      }
+      diskBytes -= diskTile.size;
+    }
+
+    WritableRaster tile;
+    try {
+      tile = readTile(diskTile.file, cachedImage);
+    } catch (IOException | ClassNotFoundException | RuntimeException e) {
+      LOGGER.debug("Unable to read cached tile from {}.", diskTile.file, e);
+      return null;
+    } finally {
+      directory.deleteFile(diskTile.file);
+    }
+
+    diskHits.incrementAndGet();
+
+    List<Map.Entry<TileKey, WritableRaster>> evictedTiles = new ArrayList<>();
+    synchronized (lock) {
+      if (images.get(key.imageKey) == cachedImage) {
+        addToMemory(key, tile, evictedTiles);
+      }
+    }
+    spillToDisk(evictedTiles);
+
+    return tile;
+  }
+
+  /** Must be called while holding the lock. Evicted tiles are handed to the caller to spill. */
+  private void addToMemory(
+      TileKey key, WritableRaster tile, List<Map.Entry<TileKey, WritableRaster>> evictedTiles) {
+    memoryTiles.put(key, tile);
+    memoryBytes += sizeOf(tile);
+
+    Iterator<Map.Entry<TileKey, WritableRaster>> iterator = memoryTiles.entrySet().iterator();
+    while (memoryBytes > maxMemoryBytes && iterator.hasNext()) {
+      Map.Entry<TileKey, WritableRaster> eldest = iterator.next();
+      if (eldest.getKey().equals(key)) {
+        continue;
+      }
+      iterator.remove();
+      memoryBytes -= sizeOf(eldest.getValue());
+      evictions.incrementAndGet();
+      if (maxDiskBytes > 0) {
+        spillingTiles.put(eldest.getKey(), eldest.getValue());
+        evictedTiles.add(new AbstractMap.SimpleImmutableEntry<>(eldest));
+      }
+    }
+  }
+
+  /**
+   * Writes evicted tiles to disk without holding the lock. Until a tile is written it is still
+   * served from memory, and a tile whose image was removed in the meantime is discarded.
+   */
+  private void spillToDisk(List<Map.Entry<TileKey, WritableRaster>> evictedTiles) {
+    for (Map.Entry<TileKey, WritableRaster> evicted : evictedTiles) {
+      File file = null;
+      try {
+        file = writeTile(evicted.getValue());
+      } catch (IOException e) {
+        LOGGER.debug("Unable to spill tile to {}.", directory.getDirectory(), e);
+      }
+
+      List<File> orphanedFiles = new ArrayList<>();
+      synchronized (lock) {
+        boolean current = spillingTiles.remove(evicted.getKey(), evicted.getValue());
+        if (file != null && current) {
+          addToDisk(evicted.getKey(), file, orphanedFiles);
+        } else if (file != null) {
+          orphanedFiles.add(file);
+        }
+      }
+      orphanedFiles.forEach(directory::deleteFile);
+    }
+  }
+
+  /** Must be called while holding the lock. */
+  private void addToDisk(TileKey key, File file, List<File> orphanedFiles) {
+    long size = file.length();
+    diskTiles.put(key, new DiskTile(file, size));
+    diskBytes += size;
+
+    Iterator<DiskTile> iterator = diskTiles.values().iterator();
+    while (diskBytes > maxDiskBytes && iterator.hasNext()) {
+      DiskTile eldest = iterator.next();
+      iterator.remove();
+      diskBytes -= eldest.size;
+      orphanedFiles.add(eldest.file);
+    }
+  }
+
+  private File writeTile(Raster tile) throws IOException {
+    File file = directory.createFile("tile-");
+    try (ObjectOutputStream outputStream =
+        new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath())))) {
+      outputStream.writeInt(tile.getWidth());
+      outputStream.writeInt(tile.getHeight());
+      outputStream.writeObject(
+          tile.getDataElements(
+              tile.getMinX(), tile.getMinY(), tile.getWidth(), tile.getHeight(), null));
+    } catch (IOException e) {
+      directory.deleteFile(file);
+      throw e;
+    }
+    return file;
+  }
+
+  private WritableRaster readTile(File file, CachedImage cachedImage)
+      throws IOException, ClassNotFoundException {
+    try (ObjectInputStream inputStream =
+        new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+      int width = inputStream.readInt();
+      int height = inputStream.readInt();
+      WritableRaster tile = cachedImage.createRaster(width, height);
+      tile.setDataElements(0, 0, width, height, inputStream.readObject());
+      return tile;
+    }
+  }
+
+  private void removeIfCurrent(ImageKey imageKey, CachedImage cachedImage) {
+    List<File> orphanedFiles = new ArrayList<>();
+    synchronized (lock) {
+      if (images.get(imageKey) == cachedImage) {
+        remove(imageKey, orphanedFiles);
+      }
+    }
+    orphanedFiles.forEach(directory::deleteFile);
+  }
+
+  /**
+   * Must be called while holding the lock. The files of removed disk tiles are handed to the caller
+   * to delete.
+   */
+  private void remove(ImageKey imageKey, List<File> orphanedFiles) {
+    CachedImage cachedImage = images.remove(imageKey);
+    if (cachedImage == null) {
+      return;
+    }
+
+    for (int row = 0; row < cachedImage.rows(); row++) {
+      for (int column = 0; column < cachedImage.columns(); column++) {
+        TileKey key = new TileKey(imageKey, column, row);
+
+        WritableRaster tile = memoryTiles.remove(key);
+        if (tile != null) {
+          memoryBytes -= sizeOf(tile);
+        }
+
+        spillingTiles.remove(key);
+
+        DiskTile diskTile = diskTiles.remove(key);
+        if (diskTile != null) {
+          diskBytes -= diskTile.size;
+          orphanedFiles.add(diskTile.file);
+        }
+      }
+    }
+  }
+
+  private static long sizeOf(Raster tile) {
+    DataBuffer dataBuffer = tile.getDataBuffer();
+    return (long) dataBuffer.getSize()
+        * dataBuffer.getNumBanks()
+        * DataBuffer.getDataTypeSize(dataBuffer.getDataType())
+        / Byte.SIZE;
+  }
+
+  private void validateNotNull(Object value, String argumentName) {
+    if (value == null) {
+      throw new IllegalArgumentException(
+          String.format("argument '%s' may not be null.", argumentName));
+    }
+  }
+
+  private static class CachedImage {
+
+    private final long modified;
+
+    private final int tileSize;
+
+    private final int width;
+
+    private final int height;
+
+    private final ColorModel colorModel;
+
+    private final WritableRaster prototype;
+
+    private CachedImage(
+        long modified,
+        int tileSize,
+        int width,
+        int height,
+        ColorModel colorModel,
+        WritableRaster prototype) {
+      this.modified = modified;
+      this.tileSize = tileSize;
+      this.width = width;
+      this.height = height;
+      this.colorModel = colorModel;
+      this.prototype = prototype;
+    }
+
+    private int columns() {
+      return (width + tileSize - 1) / tileSize;
+    }
+
+    private int rows() {
+      return (height + tileSize - 1) / tileSize;
+    }
+
+    private Rectangle tileBounds(int column, int row) {
+      int x = column * tileSize;
+      int y = row * tileSize;
+      return new Rectangle(x, y, Math.min(tileSize, width - x), Math.min(tileSize, height - y));
+    }
+
+    private WritableRaster createRaster(int w, int h) {
+      return prototype.createCompatibleWritableRaster(w, h);
+    }
+  }
+
+  private static class DiskTile {
+
+    private final File file;
+
+    private final long size;
+
+    private DiskTile(File file, long size) {
+      this.file = file;
+      this.size = size;
+    }
+  }
+
+  private static class ImageKey {
+
+    private final String sourceId;
+
+    private final String metacardId;
+
+    private final String qualifier;
+
+    private ImageKey(String sourceId, String metacardId, String qualifier) {
+      this.sourceId = sourceId;
+      this.metacardId = metacardId;
+      this.qualifier = qualifier;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      ImageKey imageKey = (ImageKey) o;
+      return Objects.equals(sourceId, imageKey.sourceId)
+          && metacardId.equals(imageKey.metacardId)
+          && qualifier.equals(imageKey.qualifier);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(sourceId, metacardId, qualifier);
+    }
+  }
+
+  private static class TileKey {
+
+    private final ImageKey imageKey;
+
+    private final int column;
+
+    private final int row;
+
+    private TileKey(ImageKey imageKey, int column, int row) {
+      this.imageKey = imageKey;
+      this.column = column;
+      this.row = row;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      TileKey tileKey = (TileKey) o;
+      return column == tileKey.column && row == tileKey.row && imageKey.equals(tileKey.imageKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(imageKey, column, row);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.imaging.chip.service.impl;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.DeleteResponse;
+import ddf.catalog.operation.Update;
+import ddf.catalog.operation.UpdateResponse;
+import ddf.catalog.plugin.PostIngestPlugin;
+import org.codice.alliance.imaging.chip.service.api.DecodedImageCache;
+
+/** Removes the cached tiles of metacards that have been updated or deleted. */
+public class TileCacheInvalidationPlugin implements PostIngestPlugin {
+
+  private final DecodedImageCache tileCache;
+
+  public TileCacheInvalidationPlugin(DecodedImageCache tileCache) {
+    this.tileCache = tileCache;
+  }
+
+  @Override
+  public CreateResponse process(CreateResponse input) {
+    return input;
+  }
+
+  @Override
+  public UpdateResponse process(UpdateResponse input) {
+    if (input != null && input.getUpdatedMetacards() != null) {
+      input.getUpdatedMetacards().stream()
+          .map(Update::getOldMetacard)
+          .filter(metacard -> metacard != null && metacard.getId() != null)
+          .map(Metacard::getId)
+          .forEach(tileCache::invalidate);
+    }
+    return input;
+  }
+
+  @Override
+  public DeleteResponse process(DeleteResponse input) {
+    if (input != null && input.getDeletedMetacards() != null) {
+      input.getDeletedMetacards().stream()
+          .filter(metacard -> metacard != null && metacard.getId() != null)
+          .map(Metacard::getId)
+          .forEach(tileCache::invalidate);
+    }
+    return input;
+  }
+}
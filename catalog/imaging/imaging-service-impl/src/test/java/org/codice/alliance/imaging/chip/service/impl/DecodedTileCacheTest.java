@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.imaging.chip.service.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.types.Core;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+import javax.imageio.ImageIO;
+import org.codice.alliance.imaging.chip.service.api.DecodedImageCache;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DecodedTileCacheTest {
+
+  private static final String IMAGE_FILE = "/i_3001a.png";
+
+  private static final String SOURCE = "source";
+
+  private static final String ID = "id";
+
+  private static final String ORIGINAL = "original";
+
+  private static final int TILE_SIZE = 256;
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private BufferedImage image;
+
+  private File directory;
+
+  @Before
+  public void setUp() throws IOException {
+    try (InputStream inputStream = getClass().getResourceAsStream(IMAGE_FILE)) {
+      image = ImageIO.read(inputStream);
+    }
+    directory = temporaryFolder.newFolder();
+  }
+
+  @Test
+  public void testFullImageRoundTrip() {
+    DecodedTileCache cache = new DecodedTileCache(TILE_SIZE, Long.MAX_VALUE, 0, directory);
+    cache.put(SOURCE, ID, ORIGINAL, 1L, image);
+
+    BufferedImage cached = cache.get(SOURCE, ID, ORIGINAL, 1L);
+
+    assertThat(cached, notNullValue());
+    assertSamePixels(cached, image, 0, 0);
+    assertThat(cache.getHitCount(), is(1L));
+  }
+
+  @Test
+  public void testRegionAcrossTileBoundaries() {
+    DecodedTileCache cache = new DecodedTileCache(TILE_SIZE, Long.MAX_VALUE, 0, directory);
+    cache.put(SOURCE, ID, ORIGINAL, 1L, image);
+
+    BufferedImage region = cache.getRegion(SOURCE, ID, ORIGINAL, 1L, 100, 50, 300, 280);
+
+    assertThat(region.getWidth(), is(Math.min(300, image.getWidth() - 100)));
+    assertThat(region.getHeight(), is(Math.min(280, image.getHeight() - 50)));
+    assertSamePixels(region, image, 100, 50);
+  }
+
+  @Test
+  public void testEvictedTilesAreReadFromDisk() {
+    DecodedTileCache cache =
+        new DecodedTileCache(TILE_SIZE, TILE_SIZE * TILE_SIZE * 4, Long.MAX_VALUE, directory);
+    cache.put(SOURCE, ID, ORIGINAL, 1L, image);
+
+    assertThat(cache.getDiskBytes(), greaterThan(0L));
+
+    BufferedImage cached = cache.get(SOURCE, ID, ORIGINAL, 1L);
+
+    assertSamePixels(cached, image, 0, 0);
+    assertThat(cache.getDiskHitCount(), greaterThan(0L));
+  }
+
+  @Test
+  public void testTilesDroppedFromDiskAreAMiss() {
+    DecodedTileCache cache = new DecodedTileCache(TILE_SIZE, 1, 0, directory);
+    cache.put(SOURCE, ID, ORIGINAL, 1L, image);
+
+    assertThat(cache.get(SOURCE, ID, ORIGINAL, 1L), nullValue());
+    assertThat(cache.getMissCount(), is(1L));
+  }
+
+  @Test
+  public void testNewerModifiedDateInvalidates() {
+    DecodedTileCache cache = new DecodedTileCache(TILE_SIZE, Long.MAX_VALUE, 0, directory);
+    cache.put(SOURCE, ID, ORIGINAL, 1L, image);
+
+    assertThat(cache.get(SOURCE, ID, ORIGINAL, 2L), nullValue());
+    assertThat(cache.get(SOURCE, ID, ORIGINAL, 1L), nullValue());
+    assertThat(cache.getMemoryBytes(), is(0L));
+    assertThat(cache.getInvalidationCount(), is(1L));
+  }
+
+  @Test
+  public void testInvalidateRemovesAllQualifiers() {
+    DecodedTileCache cache =
+        new DecodedTileCache(TILE_SIZE, TILE_SIZE * TILE_SIZE * 4, Long.MAX_VALUE, directory);
+    cache.put(SOURCE, ID, ORIGINAL, 1L, image);
+    cache.put(SOURCE, ID, "overview", 1L, image);
+
+    cache.invalidate(ID);
+
+    assertThat(cache.get(SOURCE, ID, ORIGINAL, 1L), nullValue());
+    assertThat(cache.get(SOURCE, ID, "overview", 1L), nullValue());
+    assertThat(cache.getMemoryBytes(), is(0L));
+    assertThat(cache.getDiskBytes(), is(0L));
+    assertThat(directory.list().length, is(0));
+  }
+
+  @Test
+  public void testHitRate() {
+    DecodedTileCache cache = new DecodedTileCache(TILE_SIZE, Long.MAX_VALUE, 0, directory);
+    cache.put(SOURCE, ID, ORIGINAL, 1L, image);
+
+    cache.get(SOURCE, ID, ORIGINAL, 1L);
+    cache.get(SOURCE, ID, ORIGINAL, 1L);
+    cache.get(SOURCE, ID, ORIGINAL, 1L);
+    cache.get(SOURCE, "other", ORIGINAL, 1L);
+
+    assertThat(cache.getHitRate(), is(0.75));
+  }
+
+  @Test
+  public void testSourceIsPartOfTheKey() {
+    DecodedTileCache cache = new DecodedTileCache(TILE_SIZE, Long.MAX_VALUE, 0, directory);
+    cache.put(SOURCE, ID, ORIGINAL, 1L, image);
+
+    assertThat(cache.get("other-source", ID, ORIGINAL, 1L), nullValue());
+    assertThat(
+        cache.getSize(SOURCE, ID, ORIGINAL, 1L),
+        is(new Dimension(image.getWidth(), image.getHeight())));
+  }
+
+  @Test
+  public void testTileSizeAppliesToImagesAddedLater() {
+    DecodedTileCache cache = new DecodedTileCache(TILE_SIZE, Long.MAX_VALUE, 0, directory);
+    cache.put(SOURCE, ID, ORIGINAL, 1L, image);
+    cache.setTileSize(100);
+    cache.put(SOURCE, "other", ORIGINAL, 1L, image);
+
+    assertSamePixels(cache.getRegion(SOURCE, ID, ORIGINAL, 1L, 90, 90, 200, 200), image, 90, 90);
+    assertSamePixels(
+        cache.getRegion(SOURCE, "other", ORIGINAL, 1L, 90, 90, 200, 200), image, 90, 90);
+  }
+
+  @Test
+  public void testDestroyDeletesSpilledTiles() {
+    DecodedTileCache cache =
+        new DecodedTileCache(TILE_SIZE, TILE_SIZE * TILE_SIZE * 4, Long.MAX_VALUE, directory);
+    cache.put(SOURCE, ID, ORIGINAL, 1L, image);
+
+    assertThat(directory.list().length, greaterThan(0));
+
+    cache.destroy();
+
+    assertThat(directory.list().length, is(0));
+    assertThat(cache.getDiskBytes(), is(0L));
+  }
+
+  @Test
+  public void testGetModifiedPrefersTheMetacardModifiedDate() {
+    Metacard metacard = mock(Metacard.class);
+    when(metacard.getAttribute(Core.METACARD_MODIFIED)).thenReturn(dateAttribute(2L));
+    when(metacard.getAttribute(Core.MODIFIED)).thenReturn(dateAttribute(1L));
+
+    assertThat(DecodedImageCache.getModified(metacard), is(2L));
+  }
+
+  @Test
+  public void testGetModifiedFallsBackToTheModifiedDate() {
+    Metacard metacard = mock(Metacard.class);
+    when(metacard.getAttribute(Core.MODIFIED)).thenReturn(dateAttribute(1L));
+
+    assertThat(DecodedImageCache.getModified(metacard), is(1L));
+    assertThat(DecodedImageCache.getModified(mock(Metacard.class)), is(0L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidTileSize() {
+    new DecodedTileCache(0, Long.MAX_VALUE, 0, directory);
+  }
+
+  private void assertSamePixels(BufferedImage actual, BufferedImage expected, int x, int y) {
+    int w = actual.getWidth();
+    int h = actual.getHeight();
+    assertThat(
+        actual.getRGB(0, 0, w, h, null, 0, w), is(expected.getRGB(x, y, w, h, null, 0, w)));
+  }
+
+  private Attribute dateAttribute(long time) {
+    Attribute attribute = mock(Attribute.class);
+    when(attribute.getValue()).thenReturn(new Date(time));
+    return attribute;
+  }
+}
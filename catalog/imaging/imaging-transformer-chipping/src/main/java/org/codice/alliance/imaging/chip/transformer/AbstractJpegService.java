@@ -13,13 +13,15 @@
  */
 package org.codice.alliance.imaging.chip.transformer;
 
-import java.awt.Graphics;
 import java.awt.image.BufferedImage;
-import java.awt.image.ColorModel;
-import java.awt.image.WritableRaster;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
 import javax.imageio.stream.ImageInputStreamImpl;
 import org.codice.imaging.nitf.core.image.ImageCompression;
 import org.codice.imaging.nitf.core.image.ImageMode;
@@ -27,28 +29,15 @@ import org.codice.imaging.nitf.core.image.ImageSegment;
 
 abstract class AbstractJpegService implements JpegService {
 
-  private BufferedImage copyImage(BufferedImage source) {
-
-    ColorModel colorModel = source.getColorModel();
-
-    int width = source.getWidth();
-    int height = source.getHeight();
-
-    WritableRaster raster = source.getRaster().createCompatibleWritableRaster(width, height);
-
-    BufferedImage bufferedImage =
-        new BufferedImage(colorModel, raster, colorModel.isAlphaPremultiplied(), null);
-
-    Graphics g = bufferedImage.getGraphics();
-    g.drawImage(source, 0, 0, null);
-    g.dispose();
-    return bufferedImage;
-  }
-
-  private ImageInputStreamImpl createImageInputStream(final byte[] jpegData) {
+  private ImageInputStreamImpl createImageInputStream(final List<ByteBuffer> jpegData) {
     return new ImageInputStreamImpl() {
 
-      private InputStream inputStream = new ByteArrayInputStream(jpegData);
+      private InputStream inputStream =
+          new SequenceInputStream(
+              Collections.enumeration(
+                  jpegData.stream()
+                      .map(AbstractJpegService::toInputStream)
+                      .collect(Collectors.toList())));
 
       @Override
       public int read() throws IOException {
@@ -62,14 +51,36 @@ abstract class AbstractJpegService implements JpegService {
     };
   }
 
-  private void setImageDataLengthField(ImageSegment chipImageSegment, byte[] jpegData) {
-    chipImageSegment.setDataLength(jpegData.length);
+  private static InputStream toInputStream(ByteBuffer buffer) {
+    return new ByteArrayInputStream(
+        buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
   }
 
-  private void setImageDataField(ImageSegment chipImageSegment, final byte[] jpegData) {
+  private void setImageDataLengthField(ImageSegment chipImageSegment, long jpegDataLength) {
+    chipImageSegment.setDataLength(jpegDataLength);
+  }
+
+  private void setImageDataField(ImageSegment chipImageSegment, final List<ByteBuffer> jpegData) {
     chipImageSegment.setData(createImageInputStream(jpegData));
   }
 
+  /**
+   * Convert a buffered image into blocks of JPEG binary data. The data is returned as a sequence of
+   * buffers that make up the data when they are read in order, so that the encoded blocks can be
+   * written to the image segment without first being copied into a single array.
+   *
+   * @param bufferedImage must be non-null
+   * @param blockWidth the block width
+   * @param blockHeight the block height
+   * @return the buffers of binary data, backed by arrays
+   * @throws IOException
+   */
+  List<ByteBuffer> createJpegBuffers(BufferedImage bufferedImage, int blockWidth, int blockHeight)
+      throws IOException {
+    return Collections.singletonList(
+        ByteBuffer.wrap(createJpeg(bufferedImage, blockWidth, blockHeight)));
+  }
+
   abstract ImageCompression getImageCompressionType();
 
   abstract String getImageCompressionRateString(double actualBpppb);
@@ -89,38 +100,38 @@ abstract class AbstractJpegService implements JpegService {
       throw new IllegalStateException("the number of bands must be set");
     }
 
-    BufferedImage copy = copyImage(bufferedImage);
-
-    byte[] jpegData;
+    List<ByteBuffer> jpegData;
     if (isBlocking) {
-      jpegData = encodeBlocks(copy, blockWidth, blockHeight);
+      jpegData = encodeBlocks(bufferedImage, blockWidth, blockHeight);
     } else {
-      jpegData = encodeWholeImage(copy);
+      jpegData = encodeWholeImage(bufferedImage);
     }
 
+    long jpegDataLength = jpegData.stream().mapToLong(ByteBuffer::remaining).sum();
+
     double bitsPerPixelPerBand =
-        calculateActualBitsPerPixelPerBand(bufferedImage, chipImageSegment, jpegData);
+        calculateActualBitsPerPixelPerBand(bufferedImage, chipImageSegment, jpegDataLength);
 
     setImageCompressionTypeField(chipImageSegment);
     setCompresionRateField(chipImageSegment, bitsPerPixelPerBand);
     setImageDataField(chipImageSegment, jpegData);
-    setImageDataLengthField(chipImageSegment, jpegData);
+    setImageDataLengthField(chipImageSegment, jpegDataLength);
     setImageModeField(chipImageSegment);
   }
 
-  private byte[] encodeBlocks(BufferedImage bufferedImage, int blockWidth, int blockHeight)
-      throws IOException {
-    return createJpeg(bufferedImage, blockWidth, blockHeight);
+  private List<ByteBuffer> encodeBlocks(
+      BufferedImage bufferedImage, int blockWidth, int blockHeight) throws IOException {
+    return createJpegBuffers(bufferedImage, blockWidth, blockHeight);
   }
 
-  private byte[] encodeWholeImage(BufferedImage bufferedImage) throws IOException {
-    return createJpeg(bufferedImage);
+  private List<ByteBuffer> encodeWholeImage(BufferedImage bufferedImage) throws IOException {
+    return Collections.singletonList(ByteBuffer.wrap(createJpeg(bufferedImage)));
   }
 
   /** bits per pixel per band */
   private double calculateActualBitsPerPixelPerBand(
-      BufferedImage bufferedImage, ImageSegment chipImageSegment, byte[] jpegData) {
-    return (getNumberOfBits(jpegData) / getTotalNumberOfPixels(bufferedImage))
+      BufferedImage bufferedImage, ImageSegment chipImageSegment, long jpegDataLength) {
+    return (getNumberOfBits(jpegDataLength) / getTotalNumberOfPixels(bufferedImage))
         / getNumberOfBands(chipImageSegment);
   }
 
@@ -132,8 +143,8 @@ abstract class AbstractJpegService implements JpegService {
     return (double) bufferedImage.getWidth() * bufferedImage.getHeight();
   }
 
-  private double getNumberOfBits(byte[] jpegData) {
-    return bytesToBits(jpegData.length);
+  private double getNumberOfBits(long jpegDataLength) {
+    return bytesToBits(jpegDataLength);
   }
 
   private void setImageModeField(ImageSegment chipImageSegment) {
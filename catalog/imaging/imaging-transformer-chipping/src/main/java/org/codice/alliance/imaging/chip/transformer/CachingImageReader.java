@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.imaging.chip.transformer;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.operation.ResourceRequest;
+import ddf.catalog.operation.ResourceResponse;
+import ddf.catalog.resource.ResourceNotFoundException;
+import ddf.catalog.resource.ResourceNotSupportedException;
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import org.apache.commons.io.IOUtils;
+import org.codice.alliance.imaging.chip.service.api.ChipOutOfBoundsException;
+import org.codice.alliance.imaging.chip.service.api.DecodedImageCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the derived images of a metacard through the CatalogFramework, keeping the decoded pixels
+ * in a {@link DecodedImageCache} so that repeated chip requests for the same image skip the decode.
+ * Every request that returns pixels still retrieves the resource through the CatalogFramework, so
+ * access control, policy and auditing apply to cached images as well.
+ */
+public class CachingImageReader {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CachingImageReader.class);
+
+  private final CatalogFramework catalogFramework;
+
+  private final CatalogInputAdapter catalogInputAdapter;
+
+  private final CatalogOutputAdapter catalogOutputAdapter;
+
+  private final DecodedImageCache tileCache;
+
+  public CachingImageReader(
+      CatalogFramework catalogFramework,
+      CatalogInputAdapter catalogInputAdapter,
+      CatalogOutputAdapter catalogOutputAdapter,
+      DecodedImageCache tileCache) {
+    this.catalogFramework = catalogFramework;
+    this.catalogInputAdapter = catalogInputAdapter;
+    this.catalogOutputAdapter = catalogOutputAdapter;
+    this.tileCache = tileCache;
+  }
+
+  /**
+   * @param metacard the metacard whose derived image is requested. May not be null.
+   * @param qualifier the qualifier of the derived image, e.g. 'overview' or 'original'. May not be
+   *     null.
+   * @return the decoded image, or null if the resource could not be decoded.
+   * @throws IOException when the resource can't be read.
+   * @throws ResourceNotFoundException when the resource does not exist.
+   * @throws ResourceNotSupportedException when the resource request is not supported.
+   */
+  public BufferedImage getImage(Metacard metacard, String qualifier)
+      throws IOException, ResourceNotFoundException, ResourceNotSupportedException {
+    ResourceResponse response = getResource(metacard, qualifier);
+    long modified = DecodedImageCache.getModified(metacard);
+
+    BufferedImage image =
+        tileCache.get(metacard.getSourceId(), metacard.getId(), qualifier, modified);
+
+    if (image != null) {
+      LOGGER.trace("using cached '{}' image for metacard {}", qualifier, metacard.getId());
+      close(response);
+      return image;
+    }
+
+    return decode(metacard, qualifier, modified, response);
+  }
+
+  /**
+   * Returns the size of a derived image. The size of a cached image is returned without retrieving
+   * the resource, since it does not expose any pixels. Otherwise the image is retrieved, decoded
+   * and cached.
+   *
+   * @param metacard the metacard whose derived image is requested. May not be null.
+   * @param qualifier the qualifier of the derived image, e.g. 'overview' or 'original'. May not be
+   *     null.
+   * @return the width and height of the image, or null if the resource could not be decoded.
+   * @throws IOException when the resource can't be read.
+   * @throws ResourceNotFoundException when the resource does not exist.
+   * @throws ResourceNotSupportedException when the resource request is not supported.
+   */
+  public Dimension getImageSize(Metacard metacard, String qualifier)
+      throws IOException, ResourceNotFoundException, ResourceNotSupportedException {
+    long modified = DecodedImageCache.getModified(metacard);
+
+    Dimension size =
+        tileCache.getSize(metacard.getSourceId(), metacard.getId(), qualifier, modified);
+
+    if (size != null) {
+      return size;
+    }
+
+    BufferedImage image = decode(metacard, qualifier, modified, getResource(metacard, qualifier));
+    return image == null ? null : new Dimension(image.getWidth(), image.getHeight());
+  }
+
+  /**
+   * Returns a region of a derived image, reading only the cached tiles that the region covers. The
+   * region is validated and clipped the same way as {@link
+   * org.codice.alliance.imaging.chip.service.api.ChipService#crop(BufferedImage, int, int, int,
+   * int)}.
+   *
+   * @param metacard the metacard whose derived image is requested. May not be null.
+   * @param qualifier the qualifier of the derived image, e.g. 'overview' or 'original'. May not be
+   *     null.
+   * @param x the x coordinate of the top left corner of the region.
+   * @param y the y coordinate of the top left corner of the region.
+   * @param w the width of the region.
+   * @param h the height of the region.
+   * @return the region of the image, or null if the resource could not be decoded.
+   * @throws IOException when the resource can't be read.
+   * @throws ResourceNotFoundException when the resource does not exist.
+   * @throws ResourceNotSupportedException when the resource request is not supported.
+   * @throws ChipOutOfBoundsException when the region lies outside of the image.
+   */
+  public BufferedImage getImageRegion(
+      Metacard metacard, String qualifier, int x, int y, int w, int h)
+      throws IOException, ResourceNotFoundException, ResourceNotSupportedException,
+          ChipOutOfBoundsException {
+    ResourceResponse response = getResource(metacard, qualifier);
+    long modified = DecodedImageCache.getModified(metacard);
+
+    Dimension size =
+        tileCache.getSize(metacard.getSourceId(), metacard.getId(), qualifier, modified);
+
+    if (size != null) {
+      Rectangle region = clip(size, x, y, w, h);
+      BufferedImage image =
+          tileCache.getRegion(
+              metacard.getSourceId(),
+              metacard.getId(),
+              qualifier,
+              modified,
+              region.x,
+              region.y,
+              region.width,
+              region.height);
+      if (image != null) {
+        LOGGER.trace("using cached '{}' tiles for metacard {}", qualifier, metacard.getId());
+        close(response);
+        return image;
+      }
+    }
+
+    BufferedImage image = decode(metacard, qualifier, modified, response);
+    if (image == null) {
+      return null;
+    }
+
+    Rectangle region = clip(new Dimension(image.getWidth(), image.getHeight()), x, y, w, h);
+    return image.getSubimage(region.x, region.y, region.width, region.height);
+  }
+
+  private ResourceResponse getResource(Metacard metacard, String qualifier)
+      throws IOException, ResourceNotFoundException, ResourceNotSupportedException {
+    ResourceRequest request = catalogInputAdapter.buildReadRequest(metacard, qualifier);
+    return catalogFramework.getResource(request, catalogInputAdapter.getResourceSiteName(metacard));
+  }
+
+  private BufferedImage decode(
+      Metacard metacard, String qualifier, long modified, ResourceResponse response)
+      throws IOException {
+    BufferedImage image = catalogOutputAdapter.getImage(response);
+
+    if (image != null) {
+      tileCache.put(metacard.getSourceId(), metacard.getId(), qualifier, modified, image);
+    }
+
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug(
+          "decoded tile cache: hit rate = {}, hits = {}, disk hits = {}, misses = {}",
+          tileCache.getHitRate(),
+          tileCache.getHitCount(),
+          tileCache.getDiskHitCount(),
+          tileCache.getMissCount());
+    }
+
+    return image;
+  }
+
+  private Rectangle clip(Dimension size, int x, int y, int w, int h)
+      throws ChipOutOfBoundsException {
+    if (w < 0 || h < 0) {
+      throw new ChipOutOfBoundsException(
+          String.format(
+              "method arguments 'w', 'h' may not be less than 0. Values were %s and %s.", w, h));
+    }
+
+    Rectangle region =
+        new Rectangle(Math.max(x, 0), Math.max(y, 0), w, h)
+            .intersection(new Rectangle(0, 0, size.width, size.height));
+
+    if (region.isEmpty()) {
+      throw new ChipOutOfBoundsException(
+          String.format(
+              "the chip does not overlap the image.\n   image width = %s, x = %s, w = %s"
+                  + "\n   image height = %s, y = %s, h = %s",
+              size.width, x, w, size.height, y, h));
+    }
+
+    return region;
+  }
+
+  private void close(ResourceResponse response) {
+    if (response != null && response.getResource() != null) {
+      IOUtils.closeQuietly(response.getResource().getInputStream());
+    }
+  }
+}
@@ -25,16 +25,25 @@ import java.awt.image.BufferedImage;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import javax.activation.MimeType;
 import javax.activation.MimeTypeParseException;
@@ -44,7 +53,6 @@ import javax.imageio.stream.MemoryCacheImageOutputStream;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.codice.alliance.imaging.chip.service.impl.CoordinateConverter;
-import org.codice.ddf.platform.util.TemporaryFileBackedOutputStream;
 import org.codice.imaging.nitf.core.common.FileType;
 import org.codice.imaging.nitf.core.common.NitfFormatException;
 import org.codice.imaging.nitf.core.common.TaggedRecordExtensionHandler;
@@ -63,13 +71,14 @@ import org.codice.imaging.nitf.core.image.impl.ImageBandImpl;
 import org.codice.imaging.nitf.core.image.impl.ImageCoordinatePairImpl;
 import org.codice.imaging.nitf.core.image.impl.ImageCoordinatesImpl;
 import org.codice.imaging.nitf.core.image.impl.ImageSegmentFactory;
+import org.codice.imaging.nitf.core.impl.NitfOutputStreamWriter;
+import org.codice.imaging.nitf.core.impl.SlottedParseStrategy;
 import org.codice.imaging.nitf.core.tre.Tre;
 import org.codice.imaging.nitf.core.tre.TreCollection;
 import org.codice.imaging.nitf.core.tre.TreSource;
 import org.codice.imaging.nitf.core.tre.impl.TreEntryImpl;
 import org.codice.imaging.nitf.core.tre.impl.TreFactory;
 import org.codice.imaging.nitf.fluent.NitfSegmentsFlow;
-import org.codice.imaging.nitf.fluent.impl.NitfCreationFlowImpl;
 import org.codice.imaging.nitf.fluent.impl.NitfParserInputFlowImpl;
 import org.la4j.Vector;
 import org.la4j.vector.dense.BasicVector;
@@ -98,8 +107,19 @@ public class CatalogOutputAdapter {
 
   private static final int BLOCK_HEIGHT = 1024;
 
+  private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+
+  private static final long PIPE_WRITE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+  private static final int DEFAULT_WRITER_THREAD_COUNT = 3;
+
   private Semaphore lock;
 
+  private final ExecutorService nitfWriterExecutor;
+
+  private volatile ExecutorService encoderExecutor =
+      newEncoderExecutor(Runtime.getRuntime().availableProcessors());
+
   /**
    * These are the SDEs that should be copied to the NITF chip. This list was assembled from
    * information gathered from ASDE, CSDE, and GEOSDE.
@@ -124,7 +144,60 @@ public class CatalogOutputAdapter {
   private static final String JPG = "jpg";
 
   public CatalogOutputAdapter(Semaphore lock) {
+    this(lock, DEFAULT_WRITER_THREAD_COUNT);
+  }
+
+  /**
+   * @param lock limits the number of concurrent image operations.
+   * @param writerThreadCount the maximum number of NITF chips streamed to their consumers at the
+   *     same time. As many chips again may wait for a writer thread; further chips are rejected.
+   */
+  public CatalogOutputAdapter(Semaphore lock, int writerThreadCount) {
     this.lock = lock;
+    ThreadPoolExecutor writerExecutor =
+        new ThreadPoolExecutor(
+            writerThreadCount,
+            writerThreadCount,
+            1,
+            TimeUnit.MINUTES,
+            new ArrayBlockingQueue<>(writerThreadCount),
+            daemonThreadFactory("nitf-chip-writer"));
+    writerExecutor.allowCoreThreadTimeOut(true);
+    this.nitfWriterExecutor = writerExecutor;
+  }
+
+  /** Stops the threads that encode NITF chips and stream them to their consumers. */
+  public void destroy() {
+    nitfWriterExecutor.shutdownNow();
+    encoderExecutor.shutdownNow();
+  }
+
+  /**
+   * Replaces the pool that encodes the blocks of NITF chips. Chips that are already being encoded
+   * finish on the previous pool.
+   *
+   * @param encoderThreadCount the number of threads that encode blocks. Must be greater than 0.
+   */
+  public void setEncoderThreadCount(int encoderThreadCount) {
+    if (encoderThreadCount < 1) {
+      throw new IllegalArgumentException("argument 'encoderThreadCount' must be greater than 0.");
+    }
+    ExecutorService previous = encoderExecutor;
+    encoderExecutor = newEncoderExecutor(encoderThreadCount);
+    previous.shutdown();
+  }
+
+  private static ExecutorService newEncoderExecutor(int encoderThreadCount) {
+    return Executors.newFixedThreadPool(
+        encoderThreadCount, daemonThreadFactory("nitf-chip-encoder"));
+  }
+
+  private static ThreadFactory daemonThreadFactory(String name) {
+    return runnable -> {
+      Thread thread = new Thread(runnable, name);
+      thread.setDaemon(true);
+      return thread;
+    };
   }
 
   /**
@@ -224,29 +297,16 @@ public class CatalogOutputAdapter {
     return nitfSegmentsFlow;
   }
 
-  /**
-   * This method exists so unit tests can override and create a different TFBOS for testing
-   * exceptions.
-   */
-  protected TemporaryFileBackedOutputStream createTemporaryFileBackedOutputStream() {
-    return new TemporaryFileBackedOutputStream();
-  }
-
   private NitfSegmentsFlow getNitfSegmentsFlow(InputStream resourceInputStream)
-      throws NitfFormatException, IOException {
+      throws NitfFormatException {
     notNull(resourceInputStream, "resourceInputStream must be non-null");
 
-    NitfSegmentsFlow nitfSegmentsFlow;
-    try (TemporaryFileBackedOutputStream tfbos = createTemporaryFileBackedOutputStream()) {
-
-      IOUtils.copyLarge(resourceInputStream, tfbos);
-
-      try (InputStream is = tfbos.asByteSource().openBufferedStream()) {
-        nitfSegmentsFlow = new NitfParserInputFlowImpl().inputStream(is).allData();
-      }
-    }
-
-    return nitfSegmentsFlow;
+    // Only the headers, subheaders and TREs of the source are copied to the chip. The chip pixels
+    // come from the decoded 'original' image, so the source is parsed straight from the resource
+    // stream and its image data is skipped instead of being staged.
+    return new NitfParserInputFlowImpl()
+        .inputStream(new BufferedInputStream(resourceInputStream))
+        .headerOnly();
   }
 
   private List<ImageSegment> getImageSegments(NitfSegmentsFlow nitfSegmentsFlow) {
@@ -666,7 +726,7 @@ public class CatalogOutputAdapter {
       int numberOfPixelsPerBlockVerticalRaw)
       throws IOException {
 
-    JpegService jpeg2000Service = new Jpeg2000ServiceImpl();
+    JpegService jpeg2000Service = new Jpeg2000ServiceImpl(encoderExecutor);
 
     jpeg2000Service.createJpeg(
         chip,
@@ -687,27 +747,163 @@ public class CatalogOutputAdapter {
     return chipCornerPixels;
   }
 
+  /**
+   * Streams the chip NITF to the consumer of the returned BinaryContent. The NITF is written on a
+   * separate thread into a bounded pipe as the consumer reads it, so the chip is never staged in a
+   * temporary file or held in memory as a whole.
+   */
   private BinaryContent nitfToBinaryContent(NitfHeader header, ImageSegment imageSegment)
       throws IOException, MimeTypeParseException {
-    byte[] data;
-    File tmpFile = File.createTempFile("nitfchip-", ".ntf");
+    NitfChipInputStream inputStream = new NitfChipInputStream();
+    OutputStream outputStream = new NitfChipOutputStream(inputStream);
+
     try {
-      new NitfCreationFlowImpl()
-          .fileHeader(() -> header)
-          .imageSegment(() -> imageSegment)
-          .write(tmpFile.getAbsolutePath());
+      nitfWriterExecutor.execute(() -> writeNitf(header, imageSegment, outputStream, inputStream));
+    } catch (RejectedExecutionException e) {
+      IOUtils.closeQuietly(outputStream);
+      IOUtils.closeQuietly(inputStream);
+      throw new IOException("unable to schedule the nitf chip writer", e);
+    }
 
-      try (FileInputStream fis = new FileInputStream(tmpFile)) {
-        data = IOUtils.toByteArray(fis);
+    return new BinaryContentImpl(inputStream, new MimeType(IMAGE_NITF));
+  }
+
+  private void writeNitf(
+      NitfHeader header,
+      ImageSegment imageSegment,
+      OutputStream outputStream,
+      NitfChipInputStream inputStream) {
+    try (OutputStream os = outputStream) {
+      SlottedParseStrategy parseStrategy = new SlottedParseStrategy();
+      parseStrategy.getDataSource().setNitfHeader(header);
+      parseStrategy.getDataSource().addImageSegment(imageSegment);
+      new NitfOutputStreamWriter(parseStrategy.getDataSource(), os).write();
+    } catch (Exception e) {
+      LOGGER.debug("unable to write the nitf chip", e);
+      inputStream.setWriterFailure(e);
+    }
+  }
+
+  /**
+   * The read side of the chip pipe. A failure on the writer thread is reported to the reader as an
+   * IOException at the end of the data instead of a silently truncated NITF.
+   */
+  private static class NitfChipInputStream extends PipedInputStream {
+
+    private volatile Exception writerFailure;
+
+    private boolean closed;
+
+    private NitfChipInputStream() {
+      super(PIPE_BUFFER_SIZE);
+    }
+
+    private void setWriterFailure(Exception writerFailure) {
+      this.writerFailure = writerFailure;
+    }
+
+    /**
+     * Waits until the pipe has room for more data. The writer gives up if the reader closes the
+     * stream or does not read anything for {@code timeoutMillis}, so an abandoned response does not
+     * hold a writer thread forever.
+     *
+     * @return the number of bytes that can be written without blocking.
+     */
+    private synchronized int awaitSpace(long timeoutMillis) throws IOException {
+      long deadline = System.currentTimeMillis() + timeoutMillis;
+      while (!closed && in == out) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+          throw new IOException("the consumer of the nitf chip stopped reading");
+        }
+        notifyAll();
+        try {
+          wait(Math.min(remaining, 1000));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("interrupted while writing the nitf chip");
+        }
+      }
+
+      if (closed) {
+        throw new IOException("the consumer of the nitf chip closed the stream");
+      }
+
+      if (in < 0) {
+        return buffer.length;
       }
+      return in > out ? buffer.length - (in - out) : out - in;
+    }
 
-    } finally {
-      if (!tmpFile.delete()) {
-        LOGGER.debug("unable to delete the temporary file '{}'", tmpFile);
+    @Override
+    public void close() throws IOException {
+      synchronized (this) {
+        closed = true;
+        notifyAll();
       }
+      super.close();
     }
 
-    return new BinaryContentImpl(new ByteArrayInputStream(data), new MimeType(IMAGE_NITF));
+    @Override
+    public synchronized int read() throws IOException {
+      return checkWriter(super.read());
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+      return checkWriter(super.read(b, off, len));
+    }
+
+    private int checkWriter(int result) throws IOException {
+      if (result < 0 && writerFailure != null) {
+        throw new IOException("the nitf chip could not be written", writerFailure);
+      }
+      return result;
+    }
+  }
+
+  /**
+   * The write side of the chip pipe. Data is only handed to the pipe once it has room, so a stalled
+   * or closed reader surfaces as an IOException instead of blocking the writer indefinitely.
+   */
+  private static class NitfChipOutputStream extends OutputStream {
+
+    private final NitfChipInputStream sink;
+
+    private final PipedOutputStream pipe;
+
+    private NitfChipOutputStream(NitfChipInputStream sink) throws IOException {
+      this.sink = sink;
+      this.pipe = new PipedOutputStream(sink);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      sink.awaitSpace(PIPE_WRITE_TIMEOUT_MILLIS);
+      pipe.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      int offset = off;
+      int remaining = len;
+      while (remaining > 0) {
+        int count = Math.min(remaining, sink.awaitSpace(PIPE_WRITE_TIMEOUT_MILLIS));
+        pipe.write(b, offset, count);
+        offset += count;
+        remaining -= count;
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      pipe.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      pipe.close();
+    }
   }
 
   @SuppressWarnings("UnnecessaryLocalVariable")
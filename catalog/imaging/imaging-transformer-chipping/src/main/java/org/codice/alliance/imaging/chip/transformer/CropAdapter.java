@@ -13,6 +13,7 @@
  */
 package org.codice.alliance.imaging.chip.transformer;
 
+import java.awt.Dimension;
 import java.awt.image.BufferedImage;
 import java.io.Serializable;
 import java.util.Map;
@@ -36,6 +37,21 @@ public class CropAdapter {
    */
   public int[] scaleChip(
       BufferedImage original, BufferedImage overview, Map<String, Serializable> args) {
+    return scaleChipToSize(
+        original == null ? null : new Dimension(original.getWidth(), original.getHeight()),
+        overview,
+        args);
+  }
+
+  /**
+   * @param original the size of the full-sized image that the chip will be taken from.
+   * @param overview a scaled-down version of the same image.
+   * @param args A map containing values for the top left corner of the chip (x, y) and the height
+   *     and width of the chip (w, h) as taken from the overview image.
+   * @return a vector of [x, y, w, h] translated to the full size image.
+   */
+  public int[] scaleChipToSize(
+      Dimension original, BufferedImage overview, Map<String, Serializable> args) {
 
     if (args == null) {
       throw new IllegalArgumentException("method argument 'args' may not be null.");
@@ -49,7 +65,7 @@ public class CropAdapter {
     double scaleFactor = 1.0;
 
     if (original != null && overview != null) {
-      scaleFactor = original.getWidth() / ((double) overview.getWidth());
+      scaleFactor = original.width / ((double) overview.getWidth());
     }
 
     int scaledX = multiply(scaleFactor, x);
@@ -19,19 +19,101 @@ import com.github.jaiimageio.jpeg2000.impl.J2KImageWriterSpi;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import javax.imageio.IIOImage;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.stream.ImageOutputStream;
 import javax.imageio.stream.MemoryCacheImageOutputStream;
 import org.codice.imaging.nitf.core.image.ImageCompression;
 import org.codice.imaging.nitf.core.image.ImageMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 class Jpeg2000ServiceImpl extends AbstractJpegService {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(Jpeg2000ServiceImpl.class);
+
+  private static final int SOT = 0xFF90;
+
+  private static final int SIZ = 0xFF51;
+
+  private static final int EOC = 0xFFD9;
+
+  /** Offset of Xsiz from the start of the SIZ marker. */
+  private static final int SIZ_XSIZ_OFFSET = 6;
+
+  /** Number of bytes from Xsiz through YTOsiz, the image and tile grid fields of SIZ. */
+  private static final int SIZ_GRID_LENGTH = 32;
+
+  /**
+   * Tiles that are encoded on their own can only be spliced into one codestream when every tile
+   * origin falls on the same wavelet and code-block boundaries as the origin of the image. The
+   * default of 5 decomposition levels and 64x64 code-blocks holds for origins on a 1024 pixel grid.
+   */
+  private static final int TILE_ALIGNMENT = 1024;
+
+  private final ExecutorService executorService;
+
+  Jpeg2000ServiceImpl() {
+    this(null);
+  }
+
+  /**
+   * @param executorService the pool used to encode the blocks of a blocked image concurrently. If
+   *     null, blocked images are encoded on the calling thread.
+   */
+  Jpeg2000ServiceImpl(ExecutorService executorService) {
+    this.executorService = executorService;
+  }
+
   @Override
   public byte[] createJpeg(BufferedImage bufferedImage, int blockWidth, int blockHeight)
       throws IOException {
 
+    List<ByteBuffer> buffers = createJpegBuffers(bufferedImage, blockWidth, blockHeight);
+    if (buffers.size() == 1 && buffers.get(0).remaining() == buffers.get(0).capacity()) {
+      return buffers.get(0).array();
+    }
+
+    try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+      for (ByteBuffer buffer : buffers) {
+        os.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+      }
+      return os.toByteArray();
+    }
+  }
+
+  /**
+   * Blocks that are encoded concurrently are returned as the buffers of the spliced codestream, so
+   * the tiles are not copied again to join them.
+   */
+  @Override
+  List<ByteBuffer> createJpegBuffers(BufferedImage bufferedImage, int blockWidth, int blockHeight)
+      throws IOException {
+
+    if (isParallelizable(bufferedImage, blockWidth, blockHeight)) {
+      List<ByteBuffer> codestream =
+          encodeBlocksConcurrently(bufferedImage, blockWidth, blockHeight);
+      if (codestream != null) {
+        return codestream;
+      }
+    }
+
+    return Collections.singletonList(
+        ByteBuffer.wrap(encodeTiled(bufferedImage, blockWidth, blockHeight)));
+  }
+
+  private byte[] encodeTiled(BufferedImage bufferedImage, int blockWidth, int blockHeight)
+      throws IOException {
     J2KImageWriter writer = createWriter();
     J2KImageWriteParam writeParams = (J2KImageWriteParam) writer.getDefaultWriteParam();
     setCommonWriteParams(writeParams);
@@ -42,6 +124,191 @@ class Jpeg2000ServiceImpl extends AbstractJpegService {
     return encodeToByteArray(bufferedImage, writer, writeParams);
   }
 
+  private boolean isParallelizable(BufferedImage bufferedImage, int blockWidth, int blockHeight) {
+    return executorService != null
+        && blockWidth % TILE_ALIGNMENT == 0
+        && blockHeight % TILE_ALIGNMENT == 0
+        && (bufferedImage.getWidth() > blockWidth || bufferedImage.getHeight() > blockHeight);
+  }
+
+  /**
+   * Encodes every block as an independent single-tile codestream on the executor and splices the
+   * tiles, in raster order, into one codestream that uses the block grid as its tile grid.
+   *
+   * @return the buffers of the spliced codestream, or null if the blocks could not be encoded
+   *     concurrently or their codestreams could not be spliced
+   */
+  private List<ByteBuffer> encodeBlocksConcurrently(
+      BufferedImage bufferedImage, int blockWidth, int blockHeight) throws IOException {
+
+    List<Future<byte[]>> futures = new ArrayList<>();
+
+    for (int y = 0; y < bufferedImage.getHeight(); y += blockHeight) {
+      for (int x = 0; x < bufferedImage.getWidth(); x += blockWidth) {
+        BufferedImage block =
+            bufferedImage.getSubimage(
+                x,
+                y,
+                Math.min(blockWidth, bufferedImage.getWidth() - x),
+                Math.min(blockHeight, bufferedImage.getHeight() - y));
+        try {
+          futures.add(executorService.submit(() -> encodeTile(block)));
+        } catch (RejectedExecutionException e) {
+          LOGGER.debug("the block encoder is not accepting work, encoding blocks sequentially", e);
+          futures.forEach(future -> future.cancel(true));
+          return null;
+        }
+      }
+    }
+
+    List<byte[]> tiles = new ArrayList<>(futures.size());
+    try {
+      for (Future<byte[]> future : futures) {
+        tiles.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      futures.forEach(future -> future.cancel(true));
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted while encoding image blocks");
+    } catch (ExecutionException e) {
+      futures.forEach(future -> future.cancel(true));
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("unable to encode image block", e.getCause());
+    }
+
+    return spliceTiles(
+        tiles, bufferedImage.getWidth(), bufferedImage.getHeight(), blockWidth, blockHeight);
+  }
+
+  private byte[] encodeTile(BufferedImage block) throws IOException {
+    J2KImageWriter writer = createWriter();
+    J2KImageWriteParam writeParams = (J2KImageWriteParam) writer.getDefaultWriteParam();
+    setCommonWriteParams(writeParams);
+    writeParams.setSOP(true);
+    // The tiles are spliced into one codestream, so they are written without the JP2 boxes.
+    writeParams.setWriteCodeStreamOnly(true);
+    return encodeToByteArray(block, writer, writeParams);
+  }
+
+  private List<ByteBuffer> spliceTiles(
+      List<byte[]> tiles, int width, int height, int blockWidth, int blockHeight) {
+
+    byte[] first = tiles.get(0);
+    int firstSot = findMainHeaderMarker(first, SOT);
+    int siz = findMainHeaderMarker(first, SIZ);
+
+    if (firstSot < 0 || siz < 0) {
+      LOGGER.debug("unable to locate the SIZ and SOT markers, encoding blocks sequentially");
+      return null;
+    }
+
+    byte[] mainHeader = Arrays.copyOf(first, firstSot);
+    writeInt(mainHeader, siz + SIZ_XSIZ_OFFSET, width);
+    writeInt(mainHeader, siz + SIZ_XSIZ_OFFSET + 4, height);
+    writeInt(mainHeader, siz + SIZ_XSIZ_OFFSET + 8, 0);
+    writeInt(mainHeader, siz + SIZ_XSIZ_OFFSET + 12, 0);
+    writeInt(mainHeader, siz + SIZ_XSIZ_OFFSET + 16, blockWidth);
+    writeInt(mainHeader, siz + SIZ_XSIZ_OFFSET + 20, blockHeight);
+    writeInt(mainHeader, siz + SIZ_XSIZ_OFFSET + 24, 0);
+    writeInt(mainHeader, siz + SIZ_XSIZ_OFFSET + 28, 0);
+
+    List<ByteBuffer> codestream = new ArrayList<>(tiles.size() + 2);
+    codestream.add(ByteBuffer.wrap(mainHeader));
+
+    for (int tileIndex = 0; tileIndex < tiles.size(); tileIndex++) {
+      byte[] tile = tiles.get(tileIndex);
+      int sot = findMainHeaderMarker(tile, SOT);
+      int end = tile.length - 2;
+
+      if (sot < 0 || end < sot || readShort(tile, end) != EOC) {
+        LOGGER.debug("block {} is not a complete codestream", tileIndex);
+        return null;
+      }
+
+      if (!sameMainHeader(first, firstSot, tile, sot)) {
+        LOGGER.debug("block {} was encoded with different coding parameters", tileIndex);
+        return null;
+      }
+
+      if (!renumberTileParts(tile, sot, end, tileIndex)) {
+        LOGGER.debug("unable to walk the tile-parts of block {}", tileIndex);
+        return null;
+      }
+
+      codestream.add(ByteBuffer.wrap(tile, sot, end - sot));
+    }
+
+    codestream.add(ByteBuffer.wrap(new byte[] {(byte) (EOC >> 8), (byte) EOC}));
+    return codestream;
+  }
+
+  /**
+   * @return the offset of the first occurrence of the marker in the main header, or -1. The search
+   *     stops at the first SOT marker.
+   */
+  private int findMainHeaderMarker(byte[] codestream, int marker) {
+    int position = 2;
+    while (position + 4 <= codestream.length) {
+      int current = readShort(codestream, position);
+      if (current == marker) {
+        return position;
+      }
+      if (current == SOT) {
+        return -1;
+      }
+      position += 2 + readShort(codestream, position + 2);
+    }
+    return -1;
+  }
+
+  /** Compares two main headers, ignoring the image and tile grid fields of SIZ. */
+  private boolean sameMainHeader(byte[] first, int firstSot, byte[] other, int otherSot) {
+    if (firstSot != otherSot) {
+      return false;
+    }
+    int siz = findMainHeaderMarker(first, SIZ);
+    int gridStart = siz + SIZ_XSIZ_OFFSET;
+    int gridEnd = gridStart + SIZ_GRID_LENGTH;
+    for (int i = 0; i < firstSot; i++) {
+      if ((i < gridStart || i >= gridEnd) && first[i] != other[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Sets Isot of every tile-part in the range to the tile's position in the spliced image. */
+  private boolean renumberTileParts(byte[] tile, int sot, int end, int tileIndex) {
+    int position = sot;
+    while (position < end) {
+      if (position + 12 > end || readShort(tile, position) != SOT) {
+        return false;
+      }
+      tile[position + 4] = (byte) (tileIndex >> 8);
+      tile[position + 5] = (byte) tileIndex;
+      long length = readInt(tile, position + 6);
+      position = length == 0 ? end : (int) (position + length);
+    }
+    return position == end;
+  }
+
+  private int readShort(byte[] data, int offset) {
+    return ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+  }
+
+  private long readInt(byte[] data, int offset) {
+    return ((long) readShort(data, offset) << 16) | readShort(data, offset + 2);
+  }
+
+  private void writeInt(byte[] data, int offset, int value) {
+    data[offset] = (byte) (value >> 24);
+    data[offset + 1] = (byte) (value >> 16);
+    data[offset + 2] = (byte) (value >> 8);
+    data[offset + 3] = (byte) value;
+  }
+
   private byte[] encodeToByteArray(
       BufferedImage bufferedImage, J2KImageWriter writer, J2KImageWriteParam writeParams)
       throws IOException {
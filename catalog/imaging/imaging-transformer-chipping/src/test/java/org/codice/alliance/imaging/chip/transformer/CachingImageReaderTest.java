@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.imaging.chip.transformer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.operation.ResourceRequest;
+import ddf.catalog.operation.ResourceResponse;
+import ddf.catalog.operation.Update;
+import ddf.catalog.operation.UpdateResponse;
+import ddf.catalog.resource.Resource;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.Semaphore;
+import org.codice.alliance.imaging.chip.service.api.ChipOutOfBoundsException;
+import org.codice.alliance.imaging.chip.service.impl.DecodedTileCache;
+import org.codice.alliance.imaging.chip.service.impl.TileCacheInvalidationPlugin;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CachingImageReaderTest {
+
+  private static final String ORIGINAL = "original";
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private CatalogFramework catalogFramework;
+
+  private DecodedTileCache tileCache;
+
+  private CachingImageReader cachingImageReader;
+
+  private MetacardImpl metacard;
+
+  @Before
+  public void setUp() throws Exception {
+    catalogFramework = mock(CatalogFramework.class);
+    ResourceResponse resourceResponse = mock(ResourceResponse.class);
+    Resource resource = mock(Resource.class);
+    when(resource.getInputStream())
+        .thenAnswer(invocation -> getClass().getResourceAsStream("/i_3001a.png"));
+    when(resourceResponse.getResource()).thenReturn(resource);
+    when(catalogFramework.getResource(any(ResourceRequest.class), anyString()))
+        .thenReturn(resourceResponse);
+
+    tileCache = new DecodedTileCache(256, Long.MAX_VALUE, 0, temporaryFolder.newFolder());
+
+    cachingImageReader =
+        new CachingImageReader(
+            catalogFramework,
+            new CatalogInputAdapter(),
+            new CatalogOutputAdapter(new Semaphore(1)),
+            tileCache);
+
+    metacard = new MetacardImpl();
+    metacard.setId("id");
+    metacard.setSourceId("source");
+    metacard.setResourceURI(new URI("content:id"));
+    metacard.setAttribute(Core.METACARD_MODIFIED, new Date(1L));
+  }
+
+  @Test
+  public void testRepeatedRequestsAreServedFromCache() throws Exception {
+    BufferedImage first = cachingImageReader.getImage(metacard, ORIGINAL);
+    BufferedImage second = cachingImageReader.getImage(metacard, ORIGINAL);
+
+    assertThat(first, notNullValue());
+    assertThat(second.getWidth(), is(first.getWidth()));
+    assertThat(second.getHeight(), is(first.getHeight()));
+    verify(catalogFramework, times(2)).getResource(any(ResourceRequest.class), anyString());
+    assertThat(tileCache.getHitCount(), is(1L));
+    assertThat(tileCache.getMissCount(), is(1L));
+  }
+
+  @Test
+  public void testCachedRegionIsStillRetrievedThroughTheFramework() throws Exception {
+    Dimension size = cachingImageReader.getImageSize(metacard, ORIGINAL);
+    BufferedImage region = cachingImageReader.getImageRegion(metacard, ORIGINAL, 10, 20, 30, 40);
+
+    assertThat(size, notNullValue());
+    assertThat(region.getWidth(), is(30));
+    assertThat(region.getHeight(), is(40));
+    verify(catalogFramework, times(2)).getResource(any(ResourceRequest.class), anyString());
+    assertThat(tileCache.getHitCount(), is(1L));
+  }
+
+  @Test
+  public void testCachedSizeDoesNotRetrieveTheResource() throws Exception {
+    Dimension first = cachingImageReader.getImageSize(metacard, ORIGINAL);
+    Dimension second = cachingImageReader.getImageSize(metacard, ORIGINAL);
+
+    assertThat(second, is(first));
+    verify(catalogFramework, times(1)).getResource(any(ResourceRequest.class), anyString());
+  }
+
+  @Test
+  public void testSourceIdIsPartOfTheCacheKey() throws Exception {
+    cachingImageReader.getImageSize(metacard, ORIGINAL);
+    metacard.setSourceId("other-source");
+    cachingImageReader.getImageSize(metacard, ORIGINAL);
+
+    verify(catalogFramework, times(2)).getResource(any(ResourceRequest.class), anyString());
+  }
+
+  @Test(expected = ChipOutOfBoundsException.class)
+  public void testRegionOutsideOfTheImage() throws Exception {
+    Dimension size = cachingImageReader.getImageSize(metacard, ORIGINAL);
+    cachingImageReader.getImageRegion(metacard, ORIGINAL, size.width + 1, 0, 10, 10);
+  }
+
+  @Test
+  public void testUpdatedMetacardIsReadAgain() throws Exception {
+    cachingImageReader.getImage(metacard, ORIGINAL);
+
+    Update update = mock(Update.class);
+    when(update.getOldMetacard()).thenReturn(metacard);
+    UpdateResponse updateResponse = mock(UpdateResponse.class);
+    when(updateResponse.getUpdatedMetacards()).thenReturn(Collections.singletonList(update));
+    new TileCacheInvalidationPlugin(tileCache).process(updateResponse);
+
+    cachingImageReader.getImage(metacard, ORIGINAL);
+
+    assertThat(tileCache.getHitCount(), is(0L));
+    assertThat(tileCache.getMissCount(), is(2L));
+  }
+}
@@ -21,29 +21,27 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyObject;
-import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import com.google.common.io.ByteSource;
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.operation.ResourceResponse;
 import ddf.catalog.resource.Resource;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 import java.util.concurrent.Semaphore;
 import java.util.regex.Pattern;
 import javax.activation.MimeTypeParseException;
 import javax.imageio.ImageIO;
-import org.codice.ddf.platform.util.TemporaryFileBackedOutputStream;
 import org.codice.imaging.nitf.core.DataSource;
 import org.codice.imaging.nitf.core.common.DateTime;
 import org.codice.imaging.nitf.core.common.FileType;
@@ -607,36 +605,6 @@ public class CatalogOutputAdapterTest {
     assertThat(tre.getDoubleValue("FI_COL_22"), closeTo(originalWidth - chipX - 0.5, 0.01));
   }
 
-  /** Test that if the TFBOS throws an exception, the TFBOS is closed */
-  @Test
-  public void testGetNitfSegmentsFlowTFBOSThrows() throws IOException, NitfFormatException {
-
-    TemporaryFileBackedOutputStream tfbos = mock(TemporaryFileBackedOutputStream.class);
-    doThrow(IOException.class).when(tfbos).write(anyObject(), anyInt(), anyInt());
-
-    catalogOutputAdapter =
-        new CatalogOutputAdapter(new Semaphore(3, true)) {
-          @Override
-          protected TemporaryFileBackedOutputStream createTemporaryFileBackedOutputStream() {
-            return tfbos;
-          }
-        };
-
-    ResourceResponse resourceResponse = mock(ResourceResponse.class);
-    Resource resource = mock(Resource.class);
-    when(resource.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[] {(byte) 0}));
-    when(resourceResponse.getResource()).thenReturn(resource);
-
-    try {
-      catalogOutputAdapter.getNitfSegmentsFlow(resourceResponse);
-      fail("expected an exception, shouldn't reach this line");
-    } catch (IOException e) {
-      assertThat(e, notNullValue());
-    }
-
-    verify(tfbos).close();
-  }
-
   @Test
   public void testFormatToDMS() {
     assertThat(catalogOutputAdapter.formatToDMS(30, 30), is("300000N0300000E"));
@@ -645,33 +613,17 @@ public class CatalogOutputAdapterTest {
     assertThat(catalogOutputAdapter.formatToDMS(-30, -30), is("300000S0300000W"));
   }
 
-  @SuppressWarnings("unchecked")
   @Test
-  public void testGetNitfSegmentsFlowTFBOSThrowsDuringRead()
+  public void testGetNitfSegmentsFlowClosesResourceStreamOnFailure()
       throws IOException, NitfFormatException {
-
     InputStream inputStream = mock(InputStream.class);
     when(inputStream.read()).thenThrow(IOException.class);
     when(inputStream.read(anyObject())).thenThrow(IOException.class);
     when(inputStream.read(anyObject(), anyInt(), anyInt())).thenThrow(IOException.class);
 
-    ByteSource byteSource = mock(ByteSource.class);
-    when(byteSource.openBufferedStream()).thenReturn(inputStream);
-
-    TemporaryFileBackedOutputStream tfbos = mock(TemporaryFileBackedOutputStream.class);
-    when(tfbos.asByteSource()).thenReturn(byteSource);
-
-    catalogOutputAdapter =
-        new CatalogOutputAdapter(new Semaphore(3, true)) {
-          @Override
-          protected TemporaryFileBackedOutputStream createTemporaryFileBackedOutputStream() {
-            return tfbos;
-          }
-        };
-
     ResourceResponse resourceResponse = mock(ResourceResponse.class);
     Resource resource = mock(Resource.class);
-    when(resource.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[] {(byte) 0}));
+    when(resource.getInputStream()).thenReturn(inputStream);
     when(resourceResponse.getResource()).thenReturn(resource);
 
     try {
@@ -681,42 +633,39 @@ public class CatalogOutputAdapterTest {
       assertThat(e, notNullValue());
     }
 
-    verify(tfbos).close();
     verify(inputStream).close();
   }
 
-  @SuppressWarnings("unchecked")
-  @Test
-  public void testGetNitfSegmentsFlowTFBOSAsBytesourceThrows()
-      throws IOException, NitfFormatException {
-
-    ByteSource byteSource = mock(ByteSource.class);
-    when(byteSource.openBufferedStream()).thenThrow(IOException.class);
-
-    TemporaryFileBackedOutputStream tfbos = mock(TemporaryFileBackedOutputStream.class);
-    when(tfbos.asByteSource()).thenReturn(byteSource);
+  /** A chip whose consumer closes the stream early must not keep the only writer thread busy. */
+  @Test(timeout = 60000)
+  public void testClosedChipStreamReleasesWriter()
+      throws MimeTypeParseException, NitfFormatException, IOException, NoSuchMethodException,
+          IllegalAccessException, InvocationTargetException, InstantiationException {
+    catalogOutputAdapter = new CatalogOutputAdapter(lock, 1);
+
+    BufferedImage chipImage = new BufferedImage(512, 512, BufferedImage.TYPE_BYTE_GRAY);
+    Random random = new Random(0);
+    for (int y = 0; y < chipImage.getHeight(); y++) {
+      for (int x = 0; x < chipImage.getWidth(); x++) {
+        chipImage.getRaster().setSample(x, y, 0, random.nextInt(256));
+      }
+    }
 
-    catalogOutputAdapter =
-        new CatalogOutputAdapter(new Semaphore(3, true)) {
-          @Override
-          protected TemporaryFileBackedOutputStream createTemporaryFileBackedOutputStream() {
-            return tfbos;
-          }
-        };
+    catalogOutputAdapter
+        .getNitfBinaryContent(chipImage, createGenericNitfSegmentFlow(600, 600), 0, 0)
+        .getInputStream()
+        .close();
 
-    ResourceResponse resourceResponse = mock(ResourceResponse.class);
-    Resource resource = mock(Resource.class);
-    when(resource.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[] {(byte) 0}));
-    when(resourceResponse.getResource()).thenReturn(resource);
+    BinaryContent binaryContent =
+        catalogOutputAdapter.getNitfBinaryContent(
+            chipImage, createGenericNitfSegmentFlow(600, 600), 0, 0);
 
-    try {
-      catalogOutputAdapter.getNitfSegmentsFlow(resourceResponse);
-      fail("expected an exception, shouldn't reach this line");
-    } catch (IOException | NitfFormatException e) {
-      assertThat(e, notNullValue());
-    }
+    NitfSegmentsFlow chipNitfSegmentFlow =
+        new NitfParserInputFlowImpl().inputStream(binaryContent.getInputStream()).allData();
 
-    verify(tfbos).close();
+    List<ImageSegment> imageSegments = new ArrayList<>();
+    chipNitfSegmentFlow.forEachImageSegment(imageSegments::add);
+    assertThat(imageSegments.size(), is(1));
   }
 
   private ImageCoordinates getImageCoordinates() throws NitfFormatException {
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.imaging.chip.transformer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+
+import com.github.jaiimageio.jpeg2000.impl.J2KImageReader;
+import com.github.jaiimageio.jpeg2000.impl.J2KImageReaderSpi;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class Jpeg2000ServiceImplTest {
+
+  private static final int BLOCK_SIZE = 1024;
+
+  /** Covers a 3x2 grid of blocks, with partial blocks on the right and bottom edges. */
+  private static final int WIDTH = 2500;
+
+  private static final int HEIGHT = 1100;
+
+  /** The largest mean difference per sample allowed between two lossy encodes of the image. */
+  private static final double MAX_MEAN_DIFFERENCE = 4.0;
+
+  private ExecutorService executorService;
+
+  private BufferedImage image;
+
+  @Before
+  public void setUp() {
+    executorService = Executors.newFixedThreadPool(2);
+    image = createImage();
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testConcurrentEncodeMatchesSequentialEncode() throws IOException {
+    byte[] sequential = new Jpeg2000ServiceImpl().createJpeg(image, BLOCK_SIZE, BLOCK_SIZE);
+    byte[] concurrent =
+        new Jpeg2000ServiceImpl(executorService).createJpeg(image, BLOCK_SIZE, BLOCK_SIZE);
+
+    BufferedImage sequentialImage = decode(sequential);
+    BufferedImage concurrentImage = decode(concurrent);
+
+    assertThat(concurrentImage.getWidth(), is(WIDTH));
+    assertThat(concurrentImage.getHeight(), is(HEIGHT));
+    assertThat(meanDifference(concurrentImage, sequentialImage), lessThan(MAX_MEAN_DIFFERENCE));
+    assertThat(meanDifference(concurrentImage, image), lessThan(MAX_MEAN_DIFFERENCE));
+  }
+
+  @Test
+  public void testConcurrentEncodeWritesACodestream() throws IOException {
+    assertCodestream(
+        new Jpeg2000ServiceImpl(executorService).createJpeg(image, BLOCK_SIZE, BLOCK_SIZE));
+  }
+
+  @Test
+  public void testSequentialEncodeWritesAJp2File() throws IOException {
+    assertJp2File(new Jpeg2000ServiceImpl().createJpeg(image));
+    assertJp2File(new Jpeg2000ServiceImpl().createJpeg(image, BLOCK_SIZE, BLOCK_SIZE));
+  }
+
+  @Test
+  public void testRejectedBlocksAreEncodedSequentially() throws IOException {
+    executorService.shutdown();
+
+    byte[] jp2File =
+        new Jpeg2000ServiceImpl(executorService).createJpeg(image, BLOCK_SIZE, BLOCK_SIZE);
+
+    assertJp2File(jp2File);
+    assertThat(meanDifference(decode(jp2File), image), lessThan(MAX_MEAN_DIFFERENCE));
+  }
+
+  /**
+   * Each block gets its own gradient, so a block that is spliced into the wrong place or decoded
+   * with the wrong tile grid shows up as a large difference.
+   */
+  private BufferedImage createImage() {
+    BufferedImage bufferedImage = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+    for (int y = 0; y < HEIGHT; y++) {
+      for (int x = 0; x < WIDTH; x++) {
+        int block = (y / BLOCK_SIZE) * 3 + x / BLOCK_SIZE;
+        int value = block * 40 + (x % BLOCK_SIZE + y % BLOCK_SIZE) / 64;
+        bufferedImage.getRaster().setSample(x, y, 0, value);
+      }
+    }
+    return bufferedImage;
+  }
+
+  private BufferedImage decode(byte[] codestream) throws IOException {
+    J2KImageReader reader = new J2KImageReader(new J2KImageReaderSpi());
+    try (ImageInputStream inputStream =
+        ImageIO.createImageInputStream(new ByteArrayInputStream(codestream))) {
+      reader.setInput(inputStream);
+      return reader.read(0);
+    } finally {
+      reader.dispose();
+    }
+  }
+
+  private double meanDifference(BufferedImage actual, BufferedImage expected) {
+    Raster actualRaster = actual.getRaster();
+    Raster expectedRaster = expected.getRaster();
+    double total = 0;
+    for (int y = 0; y < HEIGHT; y++) {
+      for (int x = 0; x < WIDTH; x++) {
+        total += Math.abs(actualRaster.getSample(x, y, 0) - expectedRaster.getSample(x, y, 0));
+      }
+    }
+    return total / ((double) WIDTH * HEIGHT);
+  }
+
+  /** A codestream starts with the SOC marker, while a JP2 file starts with a signature box. */
+  private void assertCodestream(byte[] data) {
+    assertThat(data[0] & 0xFF, is(0xFF));
+    assertThat(data[1] & 0xFF, is(0x4F));
+  }
+
+  /** A JP2 file starts with the 12 byte signature box. */
+  private void assertJp2File(byte[] data) {
+    assertThat(data[3] & 0xFF, is(0x0C));
+    assertThat(new String(data, 4, 4, StandardCharsets.US_ASCII), is("jP  "));
+  }
+}
@@ -14,9 +14,24 @@
 package org.codice.alliance.transformer.nitf;
 
 import ddf.catalog.transform.CatalogTransformerException;
+import java.io.FileInputStream;
+import java.io.InputStream;
 
 public class NitfParserAdapter {
 
+  /**
+   * @param inputStream the NITF to be transformed.
+   * @return the channel of 'inputStream' when it reads a file, so that the NITF is parsed through
+   *     the seekable channel path of the parser, otherwise 'inputStream'. The channel is closed
+   *     with the stream by the caller.
+   */
+  public Object toParserSource(InputStream inputStream) {
+    if (inputStream instanceof FileInputStream) {
+      return ((FileInputStream) inputStream).getChannel();
+    }
+    return inputStream;
+  }
+
   /**
    * @param exception the exception to be wrapped.
    * @throws CatalogTransformerException in every case.
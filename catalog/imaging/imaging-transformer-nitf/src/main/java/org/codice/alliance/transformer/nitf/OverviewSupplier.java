@@ -27,6 +27,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import javax.imageio.ImageIO;
+import org.codice.alliance.imaging.chip.service.api.DecodedImageCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,21 +36,40 @@ public class OverviewSupplier
 
   private static final Logger LOGGER = LoggerFactory.getLogger(OverviewSupplier.class);
 
+  private static final String OVERVIEW = "overview";
+
   private final MetacardTransformer resourceMetacardTransformer;
 
+  private final DecodedImageCache overviewCache;
+
   public OverviewSupplier(MetacardTransformer resourceMetacardTransformer) {
+    this(resourceMetacardTransformer, null);
+  }
+
+  /**
+   * @param resourceMetacardTransformer the transformer that retrieves the overview resource. The
+   *     resource is retrieved for every request, so access to a cached overview is checked the same
+   *     way as access to the resource.
+   * @param overviewCache the shared cache of decoded images, or null to decode every request.
+   */
+  public OverviewSupplier(
+      MetacardTransformer resourceMetacardTransformer, DecodedImageCache overviewCache) {
     this.resourceMetacardTransformer = resourceMetacardTransformer;
+    this.overviewCache = overviewCache;
   }
 
   @Override
   public Optional<BufferedImage> apply(Metacard metacard, Map<String, Serializable> arguments) {
     try {
       final Map<String, Serializable> resourceTransformerArguments = new HashMap<>();
-      resourceTransformerArguments.put(ContentItem.QUALIFIER_KEYWORD, "overview");
+      resourceTransformerArguments.put(ContentItem.QUALIFIER_KEYWORD, OVERVIEW);
       final BinaryContent overviewContent =
           resourceMetacardTransformer.transform(metacard, resourceTransformerArguments);
       try (final InputStream inputStream = overviewContent.getInputStream()) {
-        return Optional.ofNullable(ImageIO.read(inputStream));
+        if (overviewCache == null || metacard.getId() == null) {
+          return Optional.ofNullable(ImageIO.read(inputStream));
+        }
+        return Optional.ofNullable(getCachedOverview(metacard, inputStream));
       }
     } catch (IOException | CatalogTransformerException e) {
       LOGGER.debug("Could not get the overview image.", e);
@@ -57,4 +77,28 @@ public class OverviewSupplier
 
     return Optional.empty();
   }
+
+  private BufferedImage getCachedOverview(Metacard metacard, InputStream inputStream)
+      throws IOException {
+    final long modified = DecodedImageCache.getModified(metacard);
+
+    final BufferedImage cached =
+        overviewCache.get(metacard.getSourceId(), metacard.getId(), OVERVIEW, modified);
+    if (cached != null) {
+      LOGGER.trace("using the cached overview of metacard {}", metacard.getId());
+      return cached;
+    }
+
+    final BufferedImage image = ImageIO.read(inputStream);
+    if (image != null) {
+      overviewCache.put(metacard.getSourceId(), metacard.getId(), OVERVIEW, modified, image);
+      LOGGER.debug(
+          "overview cache: hit rate = {}, hits = {}, disk hits = {}, misses = {}",
+          overviewCache.getHitRate(),
+          overviewCache.getHitCount(),
+          overviewCache.getDiskHitCount(),
+          overviewCache.getMissCount());
+    }
+    return image;
+  }
 }
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.transformer.nitf.common;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.AttributeImpl;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the values of the metacard attributes found while handling the segments of a NITF, so
+ * that each attribute is written to the metacard once, by {@link #flush()}, instead of being copied
+ * every time a value is added to it.
+ */
+public class AttributeAccumulator {
+
+  private final Metacard metacard;
+
+  private final Map<String, List<Serializable>> values = new LinkedHashMap<>();
+
+  public AttributeAccumulator(Metacard metacard) {
+    if (metacard == null) {
+      throw new IllegalArgumentException("argument 'metacard' may not be null.");
+    }
+    this.metacard = metacard;
+  }
+
+  public Metacard getMetacard() {
+    return metacard;
+  }
+
+  /**
+   * @param attributeName the name of the metacard attribute.
+   * @param value the value to add to the attribute.
+   */
+  public void add(String attributeName, Serializable value) {
+    values.computeIfAbsent(attributeName, name -> new ArrayList<>()).add(value);
+  }
+
+  /**
+   * Writes the collected values to the metacard, appending them to the values of attributes that
+   * are already set, and clears the collected values.
+   */
+  public void flush() {
+    values.forEach(
+        (name, collected) -> {
+          Attribute current = metacard.getAttribute(name);
+          List<Serializable> attributeValues = collected;
+          if (current != null && current.getValues() != null) {
+            attributeValues = new ArrayList<>(current.getValues().size() + collected.size());
+            attributeValues.addAll(current.getValues());
+            attributeValues.addAll(collected);
+          }
+          metacard.setAttribute(new AttributeImpl(name, attributeValues));
+        });
+    values.clear();
+  }
+}
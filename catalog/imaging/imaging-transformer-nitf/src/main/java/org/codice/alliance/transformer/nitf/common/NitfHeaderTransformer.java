@@ -26,12 +26,14 @@ public class NitfHeaderTransformer extends SegmentHandler {
       throw new IllegalArgumentException(NULL_ARGUMENT_MESSAGE);
     }
 
-    nitfSegmentsFlow.fileHeader(header -> handleNitfHeader(metacard, header));
+    AttributeAccumulator accumulator = new AttributeAccumulator(metacard);
+    nitfSegmentsFlow.fileHeader(header -> handleNitfHeader(accumulator, header));
+    accumulator.flush();
     return nitfSegmentsFlow;
   }
 
-  private void handleNitfHeader(Metacard metacard, NitfHeader header) {
-    handleSegmentHeader(metacard, header, NitfHeaderAttribute.getAttributes());
-    handleTres(metacard, header);
+  private void handleNitfHeader(AttributeAccumulator accumulator, NitfHeader header) {
+    handleSegmentHeader(accumulator, header, NitfHeaderAttribute.getAttributes());
+    handleTres(accumulator, header);
   }
 }
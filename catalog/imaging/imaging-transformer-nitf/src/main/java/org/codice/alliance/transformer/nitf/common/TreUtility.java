@@ -14,11 +14,15 @@
 package org.codice.alliance.transformer.nitf.common;
 
 import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.TimeZone;
-import java.util.regex.Pattern;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.FastDateFormat;
@@ -38,41 +42,48 @@ public final class TreUtility {
   private static final FastDateFormat DATE_FORMATTER =
       FastDateFormat.getInstance(TRE_DATE_FORMAT, TimeZone.getTimeZone("GMT"));
 
-  private static final String DIGITS_REGEX = "(\\p{Digit}+)";
-
-  private static final String HEX_DIGITS_REGEX = "(\\p{XDigit}+)";
-
-  private static final String EXP_REGEX = "[eE][+-]?" + DIGITS_REGEX;
-
-  private static final String FLOATING_POINT_REGEX =
-      ("[\\x00-\\x20]*[+-]?(NaN|Infinity|((("
-          + DIGITS_REGEX
-          + "(\\.)?("
-          + DIGITS_REGEX
-          + "?)("
-          + EXP_REGEX
-          + ")?)|(\\.("
-          + DIGITS_REGEX
-          + ")("
-          + EXP_REGEX
-          + ")?)|(((0[xX]"
-          + HEX_DIGITS_REGEX
-          + "(\\.)?)|(0[xX]"
-          + HEX_DIGITS_REGEX
-          + "?(\\.)"
-          + HEX_DIGITS_REGEX
-          + "))[pP][+-]?"
-          + DIGITS_REGEX
-          + "))[fFdD]?))[\\x00-\\x20]*");
-
-  private static final Pattern FLOAT_PATTERN = Pattern.compile(FLOATING_POINT_REGEX);
-
-  private static final Pattern INTEGER_PATTERN = Pattern.compile("[+-]?\\d+");
+  /** Dates before the Gregorian cutover are left to the formatter's calendar. */
+  private static final int MIN_DIRECT_YEAR = 1600;
+
+  /**
+   * The field values of the TREs being handled by {@link #withFieldIndex(TreGroup, Runnable)},
+   * keyed by TRE identity. Looking a field up in a TRE is a linear scan of its entries that throws
+   * when the field is absent, so a TRE with many fields is indexed once instead.
+   */
+  private static final ThreadLocal<Map<TreGroup, Map<String, String>>> FIELD_INDEX =
+      new ThreadLocal<>();
 
   private TreUtility() {}
 
+  /**
+   * Runs {@code action} with the field values of {@code tre}, and of any TRE group read during the
+   * action, served from an index built with a single pass over the entries of each group.
+   *
+   * @param tre the TRE whose fields will be read by the action.
+   * @param action the action reading the fields.
+   */
+  public static void withFieldIndex(TreGroup tre, Runnable action) {
+    if (FIELD_INDEX.get() != null) {
+      action.run();
+      return;
+    }
+
+    FIELD_INDEX.set(new IdentityHashMap<>());
+    try {
+      action.run();
+    } finally {
+      FIELD_INDEX.remove();
+    }
+  }
+
   @Nullable
   public static String getTreValue(TreGroup tre, String key) {
+    Map<TreGroup, Map<String, String>> index = FIELD_INDEX.get();
+    if (index != null) {
+      String value = index.computeIfAbsent(tre, TreUtility::indexFields).get(key);
+      return value != null ? value.trim() : null;
+    }
+
     try {
       String value = tre.getFieldValue(key);
 
@@ -87,6 +98,17 @@ public final class TreUtility {
     return null;
   }
 
+  private static Map<String, String> indexFields(TreGroup tre) {
+    List<TreEntry> entries = tre.getEntries();
+    Map<String, String> fields = new HashMap<>(entries.size() * 2);
+    for (TreEntry entry : entries) {
+      if (!fields.containsKey(entry.getName())) {
+        fields.put(entry.getName(), entry.getFieldValue());
+      }
+    }
+    return fields;
+  }
+
   @Nullable
   public static List<TreGroup> getTreGroups(TreGroup tre, String entry) {
     try {
@@ -108,7 +130,7 @@ public final class TreUtility {
   @Nullable
   public static Integer convertToInteger(Tre tre, String fieldName) {
     String value = TreUtility.getTreValue(tre, fieldName);
-    if (StringUtils.isNotEmpty(value) && INTEGER_PATTERN.matcher(value).matches()) {
+    if (StringUtils.isNotEmpty(value) && isInteger(value)) {
       return Integer.valueOf(value);
     }
     return null;
@@ -126,8 +148,12 @@ public final class TreUtility {
   @Nullable
   public static Float convertToFloat(Tre tre, String fieldName) {
     String value = TreUtility.getTreValue(tre, fieldName);
-    if (StringUtils.isNotEmpty(value) && FLOAT_PATTERN.matcher(value).matches()) {
-      return Float.valueOf(value);
+    if (StringUtils.isNotEmpty(value) && isFloatStart(value.charAt(0))) {
+      try {
+        return Float.valueOf(value);
+      } catch (NumberFormatException e) {
+        LOGGER.trace("{} is not a float", value, e);
+      }
     }
     return null;
   }
@@ -147,11 +173,67 @@ public final class TreUtility {
     String value = TreUtility.getTreValue(tre, fieldName);
     if (StringUtils.isNotEmpty(value)) {
       try {
-        return DATE_FORMATTER.parse(value);
+        return parseDate(value);
       } catch (ParseException e) {
         LOGGER.debug("Unable to parse date {} according to format {}", value, TRE_DATE_FORMAT, e);
       }
     }
     return null;
   }
+
+  /** Matches {@code [+-]?[0-9]+}. */
+  private static boolean isInteger(String value) {
+    int start = value.charAt(0) == '+' || value.charAt(0) == '-' ? 1 : 0;
+    if (start == value.length()) {
+      return false;
+    }
+    for (int i = start; i < value.length(); i++) {
+      if (!isDigit(value.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Rejects most non-numeric values before {@link Float#valueOf(String)} is asked to parse them, so
+   * that text fields don't pay for a NumberFormatException.
+   */
+  private static boolean isFloatStart(char c) {
+    return isDigit(c) || c == '+' || c == '-' || c == '.' || c == 'N' || c == 'I';
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  /**
+   * Parses a {@link #TRE_DATE_FORMAT} value. Values of exactly fourteen digits are converted
+   * directly with the same lenient field arithmetic as the formatter, which handles anything else.
+   */
+  static Date parseDate(String value) throws ParseException {
+    if (value.length() != 14 || !isInteger(value) || !isDigit(value.charAt(0))) {
+      return DATE_FORMATTER.parse(value);
+    }
+
+    int year = Integer.parseInt(value.substring(0, 4));
+    if (year < MIN_DIRECT_YEAR) {
+      return DATE_FORMATTER.parse(value);
+    }
+
+    int month = Integer.parseInt(value.substring(4, 6));
+    int day = Integer.parseInt(value.substring(6, 8));
+    int hour = Integer.parseInt(value.substring(8, 10));
+    int minute = Integer.parseInt(value.substring(10, 12));
+    int second = Integer.parseInt(value.substring(12, 14));
+
+    LocalDateTime dateTime =
+        LocalDateTime.of(year, 1, 1, 0, 0)
+            .plusMonths(month - 1L)
+            .plusDays(day - 1L)
+            .plusHours(hour == 24 ? 0 : hour)
+            .plusMinutes(minute)
+            .plusSeconds(second);
+    return new Date(dateTime.toInstant(ZoneOffset.UTC).toEpochMilli());
+  }
 }
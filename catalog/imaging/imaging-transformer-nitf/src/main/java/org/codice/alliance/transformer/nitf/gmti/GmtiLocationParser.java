@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.transformer.nitf.gmti;
+
+import javax.annotation.Nullable;
+import org.locationtech.jts.geom.Coordinate;
+
+/**
+ * Parses MTIRPB locations of the form {@code [+-]DD.dddddd[d][+-]DDD.dddddd[d]} without regular
+ * expressions or intermediate WKT.
+ */
+final class GmtiLocationParser {
+
+  private static final int MIN_FRACTION_DIGITS = 6;
+
+  private static final int MAX_FRACTION_DIGITS = 7;
+
+  private static final int FIRST_INTEGER_DIGITS = 2;
+
+  private static final int SECOND_INTEGER_DIGITS = 3;
+
+  private GmtiLocationParser() {}
+
+  /**
+   * @param location the MTIRPB location.
+   * @return the index at which the second value of {@code location} starts, or -1 if {@code
+   *     location} is not a valid MTIRPB location.
+   */
+  static int split(@Nullable String location) {
+    if (location == null) {
+      return -1;
+    }
+
+    for (int fraction = MIN_FRACTION_DIGITS; fraction <= MAX_FRACTION_DIGITS; fraction++) {
+      int split = FIRST_INTEGER_DIGITS + fraction + 2;
+      if (isValue(location, 0, split, FIRST_INTEGER_DIGITS)
+          && isValue(location, split, location.length(), SECOND_INTEGER_DIGITS)) {
+        return split;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @param location the MTIRPB location.
+   * @return a coordinate whose x is the first value and whose y is the second value of {@code
+   *     location}, or null if {@code location} is not a valid MTIRPB location.
+   */
+  @Nullable
+  static Coordinate parse(@Nullable String location) {
+    int split = split(location);
+    if (split < 0) {
+      return null;
+    }
+    return new Coordinate(
+        Double.parseDouble(location.substring(0, split)),
+        Double.parseDouble(location.substring(split)));
+  }
+
+  private static boolean isValue(String location, int start, int end, int integerDigits) {
+    int fraction = end - start - integerDigits - 2;
+    if (end > location.length()
+        || fraction < MIN_FRACTION_DIGITS
+        || fraction > MAX_FRACTION_DIGITS) {
+      return false;
+    }
+
+    char sign = location.charAt(start);
+    if (sign != '+' && sign != '-') {
+      return false;
+    }
+
+    int point = start + 1 + integerDigits;
+    for (int i = start + 1; i < end; i++) {
+      char c = location.charAt(i);
+      if (i == point ? c != '.' : c < '0' || c > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -26,6 +26,6 @@ public class GmtiMetacardType extends AbstractNitfMetacardType {
 
   @Override
   public void initDescriptors() {
-    // Not intended to be implemented
+    addAll(GmtiTargetSummary.getDescriptors());
   }
 }
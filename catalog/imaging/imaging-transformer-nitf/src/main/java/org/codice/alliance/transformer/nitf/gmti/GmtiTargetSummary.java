@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.transformer.nitf.gmti;
+
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType;
+import ddf.catalog.data.impl.AttributeDescriptorImpl;
+import ddf.catalog.data.impl.BasicTypes;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import org.codice.alliance.transformer.nitf.ExtNitfUtility;
+
+/** Attributes derived from all of the MTIRPB targets of a GMTI NITF. */
+public final class GmtiTargetSummary {
+
+  private static final String PREFIX = ExtNitfUtility.EXT_NITF_PREFIX + "mtirpb.";
+
+  /** The convex hull of the target locations. */
+  public static final String TARGET_FOOTPRINT = PREFIX + "target-footprint";
+
+  /** The number of targets with a valid location. */
+  public static final String TARGET_COUNT = PREFIX + "target-count";
+
+  private static final Set<AttributeDescriptor> DESCRIPTORS = createDescriptors();
+
+  private GmtiTargetSummary() {}
+
+  /**
+   * @param category the target classification category.
+   * @return the name of the attribute holding the number of targets in {@code category}, e.g.
+   *     'ext.nitf.mtirpb.target-count.wheeled'.
+   */
+  static String getCategoryCountName(MtiTargetClassificationCategory category) {
+    return TARGET_COUNT + "." + category.getLongName().toLowerCase(Locale.ROOT);
+  }
+
+  public static Set<AttributeDescriptor> getDescriptors() {
+    return DESCRIPTORS;
+  }
+
+  private static Set<AttributeDescriptor> createDescriptors() {
+    Set<AttributeDescriptor> descriptors = new HashSet<>();
+    descriptors.add(createDescriptor(TARGET_FOOTPRINT, BasicTypes.GEO_TYPE));
+    descriptors.add(createDescriptor(TARGET_COUNT, BasicTypes.INTEGER_TYPE));
+    for (MtiTargetClassificationCategory category : MtiTargetClassificationCategory.values()) {
+      descriptors.add(createDescriptor(getCategoryCountName(category), BasicTypes.INTEGER_TYPE));
+    }
+    return Collections.unmodifiableSet(descriptors);
+  }
+
+  private static AttributeDescriptor createDescriptor(String name, AttributeType type) {
+    return new AttributeDescriptorImpl(
+        name,
+        true, /* indexed */
+        true, /* stored */
+        false, /* tokenized */
+        false, /* multivalued */
+        type);
+  }
+}
@@ -17,15 +17,18 @@ import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.types.Core;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import org.apache.commons.lang3.StringUtils;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import org.codice.alliance.transformer.nitf.common.SegmentHandler;
 import org.codice.imaging.nitf.fluent.NitfSegmentsFlow;
-import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.GeometryFactory;
-import org.locationtech.jts.io.ParseException;
-import org.locationtech.jts.io.WKTReader;
+import org.locationtech.jts.geom.MultiPoint;
+import org.locationtech.jts.geom.PrecisionModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,12 +36,6 @@ public class NitfGmtiTransformer extends SegmentHandler {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(NitfGmtiTransformer.class);
 
-  // Handles locations that have either 6 or 7 decimal places
-  private static final String LOCATION_REGEX =
-      "([+\\-]\\d{2}+\\.\\d{6,7}+)([+\\-]\\d{3}+\\.\\d{6,7})";
-
-  private static final Pattern LOCATION_PATTERN = Pattern.compile(LOCATION_REGEX);
-
   private GeometryFactory geometryFactory;
 
   public Metacard transform(NitfSegmentsFlow nitfSegmentsFlow, Metacard metacard) {
@@ -58,75 +55,89 @@ public class NitfGmtiTransformer extends SegmentHandler {
   }
 
   private void transformTargetLocation(Metacard metacard) {
-    String locationString = formatTargetLocation(metacard);
-
-    try {
-      LOGGER.debug("Formatted Target Location(s) = {}", locationString);
-
-      if (locationString != null) {
-        // validate the wkt
-        WKTReader wktReader = new WKTReader(geometryFactory);
-        Geometry geometry = wktReader.read(locationString);
-
-        LOGGER.debug("Setting the metacard attribute [{}, {}]", Core.LOCATION, geometry.toText());
-        IndexedMtirpbAttribute.INDEXED_TARGET_LOCATION_ATTRIBUTE
-            .getAttributeDescriptors()
-            .forEach(
-                descriptor ->
-                    setMetacardAttribute(metacard, descriptor.getName(), geometry.toText()));
-      }
-
-    } catch (ParseException e) {
-      LOGGER.debug(e.getMessage(), e);
-    }
-  }
-
-  private String formatTargetLocation(Metacard metacard) {
     Attribute locationAttribute =
         IndexedMtirpbAttribute.INDEXED_TARGET_LOCATION_ATTRIBUTE.getAttributeDescriptors().stream()
             .map(descriptor -> metacard.getAttribute(descriptor.getName()))
+            .filter(Objects::nonNull)
             .findFirst()
             .orElse(null);
 
-    if (locationAttribute != null) {
-      StringBuilder stringBuilder = new StringBuilder("MULTIPOINT (");
+    if (locationAttribute == null || locationAttribute.getValues() == null) {
+      return;
+    }
+
+    Coordinate[] coordinates = parseTargetLocations(locationAttribute.getValues());
 
-      locationAttribute
-          .getValues()
-          .forEach(
-              value -> {
-                parseLocation(stringBuilder, value.toString());
-                stringBuilder.append(",");
-              });
-
-      stringBuilder.deleteCharAt(stringBuilder.lastIndexOf(","));
-      stringBuilder.append(")");
-      return stringBuilder.toString();
+    if (coordinates.length == 0) {
+      LOGGER.debug("No valid target locations found on metacard {}", metacard.getId());
+      return;
     }
 
-    return null;
+    MultiPoint targets = geometryFactory.createMultiPointFromCoords(coordinates);
+    String wkt = targets.toText();
+
+    LOGGER.debug("Setting the metacard attribute [{}, {}]", Core.LOCATION, wkt);
+    IndexedMtirpbAttribute.INDEXED_TARGET_LOCATION_ATTRIBUTE
+        .getAttributeDescriptors()
+        .forEach(descriptor -> setMetacardAttribute(metacard, descriptor.getName(), wkt));
+
+    metacard.setAttribute(
+        new AttributeImpl(GmtiTargetSummary.TARGET_FOOTPRINT, targets.convexHull().toText()));
+    metacard.setAttribute(new AttributeImpl(GmtiTargetSummary.TARGET_COUNT, coordinates.length));
+    transformTargetCategoryCounts(metacard);
   }
 
-  private void transformAircraftLocation(Metacard metacard) {
-    String aircraftLocation = formatAircraftLocation(metacard);
+  private Coordinate[] parseTargetLocations(List<Serializable> values) {
+    PrecisionModel precisionModel = geometryFactory.getPrecisionModel();
+    Coordinate[] coordinates = new Coordinate[values.size()];
+    int count = 0;
 
-    try {
-      LOGGER.debug("Formatted Aircraft Location = {}", aircraftLocation);
+    for (Serializable value : values) {
+      Coordinate coordinate = GmtiLocationParser.parse(value == null ? null : value.toString());
+      if (coordinate == null) {
+        LOGGER.debug("Skipping invalid target location {}", value);
+        continue;
+      }
+      precisionModel.makePrecise(coordinate);
+      coordinates[count++] = coordinate;
+    }
+
+    return count == coordinates.length ? coordinates : Arrays.copyOf(coordinates, count);
+  }
 
-      if (aircraftLocation != null) {
-        // validate the wkt
-        WKTReader wktReader = new WKTReader(geometryFactory);
-        wktReader.read(aircraftLocation);
+  private void transformTargetCategoryCounts(Metacard metacard) {
+    Attribute categoryAttribute =
+        metacard.getAttribute(IndexedMtirpbAttribute.INDEXED_TARGET_CLASSIFICATION_CATEGORY);
+
+    if (categoryAttribute == null || categoryAttribute.getValues() == null) {
+      return;
+    }
 
-        MtirpbAttribute.AIRCRAFT_LOCATION_ATTRIBUTE
-            .getAttributeDescriptors()
-            .forEach(
-                descriptor ->
-                    setMetacardAttribute(metacard, descriptor.getName(), aircraftLocation));
+    Map<String, Integer> counts = new HashMap<>();
+    for (Serializable value : categoryAttribute.getValues()) {
+      if (value != null) {
+        counts.merge(value.toString(), 1, Integer::sum);
       }
+    }
+
+    for (MtiTargetClassificationCategory category : MtiTargetClassificationCategory.values()) {
+      metacard.setAttribute(
+          new AttributeImpl(
+              GmtiTargetSummary.getCategoryCountName(category),
+              counts.getOrDefault(category.getLongName(), 0)));
+    }
+  }
+
+  private void transformAircraftLocation(Metacard metacard) {
+    String aircraftLocation = formatAircraftLocation(metacard);
+
+    LOGGER.debug("Formatted Aircraft Location = {}", aircraftLocation);
 
-    } catch (ParseException e) {
-      LOGGER.debug(e.getMessage(), e);
+    if (aircraftLocation != null) {
+      MtirpbAttribute.AIRCRAFT_LOCATION_ATTRIBUTE
+          .getAttributeDescriptors()
+          .forEach(
+              descriptor -> setMetacardAttribute(metacard, descriptor.getName(), aircraftLocation));
     }
   }
 
@@ -134,40 +145,26 @@ public class NitfGmtiTransformer extends SegmentHandler {
     Attribute aircraftLocation =
         MtirpbAttribute.AIRCRAFT_LOCATION_ATTRIBUTE.getAttributeDescriptors().stream()
             .map(descriptor -> metacard.getAttribute(descriptor.getName()))
+            .filter(Objects::nonNull)
             .findFirst()
             .orElse(null);
 
-    if (aircraftLocation != null
-        && StringUtils.isNotEmpty(aircraftLocation.getValue().toString())) {
-
+    if (aircraftLocation != null && aircraftLocation.getValue() != null) {
       String unformattedAircraftLocation = aircraftLocation.getValue().toString();
-
-      StringBuilder sb = new StringBuilder("POINT (");
-      parseLocation(sb, unformattedAircraftLocation);
-      sb.append(")");
-
-      return sb.toString();
+      int split = GmtiLocationParser.split(unformattedAircraftLocation);
+
+      if (split > 0) {
+        return "POINT ("
+            + unformattedAircraftLocation.substring(0, split)
+            + " "
+            + unformattedAircraftLocation.substring(split)
+            + ")";
+      }
     }
 
     return null;
   }
 
-  private void parseLocation(StringBuilder stringBuilder, String locationString) {
-
-    if (StringUtils.isEmpty(locationString)) {
-      return;
-    }
-
-    Matcher matcher = LOCATION_PATTERN.matcher(locationString);
-
-    if (matcher.matches()) {
-      String lon = matcher.group(1);
-      String lat = matcher.group(2);
-
-      stringBuilder.append(String.format("%s %s", lon, lat));
-    }
-  }
-
   public void setGeometryFactory(GeometryFactory geometryFactory) {
     this.geometryFactory = geometryFactory;
   }
@@ -23,6 +23,7 @@ import java.util.List;
 import org.apache.commons.lang3.StringUtils;
 import org.codice.alliance.catalog.core.api.types.Isr;
 import org.codice.alliance.transformer.nitf.NitfAttributeConverters;
+import org.codice.alliance.transformer.nitf.common.AttributeAccumulator;
 import org.codice.alliance.transformer.nitf.common.SegmentHandler;
 import org.codice.imaging.nitf.core.image.ImageCoordinates;
 import org.codice.imaging.nitf.core.image.ImageCoordinatesRepresentation;
@@ -67,21 +68,24 @@ public class NitfImageTransformer extends SegmentHandler {
 
     List<Polygon> polygonList = new ArrayList<>();
     List<Date> imageDateAndTimeList = new ArrayList<>();
+    AttributeAccumulator accumulator = new AttributeAccumulator(metacard);
 
     nitfSegmentsFlow
         .forEachImageSegment(
             segment ->
-                handleImageSegmentHeader(metacard, segment, polygonList, imageDateAndTimeList))
+                handleImageSegmentHeader(accumulator, segment, polygonList, imageDateAndTimeList))
         .forEachGraphicSegment(
-            segment -> handleSegmentHeader(metacard, segment, GraphicAttribute.values()))
+            segment -> handleSegmentHeader(accumulator, segment, GraphicAttribute.values()))
         .forEachTextSegment(
-            segment -> handleSegmentHeader(metacard, segment, TextAttribute.values()))
+            segment -> handleSegmentHeader(accumulator, segment, TextAttribute.values()))
         .forEachSymbolSegment(
-            segment -> handleSegmentHeader(metacard, segment, SymbolAttribute.values()))
+            segment -> handleSegmentHeader(accumulator, segment, SymbolAttribute.values()))
         .forEachLabelSegment(
-            segment -> handleSegmentHeader(metacard, segment, LabelAttribute.values()))
+            segment -> handleSegmentHeader(accumulator, segment, LabelAttribute.values()))
         .end();
 
+    accumulator.flush();
+
     // Set GEOGRAPHY from discovered polygons
     if (polygonList.size() == 1) {
       metacard.setAttribute(new AttributeImpl(Core.LOCATION, polygonList.get(0).toText()));
@@ -112,17 +116,17 @@ public class NitfImageTransformer extends SegmentHandler {
   }
 
   private void handleImageSegmentHeader(
-      Metacard metacard,
+      AttributeAccumulator accumulator,
       ImageSegment imagesegmentHeader,
       List<Polygon> polygons,
       List<Date> imageDateAndTimeList) {
 
-    handleSegmentHeader(metacard, imagesegmentHeader, ImageAttribute.getAttributes());
+    handleSegmentHeader(accumulator, imagesegmentHeader, ImageAttribute.getAttributes());
 
     // custom handling of image header fields
     handleGeometry(imagesegmentHeader, polygons);
-    handleComments(metacard, imagesegmentHeader.getImageComments());
-    handleTres(metacard, imagesegmentHeader);
+    handleComments(accumulator.getMetacard(), imagesegmentHeader.getImageComments());
+    handleTres(accumulator, imagesegmentHeader);
     imageDateAndTimeList.add(
         NitfAttributeConverters.nitfDate(imagesegmentHeader.getImageDateTime()));
   }
@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.transformer.nitf;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+
+import ddf.catalog.transform.CatalogTransformerException;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class NitfParserAdapterTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private NitfParserAdapter nitfParserAdapter = new NitfParserAdapter();
+
+  @Test
+  public void testFileInputStreamIsParsedThroughItsChannel() throws IOException {
+    try (FileInputStream inputStream = new FileInputStream(temporaryFolder.newFile())) {
+      Object source = nitfParserAdapter.toParserSource(inputStream);
+
+      assertThat(source, instanceOf(FileChannel.class));
+      assertThat(source, is(inputStream.getChannel()));
+    }
+  }
+
+  @Test
+  public void testOtherInputStreamsAreParsedAsStreams() {
+    InputStream inputStream = new ByteArrayInputStream(new byte[0]);
+
+    assertThat(nitfParserAdapter.toParserSource(inputStream), is(inputStream));
+  }
+
+  @Test(expected = CatalogTransformerException.class)
+  public void testWrapException() throws CatalogTransformerException {
+    nitfParserAdapter.wrapException(new IOException());
+  }
+}
@@ -15,13 +15,17 @@ package org.codice.alliance.transformer.nitf;
 
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.data.BinaryContent;
@@ -31,13 +35,23 @@ import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.types.Core;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.MetacardTransformer;
+import java.awt.image.BufferedImage;
 import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import org.codice.alliance.imaging.chip.service.impl.DecodedTileCache;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentMatcher;
 
 public class OverviewSupplierTest {
 
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private MetacardTransformer resourceMetacardTransformer;
+
   private OverviewSupplier supplier;
 
   private class IsMetacardWithDerivedOverviewResource extends ArgumentMatcher<Metacard> {
@@ -60,7 +74,7 @@ public class OverviewSupplierTest {
         .when(overviewContent)
         .getInputStream();
 
-    final MetacardTransformer resourceMetacardTransformer = mock(MetacardTransformer.class);
+    resourceMetacardTransformer = mock(MetacardTransformer.class);
     doReturn(overviewContent)
         .when(resourceMetacardTransformer)
         .transform(
@@ -82,6 +96,66 @@ public class OverviewSupplierTest {
     assertThat(supplier.apply(metacard, null).isPresent(), is(true));
   }
 
+  @Test
+  public void testCachedOverview() throws Exception {
+    final DecodedTileCache overviewCache =
+        new DecodedTileCache(64, Long.MAX_VALUE, Long.MAX_VALUE, temporaryFolder.newFolder());
+    final OverviewSupplier cachingSupplier =
+        new OverviewSupplier(resourceMetacardTransformer, overviewCache);
+    final MetacardImpl metacard = new MetacardImpl();
+    metacard.setId("abc123");
+    metacard.setAttribute(new AttributeImpl(Core.DERIVED_RESOURCE_URI, "content:abc123#overview"));
+    metacard.setAttribute(new AttributeImpl(Core.METACARD_MODIFIED, new Date(1L)));
+
+    final BufferedImage decoded = cachingSupplier.apply(metacard, null).get();
+    final BufferedImage cached = cachingSupplier.apply(metacard, null).get();
+
+    assertThat(overviewCache.getHitCount(), is(1L));
+    assertThat(cached, is(not(sameInstance(decoded))));
+    assertThat(cached.getWidth(), is(decoded.getWidth()));
+    assertThat(cached.getHeight(), is(decoded.getHeight()));
+
+    metacard.setAttribute(new AttributeImpl(Core.METACARD_MODIFIED, new Date(2L)));
+    assertThat(cachingSupplier.apply(metacard, null).isPresent(), is(true));
+    assertThat(overviewCache.getHitCount(), is(1L));
+  }
+
+  @Test
+  public void testCachedOverviewRetrievesTheResource() throws Exception {
+    final DecodedTileCache overviewCache =
+        new DecodedTileCache(64, Long.MAX_VALUE, Long.MAX_VALUE, temporaryFolder.newFolder());
+    final OverviewSupplier cachingSupplier =
+        new OverviewSupplier(resourceMetacardTransformer, overviewCache);
+    final MetacardImpl metacard = new MetacardImpl();
+    metacard.setId("abc123");
+    metacard.setAttribute(new AttributeImpl(Core.DERIVED_RESOURCE_URI, "content:abc123#overview"));
+
+    assertThat(cachingSupplier.apply(metacard, null).isPresent(), is(true));
+    assertThat(cachingSupplier.apply(metacard, null).isPresent(), is(true));
+
+    verify(resourceMetacardTransformer, times(2))
+        .transform(any(Metacard.class), any(Map.class));
+  }
+
+  @Test
+  public void testCachedOverviewIsNotServedWhenTheResourceIsDenied() throws Exception {
+    final DecodedTileCache overviewCache =
+        new DecodedTileCache(64, Long.MAX_VALUE, Long.MAX_VALUE, temporaryFolder.newFolder());
+    final OverviewSupplier cachingSupplier =
+        new OverviewSupplier(resourceMetacardTransformer, overviewCache);
+    final MetacardImpl metacard = new MetacardImpl();
+    metacard.setId("abc123");
+    metacard.setAttribute(new AttributeImpl(Core.DERIVED_RESOURCE_URI, "content:abc123#overview"));
+
+    assertThat(cachingSupplier.apply(metacard, null).isPresent(), is(true));
+
+    doThrow(CatalogTransformerException.class)
+        .when(resourceMetacardTransformer)
+        .transform(any(Metacard.class), any(Map.class));
+
+    assertThat(cachingSupplier.apply(metacard, null).isPresent(), is(false));
+  }
+
   @Test
   public void testNoOverview() {
     assertThat(supplier.apply(new MetacardImpl(), null).isPresent(), is(false));
@@ -21,6 +21,9 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
 import java.util.function.Consumer;
 import org.codice.alliance.transformer.nitf.common.TreUtility;
 import org.codice.imaging.nitf.core.common.DateTime;
@@ -106,6 +109,46 @@ public class TreUtilityTest {
     assertThat(TreUtility.convertToInteger(tre, "INTEGER_INVALID_3"), nullValue());
   }
 
+  @Test
+  public void testConvertToDate() {
+    Tre tre = TreFactory.getDefault("TestTre", TreSource.ImageExtendedSubheaderData);
+    tre.add(new TreEntryImpl("DATE_VALID_1", "20141108235219", "string"));
+    tre.add(new TreEntryImpl("DATE_VALID_2", "20141108240000", "string"));
+    tre.add(new TreEntryImpl("DATE_VALID_3", "20141232000000", "string"));
+    tre.add(new TreEntryImpl("DATE_INVALID_1", "not a date", "string"));
+    tre.add(new TreEntryImpl("DATE_INVALID_2", "", "string"));
+
+    assertThat(
+        TreUtility.convertToDate(tre, "DATE_VALID_1"), is(utcDate(2014, 11, 8, 23, 52, 19)));
+    assertThat(TreUtility.convertToDate(tre, "DATE_VALID_2"), is(utcDate(2014, 11, 8, 0, 0, 0)));
+    assertThat(TreUtility.convertToDate(tre, "DATE_VALID_3"), is(utcDate(2015, 1, 1, 0, 0, 0)));
+    assertThat(TreUtility.convertToDate(tre, "DATE_INVALID_1"), nullValue());
+    assertThat(TreUtility.convertToDate(tre, "DATE_INVALID_2"), nullValue());
+  }
+
+  @Test
+  public void testFieldIndex() {
+    Tre tre = TreFactory.getDefault("TestTre", TreSource.ImageExtendedSubheaderData);
+    tre.add(new TreEntryImpl("FIRST", " value ", "string"));
+    tre.add(new TreEntryImpl("SECOND", "42", "UINT"));
+    tre.add(new TreEntryImpl("SECOND", "43", "UINT"));
+
+    TreUtility.withFieldIndex(
+        tre,
+        () -> {
+          assertThat(TreUtility.getTreValue(tre, "FIRST"), is("value"));
+          assertThat(TreUtility.convertToInteger(tre, "SECOND"), is(42));
+          assertThat(TreUtility.getTreValue(tre, "MISSING"), nullValue());
+        });
+  }
+
+  private static Date utcDate(int year, int month, int day, int hour, int minute, int second) {
+    Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    calendar.clear();
+    calendar.set(year, month - 1, day, hour, minute, second);
+    return calendar.getTime();
+  }
+
   public static void createFileIfNecessary(String filename, Consumer<String> consumer) {
     File file = new File(filename);
 
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.transformer.nitf.common;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import org.junit.Test;
+
+public class AttributeAccumulatorTest {
+
+  private static final String NAME = "name";
+
+  @Test
+  public void testEachAttributeIsWrittenOnce() {
+    Metacard metacard = spy(new MetacardImpl());
+    AttributeAccumulator accumulator = new AttributeAccumulator(metacard);
+
+    for (int i = 0; i < 500; i++) {
+      accumulator.add(NAME, i);
+    }
+    accumulator.add("other", "value");
+    accumulator.flush();
+
+    verify(metacard, times(2)).setAttribute(any(Attribute.class));
+    assertThat(metacard.getAttribute(NAME).getValues().size(), is(500));
+    assertThat(metacard.getAttribute("other").getValue(), is("value"));
+  }
+
+  @Test
+  public void testValuesAreAppendedToExistingAttribute() {
+    Metacard metacard = new MetacardImpl();
+    metacard.setAttribute(new AttributeImpl(NAME, "first"));
+    AttributeAccumulator accumulator = new AttributeAccumulator(metacard);
+
+    accumulator.add(NAME, "second");
+    accumulator.add(NAME, "third");
+    accumulator.flush();
+
+    assertThat(metacard.getAttribute(NAME).getValues(), contains("first", "second", "third"));
+  }
+
+  @Test
+  public void testFlushClearsCollectedValues() {
+    Metacard metacard = new MetacardImpl();
+    AttributeAccumulator accumulator = new AttributeAccumulator(metacard);
+
+    accumulator.add(NAME, "first");
+    accumulator.flush();
+    accumulator.flush();
+
+    assertThat(metacard.getAttribute(NAME).getValues(), contains("first"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullMetacard() {
+    new AttributeAccumulator(null);
+  }
+}
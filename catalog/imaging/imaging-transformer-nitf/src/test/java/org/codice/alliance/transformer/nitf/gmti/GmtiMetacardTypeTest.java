@@ -75,6 +75,7 @@ public class GmtiMetacardTypeTest {
     descriptors.addAll(
         AbstractNitfMetacardType.getDescriptors(IndexedPiaprdAttribute.getAttributes()));
     descriptors.addAll(AbstractNitfMetacardType.getDescriptors(StdidcAttribute.getAttributes()));
+    descriptors.addAll(GmtiTargetSummary.getDescriptors());
     assertThat(
         gmtiCardType.getAttributeDescriptors(),
         containsInAnyOrder(descriptors.toArray(new AttributeDescriptor[0])));
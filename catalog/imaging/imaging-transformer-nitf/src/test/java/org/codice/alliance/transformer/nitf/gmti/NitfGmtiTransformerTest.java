@@ -25,6 +25,7 @@ import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.MetacardTypeImpl;
 import java.io.File;
@@ -32,8 +33,10 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -52,7 +55,10 @@ import org.codice.imaging.nitf.fluent.NitfSegmentsFlow;
 import org.codice.imaging.nitf.fluent.impl.NitfParserInputFlowImpl;
 import org.junit.Before;
 import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
 
 public class NitfGmtiTransformerTest {
 
@@ -111,6 +117,57 @@ public class NitfGmtiTransformerTest {
     assertMtirpbAttributes(metacard, mtirpbAttributesMap);
   }
 
+  @Test
+  public void testTargetSummary() throws ParseException {
+    Metacard metacard = new MetacardImpl();
+    metacard.setAttribute(
+        new AttributeImpl(
+            IndexedMtirpbAttribute.INDEXED_TARGET_LOCATION,
+            Arrays.asList(
+                "+10.000000+020.000000",
+                "+10.000000+021.0000000",
+                "+11.000000+020.000000",
+                "+10.250000+020.250000",
+                "not a location")));
+    metacard.setAttribute(
+        new AttributeImpl(
+            IndexedMtirpbAttribute.INDEXED_TARGET_CLASSIFICATION_CATEGORY,
+            Arrays.asList("Wheeled", "Wheeled", "Tracked", "Unknown")));
+
+    nitfGmtiTransformer.transform(mock(NitfSegmentsFlow.class), metacard);
+
+    assertThat(
+        metacard.getAttribute(IndexedMtirpbAttribute.INDEXED_TARGET_LOCATION).getValue(),
+        is("MULTIPOINT ((10 20), (10 21), (11 20), (10.25 20.25))"));
+    Geometry footprint =
+        new WKTReader()
+            .read(metacard.getAttribute(GmtiTargetSummary.TARGET_FOOTPRINT).getValue().toString());
+    assertThat(footprint.getGeometryType(), is("Polygon"));
+    assertThat(footprint.getArea(), is(0.5));
+    assertThat(metacard.getAttribute(GmtiTargetSummary.TARGET_COUNT).getValue(), is(4));
+    assertThat(getCategoryCount(metacard, MtiTargetClassificationCategory.W), is(2));
+    assertThat(getCategoryCount(metacard, MtiTargetClassificationCategory.T), is(1));
+    assertThat(getCategoryCount(metacard, MtiTargetClassificationCategory.U), is(1));
+    assertThat(getCategoryCount(metacard, MtiTargetClassificationCategory.H), is(0));
+  }
+
+  @Test
+  public void testLocationParser() {
+    assertThat(GmtiLocationParser.split("+52.123456-004.123456"), is(10));
+    assertThat(GmtiLocationParser.split("+52.1234567-004.1234567"), is(11));
+    assertThat(GmtiLocationParser.split("52.123456-004.123456"), is(-1));
+    assertThat(GmtiLocationParser.split("+52.12345-004.123456"), is(-1));
+    assertThat(GmtiLocationParser.split("+52.123456-04.1234567"), is(-1));
+    assertThat(GmtiLocationParser.split("+52.123456-004.12345678"), is(-1));
+    assertThat(GmtiLocationParser.split(""), is(-1));
+    assertThat(GmtiLocationParser.parse(null), nullValue());
+  }
+
+  private Serializable getCategoryCount(
+      Metacard metacard, MtiTargetClassificationCategory category) {
+    return metacard.getAttribute(GmtiTargetSummary.getCategoryCountName(category)).getValue();
+  }
+
   @Test
   public void testIndexedMtirpbAttributeLongNames() {
     IndexedMtirpbAttribute.getAttributes()
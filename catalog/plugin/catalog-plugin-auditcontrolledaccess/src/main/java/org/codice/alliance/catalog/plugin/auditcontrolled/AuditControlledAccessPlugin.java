@@ -17,107 +17,218 @@ import com.google.common.annotations.VisibleForTesting;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
+import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.QueryResponse;
 import ddf.catalog.plugin.PluginExecutionException;
 import ddf.catalog.plugin.PostQueryPlugin;
 import ddf.catalog.plugin.StopProcessingException;
+import ddf.security.SecurityConstants;
 import ddf.security.audit.SecurityLogger;
 import java.io.Serializable;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang.StringUtils;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
 import org.codice.alliance.catalog.core.api.types.Security;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Audits the controlled metacards returned by a query. The controlled values of each attribute are
+ * trimmed into a hash set when they are configured, so checking a metacard costs one lookup per
+ * attribute value. The controlled metacards of a response are audited together, in records of at
+ * most {@code maxIdsPerRecord} ids, on a background thread so that auditing does not add to query
+ * latency. The records name the subject of the query, since the audit thread does not run as it.
+ */
 public class AuditControlledAccessPlugin implements PostQueryPlugin {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(AuditControlledAccessPlugin.class);
 
-  private Map<String, List<String>> controlledValuesMap = new HashMap<String, List<String>>();
+  private static final int DEFAULT_MAX_IDS_PER_RECORD = 100;
+
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+  private final Map<String, Set<String>> controlledValuesMap = new ConcurrentHashMap<>();
+
+  private final ExecutorService auditExecutor;
+
+  private volatile int maxIdsPerRecord = DEFAULT_MAX_IDS_PER_RECORD;
 
   private SecurityLogger securityLogger;
 
+  public AuditControlledAccessPlugin() {
+    this(
+        Executors.newSingleThreadExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "audit-controlled-access");
+              thread.setDaemon(true);
+              return thread;
+            }));
+  }
+
+  @VisibleForTesting
+  AuditControlledAccessPlugin(ExecutorService auditExecutor) {
+    this.auditExecutor = auditExecutor;
+  }
+
   public QueryResponse process(QueryResponse input)
       throws PluginExecutionException, StopProcessingException {
 
     List<Result> results = input.getResults();
 
-    results.stream().map(Result::getMetacard).filter(Objects::nonNull).forEach(this::handleAudits);
+    if (!controlledValuesMap.isEmpty()) {
+      List<String> controlledMetacardIds = new ArrayList<>();
+      for (Result result : results) {
+        Metacard metacard = result.getMetacard();
+        if (metacard != null && isControlled(metacard)) {
+          controlledMetacardIds.add(metacard.getId());
+        }
+      }
+
+      if (!controlledMetacardIds.isEmpty()) {
+        auditControlledMetacards(controlledMetacardIds, getSubject(input.getRequest()));
+      }
+    }
 
     LOGGER.trace("Response went through the Audit Controlled Access Plugin");
     return input;
   }
 
-  private void handleAudits(Metacard metacard) {
-    boolean isControlled = false;
-    Iterator<Entry<String, List<String>>> it = controlledValuesMap.entrySet().iterator();
-
-    while (it.hasNext() && !isControlled) {
-      Entry<String, List<String>> entry = it.next();
-      if (hasControlledValues(entry.getValue(), entry.getKey(), metacard)) {
-        isControlled = true;
+  /**
+   * Stops the audit thread. Audits still queued when the timeout expires are written on the calling
+   * thread, so none are lost when the bundle stops.
+   */
+  public void destroy() {
+    auditExecutor.shutdown();
+    try {
+      if (auditExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        return;
       }
+      LOGGER.debug("Timed out waiting for the audit thread, writing the queued audits.");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
     }
-
-    if (isControlled) {
-      auditControlledMetacard(metacard.getId());
-    }
+    auditExecutor.shutdownNow().forEach(Runnable::run);
   }
 
-  private List<Serializable> getMetacardAttributeValues(Metacard metacard, String attributeString) {
-    List<Serializable> attributeValues = null;
-    Attribute attribute = metacard.getAttribute(attributeString);
-    if (attribute != null) {
-      attributeValues = attribute.getValues();
+  private boolean isControlled(Metacard metacard) {
+    for (Map.Entry<String, Set<String>> entry : controlledValuesMap.entrySet()) {
+      if (hasControlledValues(entry.getValue(), entry.getKey(), metacard)) {
+        return true;
+      }
     }
-    return attributeValues;
+    return false;
   }
 
   private boolean hasControlledValues(
-      List<String> controlledValues, String attributeString, Metacard metacard) {
-
-    List<Serializable> metacardAttributeValues =
-        getMetacardAttributeValues(metacard, attributeString);
-    if (metacardAttributeValues == null) {
+      Set<String> controlledValues, String attributeString, Metacard metacard) {
+    Attribute attribute = metacard.getAttribute(attributeString);
+    if (attribute == null || attribute.getValues() == null) {
       return false;
     }
 
-    return controlledValues.stream()
-        .map(String::trim)
-        .anyMatch(
-            controlledValue ->
-                metacardAttributeValues.stream()
-                    .anyMatch(
-                        metacardAttributeValue ->
-                            controlledValue.equals(metacardAttributeValue)
-                                && !StringUtils.isEmpty(controlledValue)));
+    for (Serializable metacardAttributeValue : attribute.getValues()) {
+      if (metacardAttributeValue instanceof String
+          && controlledValues.contains(metacardAttributeValue)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the subject in the request properties, falling back to the subject of the query thread,
+   *     or null if neither is known.
+   */
+  private static Subject getSubject(QueryRequest request) {
+    Serializable subject =
+        request == null ? null : request.getPropertyValue(SecurityConstants.SECURITY_SUBJECT);
+    return subject instanceof Subject ? (Subject) subject : ThreadContext.getSubject();
   }
 
+  /**
+   * Queues the audit records for the controlled metacards of one response. If the audit thread has
+   * been stopped, the records are written on the calling thread.
+   *
+   * @param metacardIds the ids of the controlled metacards, in result order.
+   * @param subject the subject of the query, or null if it is not known.
+   */
   @VisibleForTesting
-  void auditControlledMetacard(String metacardId) {
-    securityLogger.audit("The controlled metacard with id " + metacardId + " is being returned.");
+  void auditControlledMetacards(List<String> metacardIds, Subject subject) {
+    List<String> ids = new ArrayList<>(metacardIds);
+    try {
+      auditExecutor.execute(() -> writeAudits(ids, subject));
+    } catch (RejectedExecutionException e) {
+      writeAudits(ids, subject);
+    }
+  }
+
+  private void writeAudits(List<String> metacardIds, Subject subject) {
+    int idsPerRecord = maxIdsPerRecord;
+    for (int start = 0; start < metacardIds.size(); start += idsPerRecord) {
+      List<String> ids =
+          metacardIds.subList(start, Math.min(start + idsPerRecord, metacardIds.size()));
+      if (subject == null) {
+        securityLogger.audit("The controlled metacards with ids {} are being returned.", ids);
+      } else {
+        securityLogger.audit(
+            "The controlled metacards with ids {} are being returned.", subject, ids);
+      }
+    }
   }
 
   public void setControlledClassificationValues(List<String> controlledClassificationValues) {
-    controlledValuesMap.put(Security.CLASSIFICATION, controlledClassificationValues);
+    setControlledValues(Security.CLASSIFICATION, controlledClassificationValues);
   }
 
   public void setControlledReleasabilityValues(List<String> controlledReleasabilityValues) {
-    controlledValuesMap.put(Security.RELEASABILITY, controlledReleasabilityValues);
+    setControlledValues(Security.RELEASABILITY, controlledReleasabilityValues);
   }
 
   public void setControlledDisseminationControlsValues(
       List<String> controlledDisseminationControlsValues) {
-    controlledValuesMap.put(Security.DISSEMINATION_CONTROLS, controlledDisseminationControlsValues);
+    setControlledValues(Security.DISSEMINATION_CONTROLS, controlledDisseminationControlsValues);
   }
 
   public void setControlledCodewordsValues(List<String> controlledCodewordsValues) {
-    controlledValuesMap.put(Security.CODEWORDS, controlledCodewordsValues);
+    setControlledValues(Security.CODEWORDS, controlledCodewordsValues);
+  }
+
+  /** Attributes without any non-blank controlled values are not checked at all. */
+  private void setControlledValues(String attribute, List<String> controlledValues) {
+    Set<String> normalized = new HashSet<>();
+    if (controlledValues != null) {
+      controlledValues.stream()
+          .filter(Objects::nonNull)
+          .map(String::trim)
+          .filter(StringUtils::isNotEmpty)
+          .forEach(normalized::add);
+    }
+
+    if (normalized.isEmpty()) {
+      controlledValuesMap.remove(attribute);
+    } else {
+      controlledValuesMap.put(attribute, Collections.unmodifiableSet(normalized));
+    }
+  }
+
+  /** @param maxIdsPerRecord the maximum number of metacard ids in one audit record. */
+  public void setMaxIdsPerRecord(int maxIdsPerRecord) {
+    if (maxIdsPerRecord <= 0) {
+      throw new IllegalArgumentException("argument 'maxIdsPerRecord' must be greater than 0.");
+    }
+    this.maxIdsPerRecord = maxIdsPerRecord;
   }
 
   public void setSecurityLogger(SecurityLogger securityLogger) {
@@ -13,23 +13,38 @@
  */
 package org.codice.alliance.catalog.plugin.auditcontrolled;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.operation.impl.QueryResponseImpl;
 import ddf.catalog.plugin.PluginExecutionException;
 import ddf.catalog.plugin.StopProcessingException;
+import ddf.security.SecurityConstants;
 import ddf.security.audit.SecurityLogger;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.shiro.subject.Subject;
 import org.codice.alliance.catalog.core.api.types.Security;
 import org.junit.Before;
 import org.junit.Test;
@@ -40,7 +55,8 @@ public class AuditControlledAccessPluginTest {
 
   @Before
   public void setUp() {
-    auditControlledAccessPlugin = spy(new AuditControlledAccessPlugin());
+    auditControlledAccessPlugin =
+        spy(new AuditControlledAccessPlugin(MoreExecutors.newDirectExecutorService()));
 
     auditControlledAccessPlugin.setSecurityLogger(mock(SecurityLogger.class));
   }
@@ -55,7 +71,8 @@ public class AuditControlledAccessPluginTest {
     QueryResponseImpl queryResponse = new QueryResponseImpl(null, resultList, 1);
 
     auditControlledAccessPlugin.process(queryResponse);
-    verify(auditControlledAccessPlugin, times(0)).auditControlledMetacard(null);
+    verify(auditControlledAccessPlugin, never())
+        .auditControlledMetacards(anyListOf(String.class), any(Subject.class));
   }
 
   @Test
@@ -70,7 +87,8 @@ public class AuditControlledAccessPluginTest {
     QueryResponseImpl queryResponse = new QueryResponseImpl(null, resultList, 1);
 
     auditControlledAccessPlugin.process(queryResponse);
-    verify(auditControlledAccessPlugin, times(0)).auditControlledMetacard(metacard.getId());
+    verify(auditControlledAccessPlugin, never())
+        .auditControlledMetacards(anyListOf(String.class), any(Subject.class));
   }
 
   @Test
@@ -86,7 +104,8 @@ public class AuditControlledAccessPluginTest {
     QueryResponseImpl queryResponse = new QueryResponseImpl(null, resultList, 1);
 
     auditControlledAccessPlugin.process(queryResponse);
-    verify(auditControlledAccessPlugin, times(0)).auditControlledMetacard(metacard.getId());
+    verify(auditControlledAccessPlugin, never())
+        .auditControlledMetacards(anyListOf(String.class), any(Subject.class));
   }
 
   @Test
@@ -101,7 +120,8 @@ public class AuditControlledAccessPluginTest {
     QueryResponseImpl queryResponse = new QueryResponseImpl(null, resultList, 1);
 
     auditControlledAccessPlugin.process(queryResponse);
-    verify(auditControlledAccessPlugin, times(1)).auditControlledMetacard(metacard.getId());
+    verify(auditControlledAccessPlugin, times(1))
+        .auditControlledMetacards(Collections.singletonList(metacard.getId()), null);
   }
 
   @Test
@@ -116,7 +136,8 @@ public class AuditControlledAccessPluginTest {
     QueryResponseImpl queryResponse = new QueryResponseImpl(null, resultList, 1);
 
     auditControlledAccessPlugin.process(queryResponse);
-    verify(auditControlledAccessPlugin, times(1)).auditControlledMetacard(metacard.getId());
+    verify(auditControlledAccessPlugin, times(1))
+        .auditControlledMetacards(Collections.singletonList(metacard.getId()), null);
   }
 
   @Test
@@ -133,7 +154,8 @@ public class AuditControlledAccessPluginTest {
     QueryResponseImpl queryResponse = new QueryResponseImpl(null, resultList, 1);
 
     auditControlledAccessPlugin.process(queryResponse);
-    verify(auditControlledAccessPlugin, times(1)).auditControlledMetacard(metacard.getId());
+    verify(auditControlledAccessPlugin, times(1))
+        .auditControlledMetacards(Collections.singletonList(metacard.getId()), null);
   }
 
   @Test
@@ -148,7 +170,8 @@ public class AuditControlledAccessPluginTest {
     QueryResponseImpl queryResponse = new QueryResponseImpl(null, resultList, 1);
 
     auditControlledAccessPlugin.process(queryResponse);
-    verify(auditControlledAccessPlugin, times(1)).auditControlledMetacard(metacard.getId());
+    verify(auditControlledAccessPlugin, times(1))
+        .auditControlledMetacards(Collections.singletonList(metacard.getId()), null);
   }
 
   @Test
@@ -166,7 +189,8 @@ public class AuditControlledAccessPluginTest {
     QueryResponseImpl queryResponse = new QueryResponseImpl(null, resultList, 1);
 
     auditControlledAccessPlugin.process(queryResponse);
-    verify(auditControlledAccessPlugin, times(1)).auditControlledMetacard(metacard.getId());
+    verify(auditControlledAccessPlugin, times(1))
+        .auditControlledMetacards(Collections.singletonList(metacard.getId()), null);
   }
 
   @Test
@@ -188,7 +212,132 @@ public class AuditControlledAccessPluginTest {
     QueryResponseImpl queryResponse = new QueryResponseImpl(null, resultList, 2);
 
     auditControlledAccessPlugin.process(queryResponse);
-    verify(auditControlledAccessPlugin, times(1)).auditControlledMetacard(metacard.getId());
-    verify(auditControlledAccessPlugin, times(1)).auditControlledMetacard(metacard2.getId());
+    verify(auditControlledAccessPlugin, times(1))
+        .auditControlledMetacards(Arrays.asList(metacard.getId(), metacard2.getId()), null);
+  }
+
+  @Test
+  public void testControlledValuesAreTrimmed()
+      throws StopProcessingException, PluginExecutionException {
+    Metacard metacard = new MetacardImpl();
+    metacard.setAttribute(new AttributeImpl(Security.CLASSIFICATION, "TS"));
+    auditControlledAccessPlugin.setControlledClassificationValues(Arrays.asList(" TS ", " "));
+
+    List<Result> resultList = new ArrayList<>();
+    resultList.add(new ResultImpl(metacard));
+    QueryResponseImpl queryResponse = new QueryResponseImpl(null, resultList, 1);
+
+    auditControlledAccessPlugin.process(queryResponse);
+    verify(auditControlledAccessPlugin, times(1))
+        .auditControlledMetacards(Collections.singletonList(metacard.getId()), null);
+  }
+
+  @Test
+  public void testAuditMessageNamesTheQuerySubject()
+      throws StopProcessingException, PluginExecutionException {
+    SecurityLogger securityLogger = mock(SecurityLogger.class);
+    AuditControlledAccessPlugin plugin =
+        new AuditControlledAccessPlugin(MoreExecutors.newDirectExecutorService());
+    plugin.setSecurityLogger(securityLogger);
+    plugin.setControlledClassificationValues(Collections.singletonList("TS"));
+
+    List<Result> resultList = new ArrayList<>();
+    for (String id : Arrays.asList("id1", "id2")) {
+      MetacardImpl metacard = new MetacardImpl();
+      metacard.setId(id);
+      metacard.setAttribute(new AttributeImpl(Security.CLASSIFICATION, "TS"));
+      resultList.add(new ResultImpl(metacard));
+    }
+    Subject subject = mock(Subject.class, withSettings().extraInterfaces(Serializable.class));
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(SecurityConstants.SECURITY_SUBJECT, (Serializable) subject);
+    QueryRequestImpl queryRequest = new QueryRequestImpl(null, properties);
+
+    plugin.process(new QueryResponseImpl(queryRequest, resultList, 2));
+
+    verify(securityLogger, times(1))
+        .audit(
+            "The controlled metacards with ids {} are being returned.",
+            subject,
+            Arrays.asList("id1", "id2"));
+  }
+
+  @Test
+  public void testAuditMessageWithoutSubject()
+      throws StopProcessingException, PluginExecutionException {
+    SecurityLogger securityLogger = mock(SecurityLogger.class);
+    AuditControlledAccessPlugin plugin =
+        new AuditControlledAccessPlugin(MoreExecutors.newDirectExecutorService());
+    plugin.setSecurityLogger(securityLogger);
+    plugin.setControlledCodewordsValues(Collections.singletonList("SCI1"));
+
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId("id");
+    metacard.setAttribute(new AttributeImpl(Security.CODEWORDS, "SCI1"));
+    List<Result> resultList = new ArrayList<>();
+    resultList.add(new ResultImpl(metacard));
+
+    plugin.process(new QueryResponseImpl(null, resultList, 1));
+
+    verify(securityLogger, times(1))
+        .audit(
+            "The controlled metacards with ids {} are being returned.",
+            Collections.singletonList("id"));
+  }
+
+  @Test
+  public void testAuditRecordsAreSplit() throws StopProcessingException, PluginExecutionException {
+    SecurityLogger securityLogger = mock(SecurityLogger.class);
+    AuditControlledAccessPlugin plugin =
+        new AuditControlledAccessPlugin(MoreExecutors.newDirectExecutorService());
+    plugin.setSecurityLogger(securityLogger);
+    plugin.setMaxIdsPerRecord(2);
+
+    List<String> ids = IntStream.range(0, 5).mapToObj(i -> "id" + i).collect(Collectors.toList());
+    plugin.auditControlledMetacards(ids, null);
+
+    verify(securityLogger, times(1))
+        .audit("The controlled metacards with ids {} are being returned.", ids.subList(0, 2));
+    verify(securityLogger, times(1))
+        .audit("The controlled metacards with ids {} are being returned.", ids.subList(2, 4));
+    verify(securityLogger, times(1))
+        .audit("The controlled metacards with ids {} are being returned.", ids.subList(4, 5));
+  }
+
+  @Test
+  public void testDestroyWritesQueuedAudits() {
+    SecurityLogger securityLogger = mock(SecurityLogger.class);
+    AuditControlledAccessPlugin plugin =
+        new AuditControlledAccessPlugin(Executors.newSingleThreadExecutor());
+    plugin.setSecurityLogger(securityLogger);
+
+    plugin.auditControlledMetacards(Collections.singletonList("id"), null);
+    plugin.destroy();
+
+    verify(securityLogger, times(1))
+        .audit(
+            "The controlled metacards with ids {} are being returned.",
+            Collections.singletonList("id"));
+  }
+
+  @Test
+  public void testAuditAfterDestroyIsWritten() {
+    SecurityLogger securityLogger = mock(SecurityLogger.class);
+    AuditControlledAccessPlugin plugin =
+        new AuditControlledAccessPlugin(Executors.newSingleThreadExecutor());
+    plugin.setSecurityLogger(securityLogger);
+    plugin.destroy();
+
+    plugin.auditControlledMetacards(Collections.singletonList("id"), null);
+
+    verify(securityLogger, times(1))
+        .audit(
+            "The controlled metacards with ids {} are being returned.",
+            Collections.singletonList("id"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMaxIdsPerRecord() {
+    auditControlledAccessPlugin.setMaxIdsPerRecord(0);
   }
 }
@@ -15,7 +15,9 @@ package org.codice.alliance.catalog.plugin.defaultsecurity;
 
 import static org.apache.commons.lang3.Validate.notNull;
 
+import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.MetacardTypeImpl;
@@ -26,13 +28,14 @@ import ddf.catalog.operation.impl.CreateRequestImpl;
 import ddf.catalog.plugin.PreIngestPlugin;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
-import javax.validation.constraints.NotNull;
 import org.codice.alliance.catalog.core.api.impl.types.SecurityAttributes;
 import org.codice.ddf.security.SystemHighAttributes;
 import org.slf4j.Logger;
@@ -67,6 +70,8 @@ public class DefaultSecurityAttributeValuesPlugin implements PreIngestPlugin {
    */
   private volatile Map<String, String> metacardAttributeNameToSystemHighAttributeNameMap;
 
+  private final Map<String, TypeInfo> typeInfoCache = new ConcurrentHashMap<>();
+
   public DefaultSecurityAttributeValuesPlugin(
       SecurityAttributes securityAttributes,
       SystemHighAttributes systemHighAttributes,
@@ -86,11 +91,14 @@ public class DefaultSecurityAttributeValuesPlugin implements PreIngestPlugin {
       return metacard;
     }
 
-    final MetacardImpl extendedMetacard;
-    if (doesNotHaveAnyOfTheSecurityAttributeDescriptors(metacard)) {
-      extendedMetacard = addAllOfTheSecurityAttributeDescriptors(metacard);
+    // The defaults are set on the metacard itself unless its type has to be extended, which can
+    // only be done by copying it.
+    final TypeInfo typeInfo = getTypeInfo(metacard.getMetacardType());
+    final Metacard extendedMetacard;
+    if (typeInfo.hasAnySecurityAttributeDescriptor) {
+      extendedMetacard = metacard;
     } else {
-      extendedMetacard = new MetacardImpl(metacard);
+      extendedMetacard = new MetacardImpl(metacard, typeInfo.getExtendedType());
     }
 
     final Set<String> updatedTags = new HashSet<>(metacard.getTags());
@@ -121,7 +129,8 @@ public class DefaultSecurityAttributeValuesPlugin implements PreIngestPlugin {
             metacardAttributeName);
       }
     }
-    extendedMetacard.setTags(updatedTags);
+    extendedMetacard.setAttribute(
+        new AttributeImpl(Metacard.TAGS, new ArrayList<Serializable>(updatedTags)));
 
     return extendedMetacard;
   }
@@ -156,30 +165,61 @@ public class DefaultSecurityAttributeValuesPlugin implements PreIngestPlugin {
     return metacard.getTags().contains(Metacard.DEFAULT_TAG);
   }
 
-  private boolean doesNotHaveAnyOfTheSecurityAttributeDescriptors(final Metacard metacard) {
-    return securityAttributes.getAttributeDescriptors().stream()
-        .noneMatch(ad -> metacard.getMetacardType().getAttributeDescriptors().contains(ad));
-  }
+  /**
+   * Types are looked up by name and then matched by identity, falling back to equality for types
+   * that are recreated for every metacard, so that the descriptors of a type are only scanned and
+   * its extended type only built once.
+   */
+  private TypeInfo getTypeInfo(final MetacardType metacardType) {
+    final String name = String.valueOf(metacardType.getName());
+    final TypeInfo cached = typeInfoCache.get(name);
+    if (cached != null
+        && (cached.metacardType == metacardType || cached.metacardType.equals(metacardType))) {
+      return cached;
+    }
 
-  @NotNull
-  private MetacardImpl addAllOfTheSecurityAttributeDescriptors(final Metacard metacard) {
-    return new MetacardImpl(
-        metacard,
-        new MetacardTypeImpl(
-            metacard.getMetacardType().getName(),
-            metacard.getMetacardType(),
-            securityAttributes.getAttributeDescriptors()));
+    final TypeInfo typeInfo = new TypeInfo(metacardType);
+    typeInfoCache.put(name, typeInfo);
+    return typeInfo;
   }
 
   public void setAttributeMappings(List<String> attributeMappings) {
     if (attributeMappings != null) {
-      metacardAttributeNameToSystemHighAttributeNameMap.clear();
+      final Map<String, String> mappings = new HashMap<>();
       for (String mapping : attributeMappings) {
         String[] parts = mapping.trim().split("=");
         if (parts.length == 2) {
-          metacardAttributeNameToSystemHighAttributeNameMap.put(parts[0], parts[1]);
+          mappings.put(parts[0], parts[1]);
         }
       }
+      metacardAttributeNameToSystemHighAttributeNameMap = mappings;
+    }
+  }
+
+  private class TypeInfo {
+
+    private final MetacardType metacardType;
+
+    private final boolean hasAnySecurityAttributeDescriptor;
+
+    private volatile MetacardType extendedType;
+
+    TypeInfo(MetacardType metacardType) {
+      this.metacardType = metacardType;
+      final Set<AttributeDescriptor> descriptors = metacardType.getAttributeDescriptors();
+      this.hasAnySecurityAttributeDescriptor =
+          securityAttributes.getAttributeDescriptors().stream().anyMatch(descriptors::contains);
+    }
+
+    MetacardType getExtendedType() {
+      MetacardType type = extendedType;
+      if (type == null) {
+        type =
+            new MetacardTypeImpl(
+                metacardType.getName(), metacardType, securityAttributes.getAttributeDescriptors());
+        extendedType = type;
+      }
+      return type;
     }
   }
 }
@@ -21,6 +21,7 @@ import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsCollectionContaining.hasItem;
 import static org.mockito.Matchers.anyString;
@@ -266,6 +267,57 @@ public class DefaultSecurityAttributeValuesPluginTest {
     assertThat(modifiedMetacard.getAttribute(Security.DISSEMINATION_CONTROLS), nullValue());
   }
 
+  @Test
+  public void testMetacardWithSecurityAttributeDescriptorsIsNotCopied() {
+    // given
+    final MetacardImpl unmarkedMetacardWithSecurityAttributeDescriptors =
+        new MetacardImpl(new SecurityAttributes());
+    unmarkedMetacardWithSecurityAttributeDescriptors.setTags(
+        Collections.singleton(Metacard.DEFAULT_TAG));
+    final DefaultSecurityAttributeValuesPlugin defaultSecurityAttributeValuesPlugin =
+        new DefaultSecurityAttributeValuesPlugin(
+            new SecurityAttributes(),
+            createTestSystemHighAttributes(),
+            createTestInitialConfiguration());
+
+    // when
+    final CreateRequest modifiedCreateRequest =
+        defaultSecurityAttributeValuesPlugin.process(
+            createCreateRequest(unmarkedMetacardWithSecurityAttributeDescriptors));
+
+    // then
+    final Metacard resultMetacard = modifiedCreateRequest.getMetacards().get(0);
+    assertThat(resultMetacard, is(sameInstance(unmarkedMetacardWithSecurityAttributeDescriptors)));
+    assertTestDefaultsAdded(resultMetacard);
+  }
+
+  @Test
+  public void testExtendedMetacardTypeIsReused() {
+    // given
+    final DefaultSecurityAttributeValuesPlugin defaultSecurityAttributeValuesPlugin =
+        new DefaultSecurityAttributeValuesPlugin(
+            new SecurityAttributes(),
+            createTestSystemHighAttributes(),
+            createTestInitialConfiguration());
+
+    // when
+    final Metacard first =
+        defaultSecurityAttributeValuesPlugin
+            .process(createCreateRequest(createUnmarkedMetacardWithoutSecurityDescriptors()))
+            .getMetacards()
+            .get(0);
+    final Metacard second =
+        defaultSecurityAttributeValuesPlugin
+            .process(createCreateRequest(createUnmarkedMetacardWithoutSecurityDescriptors()))
+            .getMetacards()
+            .get(0);
+
+    // then
+    assertTestDefaultsAdded(first);
+    assertTestDefaultsAdded(second);
+    assertThat(second.getMetacardType(), is(sameInstance(first.getMetacardType())));
+  }
+
   private static SystemHighAttributes createTestSystemHighAttributes() {
     final SystemHighAttributes testSystemHighAttributes = mock(SystemHighAttributes.class);
 
@@ -16,8 +16,6 @@ package org.codice.alliance.security.banner.marking;
 import com.google.common.collect.ImmutableList;
 import java.io.Serializable;
 import java.util.List;
-import java.util.Objects;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
@@ -25,8 +23,6 @@ import org.slf4j.LoggerFactory;
 
 /** Atomic Energy Act marking parser. */
 public class AeaMarking implements Serializable {
-  private static final Pattern SIGMAS_PATTERN = Pattern.compile(" ");
-
   private static final Logger LOGGER = LoggerFactory.getLogger(AeaMarking.class);
 
   private AeaType type;
@@ -43,26 +39,33 @@ public class AeaMarking implements Serializable {
   public AeaMarking(String marking) {
     type = AeaType.lookupType(marking);
 
-    String[] split = marking.split("[-]");
-    if (split.length == 1) {
+    MarkingTokenizer tokens = new MarkingTokenizer(marking, "-");
+    if (tokens.hasNext()) {
+      tokens.next();
+    }
+    String detail = tokens.hasNext() ? tokens.next() : null;
+    if (detail == null) {
       criticalNuclearWeaponDesignInformation = false;
       sigmas = ImmutableList.of();
-    } else if (split[1].equals("N")) {
+    } else if (detail.equals("N")) {
       criticalNuclearWeaponDesignInformation = true;
       sigmas = ImmutableList.of();
     } else {
       criticalNuclearWeaponDesignInformation = false;
       String sigmaMarking = "SIGMA";
-      if (split[1].contains("SG")) {
+      if (detail.contains("SG")) {
         sigmaMarking = "SG";
       }
-      sigmas =
-          ImmutableList.copyOf(
-              SIGMAS_PATTERN
-                  .splitAsStream(split[1].substring(sigmaMarking.length()).trim())
-                  .map(AeaMarking::parseSigma)
-                  .filter(Objects::nonNull)
-                  .collect(Collectors.toList()));
+      ImmutableList.Builder<Integer> tempSigmas = ImmutableList.builder();
+      MarkingTokenizer sigmaTokens =
+          new MarkingTokenizer(detail.substring(sigmaMarking.length()).trim(), " ");
+      while (sigmaTokens.hasNext()) {
+        Integer sigma = parseSigma(sigmaTokens.next());
+        if (sigma != null) {
+          tempSigmas.add(sigma);
+        }
+      }
+      sigmas = tempSigmas.build();
     }
   }
 
@@ -0,0 +1,372 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.security.banner.marking;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the banner lines of a document while decoding no more than a fixed number of bytes from
+ * its start and from its end.
+ *
+ * <p>The charset is taken from a byte order mark when one is present. Otherwise the head window is
+ * decoded as UTF-8 if it is valid UTF-8, and as ISO-8859-1 if it is not. Lines containing control
+ * characters are treated as binary content and are never returned as banner lines.
+ */
+class BannerLineReader {
+
+  static final int MAX_BOM_LENGTH = 3;
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final int windowBytes;
+
+  /**
+   * @param windowBytes the maximum number of bytes decoded from each end of a document.
+   */
+  BannerLineReader(int windowBytes) {
+    if (windowBytes <= 0) {
+      throw new IllegalArgumentException("argument 'windowBytes' must be greater than 0.");
+    }
+    this.windowBytes = windowBytes;
+  }
+
+  /**
+   * Reads the head window of a document. The rest of the document is only read when {@link
+   * Document#getBottomLine()} is called, so a caller that accepts the top line never reads past the
+   * head window.
+   *
+   * @param input the document.
+   * @return the document, positioned after its head window.
+   */
+  Document open(InputStream input) throws IOException {
+    byte[] head = new byte[windowBytes];
+    int headLength = readFully(input, head, 0, windowBytes);
+    int next = headLength < windowBytes ? -1 : input.read();
+    return new Document(input, head, headLength, next);
+  }
+
+  /**
+   * @param input the document. The stream is read to its end, but only the first and last {@code
+   *     windowBytes} bytes are retained and decoded.
+   * @return the trimmed first non-empty line of the head window followed by the trimmed last
+   *     non-empty line of the tail window, omitting lines that were not found and repeating
+   *     neither line when the document fits in a single window.
+   */
+  List<String> read(InputStream input) throws IOException {
+    Document document = open(input);
+    List<String> lines = new ArrayList<>(2);
+    if (document.getTopLine() != null) {
+      lines.add(document.getTopLine());
+    }
+    String bottom = document.getBottomLine();
+    if (bottom != null) {
+      lines.add(bottom);
+    }
+    return lines;
+  }
+
+  private Tail readTail(InputStream input, int first, long position) throws IOException {
+    if (input instanceof FileInputStream) {
+      FileChannel channel = ((FileInputStream) input).getChannel();
+      long origin = channel.position() - position;
+      long size = channel.size() - origin;
+      if (size - position + 1 > windowBytes) {
+        channel.position(origin + size - windowBytes);
+        byte[] bytes = new byte[windowBytes];
+        int length = readFully(input, bytes, 0, windowBytes);
+        return new Tail(size - windowBytes, trim(bytes, length));
+      }
+    }
+
+    byte[] ring = new byte[windowBytes];
+    ring[0] = (byte) first;
+    long count = 1;
+    byte[] buffer = new byte[BUFFER_SIZE];
+    int read;
+    while ((read = input.read(buffer)) >= 0) {
+      for (int i = 0; i < read; ) {
+        int index = (int) (count % windowBytes);
+        int length = Math.min(read - i, windowBytes - index);
+        System.arraycopy(buffer, i, ring, index, length);
+        i += length;
+        count += length;
+      }
+    }
+
+    int length = (int) Math.min(count, windowBytes);
+    byte[] bytes = new byte[length];
+    int start = (int) ((count - length) % windowBytes);
+    int firstPart = Math.min(length, windowBytes - start);
+    System.arraycopy(ring, start, bytes, 0, firstPart);
+    System.arraycopy(ring, 0, bytes, firstPart, length - firstPart);
+    return new Tail(position - 1 + count - length, bytes);
+  }
+
+  /**
+   * @param text the decoded head window.
+   * @param complete whether the window holds the entire document.
+   * @return the first non-empty line, or null if there is none or it is not terminated within the
+   *     window.
+   */
+  private static String firstLine(String text, boolean complete) {
+    int start = 0;
+    while (start < text.length()) {
+      int end = lineEnd(text, start);
+      if (end == text.length() && !complete) {
+        return null;
+      }
+      String line = text.substring(start, end).trim();
+      if (!line.isEmpty()) {
+        return isText(line) ? line : null;
+      }
+      start = end + 1;
+    }
+    return null;
+  }
+
+  /**
+   * @param text the decoded tail window.
+   * @param complete whether the window starts at the beginning of the document.
+   * @return the last non-empty line, or null if there is none or it does not start within the
+   *     window.
+   */
+  private static String lastLine(String text, boolean complete) {
+    int end = text.length();
+    while (end > 0) {
+      int start = lineStart(text, end);
+      if (start == 0 && !complete) {
+        return null;
+      }
+      String line = text.substring(start, end).trim();
+      if (!line.isEmpty()) {
+        return isText(line) ? line : null;
+      }
+      end = start - 1;
+    }
+    return null;
+  }
+
+  private static int lineEnd(String text, int start) {
+    for (int i = start; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '\n' || c == '\r') {
+        return i;
+      }
+    }
+    return text.length();
+  }
+
+  private static int lineStart(String text, int end) {
+    for (int i = end - 1; i >= 0; i--) {
+      char c = text.charAt(i);
+      if (c == '\n' || c == '\r') {
+        return i + 1;
+      }
+    }
+    return 0;
+  }
+
+  private static boolean isText(String line) {
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (Character.isISOControl(c) && c != '\t') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static Charset detectCharset(byte[] bytes, int length) {
+    if (startsWith(bytes, length, 0xEF, 0xBB, 0xBF)) {
+      return StandardCharsets.UTF_8;
+    }
+    if (startsWith(bytes, length, 0xFE, 0xFF)) {
+      return StandardCharsets.UTF_16BE;
+    }
+    if (startsWith(bytes, length, 0xFF, 0xFE)) {
+      return StandardCharsets.UTF_16LE;
+    }
+    return isUtf8(bytes, length) ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+  }
+
+  static int bomLength(byte[] bytes, int length) {
+    if (startsWith(bytes, length, 0xEF, 0xBB, 0xBF)) {
+      return 3;
+    }
+    if (startsWith(bytes, length, 0xFE, 0xFF) || startsWith(bytes, length, 0xFF, 0xFE)) {
+      return 2;
+    }
+    return 0;
+  }
+
+  private static boolean startsWith(byte[] bytes, int length, int... prefix) {
+    if (length < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if ((bytes[i] & 0xFF) != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** A multi-byte sequence cut off by the end of the window does not make the window invalid. */
+  private static boolean isUtf8(byte[] bytes, int length) {
+    CharsetDecoder decoder =
+        StandardCharsets.UTF_8
+            .newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+    CoderResult result;
+    do {
+      chars.clear();
+      result = decoder.decode(buffer, chars, false);
+    } while (result.isOverflow());
+    return !result.isError();
+  }
+
+  /** UTF-16 tail windows must start on a code unit boundary relative to the end of the BOM. */
+  private static int alignment(Charset charset, long offsetFromText) {
+    if ((StandardCharsets.UTF_16BE.equals(charset) || StandardCharsets.UTF_16LE.equals(charset))
+        && offsetFromText % 2 != 0) {
+      return 1;
+    }
+    return 0;
+  }
+
+  private static String decode(byte[] bytes, int offset, int length, Charset charset)
+      throws CharacterCodingException {
+    return charset
+        .newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE)
+        .decode(ByteBuffer.wrap(bytes, offset, Math.max(length, 0)))
+        .toString();
+  }
+
+  private static int readFully(InputStream input, byte[] bytes, int offset, int length)
+      throws IOException {
+    int total = 0;
+    while (total < length) {
+      int read = input.read(bytes, offset + total, length - total);
+      if (read < 0) {
+        break;
+      }
+      total += read;
+    }
+    return total;
+  }
+
+  private static byte[] trim(byte[] bytes, int length) {
+    if (length == bytes.length) {
+      return bytes;
+    }
+    byte[] trimmed = new byte[length];
+    System.arraycopy(bytes, 0, trimmed, 0, length);
+    return trimmed;
+  }
+
+  /** A document whose head window has been read and whose tail is read on demand. */
+  class Document {
+
+    private final InputStream input;
+
+    private final int headLength;
+
+    private final int next;
+
+    private final Charset charset;
+
+    private final int bomLength;
+
+    private final String headText;
+
+    private final String topLine;
+
+    private String bottomLine;
+
+    private boolean tailRead;
+
+    private Document(InputStream input, byte[] head, int headLength, int next)
+        throws CharacterCodingException {
+      this.input = input;
+      this.headLength = headLength;
+      this.next = next;
+      this.charset = detectCharset(head, headLength);
+      this.bomLength = bomLength(head, headLength);
+      this.headText = decode(head, bomLength, headLength - bomLength, charset);
+      this.topLine = firstLine(headText, next < 0);
+    }
+
+    /** @return the trimmed first non-empty line of the head window, or null if there is none. */
+    String getTopLine() {
+      return topLine;
+    }
+
+    /**
+     * Reads the document to its end the first time it is called, retaining only the last {@code
+     * windowBytes} bytes. A {@link FileInputStream} is positioned directly at its last window
+     * instead of being read through.
+     *
+     * @return the trimmed last non-empty line of the tail window, or null if there is none or the
+     *     document fits in a single window and its last line is its top line.
+     */
+    String getBottomLine() throws IOException {
+      if (tailRead) {
+        return bottomLine;
+      }
+      tailRead = true;
+
+      if (next < 0) {
+        String bottom = lastLine(headText, true);
+        bottomLine = bottom == null || bottom.equals(topLine) ? null : bottom;
+        return bottomLine;
+      }
+
+      Tail tail = readTail(input, next, (long) headLength + 1);
+      int offset = alignment(charset, tail.start - bomLength);
+      String tailText = decode(tail.bytes, offset, tail.bytes.length - offset, charset);
+      bottomLine = lastLine(tailText, false);
+      return bottomLine;
+    }
+  }
+
+  private static class Tail {
+
+    private final long start;
+
+    private final byte[] bytes;
+
+    Tail(long start, byte[] bytes) {
+      this.start = start;
+      this.bytes = bytes;
+    }
+  }
+}
@@ -16,14 +16,10 @@ package org.codice.alliance.security.banner.marking;
 import com.google.common.collect.ImmutableList;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.function.Function;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 import org.apache.commons.lang.StringUtils;
 
 public class BannerMarkings implements Serializable {
@@ -34,9 +30,8 @@ public class BannerMarkings implements Serializable {
   protected static final List<String> NATO_CLASS_QUALIFIERS =
       ImmutableList.of("ATOMAL", "BALK", "BOHEMIA");
 
-  protected static final Pattern SPACE_PATTERN = Pattern.compile(" ");
-
-  protected static final Pattern COMMA_PATTERN = Pattern.compile(",");
+  private static final MarkingsCache<BannerMarkings> CACHE =
+      new MarkingsCache<>(MarkingsCache.DEFAULT_MAX_ENTRIES);
 
   protected String inputMarkings;
 
@@ -88,7 +83,9 @@ public class BannerMarkings implements Serializable {
         }
         break;
       case FGI:
-        fgiAuthority = classificationSegment.split(" ")[0];
+        int space = classificationSegment.indexOf(' ');
+        fgiAuthority =
+            space < 0 ? classificationSegment : classificationSegment.substring(0, space);
         classification =
             ClassificationLevel.lookup(
                 classificationSegment.substring(fgiAuthority.length()).trim());
@@ -131,23 +128,11 @@ public class BannerMarkings implements Serializable {
       case JOINT:
         String suffix = classificationSegment.substring("JOINT".length()).trim();
 
-        classification =
-            ClassificationLevel.lookup(
-                Arrays.stream(ClassificationLevel.values())
-                    .map(ClassificationLevel::getName)
-                    .filter(suffix::startsWith)
-                    .findFirst()
-                    .orElse(null));
+        classification = lookupPrefix(suffix, false);
         if (classification != null) {
           suffix = suffix.substring(classification.getName().length());
         } else {
-          classification =
-              ClassificationLevel.lookupByShortname(
-                  Arrays.stream(ClassificationLevel.values())
-                      .map(ClassificationLevel::getShortName)
-                      .filter(suffix::startsWith)
-                      .findFirst()
-                      .orElse(null));
+          classification = lookupPrefix(suffix, true);
           if (classification != null && classification.getShortName() != null) {
             suffix = suffix.substring(classification.getShortName().length());
           }
@@ -157,11 +142,14 @@ public class BannerMarkings implements Serializable {
               "Unknown JOINT classification marking", inputMarkings);
         }
 
-        List<String> allJointAuthorities =
-            SPACE_PATTERN
-                .splitAsStream(suffix)
-                .filter(StringUtils::isNotBlank)
-                .collect(Collectors.toList());
+        List<String> allJointAuthorities = new ArrayList<>();
+        MarkingTokenizer authorities = new MarkingTokenizer(suffix, " ");
+        while (authorities.hasNext()) {
+          String authority = authorities.next();
+          if (StringUtils.isNotBlank(authority)) {
+            allJointAuthorities.add(authority);
+          }
+        }
         Collections.sort(allJointAuthorities);
         jointAuthorities = ImmutableList.copyOf(allJointAuthorities);
         break;
@@ -249,58 +237,78 @@ public class BannerMarkings implements Serializable {
         && (COSMIC_FGI.equals(fgiAuthority) || NATO_FGI.equals(fgiAuthority)));
   }
 
+  /** @param cacheSize the maximum number of parsed banner markings held for reuse. */
+  static void setCacheSize(int cacheSize) {
+    CACHE.setMaxEntries(cacheSize);
+  }
+
   public static BannerMarkings parseMarkings(String markings) throws MarkingsValidationException {
-    MarkingType type;
-    String trimmedMarkings;
+    BannerMarkings cached = CACHE.get(markings);
+    if (cached != null) {
+      return cached;
+    }
+
+    MarkingType type = getMarkingType(markings);
+    MarkingTokenizer segments = new MarkingTokenizer(trimMarkings(markings, type), "//");
+    BannerMarkings bannerMarkings =
+        new BannerMarkings(type, segments.hasNext() ? segments.next() : "", markings);
+    bannerMarkings.processSegments(segments);
+
+    BannerValidator.validate(bannerMarkings);
+    CACHE.put(markings, bannerMarkings);
+    return bannerMarkings;
+  }
+
+  static MarkingType getMarkingType(String markings) {
     if (markings.startsWith("//JOINT")) {
-      type = MarkingType.JOINT;
-      trimmedMarkings = markings.substring(2);
+      return MarkingType.JOINT;
     } else if (markings.startsWith("//")) {
-      type = MarkingType.FGI;
-      trimmedMarkings = markings.substring(2);
-    } else {
-      type = MarkingType.US;
-      trimmedMarkings = markings;
+      return MarkingType.FGI;
     }
+    return MarkingType.US;
+  }
 
-    String[] split = trimmedMarkings.split("[/][/]");
-    BannerMarkings bannerMarkings = new BannerMarkings(type, split[0], markings);
+  static String trimMarkings(String markings, MarkingType type) {
+    return type == MarkingType.US ? markings : markings.substring(2);
+  }
 
-    List<Function<String, Boolean>> processors = new ArrayList<>();
-    if (type == MarkingType.FGI) {
-      processors.add(bannerMarkings::processNato);
+  /**
+   * Runs each segment after the classification through the segment processors, in order, until
+   * one of them accepts it, then ensures that all Collection types have been initialized.
+   */
+  void processSegments(MarkingTokenizer segments) {
+    while (segments.hasNext()) {
+      processSegment(segments.next());
     }
 
-    processors.add(bannerMarkings::processUsFgi);
-    processors.add(bannerMarkings::processSap);
-    processors.add(bannerMarkings::processAea);
-    processors.add(bannerMarkings::processOtherDissem);
-    processors.add(bannerMarkings::processDisseminationControls);
-    processors.add(bannerMarkings::processSciControls);
-
-    for (int i = 1; i < split.length; i++) {
-      for (Function<String, Boolean> processor : processors) {
-        if (processor.apply(split[i])) {
-          break;
-        }
-      }
-    }
+    jointAuthorities = ensureCollectionInitialized(jointAuthorities);
+    usFgiCountryCodes = ensureCollectionInitialized(usFgiCountryCodes);
+    sciControls = ensureCollectionInitialized(sciControls);
+    disseminationControls = ensureCollectionInitialized(disseminationControls);
+    relTo = ensureCollectionInitialized(relTo);
+    displayOnly = ensureCollectionInitialized(displayOnly);
+    otherDissemControl = ensureCollectionInitialized(otherDissemControl);
+    accm = ensureCollectionInitialized(accm);
+  }
 
-    // Ensure that all Collection types have been initialized
-    bannerMarkings.jointAuthorities = ensureCollectionInitialized(bannerMarkings.jointAuthorities);
-    bannerMarkings.usFgiCountryCodes =
-        ensureCollectionInitialized(bannerMarkings.usFgiCountryCodes);
-    bannerMarkings.sciControls = ensureCollectionInitialized(bannerMarkings.sciControls);
-    bannerMarkings.disseminationControls =
-        ensureCollectionInitialized(bannerMarkings.disseminationControls);
-    bannerMarkings.relTo = ensureCollectionInitialized(bannerMarkings.relTo);
-    bannerMarkings.displayOnly = ensureCollectionInitialized(bannerMarkings.displayOnly);
-    bannerMarkings.otherDissemControl =
-        ensureCollectionInitialized(bannerMarkings.otherDissemControl);
-    bannerMarkings.accm = ensureCollectionInitialized(bannerMarkings.accm);
+  private boolean processSegment(String segment) {
+    return (type == MarkingType.FGI && processNato(segment))
+        || processUsFgi(segment)
+        || processSap(segment)
+        || processAea(segment)
+        || processOtherDissem(segment)
+        || processDisseminationControls(segment)
+        || processSciControls(segment);
+  }
 
-    BannerValidator.validate(bannerMarkings);
-    return bannerMarkings;
+  private static ClassificationLevel lookupPrefix(String value, boolean shortName) {
+    for (ClassificationLevel level : ClassificationLevel.values()) {
+      String name = shortName ? level.getShortName() : level.getName();
+      if (value.startsWith(name)) {
+        return level;
+      }
+    }
+    return null;
   }
 
   protected static <T> List<T> ensureCollectionInitialized(List<T> collection) {
@@ -318,7 +326,9 @@ public class BannerMarkings implements Serializable {
     if (segment.equals("HVSACO")) {
       sapControl = new SapControl();
     } else {
-      sapControl = new SapControl(segment.split("[-]")[1]);
+      MarkingTokenizer tokens = new MarkingTokenizer(segment, "-");
+      tokens.next();
+      sapControl = new SapControl(tokens.hasNext() ? tokens.next() : "");
     }
     return true;
   }
@@ -349,8 +359,7 @@ public class BannerMarkings implements Serializable {
     if (suffix == null || suffix.isEmpty()) {
       usFgiCountryCodes = ImmutableList.of();
     } else {
-      usFgiCountryCodes =
-          ImmutableList.copyOf(SPACE_PATTERN.splitAsStream(suffix).collect(Collectors.toList()));
+      usFgiCountryCodes = MarkingTokenizer.toList(suffix, " ", false);
     }
 
     return true;
@@ -372,11 +381,12 @@ public class BannerMarkings implements Serializable {
 
     // Process each OtherDissem control sequentially. If ACCM- is found, attempt to process
     // the next tokens as ACCM markers unless they are in the OTHER_DISSEM set
-    String[] tokens = segment.split("[/]");
+    MarkingTokenizer tokens = new MarkingTokenizer(segment, "/");
     HashSet<OtherDissemControl> tempOther = new HashSet<>();
     HashSet<String> tempAccm = new HashSet<>();
     boolean processingAccm = false;
-    for (String tok : tokens) {
+    while (tokens.hasNext()) {
+      String tok = tokens.next();
       // This if/elif will leave the processingAcm as true once ACCM processing has started
       // until a non-ACCM control is encountered
       if (tok.startsWith("ACCM-")) {
@@ -402,27 +412,24 @@ public class BannerMarkings implements Serializable {
   }
 
   protected boolean processDisseminationControls(String segment) {
-    String[] split = segment.split("[/]");
+    MarkingTokenizer tokens = new MarkingTokenizer(segment, "/");
+    String first = tokens.peek();
 
-    if (!(split[0].startsWith("REL TO")
-        || split[0].startsWith("DISPLAY ONLY")
-        || DissemControl.lookupBannerName(split[0]) != null)) {
+    if (first == null
+        || !(first.startsWith("REL TO")
+            || first.startsWith("DISPLAY ONLY")
+            || DissemControl.lookupBannerName(first) != null)) {
       return false;
     }
 
     Set<DissemControl> tempDissem = new HashSet<>();
 
-    for (String s : split) {
+    while (tokens.hasNext()) {
+      String s = tokens.next();
       if (s.startsWith("REL TO")) {
-        String suffix = s.substring("REL TO".length());
-        relTo =
-            ImmutableList.copyOf(
-                COMMA_PATTERN.splitAsStream(suffix).map(String::trim).collect(Collectors.toList()));
+        relTo = MarkingTokenizer.toList(s.substring("REL TO".length()), ",", true);
       } else if (s.startsWith("DISPLAY ONLY")) {
-        String suffix = s.substring("DISPLAY ONLY".length());
-        displayOnly =
-            ImmutableList.copyOf(
-                COMMA_PATTERN.splitAsStream(suffix).map(String::trim).collect(Collectors.toList()));
+        displayOnly = MarkingTokenizer.toList(s.substring("DISPLAY ONLY".length()), ",", true);
       } else {
         tempDissem.add(DissemControl.lookupBannerName(s.trim()));
       }
@@ -432,11 +439,11 @@ public class BannerMarkings implements Serializable {
   }
 
   protected boolean processSciControls(String segment) {
-    String[] split = segment.split("[/]");
+    MarkingTokenizer tokens = new MarkingTokenizer(segment, "/");
 
     List<SciControl> tempSci = new ArrayList<>();
-    for (String s : split) {
-      tempSci.add(new SciControl(s));
+    while (tokens.hasNext()) {
+      tempSci.add(new SciControl(tokens.next()));
     }
 
     sciControls = ImmutableList.copyOf(tempSci);
@@ -148,9 +148,7 @@ public class BannerValidator {
   protected static Set<ValidationError> validateSciControls(BannerMarkings bannerMarkings) {
     Set<ValidationError> errors = new HashSet<>();
 
-    if (bannerMarkings.getSciControls().stream()
-        .map(SciControl::getControl)
-        .anyMatch(c -> c.equals("HCS") || c.equals("KLONDIKE"))) {
+    if (hasHcsOrKlondike(bannerMarkings.getSciControls())) {
       if (!bannerMarkings.getDisseminationControls().contains(NOFORN)) {
         errors.add(new ValidationError("HCS/KLONDIKE require NOFORN", "6.f."));
       }
@@ -164,9 +162,11 @@ public class BannerValidator {
           hasRelease = !bannerMarkings.getDisplayOnly().isEmpty();
         }
         if (!hasRelease) {
+          List<DissemControl> dissemControls = bannerMarkings.getDisseminationControls();
           hasRelease =
-              bannerMarkings.getDisseminationControls().stream()
-                  .anyMatch(s -> s == NOFORN || s == ORCON || s == RELIDO);
+              dissemControls.contains(NOFORN)
+                  || dissemControls.contains(ORCON)
+                  || dissemControls.contains(RELIDO);
         }
         if (!hasRelease) {
           errors.add(
@@ -179,6 +179,15 @@ public class BannerValidator {
     return errors;
   }
 
+  private static boolean hasHcsOrKlondike(List<SciControl> sciControls) {
+    for (SciControl sciControl : sciControls) {
+      if (sciControl.getControl().equals("HCS") || sciControl.getControl().equals("KLONDIKE")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   protected static Set<ValidationError> validateSapControls(BannerMarkings bannerMarkings) {
     Set<ValidationError> errors = new HashSet<>();
 
@@ -218,7 +227,7 @@ public class BannerValidator {
             new ValidationError(
                 "CNWDI is a subset of RD and not applicable to FRD documents", "8.c.3."));
       }
-      if (bannerMarkings.getAeaMarking().getSigmas().stream().anyMatch(i -> i < 1 || i > 99)) {
+      if (hasInvalidSigma(bannerMarkings.getAeaMarking().getSigmas())) {
         errors.add(new ValidationError("Valid SIGMA values are 1 to 99 inclusive", "8.d.3."));
       }
 
@@ -231,6 +240,15 @@ public class BannerValidator {
     return errors;
   }
 
+  private static boolean hasInvalidSigma(List<Integer> sigmas) {
+    for (int sigma : sigmas) {
+      if (sigma < 1 || sigma > 99) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   protected static Set<ValidationError> validateFgi(BannerMarkings bannerMarkings) {
     Set<ValidationError> errors = new HashSet<>();
 
@@ -21,17 +21,16 @@ import com.google.common.collect.ImmutableMap;
 import ddf.catalog.content.operation.ContentMetadataExtractor;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
-import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.function.BiFunction;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -40,29 +39,47 @@ import org.slf4j.LoggerFactory;
 public abstract class MarkingExtractor implements ContentMetadataExtractor {
   private static final Logger LOGGER = LoggerFactory.getLogger(MarkingExtractor.class);
 
+  /** Where the markings of a document are taken from. */
+  public enum Mode {
+    /** The banner line at the top, or failing that the bottom, of the document. */
+    BANNER,
+    /** The roll-up of every portion marking in the document. */
+    PORTIONS
+  }
+
+  private static final Mode DEFAULT_MODE = Mode.BANNER;
+
+  private static final int DEFAULT_WINDOW_BYTES = 65536;
+
   private Map<String, BiFunction<Metacard, BannerMarkings, Attribute>> attProcessors;
 
+  private BannerLineReader bannerLineReader = new BannerLineReader(DEFAULT_WINDOW_BYTES);
+
+  private Mode mode = DEFAULT_MODE;
+
   @Override
   public void process(String input, Metacard metacard) {
     process(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), metacard);
   }
 
+  /**
+   * In {@link Mode#BANNER} mode, extracts the banner markings from the first non-empty line of the
+   * document, or from its last non-empty line if the first one is missing or invalid. Only a
+   * bounded window at each end of the document is decoded, and the end of the document is only read
+   * when the first line is missing or invalid; see {@link #setWindowBytes(int)}.
+   *
+   * <p>In {@link Mode#PORTIONS} mode, scans the whole document once and rolls its portion markings
+   * up into the markings of the document.
+   */
   @Override
   public void process(InputStream input, Metacard metacard) {
-    BannerMarkings bannerMarkings = null;
+    BannerMarkings bannerMarkings;
     try {
-      Optional<String> bannerLine =
-          new BufferedReader(new InputStreamReader(input))
-              .lines()
-              .map(String::trim)
-              .filter(s -> !s.isEmpty())
-              .findFirst();
-
-      if (bannerLine.isPresent()) {
-        bannerMarkings = BannerMarkings.parseMarkings(bannerLine.get());
-      }
-    } catch (MarkingsValidationException e) {
-      LOGGER.debug("Errors validating document markings", e);
+      bannerMarkings =
+          mode == Mode.PORTIONS ? extractPortionMarkings(input) : extractBannerMarkings(input);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to read document markings", e);
+      return;
     }
 
     if (bannerMarkings == null) {
@@ -74,6 +91,50 @@ public abstract class MarkingExtractor implements ContentMetadataExtractor {
     }
   }
 
+  private BannerMarkings extractBannerMarkings(InputStream input) throws IOException {
+    BannerLineReader.Document document = bannerLineReader.open(input);
+
+    BannerMarkings topMarkings = parseBannerLine(document.getTopLine());
+    if (topMarkings != null) {
+      return topMarkings;
+    }
+
+    return parseBannerLine(document.getBottomLine());
+  }
+
+  private BannerMarkings parseBannerLine(String bannerLine) {
+    if (bannerLine == null) {
+      return null;
+    }
+    try {
+      return BannerMarkings.parseMarkings(bannerLine);
+    } catch (MarkingsValidationException e) {
+      LOGGER.debug("Errors validating document markings", e);
+      return null;
+    }
+  }
+
+  private BannerMarkings extractPortionMarkings(InputStream input) throws IOException {
+    PortionMarkingsRollup rollup = new PortionMarkingsRollup();
+    Reader reader = PortionMarkingScanner.newReader(input);
+    PortionMarkingScanner.scan(
+        reader,
+        portion -> {
+          try {
+            rollup.add(PortionMarkings.parseMarkings(portion));
+          } catch (MarkingsValidationException e) {
+            LOGGER.debug("Errors validating portion markings", e);
+          }
+        });
+
+    try {
+      return rollup.toBannerMarkings();
+    } catch (MarkingsValidationException e) {
+      LOGGER.debug("Unable to roll up {} portion markings", rollup.getCount(), e);
+      return null;
+    }
+  }
+
   public String translateClassification(
       ClassificationLevel classLevel, boolean isNato, String natoQualifier) {
     if (!isNato) {
@@ -106,6 +167,27 @@ public abstract class MarkingExtractor implements ContentMetadataExtractor {
     return builder.toString();
   }
 
+  /**
+   * @param windowBytes the maximum number of bytes decoded from the start and from the end of each
+   *     document when looking for banner lines.
+   */
+  public void setWindowBytes(int windowBytes) {
+    this.bannerLineReader = new BannerLineReader(windowBytes);
+  }
+
+  /**
+   * @param cacheSize the maximum number of parsed banner markings, and of parsed portion markings,
+   *     held for reuse. The caches are shared by every extractor.
+   */
+  public void setCacheSize(int cacheSize) {
+    BannerMarkings.setCacheSize(cacheSize);
+    PortionMarkings.setCacheSize(cacheSize);
+  }
+
+  public void setMode(Mode mode) {
+    this.mode = mode;
+  }
+
   protected void setAttProcessors(
       Map<String, BiFunction<Metacard, BannerMarkings, Attribute>> attProcessors) {
     this.attProcessors = ImmutableMap.copyOf(attProcessors);
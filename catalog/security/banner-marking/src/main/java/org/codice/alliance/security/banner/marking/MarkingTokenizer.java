@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.security.banner.marking;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the tokens of a marking separated by a literal delimiter in a single pass.
+ *
+ * <p>The tokens are the same as those returned by {@link String#split(String)}: empty tokens are
+ * kept unless they are at the end of the input, and input without a delimiter is a single token.
+ */
+final class MarkingTokenizer {
+
+  private final String input;
+
+  private final String delimiter;
+
+  private int position;
+
+  private int pendingEmpty;
+
+  private String held;
+
+  private String next;
+
+  MarkingTokenizer(String input, String delimiter) {
+    this.input = input;
+    this.delimiter = delimiter;
+    if (input.contains(delimiter)) {
+      advance();
+    } else {
+      next = input;
+      position = input.length() + 1;
+    }
+  }
+
+  /**
+   * @param input the marking to tokenize.
+   * @param delimiter the literal delimiter.
+   * @param trim whether each token is trimmed.
+   * @return the tokens of {@code input}.
+   */
+  static List<String> toList(String input, String delimiter, boolean trim) {
+    ImmutableList.Builder<String> builder = ImmutableList.builder();
+    MarkingTokenizer tokenizer = new MarkingTokenizer(input, delimiter);
+    while (tokenizer.hasNext()) {
+      String token = tokenizer.next();
+      builder.add(trim ? token.trim() : token);
+    }
+    return builder.build();
+  }
+
+  boolean hasNext() {
+    return next != null;
+  }
+
+  /** @return the next token without consuming it, or null if there are no more tokens. */
+  String peek() {
+    return next;
+  }
+
+  String next() {
+    if (next == null) {
+      throw new NoSuchElementException();
+    }
+    String current = next;
+    advance();
+    return current;
+  }
+
+  private void advance() {
+    if (pendingEmpty > 0) {
+      pendingEmpty--;
+      next = "";
+      return;
+    }
+    if (held != null) {
+      next = held;
+      held = null;
+      return;
+    }
+
+    int empty = 0;
+    while (position <= input.length()) {
+      int end = input.indexOf(delimiter, position);
+      if (end < 0) {
+        end = input.length();
+      }
+      String token = input.substring(position, end);
+      position = end + delimiter.length();
+
+      if (token.isEmpty()) {
+        empty++;
+      } else if (empty > 0) {
+        pendingEmpty = empty - 1;
+        held = token;
+        next = "";
+        return;
+      } else {
+        next = token;
+        return;
+      }
+    }
+    next = null;
+  }
+}
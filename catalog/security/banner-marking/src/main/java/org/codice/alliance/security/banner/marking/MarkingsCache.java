@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.security.banner.marking;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded LRU cache of parsed markings keyed by the marking string, so that markings repeated
+ * across documents are parsed and validated once. Only markings that passed validation are cached.
+ */
+final class MarkingsCache<T extends BannerMarkings> {
+
+  static final int DEFAULT_MAX_ENTRIES = 1024;
+
+  private final Map<String, T> entries;
+
+  private int maxEntries;
+
+  MarkingsCache(int maxEntries) {
+    this.entries =
+        new LinkedHashMap<String, T>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+            return size() > MarkingsCache.this.maxEntries;
+          }
+        };
+    setMaxEntries(maxEntries);
+  }
+
+  /**
+   * @param maxEntries the maximum number of markings held. The least recently used markings over
+   *     the new limit are removed at once.
+   */
+  synchronized void setMaxEntries(int maxEntries) {
+    if (maxEntries < 0) {
+      throw new IllegalArgumentException("argument 'maxEntries' may not be negative.");
+    }
+    this.maxEntries = maxEntries;
+
+    Iterator<T> iterator = entries.values().iterator();
+    while (entries.size() > maxEntries && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+    }
+  }
+
+  synchronized T get(String markings) {
+    return entries.get(markings);
+  }
+
+  synchronized void put(String markings, T parsed) {
+    entries.put(markings, parsed);
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  synchronized void clear() {
+    entries.clear();
+  }
+}
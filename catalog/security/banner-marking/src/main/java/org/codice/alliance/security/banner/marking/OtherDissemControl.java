@@ -14,8 +14,9 @@
 package org.codice.alliance.security.banner.marking;
 
 import com.google.common.collect.ImmutableList;
-import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /** Other dissemination controls */
 public enum OtherDissemControl {
@@ -36,6 +37,21 @@ public enum OtherDissemControl {
 
   private List<String> portionNames;
 
+  private static final Map<String, OtherDissemControl> BANNER_LOOKUP = new HashMap<>();
+
+  private static final Map<String, OtherDissemControl> PORTION_LOOKUP = new HashMap<>();
+
+  static {
+    for (OtherDissemControl control : values()) {
+      for (String bannerName : control.bannerNames) {
+        BANNER_LOOKUP.putIfAbsent(bannerName, control);
+      }
+      for (String portionName : control.portionNames) {
+        PORTION_LOOKUP.putIfAbsent(portionName, control);
+      }
+    }
+  }
+
   OtherDissemControl(String[] bannerNames, String[] portionNames) {
     this.bannerNames = ImmutableList.copyOf(bannerNames);
     this.portionNames = ImmutableList.copyOf(portionNames);
@@ -47,28 +63,28 @@ public enum OtherDissemControl {
   }
 
   public static OtherDissemControl lookupBannerName(String name) {
-    return Arrays.stream(OtherDissemControl.values())
-        .filter(dc -> dc.bannerNames.contains(name))
-        .findFirst()
-        .orElse(null);
+    return BANNER_LOOKUP.get(name);
   }
 
   public static OtherDissemControl lookupPortionName(String name) {
-    return Arrays.stream(OtherDissemControl.values())
-        .filter(dc -> dc.portionNames.contains(name))
-        .findFirst()
-        .orElse(null);
+    return PORTION_LOOKUP.get(name);
   }
 
   public static boolean prefixBannerMatch(String value) {
-    return Arrays.stream(OtherDissemControl.values())
-        .flatMap(odc -> odc.bannerNames.stream())
-        .anyMatch(value::startsWith);
+    for (String name : BANNER_LOOKUP.keySet()) {
+      if (value.startsWith(name)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   public static boolean prefixPortionMatch(String value) {
-    return Arrays.stream(OtherDissemControl.values())
-        .flatMap(odc -> odc.portionNames.stream())
-        .anyMatch(value::startsWith);
+    for (String name : PORTION_LOOKUP.keySet()) {
+      if (value.startsWith(name)) {
+        return true;
+      }
+    }
+    return false;
   }
 }
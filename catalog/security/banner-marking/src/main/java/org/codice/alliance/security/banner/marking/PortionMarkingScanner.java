@@ -0,0 +1,271 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.security.banner.marking;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.function.Consumer;
+
+/**
+ * Finds the portion markings of a document, such as {@code (S//NF)}, in a single pass over its
+ * text.
+ *
+ * <p>The opening of every portion marking, a parenthesis followed by a classification short name or
+ * by {@code //}, is recognized by an Aho-Corasick automaton compiled into a transition table, so
+ * each character is examined once. Once an opening is recognized, the rest of the marking is
+ * collected up to the closing parenthesis. Only a parenthesis that starts a line, ignoring leading
+ * whitespace, can open a portion marking; this keeps text such as {@code copyright (C) 2018} from
+ * being read as a marking. A line that starts with a copyright notice, such as {@code (C) 2018} or
+ * {@code (C) Copyright}, is not read as a CONFIDENTIAL portion either.
+ */
+final class PortionMarkingScanner {
+
+  /** The longest portion marking that is collected, excluding its parentheses. */
+  static final int MAX_PORTION_LENGTH = 256;
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private static final int ALPHABET_SIZE = 128;
+
+  private static final String COPYRIGHT_SIGN = ClassificationLevel.CONFIDENTIAL.getShortName();
+
+  private static final String COPYRIGHT = "copyright";
+
+  private static final String[] PATTERNS = createPatterns();
+
+  private static final int[][] TRANSITIONS;
+
+  /** For each state, 1 + the index of the pattern recognized in that state, or 0 for none. */
+  private static final int[] OUTPUTS;
+
+  static {
+    List<int[]> transitions = new ArrayList<>();
+    List<Integer> outputs = new ArrayList<>();
+    transitions.add(newState());
+    outputs.add(0);
+
+    for (int i = 0; i < PATTERNS.length; i++) {
+      int state = 0;
+      for (char c : PATTERNS[i].toCharArray()) {
+        if (transitions.get(state)[c] <= 0) {
+          transitions.get(state)[c] = transitions.size();
+          transitions.add(newState());
+          outputs.add(0);
+        }
+        state = transitions.get(state)[c];
+      }
+      outputs.set(state, i + 1);
+    }
+
+    TRANSITIONS = transitions.toArray(new int[0][]);
+    OUTPUTS = outputs.stream().mapToInt(Integer::intValue).toArray();
+    int[] failures = new int[TRANSITIONS.length];
+
+    // Breadth-first, fold the failure links into the transition table so that the automaton
+    // never has to backtrack.
+    Queue<Integer> queue = new ArrayDeque<>();
+    for (int c = 0; c < ALPHABET_SIZE; c++) {
+      if (TRANSITIONS[0][c] > 0) {
+        queue.add(TRANSITIONS[0][c]);
+      } else {
+        TRANSITIONS[0][c] = 0;
+      }
+    }
+    while (!queue.isEmpty()) {
+      int state = queue.remove();
+      if (OUTPUTS[state] == 0) {
+        OUTPUTS[state] = OUTPUTS[failures[state]];
+      }
+      for (int c = 0; c < ALPHABET_SIZE; c++) {
+        int next = TRANSITIONS[state][c];
+        if (next > 0) {
+          failures[next] = TRANSITIONS[failures[state]][c];
+          queue.add(next);
+        } else {
+          TRANSITIONS[state][c] = TRANSITIONS[failures[state]][c];
+        }
+      }
+    }
+  }
+
+  private PortionMarkingScanner() {}
+
+  /**
+   * @param input the document. Its charset is taken from a byte order mark, defaulting to UTF-8.
+   * @return a reader over the text of {@code input}.
+   */
+  static Reader newReader(InputStream input) throws IOException {
+    BufferedInputStream buffered = new BufferedInputStream(input);
+    byte[] bom = new byte[BannerLineReader.MAX_BOM_LENGTH];
+    buffered.mark(bom.length);
+    int length = 0;
+    int read;
+    while (length < bom.length && (read = buffered.read(bom, length, bom.length - length)) > 0) {
+      length += read;
+    }
+    buffered.reset();
+
+    int bomLength = BannerLineReader.bomLength(bom, length);
+    Charset charset = BannerLineReader.detectCharset(bom, length);
+    for (int i = 0; i < bomLength; i++) {
+      buffered.read();
+    }
+    return new InputStreamReader(buffered, charset);
+  }
+
+  /**
+   * @param reader the text of the document.
+   * @param portions receives the text between the parentheses of each portion marking, in
+   *     document order.
+   */
+  static void scan(Reader reader, Consumer<String> portions) throws IOException {
+    char[] buffer = new char[BUFFER_SIZE];
+    StringBuilder portion = new StringBuilder();
+    boolean collecting = false;
+    boolean lineStart = true;
+    boolean openedAtLineStart = false;
+    int state = 0;
+
+    // A (C) that starts a line is held until the text after it shows whether it is a copyright.
+    StringBuilder copyrightLookahead = null;
+
+    int read;
+    while ((read = reader.read(buffer)) >= 0) {
+      for (int i = 0; i < read; i++) {
+        char c = buffer[i];
+        boolean newLine = c == '\n' || c == '\r';
+
+        if (copyrightLookahead != null) {
+          if (!newLine && (copyrightLookahead.length() > 0 || !Character.isWhitespace(c))) {
+            copyrightLookahead.append(c);
+            Boolean copyright = isCopyright(copyrightLookahead);
+            if (copyright != null) {
+              if (!copyright) {
+                portions.accept(COPYRIGHT_SIGN);
+              }
+              copyrightLookahead = null;
+            }
+            lineStart = false;
+            continue;
+          }
+          if (newLine) {
+            portions.accept(COPYRIGHT_SIGN);
+            copyrightLookahead = null;
+          }
+        }
+
+        if (collecting) {
+          if (c == ')') {
+            portions.accept(portion.toString());
+            collecting = false;
+            state = 0;
+            lineStart = false;
+            continue;
+          }
+          if (!newLine && portion.length() < MAX_PORTION_LENGTH) {
+            portion.append(c);
+            continue;
+          }
+          collecting = false;
+          state = 0;
+        }
+
+        if (c == '(') {
+          openedAtLineStart = lineStart;
+        }
+        state = c < ALPHABET_SIZE ? TRANSITIONS[state][c] : 0;
+
+        int output = OUTPUTS[state];
+        if (output > 0 && openedAtLineStart) {
+          String pattern = PATTERNS[output - 1];
+          if (pattern.equals("(" + COPYRIGHT_SIGN + ")")) {
+            copyrightLookahead = new StringBuilder();
+          } else if (pattern.endsWith(")")) {
+            portions.accept(pattern.substring(1, pattern.length() - 1));
+          } else {
+            portion.setLength(0);
+            portion.append(pattern, 1, pattern.length());
+            collecting = true;
+          }
+          state = 0;
+        }
+
+        if (newLine) {
+          lineStart = true;
+        } else if (!Character.isWhitespace(c)) {
+          lineStart = false;
+        }
+      }
+    }
+
+    if (copyrightLookahead != null) {
+      portions.accept(COPYRIGHT_SIGN);
+    }
+  }
+
+  /**
+   * @param text the text that follows a {@code (C)} at the start of a line, without leading
+   *     whitespace.
+   * @return true if the text starts with a year or the word copyright, false if it can't, or null
+   *     if more text is needed to tell.
+   */
+  private static Boolean isCopyright(CharSequence text) {
+    int length = text.length();
+    if (Character.isDigit(text.charAt(0))) {
+      for (int i = 1; i < length; i++) {
+        if (!Character.isDigit(text.charAt(i))) {
+          return false;
+        }
+      }
+      if (length < 4) {
+        return null;
+      }
+      char century = text.charAt(0);
+      char decade = text.charAt(1);
+      return (century == '1' && decade == '9') || (century == '2' && decade == '0');
+    }
+
+    String prefix = text.toString().toLowerCase(Locale.ROOT);
+    if (!COPYRIGHT.startsWith(prefix)) {
+      return false;
+    }
+    return prefix.length() == COPYRIGHT.length() ? Boolean.TRUE : null;
+  }
+
+  private static String[] createPatterns() {
+    List<String> patterns = new ArrayList<>();
+    for (ClassificationLevel level : ClassificationLevel.values()) {
+      patterns.add("(" + level.getShortName() + ")");
+      patterns.add("(" + level.getShortName() + "//");
+    }
+    patterns.add("(//");
+    return patterns.toArray(new String[0]);
+  }
+
+  private static int[] newState() {
+    int[] state = new int[ALPHABET_SIZE];
+    Arrays.fill(state, -1);
+    return state;
+  }
+}
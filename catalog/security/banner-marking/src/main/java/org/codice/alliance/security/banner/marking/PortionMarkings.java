@@ -14,73 +14,39 @@
 package org.codice.alliance.security.banner.marking;
 
 import com.google.common.collect.ImmutableList;
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /** Handles parsing the classification in the short form portion marking syntax. */
 public class PortionMarkings extends BannerMarkings {
 
+  private static final MarkingsCache<PortionMarkings> CACHE =
+      new MarkingsCache<>(MarkingsCache.DEFAULT_MAX_ENTRIES);
+
   protected PortionMarkings(MarkingType type, String classificationSegment, String inputMarkings)
       throws MarkingsValidationException {
     super(type, classificationSegment, inputMarkings);
   }
 
-  public static PortionMarkings parseMarkings(String markings) throws MarkingsValidationException {
-    MarkingType type;
-    String trimmedMarkings;
-    if (markings.startsWith("//JOINT")) {
-      type = MarkingType.JOINT;
-      trimmedMarkings = markings.substring(2);
-    } else if (markings.startsWith("//")) {
-      type = MarkingType.FGI;
-      trimmedMarkings = markings.substring(2);
-    } else {
-      type = MarkingType.US;
-      trimmedMarkings = markings;
-    }
-
-    String[] split = trimmedMarkings.split("[/][/]");
-    PortionMarkings portionMarkings = new PortionMarkings(type, split[0], markings);
-
-    List<Function<String, Boolean>> processors = new ArrayList<>();
-    if (type == MarkingType.FGI) {
-      processors.add(portionMarkings::processNato);
-    }
+  /** @param cacheSize the maximum number of parsed portion markings held for reuse. */
+  static void setCacheSize(int cacheSize) {
+    CACHE.setMaxEntries(cacheSize);
+  }
 
-    processors.add(portionMarkings::processUsFgi);
-    processors.add(portionMarkings::processSap);
-    processors.add(portionMarkings::processAea);
-    processors.add(portionMarkings::processOtherDissem);
-    processors.add(portionMarkings::processDisseminationControls);
-    processors.add(portionMarkings::processSciControls);
-
-    for (int i = 1; i < split.length; i++) {
-      for (Function<String, Boolean> processor : processors) {
-        if (processor.apply(split[i])) {
-          break;
-        }
-      }
+  public static PortionMarkings parseMarkings(String markings) throws MarkingsValidationException {
+    PortionMarkings cached = CACHE.get(markings);
+    if (cached != null) {
+      return cached;
     }
 
-    // Ensure that all Collection types have been initialized
-    portionMarkings.jointAuthorities =
-        ensureCollectionInitialized(portionMarkings.jointAuthorities);
-    portionMarkings.usFgiCountryCodes =
-        ensureCollectionInitialized(portionMarkings.usFgiCountryCodes);
-    portionMarkings.sciControls = ensureCollectionInitialized(portionMarkings.sciControls);
-    portionMarkings.disseminationControls =
-        ensureCollectionInitialized(portionMarkings.disseminationControls);
-    portionMarkings.relTo = ensureCollectionInitialized(portionMarkings.relTo);
-    portionMarkings.displayOnly = ensureCollectionInitialized(portionMarkings.displayOnly);
-    portionMarkings.otherDissemControl =
-        ensureCollectionInitialized(portionMarkings.otherDissemControl);
-    portionMarkings.accm = ensureCollectionInitialized(portionMarkings.accm);
+    MarkingType type = getMarkingType(markings);
+    MarkingTokenizer segments = new MarkingTokenizer(trimMarkings(markings, type), "//");
+    PortionMarkings portionMarkings =
+        new PortionMarkings(type, segments.hasNext() ? segments.next() : "", markings);
+    portionMarkings.processSegments(segments);
 
     BannerValidator.validate(portionMarkings);
+    CACHE.put(markings, portionMarkings);
     return portionMarkings;
   }
 
@@ -92,11 +58,12 @@ public class PortionMarkings extends BannerMarkings {
 
     // Process each OtherDissem control sequentially. If ACCM- is found, attempt to process
     // the next tokens as ACCM markers unless they are in the OTHER_DISSEM set
-    String[] tokens = segment.split("[/]");
+    MarkingTokenizer tokens = new MarkingTokenizer(segment, "/");
     HashSet<OtherDissemControl> tempOther = new HashSet<>();
     HashSet<String> tempAccm = new HashSet<>();
     boolean processingAccm = false;
-    for (String tok : tokens) {
+    while (tokens.hasNext()) {
+      String tok = tokens.next();
       // This if/elif will leave the processingAcm as true once ACCM processing has started
       // until a non-ACCM control is encountered
       if (tok.startsWith("ACCM-")) {
@@ -128,27 +95,24 @@ public class PortionMarkings extends BannerMarkings {
 
   @Override
   protected boolean processDisseminationControls(String segment) {
-    String[] split = segment.split("[/]");
+    MarkingTokenizer tokens = new MarkingTokenizer(segment, "/");
+    String first = tokens.peek();
 
-    if (!(split[0].startsWith("REL TO")
-        || split[0].startsWith("DISPLAY ONLY")
-        || DissemControl.lookupPortionName(split[0]) != null)) {
+    if (first == null
+        || !(first.startsWith("REL TO")
+            || first.startsWith("DISPLAY ONLY")
+            || DissemControl.lookupPortionName(first) != null)) {
       return false;
     }
 
     Set<DissemControl> tempDissem = new HashSet<>();
 
-    for (String s : split) {
+    while (tokens.hasNext()) {
+      String s = tokens.next();
       if (s.startsWith("REL TO")) {
-        String suffix = s.substring("REL TO".length());
-        relTo =
-            ImmutableList.copyOf(
-                COMMA_PATTERN.splitAsStream(suffix).map(String::trim).collect(Collectors.toList()));
+        relTo = MarkingTokenizer.toList(s.substring("REL TO".length()), ",", true);
       } else if (s.startsWith("DISPLAY ONLY")) {
-        String suffix = s.substring("DISPLAY ONLY".length());
-        displayOnly =
-            ImmutableList.copyOf(
-                COMMA_PATTERN.splitAsStream(suffix).map(String::trim).collect(Collectors.toList()));
+        displayOnly = MarkingTokenizer.toList(s.substring("DISPLAY ONLY".length()), ",", true);
       } else {
         DissemControl dissemControl = DissemControl.lookupPortionName(s.trim());
         if (dissemControl != null) {
@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.security.banner.marking;
+
+import static org.codice.alliance.security.banner.marking.ClassificationLevel.UNCLASSIFIED;
+import static org.codice.alliance.security.banner.marking.DissemControl.NOFORN;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Rolls the portion markings of a document up into the markings of the whole document.
+ *
+ * <ul>
+ *   <li>The classification is the highest classification of any portion.
+ *   <li>Dissemination controls, SCI controls, other dissemination controls and ACCMs are the union
+ *       of those of every portion.
+ *   <li>REL TO is the intersection of the REL TO countries of the classified portions. It becomes
+ *       NOFORN if the intersection is empty or only USA, a portion is NOFORN, or a classified
+ *       portion has no release marking.
+ *   <li>Foreign portions add their authority to the FGI country codes, unless every portion has
+ *       the same foreign authority, in which case the document is marked as that authority's.
+ *   <li>The first SAP and AEA markings found are kept.
+ * </ul>
+ *
+ * <p>The rolled up markings are validated like the markings of a banner line.
+ */
+class PortionMarkingsRollup {
+
+  private static final String USA = "USA";
+
+  private int count;
+
+  private ClassificationLevel classification;
+
+  private String fgiAuthority;
+
+  private String natoQualifier;
+
+  private boolean allSameFgiAuthority = true;
+
+  private final Set<String> usFgiCountryCodes = new LinkedHashSet<>();
+
+  private final Set<DissemControl> disseminationControls = EnumSet.noneOf(DissemControl.class);
+
+  private final Map<String, SciControl> sciControls = new LinkedHashMap<>();
+
+  private SapControl sapControl;
+
+  private AeaMarking aeaMarking;
+
+  private List<String> relTo;
+
+  private boolean unreleasedPortion;
+
+  private final Set<OtherDissemControl> otherDissemControls =
+      EnumSet.noneOf(OtherDissemControl.class);
+
+  private final Set<String> accm = new LinkedHashSet<>();
+
+  void add(BannerMarkings portion) {
+    if (count == 0) {
+      fgiAuthority = portion.getFgiAuthority();
+    }
+    count++;
+
+    if (classification == null || portion.getClassification().compareTo(classification) > 0) {
+      classification = portion.getClassification();
+    }
+
+    if (portion.getType() == MarkingType.FGI) {
+      usFgiCountryCodes.add(portion.getFgiAuthority());
+      if (natoQualifier == null) {
+        natoQualifier = portion.getNatoQualifier();
+      }
+    }
+    usFgiCountryCodes.addAll(portion.getUsFgiCountryCodes());
+    allSameFgiAuthority &=
+        portion.getType() == MarkingType.FGI
+            && Objects.equals(fgiAuthority, portion.getFgiAuthority());
+
+    disseminationControls.addAll(portion.getDisseminationControls());
+    for (SciControl sciControl : portion.getSciControls()) {
+      sciControls.putIfAbsent(sciControl.getControl() + sciControl.getCompartments(), sciControl);
+    }
+    if (sapControl == null) {
+      sapControl = portion.getSapControl();
+    }
+    if (aeaMarking == null) {
+      aeaMarking = portion.getAeaMarking();
+    }
+    otherDissemControls.addAll(portion.getOtherDissemControl());
+    accm.addAll(portion.getAccm());
+
+    if (portion.getClassification() != UNCLASSIFIED) {
+      addReleasability(portion);
+    }
+  }
+
+  private void addReleasability(BannerMarkings portion) {
+    if (portion.getRelTo().isEmpty()) {
+      unreleasedPortion |= !portion.getDisseminationControls().contains(NOFORN);
+    } else if (relTo == null) {
+      relTo = new ArrayList<>(portion.getRelTo());
+    } else {
+      relTo.retainAll(portion.getRelTo());
+    }
+  }
+
+  boolean isEmpty() {
+    return count == 0;
+  }
+
+  int getCount() {
+    return count;
+  }
+
+  /**
+   * @return the markings of the whole document, or null if no portions were added.
+   * @throws MarkingsValidationException if the rolled up markings are not valid.
+   */
+  BannerMarkings toBannerMarkings() throws MarkingsValidationException {
+    if (count == 0) {
+      return null;
+    }
+
+    BannerMarkings markings;
+    if (allSameFgiAuthority) {
+      markings =
+          new RolledUpMarkings(MarkingType.FGI, fgiAuthority + " " + classification.getName());
+      markings.natoQualifier = natoQualifier;
+      markings.usFgiCountryCodes = ImmutableList.of();
+    } else {
+      markings = new RolledUpMarkings(MarkingType.US, classification.getName());
+      List<String> countryCodes = new ArrayList<>(usFgiCountryCodes);
+      countryCodes.sort(BannerValidator.COUNTRY_CODE_COMPARATOR);
+      markings.usFgiCountryCodes = ImmutableList.copyOf(countryCodes);
+    }
+
+    Set<DissemControl> dissem = EnumSet.noneOf(DissemControl.class);
+    dissem.addAll(disseminationControls);
+    List<String> releasableTo = ImmutableList.of();
+    if (relTo != null && !dissem.contains(NOFORN)) {
+      if (relTo.isEmpty() || relTo.equals(ImmutableList.of(USA)) || unreleasedPortion) {
+        dissem.add(NOFORN);
+      } else {
+        releasableTo = ImmutableList.copyOf(relTo);
+      }
+    }
+
+    markings.jointAuthorities = ImmutableList.of();
+    markings.disseminationControls = ImmutableList.copyOf(dissem);
+    markings.relTo = releasableTo;
+    markings.displayOnly = ImmutableList.of();
+    markings.sciControls = ImmutableList.copyOf(sciControls.values());
+    markings.sapControl = sapControl;
+    markings.aeaMarking = aeaMarking;
+    markings.otherDissemControl = ImmutableList.copyOf(otherDissemControls);
+    markings.accm = ImmutableList.copyOf(accm);
+
+    BannerValidator.validate(markings);
+    return markings;
+  }
+
+  private static class RolledUpMarkings extends BannerMarkings {
+
+    RolledUpMarkings(MarkingType type, String classificationSegment)
+        throws MarkingsValidationException {
+      super(type, classificationSegment, classificationSegment);
+    }
+  }
+}
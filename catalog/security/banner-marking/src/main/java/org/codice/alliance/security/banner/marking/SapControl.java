@@ -16,13 +16,10 @@ package org.codice.alliance.security.banner.marking;
 import com.google.common.collect.ImmutableList;
 import java.io.Serializable;
 import java.util.List;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /** Special Access Program controls. */
 public class SapControl implements Serializable {
-  private static final Pattern CONTROL_PATTERN = Pattern.compile("[/]");
-
   private boolean multiple;
 
   private boolean hvsaco;
@@ -30,9 +27,7 @@ public class SapControl implements Serializable {
   private List<String> programs;
 
   public SapControl(String programString) {
-    programs =
-        ImmutableList.copyOf(
-            CONTROL_PATTERN.splitAsStream(programString).collect(Collectors.toList()));
+    programs = MarkingTokenizer.toList(programString, "/", false);
 
     multiple = (programs.size() == 1 && programs.contains("MULTIPLE PROGRAMS"));
     if (multiple) {
@@ -17,7 +17,6 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedMap;
 import java.io.Serializable;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,26 +28,23 @@ public class SciControl implements Serializable {
   private final Map<String, List<String>> compartments;
 
   public SciControl(String marking) {
-    String[] split = marking.split("[-]");
-    control = split[0];
+    MarkingTokenizer tokens = new MarkingTokenizer(marking, "-");
+    control = tokens.hasNext() ? tokens.next() : "";
 
-    if (split.length == 1) {
+    if (!tokens.hasNext()) {
       compartments = ImmutableMap.of();
       return;
     }
 
     Map<String, List<String>> tempCompartments = new HashMap<>();
-    for (int i = 1; i < split.length; i++) {
-      String[] compartment = split[i].split(" ");
-      List<String> subComps;
-      if (compartment.length > 1) {
-        subComps =
-            ImmutableList.copyOf(
-                Arrays.asList(Arrays.copyOfRange(compartment, 1, compartment.length)));
-      } else {
-        subComps = ImmutableList.of();
+    while (tokens.hasNext()) {
+      MarkingTokenizer compartment = new MarkingTokenizer(tokens.next(), " ");
+      String name = compartment.hasNext() ? compartment.next() : "";
+      ImmutableList.Builder<String> subComps = ImmutableList.builder();
+      while (compartment.hasNext()) {
+        subComps.add(compartment.next());
       }
-      tempCompartments.put(compartment[0], subComps);
+      tempCompartments.put(name, subComps.build());
     }
 
     compartments = ImmutableSortedMap.copyOf(tempCompartments);
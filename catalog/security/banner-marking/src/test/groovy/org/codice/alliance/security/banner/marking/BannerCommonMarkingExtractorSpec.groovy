@@ -385,6 +385,59 @@ class BannerCommonMarkingExtractorSpec extends Specification {
         thrown(MarkingMismatchException.class)
     }
 
+    @Unroll
+    def 'test process banner of #description'() {
+        when:
+        extractor.process(document, metacard)
+
+        then:
+        metacard.getAttribute(Security.CLASSIFICATION)?.values == classification
+
+        where:
+        description              | document                                || classification
+        'top line'               | 'SECRET//NOFORN\nbody\nUNCLASSIFIED'     || ['S']
+        'invalid top line'       | 'not a banner\nbody\nTOP SECRET//NOFORN' || ['TS']
+        'document without lines' | ''                                      || null
+    }
+
+    def 'test process banner outside the window'() {
+        setup:
+        extractor.setWindowBytes(16)
+
+        when:
+        extractor.process("${'X' * 100}\nSECRET\n${'X' * 100}", metacard)
+
+        then:
+        metacard.getAttribute(Security.CLASSIFICATION) == null
+    }
+
+    def 'test process reads only the start of a document with a valid top banner'() {
+        setup:
+        extractor.setWindowBytes(16)
+        def bytes = "SECRET\n${'X' * 1000}\nTOP SECRET\n".getBytes('UTF-8')
+        def input = new ByteArrayInputStream(bytes)
+
+        when:
+        extractor.process(input, metacard)
+
+        then:
+        metacard.getAttribute(Security.CLASSIFICATION).values == ['S']
+        bytes.length - input.available() == 17
+    }
+
+    def 'test process portion markings'() {
+        setup:
+        extractor.setMode(MarkingExtractor.Mode.PORTIONS)
+        def document = 'UNCLASSIFIED\n(U) one\n(S//REL TO USA, CAN) two\n(C//REL TO USA, CAN) three'
+
+        when:
+        extractor.process(document, metacard)
+
+        then:
+        metacard.getAttribute(Security.CLASSIFICATION).values == ['S']
+        metacard.getAttribute(Security.RELEASABILITY).values == ['USA', 'CAN']
+    }
+
     private def initBannerMarkings(String markings) {
         try {
             bannerMarkings = BannerMarkings.parseMarkings(markings)
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.alliance.security.banner.marking
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.charset.StandardCharsets
+
+class BannerLineReaderSpec extends Specification {
+    private static final String BODY = (1..1000).collect { "line $it" }.join('\n')
+
+    private BannerLineReader reader = new BannerLineReader(64)
+
+    @Unroll
+    def 'test banner lines of #description'() {
+        when:
+        def lines = reader.read(new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)))
+
+        then:
+        lines == expected
+
+        where:
+        description          | document                                   || expected
+        'a short document'   | '\n  SECRET//NOFORN \nbody\nSECRET\n\n'    || ['SECRET//NOFORN', 'SECRET']
+        'a single line'      | 'SECRET'                                   || ['SECRET']
+        'a large document'   | "TOP SECRET\n$BODY\nSECRET\n"              || ['TOP SECRET', 'SECRET']
+        'a long first line'  | "${'X' * 200}\n$BODY\nSECRET"              || ['SECRET']
+        'a long last line'   | "SECRET\n$BODY\n${'X' * 200}"              || ['SECRET']
+        'an empty document'  | ''                                         || []
+    }
+
+    @Unroll
+    def 'test banner lines of a #charset document with a byte order mark'() {
+        when:
+        def document = "\uFEFFUNCLASSIFIED\n$BODY\nSECRET\n"
+        def lines = reader.read(new ByteArrayInputStream(document.getBytes(charset)))
+
+        then:
+        lines == ['UNCLASSIFIED', 'SECRET']
+
+        where:
+        charset << [StandardCharsets.UTF_8, StandardCharsets.UTF_16BE, StandardCharsets.UTF_16LE]
+    }
+
+    def 'test banner lines of a large file'() {
+        setup:
+        def file = File.createTempFile('banner', '.txt')
+        file.deleteOnExit()
+        file.text = "SECRET\n${BODY * 10}\nTOP SECRET\n"
+
+        when:
+        def lines = file.withInputStream { reader.read(it) }
+
+        then:
+        lines == ['SECRET', 'TOP SECRET']
+    }
+
+    def 'test the tail is read only when the bottom line is requested'() {
+        setup:
+        def bytes = "TOP SECRET\n$BODY\nSECRET\n".getBytes(StandardCharsets.UTF_8)
+        def input = new ByteArrayInputStream(bytes)
+
+        when:
+        def document = reader.open(input)
+
+        then:
+        document.getTopLine() == 'TOP SECRET'
+        bytes.length - input.available() == 65
+
+        when:
+        def bottom = document.getBottomLine()
+
+        then:
+        bottom == 'SECRET'
+        input.available() == 0
+        document.getBottomLine() == 'SECRET'
+    }
+
+    def 'test binary content has no banner lines'() {
+        setup:
+        def bytes = new byte[4096]
+        new Random(1).nextBytes(bytes)
+
+        expect:
+        reader.read(new ByteArrayInputStream(bytes)).isEmpty()
+    }
+
+    @Unroll
+    def 'test charset detection of #bytes'() {
+        expect:
+        BannerLineReader.detectCharset(bytes as byte[], bytes.size()) == charset
+
+        where:
+        bytes                           || charset
+        [0xEF, 0xBB, 0xBF, 0x41]        || StandardCharsets.UTF_8
+        [0xFE, 0xFF, 0x00, 0x41]        || StandardCharsets.UTF_16BE
+        [0xFF, 0xFE, 0x41, 0x00]        || StandardCharsets.UTF_16LE
+        [0x41, 0xC3, 0xA9]              || StandardCharsets.UTF_8
+        [0x41, 0xC3]                    || StandardCharsets.UTF_8
+        [0x41, 0xE9, 0x41]              || StandardCharsets.ISO_8859_1
+    }
+
+    def 'test window must be positive'() {
+        when:
+        new BannerLineReader(0)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -605,4 +605,28 @@ class BannerMarkingsSpec extends Specification {
         'UNCLASSIFIED//DOD UNCLASSIFIED CONTROLLED NUCLEAR INFORMATION'   | DOD_UCNI  | true | false
         'UNCLASSIFIED//DOE UNCLASSIFIED CONTROLLED NUCLEAR INFORMATION'   | DOE_UCNI  | false | true
     }
+
+    def 'test repeated markings are parsed once'() {
+        when:
+        def first = BannerMarkings.parseMarkings('SECRET//TK//REL TO USA, CAN')
+        def second = BannerMarkings.parseMarkings('SECRET//TK//REL TO USA, CAN')
+
+        then:
+        first.is(second)
+        !PortionMarkings.parseMarkings('S//TK//REL TO USA, CAN').is(first)
+    }
+
+    def 'test invalid markings are not cached'() {
+        when:
+        BannerMarkings.parseMarkings('SECRET//TK')
+
+        then:
+        thrown(MarkingsValidationException)
+
+        when:
+        BannerMarkings.parseMarkings('SECRET//TK')
+
+        then:
+        thrown(MarkingsValidationException)
+    }
 }
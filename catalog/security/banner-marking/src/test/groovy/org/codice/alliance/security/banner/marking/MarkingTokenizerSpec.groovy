@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.alliance.security.banner.marking
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.regex.Pattern
+
+class MarkingTokenizerSpec extends Specification {
+
+    @Unroll
+    def 'test tokens of "#input" split on "#delimiter" match String.split'() {
+        when:
+        def tokens = []
+        def tokenizer = new MarkingTokenizer(input, delimiter)
+        while (tokenizer.hasNext()) {
+            tokens << tokenizer.next()
+        }
+
+        then:
+        tokens == input.split(Pattern.quote(delimiter)) as List
+
+        where:
+        input                        | delimiter
+        'SECRET//TK//NOFORN'         | '//'
+        'SECRET'                     | '//'
+        ''                           | '//'
+        '//JOINT SECRET'             | '//'
+        'SECRET///NOFORN'            | '//'
+        'SECRET////NOFORN'           | '//'
+        'SECRET//NOFORN//'           | '//'
+        'SI-G ABCD EFGH-XYZ'         | '-'
+        'SI--G'                      | '-'
+        'NOFORN/'                    | '/'
+        '/NOFORN'                    | '/'
+        ' CAN,  GBR , '              | ','
+    }
+
+    def 'test peek does not consume the token'() {
+        when:
+        def tokenizer = new MarkingTokenizer('NF/OC', '/')
+
+        then:
+        tokenizer.peek() == 'NF'
+        tokenizer.next() == 'NF'
+        tokenizer.peek() == 'OC'
+        tokenizer.next() == 'OC'
+        tokenizer.peek() == null
+        !tokenizer.hasNext()
+    }
+
+    def 'test trimmed list'() {
+        expect:
+        MarkingTokenizer.toList(' USA, CAN ,GBR', ',', true) == ['USA', 'CAN', 'GBR']
+    }
+
+    def 'test next past the end'() {
+        when:
+        def tokenizer = new MarkingTokenizer('A', '/')
+        tokenizer.next()
+        tokenizer.next()
+
+        then:
+        thrown(NoSuchElementException)
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.alliance.security.banner.marking
+
+import spock.lang.Specification
+
+class MarkingsCacheSpec extends Specification {
+    private MarkingsCache<BannerMarkings> cache = new MarkingsCache<>(2)
+
+    def 'test least recently used markings are evicted'() {
+        setup:
+        def secret = BannerMarkings.parseMarkings('SECRET')
+        def topSecret = BannerMarkings.parseMarkings('TOP SECRET')
+
+        when:
+        cache.put('SECRET', secret)
+        cache.put('TOP SECRET', topSecret)
+        cache.get('SECRET')
+        cache.put('UNCLASSIFIED', BannerMarkings.parseMarkings('UNCLASSIFIED'))
+
+        then:
+        cache.size() == 2
+        cache.get('SECRET') == secret
+        cache.get('TOP SECRET') == null
+    }
+
+    def 'test shrinking the cache evicts at once'() {
+        setup:
+        cache.put('SECRET', BannerMarkings.parseMarkings('SECRET'))
+        cache.put('TOP SECRET', BannerMarkings.parseMarkings('TOP SECRET'))
+
+        when:
+        cache.setMaxEntries(1)
+
+        then:
+        cache.size() == 1
+        cache.get('TOP SECRET') != null
+    }
+
+    def 'test size may not be negative'() {
+        when:
+        cache.setMaxEntries(-1)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.alliance.security.banner.marking
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.charset.StandardCharsets
+
+class PortionMarkingScannerSpec extends Specification {
+
+    @Unroll
+    def 'test portions of #description'() {
+        when:
+        def portions = scan(document.getBytes(StandardCharsets.UTF_8))
+
+        then:
+        portions == expected
+
+        where:
+        description            | document                                               || expected
+        'a single portion'     | '(S//NF) secret'                                       || ['S//NF']
+        'several portions'     | '(U) one\n  (C) two\n\t(TS//SI//NF) three'             || ['U', 'C', 'TS//SI//NF']
+        'foreign portions'     | '(//DEU S) one\n(//JOINT S USA CAN) two'               || ['//DEU S', '//JOINT S USA CAN']
+        'mid-line parentheses' | 'copyright (C) 2018 and (S//NF)'                       || []
+        'an unclosed portion'  | '(S//NF\n) text\n(U) text'                             || ['U']
+        'no portions'          | 'plain text (with parentheses)'                        || []
+        'an overlong portion'  | "(S//${'X' * 300}) text\n(C) text"                     || ['C']
+        'a copyright year'     | '(C) 2018 Codice\n(S) text'                            || ['S']
+        'a copyright notice'   | '(C) Copyright Codice\n(S) text'                       || ['S']
+        'a number'             | '(C) 15 units\n(S) text'                               || ['C', 'S']
+        'a last portion'       | '(S) text\n(C)'                                        || ['S', 'C']
+    }
+
+    def 'test portions of a UTF-16 document'() {
+        when:
+        def portions = scan('(S//NF) one\n(C) two'.getBytes(StandardCharsets.UTF_16))
+
+        then:
+        portions == ['S//NF', 'C']
+    }
+
+    def 'test portions spanning read buffers'() {
+        setup:
+        def document = new StringBuilder()
+        1000.times { document.append("(S//REL TO USA, CAN) paragraph $it of the document\n") }
+
+        when:
+        def portions = scan(document.toString().getBytes(StandardCharsets.UTF_8))
+
+        then:
+        portions.size() == 1000
+        portions.every { it == 'S//REL TO USA, CAN' }
+    }
+
+    private static List<String> scan(byte[] bytes) {
+        def portions = []
+        PortionMarkingScanner.scan(
+                PortionMarkingScanner.newReader(new ByteArrayInputStream(bytes)),
+                { portions << it })
+        return portions
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.alliance.security.banner.marking
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static org.codice.alliance.security.banner.marking.ClassificationLevel.*
+import static org.codice.alliance.security.banner.marking.DissemControl.*
+import static org.codice.alliance.security.banner.marking.MarkingType.*
+
+class PortionMarkingsRollupSpec extends Specification {
+
+    @Unroll
+    def 'test roll up of #portions'() {
+        when:
+        def markings = rollUp(portions)
+
+        then:
+        markings.type == type
+        markings.classification == classification
+        markings.relTo == relTo
+        markings.disseminationControls == dissem
+
+        where:
+        portions                                          || type | classification | relTo          | dissem
+        ['U', 'C', 'S']                                   || US   | SECRET         | []             | []
+        ['U', 'S//NF', 'C//REL TO USA, CAN']              || US   | SECRET         | []             | [NOFORN]
+        ['S//REL TO USA, CAN, GBR', 'C//REL TO USA, CAN'] || US   | SECRET         | ['USA', 'CAN'] | []
+        ['S//REL TO USA, GBR', 'C//REL TO USA, CAN']      || US   | SECRET         | []             | [NOFORN]
+        ['S//REL TO USA, CAN', 'C']                       || US   | SECRET         | []             | [NOFORN]
+        ['U', 'S//REL TO USA, CAN']                       || US   | SECRET         | ['USA', 'CAN'] | []
+        ['//DEU S', '//DEU C']                            || FGI  | SECRET         | []             | []
+    }
+
+    def 'test foreign portions in a US document'() {
+        when:
+        def markings = rollUp(['S', '//DEU C', '//GBR S'])
+
+        then:
+        markings.type == US
+        markings.usFgiCountryCodes == ['DEU', 'GBR']
+    }
+
+    def 'test foreign country codes are sorted'() {
+        when:
+        def markings = rollUp(['S', '//GBR C', '//DEU S'])
+
+        then:
+        markings.usFgiCountryCodes == ['DEU', 'GBR']
+    }
+
+    def 'test invalid roll up'() {
+        when:
+        rollUp(['U//FOUO', 'S'])
+
+        then:
+        thrown(MarkingsValidationException)
+    }
+
+    def 'test SCI controls are combined'() {
+        when:
+        def markings = rollUp(['TS//SI//NF', 'TS//SI//NF', 'TS//TK//NF'])
+
+        then:
+        markings.sciControls*.control == ['SI', 'TK']
+    }
+
+    def 'test empty roll up'() {
+        expect:
+        new PortionMarkingsRollup().toBannerMarkings() == null
+    }
+
+    private static BannerMarkings rollUp(List<String> portions) {
+        def rollup = new PortionMarkingsRollup()
+        portions.each { rollup.add(PortionMarkings.parseMarkings(it)) }
+        return rollup.toBannerMarkings()
+    }
+}
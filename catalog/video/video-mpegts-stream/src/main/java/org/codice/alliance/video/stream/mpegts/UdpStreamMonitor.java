@@ -43,6 +43,7 @@ import java.util.Optional;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
+import org.codice.alliance.libs.klv.PrecomputedKlvStore;
 import org.codice.alliance.video.stream.mpegts.filename.FilenameGenerator;
 import org.codice.alliance.video.stream.mpegts.metacard.MetacardUpdater;
 import org.codice.alliance.video.stream.mpegts.netty.UdpStreamProcessor;
@@ -108,6 +109,8 @@ public class UdpStreamMonitor implements StreamMonitor {
 
   public static final String METATYPE_NETWORK_INTERFACE = "networkInterface";
 
+  public static final String METATYPE_MAX_BUFFERED_KLV_PACKETS = "maxBufferedKlvPackets";
+
   static final int MONITORED_PORT_MIN = 1;
 
   static final int MONITORED_PORT_MAX = 65535;
@@ -179,6 +182,15 @@ public class UdpStreamMonitor implements StreamMonitor {
     udpStreamProcessor.setDistanceTolerance(distanceTolerance);
   }
 
+  public Integer getMaxBufferedKlvPackets() {
+    return udpStreamProcessor.getMaxBufferedKlvPackets();
+  }
+
+  /** @param maxBufferedKlvPackets must be non-null and &gt;=1 */
+  public void setMaxBufferedKlvPackets(Integer maxBufferedKlvPackets) {
+    udpStreamProcessor.setMaxBufferedKlvPackets(maxBufferedKlvPackets);
+  }
+
   public String getNetworkInterface() {
     return this.networkInterface;
   }
@@ -239,6 +251,12 @@ public class UdpStreamMonitor implements StreamMonitor {
     udpStreamProcessor.setUuidGenerator(uuidGenerator);
   }
 
+  /** @param precomputedKlvStores must be non-null, may be empty */
+  public void setPrecomputedKlvStores(List<PrecomputedKlvStore> precomputedKlvStores) {
+    notNull(precomputedKlvStores, "precomputedKlvStores must be non-null");
+    udpStreamProcessor.setPrecomputedKlvStores(precomputedKlvStores);
+  }
+
   private boolean isReady() {
     return monitoredAddress != null && udpStreamProcessor.isReady();
   }
@@ -434,6 +452,11 @@ public class UdpStreamMonitor implements StreamMonitor {
         return;
       }
 
+      if (properties.get(METATYPE_MAX_BUFFERED_KLV_PACKETS) != null
+          && !checkMetaTypeClass(properties, METATYPE_MAX_BUFFERED_KLV_PACKETS, Integer.class)) {
+        return;
+      }
+
       setMonitoredAddress((String) properties.get(METATYPE_MONITORED_ADDRESS));
       setNetworkInterface((String) properties.get(METATYPE_NETWORK_INTERFACE));
       setMegabyteCountRolloverCondition(
@@ -444,6 +467,9 @@ public class UdpStreamMonitor implements StreamMonitor {
       setMetacardUpdateInitialDelay((Long) properties.get(METATYPE_METACARD_UPDATE_INITIAL_DELAY));
       setParentTitle((String) properties.get(METATYPE_PARENT_TITLE));
       setDistanceTolerance((Double) properties.get(METATYPE_DISTANCE_TOLERANCE));
+      if (properties.get(METATYPE_MAX_BUFFERED_KLV_PACKETS) != null) {
+        setMaxBufferedKlvPackets((Integer) properties.get(METATYPE_MAX_BUFFERED_KLV_PACKETS));
+      }
 
       init();
     }
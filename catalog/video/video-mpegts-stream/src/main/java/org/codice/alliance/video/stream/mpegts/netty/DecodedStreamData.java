@@ -22,6 +22,9 @@ interface DecodedStreamData {
   /** @return MPEG-TS packet identifier */
   int getPacketId();
 
+  /** @return the presentation timestamp of the PES packet, or -1 if it has none */
+  long getPresentationTimestamp();
+
   /** @param visitor must be non-null */
   void accept(Visitor visitor);
 
@@ -56,35 +56,40 @@ class DecodedStreamDataHandler extends ChannelInboundHandlerAdapter {
         new DecodedStreamData.Visitor() {
           @Override
           public void visit(Mpeg2DecodedStreamData decodedStreamData) {
-            handleMpeg2(decodedStreamData.getListOfTypes());
+            handleMpeg2(
+                decodedStreamData.getListOfTypes(), decodedStreamData.getPresentationTimestamp());
           }
 
           @Override
           public void visit(Mpeg4DecodedStreamData decodedStreamData) {
-            handleNALUnits(decodedStreamData.getNalUnits());
+            handleNALUnits(
+                decodedStreamData.getNalUnits(), decodedStreamData.getPresentationTimestamp());
           }
         });
   }
 
-  private void frameComplete(boolean isIDR) {
-    packetBuffer.frameComplete(isIDR ? PacketBuffer.FrameType.IDR : PacketBuffer.FrameType.NON_IDR);
+  private void frameComplete(boolean isIDR, long presentationTimestamp) {
+    packetBuffer.frameComplete(
+        isIDR ? PacketBuffer.FrameType.IDR : PacketBuffer.FrameType.NON_IDR,
+        presentationTimestamp);
   }
 
-  private void handleMpeg2(List<Mpeg2PictureType> mpeg2PictureTypeList) {
+  private void handleMpeg2(
+      List<Mpeg2PictureType> mpeg2PictureTypeList, long presentationTimestamp) {
 
     boolean allIntraCoded =
         mpeg2PictureTypeList.stream()
             .allMatch(mpeg2PictureType -> mpeg2PictureType == Mpeg2PictureType.INTRA_CODED);
 
-    frameComplete(allIntraCoded);
+    frameComplete(allIntraCoded, presentationTimestamp);
   }
 
-  private void handleNALUnits(List<NALUnit> nalUnitList) {
+  private void handleNALUnits(List<NALUnit> nalUnitList, long presentationTimestamp) {
 
     boolean containsIDR =
         nalUnitList.stream().anyMatch(nalUnit -> nalUnit.type == NALUnitType.IDR_SLICE);
 
-    frameComplete(containsIDR);
+    frameComplete(containsIDR, presentationTimestamp);
   }
 
   @Override
@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.netty;
+
+import static org.apache.commons.lang3.Validate.inclusiveBetween;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.codice.alliance.libs.klv.KlvHandler;
+import org.codice.alliance.libs.klv.PrecomputedKlvStore;
+import org.codice.alliance.libs.stanag4609.DecodedKLVMetadataPacket;
+import org.codice.alliance.libs.stanag4609.KlvPacketStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Buffers the decoded KLV metadata packets of a stream until the video chunk they belong to is
+ * rolled over, so that the metadata of the chunk is available at rollover instead of being decoded
+ * again from the chunk. On each rotation, the packets whose presentation timestamp is not after the
+ * last frame of the chunk are passed to a new set of {@link KlvHandler}s created by the {@link
+ * PrecomputedKlvStore}, and later packets are kept for the next chunk. Packets without a
+ * presentation timestamp, such as asynchronous metadata, are assigned to the chunk that is rolled
+ * over next. This implementation is thread-safe.
+ */
+public class KlvHandlerBuffer {
+
+  /** The default for the most packets buffered between rotations. */
+  public static final int DEFAULT_MAX_BUFFERED_PACKETS = 10000;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(KlvHandlerBuffer.class);
+
+  private final PrecomputedKlvStore precomputedKlvStore;
+
+  private final Lock lock = new ReentrantLock();
+
+  private final KlvPacketStatistics statistics = new KlvPacketStatistics();
+
+  private final Deque<BufferedPacket> packets = new ArrayDeque<>();
+
+  private final int maxBufferedPackets;
+
+  private long droppedPacketCount = 0;
+
+  private long droppedSinceRotation = 0;
+
+  /** @param precomputedKlvStore must be non-null */
+  public KlvHandlerBuffer(PrecomputedKlvStore precomputedKlvStore) {
+    this(precomputedKlvStore, DEFAULT_MAX_BUFFERED_PACKETS);
+  }
+
+  /**
+   * @param precomputedKlvStore must be non-null
+   * @param maxBufferedPackets the most packets buffered between rotations, must be at least 1. When
+   *     the buffer is full, the oldest packets are dropped, so a stream whose video is never rolled
+   *     over does not exhaust memory.
+   */
+  public KlvHandlerBuffer(PrecomputedKlvStore precomputedKlvStore, int maxBufferedPackets) {
+    notNull(precomputedKlvStore, "precomputedKlvStore must be non-null");
+    inclusiveBetween(
+        1, Integer.MAX_VALUE, maxBufferedPackets, "maxBufferedPackets must be at least 1");
+    this.precomputedKlvStore = precomputedKlvStore;
+    this.maxBufferedPackets = maxBufferedPackets;
+  }
+
+  /**
+   * The counts of the KLV metadata packets that were decoded and rejected. The counts are updated
+   * by the decoder of the stream and are not reset by {@link #rotate(long)}.
+   *
+   * @return the statistics of the stream
+   */
+  public KlvPacketStatistics getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * Buffer a decoded KLV metadata packet until the chunk it belongs to is rolled over.
+   *
+   * @param packetId the packet ID of the metadata stream
+   * @param packet must be non-null
+   */
+  public void handle(int packetId, DecodedKLVMetadataPacket packet) {
+    notNull(packet, "packet must be non-null");
+    lock.lock();
+    try {
+      if (packets.size() >= maxBufferedPackets) {
+        packets.removeFirst();
+        droppedPacketCount++;
+        if (droppedSinceRotation++ == 0) {
+          LOGGER.warn(
+              "More than {} KLV metadata packets were received since the last rollover, dropping the oldest packets. Increase the maximum buffered KLV packets of the stream monitor or lower its rollover conditions.",
+              maxBufferedPackets);
+        }
+      }
+      packets.addLast(new BufferedPacket(packetId, packet));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Return the handlers of the metadata of the chunk that was rolled over. Will return {@link
+   * Optional#empty()} if no metadata belongs to the chunk.
+   *
+   * @param lastPresentationTimestamp the latest presentation timestamp of the video frames of the
+   *     chunk, or -1 if it is not known, in which case all the buffered metadata belongs to the
+   *     chunk
+   * @return the handlers of the rotated chunk
+   */
+  public Optional<Map<String, KlvHandler>> rotate(long lastPresentationTimestamp) {
+    Map<Integer, List<DecodedKLVMetadataPacket>> chunk = new LinkedHashMap<>();
+    int packetCount = 0;
+    lock.lock();
+    try {
+      Iterator<BufferedPacket> iterator = packets.iterator();
+      while (iterator.hasNext()) {
+        BufferedPacket bufferedPacket = iterator.next();
+        if (belongsTo(bufferedPacket.packet, lastPresentationTimestamp)) {
+          chunk
+              .computeIfAbsent(bufferedPacket.packetId, packetId -> new ArrayList<>())
+              .add(bufferedPacket.packet);
+          iterator.remove();
+          packetCount++;
+        }
+      }
+      droppedSinceRotation = 0;
+      LOGGER.debug(
+          "rotating klv: packetCount={} remainingPacketCount={} droppedPacketCount={} statistics={}",
+          packetCount,
+          packets.size(),
+          droppedPacketCount,
+          statistics);
+    } finally {
+      lock.unlock();
+    }
+
+    if (packetCount == 0) {
+      return Optional.empty();
+    }
+
+    // The handlers are filled outside of the lock so that the decoder of the stream is not blocked.
+    Map<String, KlvHandler> handlers = precomputedKlvStore.createHandlers();
+    precomputedKlvStore.handle(handlers, chunk);
+    return Optional.of(handlers);
+  }
+
+  /** Discard the buffered metadata. */
+  public void reset() {
+    lock.lock();
+    try {
+      packets.clear();
+      droppedSinceRotation = 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static boolean belongsTo(
+      DecodedKLVMetadataPacket packet, long lastPresentationTimestamp) {
+    long presentationTimestamp = packet.getPresentationTimestamp();
+    return presentationTimestamp < 0
+        || lastPresentationTimestamp < 0
+        || !PresentationTimestamps.isAfter(presentationTimestamp, lastPresentationTimestamp);
+  }
+
+  @Override
+  public String toString() {
+    lock.lock();
+    try {
+      return "KlvHandlerBuffer{"
+          + "packetCount="
+          + packets.size()
+          + ", droppedPacketCount="
+          + droppedPacketCount
+          + ", statistics="
+          + statistics
+          + '}';
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static class BufferedPacket {
+
+    private final int packetId;
+
+    private final DecodedKLVMetadataPacket packet;
+
+    private BufferedPacket(int packetId, DecodedKLVMetadataPacket packet) {
+      this.packetId = packetId;
+      this.packet = packet;
+    }
+  }
+}
@@ -23,14 +23,27 @@ public class Mpeg2DecodedStreamData implements DecodedStreamData {
 
   private final int packetId;
 
+  private final long presentationTimestamp;
+
   /**
    * @param listOfTypes list of Mpeg2PictureType enums (must be non-null)
    * @param packetId MPEG-TS packet identifier
    */
   public Mpeg2DecodedStreamData(List<Mpeg2PictureType> listOfTypes, int packetId) {
+    this(listOfTypes, packetId, PresentationTimestamps.NONE);
+  }
+
+  /**
+   * @param listOfTypes list of Mpeg2PictureType enums (must be non-null)
+   * @param packetId MPEG-TS packet identifier
+   * @param presentationTimestamp the presentation timestamp of the PES packet, or -1 if it has none
+   */
+  public Mpeg2DecodedStreamData(
+      List<Mpeg2PictureType> listOfTypes, int packetId, long presentationTimestamp) {
     notNull(listOfTypes, "listOfTypes must be non-null");
     this.listOfTypes = listOfTypes;
     this.packetId = packetId;
+    this.presentationTimestamp = presentationTimestamp;
   }
 
   @Override
@@ -43,6 +56,11 @@ public class Mpeg2DecodedStreamData implements DecodedStreamData {
     return listOfTypes;
   }
 
+  @Override
+  public long getPresentationTimestamp() {
+    return presentationTimestamp;
+  }
+
   @Override
   public void accept(Visitor visitor) {
     notNull(visitor, "visitor must be non-null");
@@ -92,7 +92,11 @@ class PESPacketToApplicationDataDecoder extends MessageToMessageDecoder<PESPacke
       }
     }
 
-    outputList.add(new Mpeg4DecodedStreamData(nalUnits, pesPacket.getPacketId()));
+    outputList.add(
+        new Mpeg4DecodedStreamData(
+            nalUnits,
+            pesPacket.getPacketId(),
+            PresentationTimestamps.read(pesPacket.getPayload())));
   }
 
   private boolean isH262Video(PESPacket pesPacket) {
@@ -114,7 +118,11 @@ class PESPacketToApplicationDataDecoder extends MessageToMessageDecoder<PESPacke
       }
     }
 
-    outputList.add(new Mpeg2DecodedStreamData(mpeg2PictureTypeList, pesPacket.getPacketId()));
+    outputList.add(
+        new Mpeg2DecodedStreamData(
+            mpeg2PictureTypeList,
+            pesPacket.getPacketId(),
+            PresentationTimestamps.read(pesPacket.getPayload())));
   }
 
   private Optional<Mpeg2PictureType> decodePicture(BitReader bitReader) {
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.netty;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.codice.alliance.libs.mpegts.MpegStreamType;
+import org.codice.alliance.libs.mpegts.PESPacket;
+import org.codice.alliance.libs.stanag4609.DecodedKLVMetadataPacket;
+import org.codice.alliance.libs.stanag4609.PESUtilities;
+import org.codice.alliance.libs.stanag4609.Stanag4609TransportStreamParser;
+import org.codice.ddf.libs.klv.KlvDecoder;
+import org.codice.ddf.libs.klv.KlvDecodingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decodes the KLV of metadata PESPackets and passes it to a {@link KlvHandlerBuffer}, which assigns
+ * it to a video chunk by the presentation timestamp of its PESPacket. PESPackets of every other
+ * type are passed down the pipeline unchanged.
+ */
+class PESPacketToKlvDecoder extends MessageToMessageDecoder<PESPacket> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PESPacketToKlvDecoder.class);
+
+  private final KlvDecoder klvDecoder =
+      new KlvDecoder(Stanag4609TransportStreamParser.UAS_DATALINK_LOCAL_SET_CONTEXT);
+
+  private final KlvHandlerBuffer klvHandlerBuffer;
+
+  /** @param klvHandlerBuffer must be non-null */
+  public PESPacketToKlvDecoder(KlvHandlerBuffer klvHandlerBuffer) {
+    notNull(klvHandlerBuffer, "klvHandlerBuffer must be non-null");
+    this.klvHandlerBuffer = klvHandlerBuffer;
+  }
+
+  @Override
+  protected void decode(ChannelHandlerContext ctx, PESPacket pesPacket, List<Object> outputList)
+      throws Exception {
+
+    notNull(ctx, "ctx must be non-null");
+    notNull(pesPacket, "pesPacket must be non-null");
+    notNull(outputList, "outputList must be non-null");
+
+    if (isMetadata(pesPacket)) {
+      decodeKlv(pesPacket);
+    } else {
+      outputList.add(pesPacket);
+    }
+  }
+
+  private boolean isMetadata(PESPacket pesPacket) {
+    return pesPacket.getStreamType() == MpegStreamType.META_PES
+        || pesPacket.getStreamType() == MpegStreamType.PRIVATE_DATA;
+  }
+
+  private void decodeKlv(PESPacket pesPacket) {
+    try {
+      DecodedKLVMetadataPacket decodedKLVMetadataPacket =
+          PESUtilities.handlePESPacket(
+              ByteBuffer.wrap(pesPacket.getPayload()),
+              klvDecoder,
+              klvHandlerBuffer.getStatistics());
+      if (decodedKLVMetadataPacket != null) {
+        klvHandlerBuffer.handle(pesPacket.getPacketId(), decodedKLVMetadataPacket);
+      }
+    } catch (KlvDecodingException e) {
+      LOGGER.debug("The KLV could not be decoded.", e);
+    } catch (RuntimeException e) {
+      LOGGER.debug("An error occurred while handling the metadata packet bytes.", e);
+    }
+  }
+}
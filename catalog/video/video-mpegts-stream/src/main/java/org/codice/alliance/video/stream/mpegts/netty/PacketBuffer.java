@@ -101,6 +101,12 @@ public class PacketBuffer {
 
   private long bytesWrittenToTempFile = 0;
 
+  /** The latest presentation timestamp of the frames written to the temporary data file. */
+  private long tempFilePresentationTimestamp = PresentationTimestamps.NONE;
+
+  /** The latest presentation timestamp of the frames of the most recently rotated file. */
+  private long lastRotatedPresentationTimestamp = PresentationTimestamps.NONE;
+
   private long incompleteFrameBytes = 0;
 
   private long maxIncompleteFrameBytes = DEFAULT_MAX_INCOMPLETE_FRAME_BYTES;
@@ -179,6 +185,8 @@ public class PacketBuffer {
       tempFileCreateTime = null;
       bytesWrittenToTempFile = 0;
       incompleteFrameBytes = 0;
+      tempFilePresentationTimestamp = PresentationTimestamps.NONE;
+      lastRotatedPresentationTimestamp = PresentationTimestamps.NONE;
     } finally {
       lock.unlock();
     }
@@ -207,6 +215,21 @@ public class PacketBuffer {
     return bytesWrittenToTempFile;
   }
 
+  /**
+   * Get the latest presentation timestamp of the video frames in the file returned by the most
+   * recent rotation. Metadata whose presentation timestamp is not after it belongs to that file.
+   *
+   * @return the presentation timestamp, or -1 if it is not known
+   */
+  public long getLastRotatedPresentationTimestamp() {
+    lock.lock();
+    try {
+      return lastRotatedPresentationTimestamp;
+    } finally {
+      lock.unlock();
+    }
+  }
+
   /**
    * Write raw data into the buffer. Empty or null values are handled. If the size of the incomplete
    * frame data exceeds {@link #maxIncompleteFrameBytes}, then the current incomplete frame data
@@ -245,10 +268,21 @@ public class PacketBuffer {
    * @param frameType must be non-null
    */
   public void frameComplete(FrameType frameType) {
+    frameComplete(frameType, PresentationTimestamps.NONE);
+  }
+
+  /**
+   * Tell the packet buffer that the recently written data represents a complete frame. A flush to
+   * disk will be attempted.
+   *
+   * @param frameType must be non-null
+   * @param presentationTimestamp the presentation timestamp of the frame, or -1 if it is not known
+   */
+  public void frameComplete(FrameType frameType, long presentationTimestamp) {
     notNull(frameType, "frameType must be non-null");
     lock.lock();
     try {
-      frames.add(new Frame(frameType, incompleteFrame));
+      frames.add(new Frame(frameType, incompleteFrame, presentationTimestamp));
       incompleteFrame = new ArrayList<>();
 
       flushIfDataAvailable();
@@ -283,10 +317,16 @@ public class PacketBuffer {
 
     try (OutputStream os = outputStreamFactory.create(getTempFile(), true)) {
 
+      List<Frame> outgoingFrames = frames.subList(0, index + 1);
       List<byte[]> outgoingPackets =
-          frames.subList(0, index + 1).stream()
+          outgoingFrames.stream()
               .flatMap(frame -> frame.packets.stream())
               .collect(Collectors.toList());
+      for (Frame frame : outgoingFrames) {
+        tempFilePresentationTimestamp =
+            PresentationTimestamps.latest(
+                frame.presentationTimestamp, tempFilePresentationTimestamp);
+      }
       frames = new ArrayList<>(frames.subList(index + 1, frames.size()));
 
       for (byte[] outgoingPacket : outgoingPackets) {
@@ -336,6 +376,8 @@ public class PacketBuffer {
     File tempFile = currentTempFile;
     currentTempFile = null;
     bytesWrittenToTempFile = 0;
+    lastRotatedPresentationTimestamp = tempFilePresentationTimestamp;
+    tempFilePresentationTimestamp = PresentationTimestamps.NONE;
     return Optional.of(tempFile);
   }
 
@@ -466,9 +508,16 @@ public class PacketBuffer {
 
     private FrameType frameType;
 
+    private long presentationTimestamp;
+
     public Frame(FrameType frameType, List<byte[]> packets) {
+      this(frameType, packets, PresentationTimestamps.NONE);
+    }
+
+    public Frame(FrameType frameType, List<byte[]> packets, long presentationTimestamp) {
       this.frameType = frameType;
       this.packets = packets;
+      this.presentationTimestamp = presentationTimestamp;
     }
   }
 }
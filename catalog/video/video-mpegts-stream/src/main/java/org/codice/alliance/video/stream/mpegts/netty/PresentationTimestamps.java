@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.netty;
+
+import java.nio.ByteBuffer;
+import org.jcodec.containers.mps.MPSUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads and compares the presentation timestamps (PTS) of PES packets. A PTS is a 33-bit count of
+ * 90 kHz clock ticks that wraps around roughly every 26.5 hours, so timestamps are compared modulo
+ * 2^33.
+ */
+final class PresentationTimestamps {
+
+  /** The value of a timestamp that is not known. */
+  static final long NONE = -1;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PresentationTimestamps.class);
+
+  private static final long MASK = (1L << 33) - 1;
+
+  private static final long HALF_RANGE = 1L << 32;
+
+  private PresentationTimestamps() {}
+
+  /**
+   * @param pesPacket the PES packet, including its header
+   * @return the PTS of the packet, or {@link #NONE} if the packet has none or its header can't be
+   *     read
+   */
+  static long read(byte[] pesPacket) {
+    try {
+      long pts = MPSUtils.readPESHeader(ByteBuffer.wrap(pesPacket), 0).pts;
+      return pts < 0 ? NONE : pts & MASK;
+    } catch (RuntimeException e) {
+      LOGGER.trace("unable to read the PES header", e);
+      return NONE;
+    }
+  }
+
+  /**
+   * @param pts a known timestamp
+   * @param other a known timestamp
+   * @return true if {@code pts} is later than {@code other}, allowing for one wrap around between
+   *     them
+   */
+  static boolean isAfter(long pts, long other) {
+    long difference = (pts - other) & MASK;
+    return difference != 0 && difference < HALF_RANGE;
+  }
+
+  /**
+   * @param pts a timestamp, may be {@link #NONE}
+   * @param other a timestamp, may be {@link #NONE}
+   * @return the later of the two timestamps, ignoring unknown ones
+   */
+  static long latest(long pts, long other) {
+    if (pts < 0) {
+      return other;
+    }
+    if (other < 0 || isAfter(pts, other)) {
+      return pts;
+    }
+    return other;
+  }
+}
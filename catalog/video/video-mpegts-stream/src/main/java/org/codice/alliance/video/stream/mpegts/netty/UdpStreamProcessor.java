@@ -26,7 +26,10 @@ import ddf.security.service.SecurityServiceException;
 import io.netty.channel.ChannelHandler;
 import java.io.File;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -34,6 +37,7 @@ import java.util.Timer;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.Validate;
+import org.codice.alliance.libs.klv.PrecomputedKlvStore;
 import org.codice.alliance.video.security.videographer.token.VideographerAuthenticationToken;
 import org.codice.alliance.video.stream.mpegts.Context;
 import org.codice.alliance.video.stream.mpegts.StreamMonitor;
@@ -107,6 +111,14 @@ public class UdpStreamProcessor implements StreamProcessor {
 
   private SecurityLogger securityLogger;
 
+  private List<PrecomputedKlvStore> precomputedKlvStores = Collections.emptyList();
+
+  private KlvHandlerBuffer klvHandlerBuffer;
+
+  private int maxBufferedKlvPackets = KlvHandlerBuffer.DEFAULT_MAX_BUFFERED_PACKETS;
+
+  private PrecomputedKlvStore precomputedKlvStore;
+
   public UdpStreamProcessor(final StreamMonitor streamMonitor, final BundleContext bundleContext) {
     this.streamMonitor = streamMonitor;
     context = new Context(this);
@@ -193,6 +205,23 @@ public class UdpStreamProcessor implements StreamProcessor {
     this.metacardUpdateInitialDelay = metacardUpdateInitialDelay;
   }
 
+  public int getMaxBufferedKlvPackets() {
+    return maxBufferedKlvPackets;
+  }
+
+  /**
+   * Takes effect the next time the processor is initialized.
+   *
+   * @param maxBufferedKlvPackets must be non-null and &gt;=1, the most KLV metadata packets
+   *     buffered between rollovers before the oldest packets are dropped
+   */
+  public void setMaxBufferedKlvPackets(Integer maxBufferedKlvPackets) {
+    notNull(maxBufferedKlvPackets, "maxBufferedKlvPackets must be non-null");
+    inclusiveBetween(
+        1, Integer.MAX_VALUE, maxBufferedKlvPackets, "maxBufferedKlvPackets must be >=1");
+    this.maxBufferedKlvPackets = maxBufferedKlvPackets;
+  }
+
   @Override
   public Optional<URI> getStreamUri() {
     return streamMonitor.getStreamUri();
@@ -219,6 +248,8 @@ public class UdpStreamProcessor implements StreamProcessor {
         + rolloverCondition
         + ", metacardUpdateInitialDelay="
         + metacardUpdateInitialDelay
+        + ", maxBufferedKlvPackets="
+        + maxBufferedKlvPackets
         + ", parentMetacardUpdater="
         + parentMetacardUpdater
         + '}';
@@ -282,6 +313,40 @@ public class UdpStreamProcessor implements StreamProcessor {
     return packetBuffer;
   }
 
+  /**
+   * Get the buffer of the KLV metadata received since the last rollover. If null, the metadata is
+   * not decoded by the stream processor.
+   *
+   * @return the buffer, may be null
+   */
+  @Nullable
+  public KlvHandlerBuffer getKlvHandlerBuffer() {
+    return klvHandlerBuffer;
+  }
+
+  /**
+   * Get the store of the KLV metadata of video chunks that have been rolled over but not yet
+   * ingested. If null, the metadata of each chunk is decoded again when the chunk is ingested.
+   *
+   * @return the store, may be null
+   */
+  @Nullable
+  public PrecomputedKlvStore getPrecomputedKlvStore() {
+    return precomputedKlvStore;
+  }
+
+  /**
+   * The stores that may hold the KLV metadata of the video chunks. When the stream starts, the
+   * first registered store is used for the whole stream; if none is registered, the metadata is
+   * not decoded by the stream processor.
+   *
+   * @param precomputedKlvStores must be non-null, may be a dynamic list of services
+   */
+  public void setPrecomputedKlvStores(List<PrecomputedKlvStore> precomputedKlvStores) {
+    notNull(precomputedKlvStores, "precomputedKlvStores must be non-null");
+    this.precomputedKlvStores = precomputedKlvStores;
+  }
+
   /**
    * Shutdown the stream processor. Attempts to flush and ingest any partial stream data regardless
    * of IDR boundaries.
@@ -415,6 +480,12 @@ public class UdpStreamProcessor implements StreamProcessor {
    * processor is ready to run.
    */
   public void init() {
+    precomputedKlvStore = findPrecomputedKlvStore();
+    klvHandlerBuffer =
+        precomputedKlvStore == null
+            ? null
+            : new KlvHandlerBuffer(precomputedKlvStore, maxBufferedKlvPackets);
+
     final Subject localSubject;
     try {
       localSubject = getSecuritySubject("127.0.0.1");
@@ -437,6 +508,17 @@ public class UdpStreamProcessor implements StreamProcessor {
         });
   }
 
+  @Nullable
+  private PrecomputedKlvStore findPrecomputedKlvStore() {
+    try {
+      Iterator<PrecomputedKlvStore> iterator = precomputedKlvStores.iterator();
+      return iterator.hasNext() ? iterator.next() : null;
+    } catch (RuntimeException e) {
+      LOGGER.debug("Unable to get a precomputed KLV store, the KLV will not be precomputed.", e);
+      return null;
+    }
+  }
+
   /** @param rolloverCondition must be non-null */
   public void setRolloverCondition(RolloverCondition rolloverCondition) {
     notNull(rolloverCondition, "rolloverCondition must be non-null");
@@ -449,12 +531,15 @@ public class UdpStreamProcessor implements StreamProcessor {
    * @return non-null array of channel handlers
    */
   public ChannelHandler[] createChannelHandlers() {
-    return new ChannelHandler[] {
-      new RawUdpDataToMTSPacketDecoder(packetBuffer, this),
-      new MTSPacketToPESPacketDecoder(),
-      new PESPacketToApplicationDataDecoder(),
-      new DecodedStreamDataHandler(packetBuffer)
-    };
+    List<ChannelHandler> channelHandlers = new ArrayList<>();
+    channelHandlers.add(new RawUdpDataToMTSPacketDecoder(packetBuffer, this));
+    channelHandlers.add(new MTSPacketToPESPacketDecoder());
+    if (klvHandlerBuffer != null) {
+      channelHandlers.add(new PESPacketToKlvDecoder(klvHandlerBuffer));
+    }
+    channelHandlers.add(new PESPacketToApplicationDataDecoder());
+    channelHandlers.add(new DecodedStreamDataHandler(packetBuffer));
+    return channelHandlers.toArray(new ChannelHandler[0]);
   }
 
   /** @param streamShutdownPlugin must be non-null */
@@ -33,8 +33,6 @@ import ddf.catalog.source.UnsupportedQueryException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.codice.alliance.video.stream.mpegts.Context;
 import org.opengis.filter.Filter;
@@ -69,25 +67,22 @@ public class FindChildrenStreamEndPlugin implements StreamEndPlugin {
     return factory;
   }
 
+  /**
+   * The context lock is only held to check whether the parent metacard is dirty, so that child
+   * chunks can be ingested while the children are processed. Ends of the same stream are handled
+   * one at a time. The handler clears the dirty flag once the parent metacard is updated.
+   */
   @Override
   public void streamEnded(Context context) {
 
-    context.modifyParentOrChild(
-        new Function<AtomicBoolean, Void>() {
-          @Override
-          public Void apply(AtomicBoolean isParentDirty) {
+    synchronized (context) {
+      Optional<Metacard> parentMetacard =
+          context.modifyParentOrChild(
+              isParentDirty ->
+                  isParentDirty.get() ? context.getParentMetacard() : Optional.empty());
 
-            if (isParentDirty.get()) {
-              context
-                  .getParentMetacard()
-                  .ifPresent(parentMetacard -> handleParentMetacard(context, parentMetacard));
-
-              isParentDirty.set(false);
-            }
-
-            return null;
-          }
-        });
+      parentMetacard.ifPresent(metacard -> handleParentMetacard(context, metacard));
+    }
   }
 
   private void handleParentMetacard(Context context, Metacard parentMetacard) {
@@ -188,7 +183,8 @@ public class FindChildrenStreamEndPlugin implements StreamEndPlugin {
 
     /**
      * This is called after all the batches have been passed to {@link #handle(Context, Metacard,
-     * List)}.
+     * List)}. Once the parent metacard is updated, the handler should clear the dirty flag through
+     * {@link Context#modifyParentOrChild(java.util.function.Function)}.
      */
     void end(Context context, Metacard parentMetacard);
   }
@@ -17,10 +17,10 @@ import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.AttributeImpl;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.concurrent.NotThreadSafe;
@@ -30,6 +30,7 @@ import org.codice.alliance.libs.klv.GeometryOperator;
 import org.codice.alliance.libs.klv.GeometryOperatorList;
 import org.codice.alliance.libs.klv.GeometryUtility;
 import org.codice.alliance.libs.klv.LinestringGeometrySubsampler;
+import org.codice.alliance.libs.klv.SegmentedLineStringBuilder;
 import org.codice.alliance.video.stream.mpegts.Context;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
@@ -42,7 +43,8 @@ import org.slf4j.LoggerFactory;
 /**
  * Update the frame-center field based on the frame-center data in the children. The coordinates of
  * the child frame-center linestrings are concatenated into a single linestring and saved to the
- * parent.
+ * parent. The segment operator is applied to each segment of the linestring on an executor as soon
+ * as the segment is complete, so little of the work is left for {@link #doEnd(Metacard, Context)}.
  *
  * <p>This is not thread-safe.
  */
@@ -54,9 +56,7 @@ public class FrameCenterUpdateField extends UpdateParent.BaseUpdateField {
 
   private final GeometryOperator geometryOperator;
 
-  private final GeometryFactory geometryFactory;
-
-  private Geometry intermediateGeometry;
+  private final SegmentedLineStringBuilder lineStringBuilder;
 
   /**
    * @param geometryOperator applied to the final linestring before it is saved to the parent
@@ -64,15 +64,39 @@ public class FrameCenterUpdateField extends UpdateParent.BaseUpdateField {
    */
   public FrameCenterUpdateField(
       GeometryOperator geometryOperator, GeometryFactory geometryFactory) {
+    this(
+        geometryOperator,
+        geometryFactory,
+        GeometryOperator.IDENTITY,
+        SegmentedLineStringBuilder.DEFAULT_SEGMENT_SIZE,
+        Runnable::run);
+  }
+
+  /**
+   * @param geometryOperator applied to the final linestring before it is saved to the parent
+   * @param geometryFactory factory for creating geometry objects
+   * @param segmentOperator applied to each segment of the linestring as it is completed (e.g.
+   *     simplify). It must keep the end coordinates of each segment.
+   * @param segmentSize the number of coordinates in each segment (must be at least 2)
+   * @param executor runs the segment operator
+   */
+  public FrameCenterUpdateField(
+      GeometryOperator geometryOperator,
+      GeometryFactory geometryFactory,
+      GeometryOperator segmentOperator,
+      int segmentSize,
+      Executor executor) {
     this.geometryOperator =
         new GeometryOperatorList(
             Arrays.asList(geometryOperator, new LinestringGeometrySubsampler()));
-    this.geometryFactory = geometryFactory;
+    this.lineStringBuilder =
+        new SegmentedLineStringBuilder(segmentOperator, segmentSize, executor, geometryFactory);
   }
 
   @Override
   protected void doEnd(Metacard parent, Context context) {
-    if (intermediateGeometry != null) {
+    if (!lineStringBuilder.isEmpty()) {
+      Geometry intermediateGeometry = lineStringBuilder.build(context.getGeometryOperatorContext());
       Integer originSubsampleCount = context.getGeometryOperatorContext().getSubsampleCount();
       try {
         context.getGeometryOperatorContext().setSubsampleCount(MAX_SIZE);
@@ -91,30 +115,19 @@ public class FrameCenterUpdateField extends UpdateParent.BaseUpdateField {
 
     List<String> childLocations = extractChildFrameCenters(children);
 
-    List<Geometry> geometries = new LinkedList<>();
-
-    if (intermediateGeometry != null) {
-      geometries.add(intermediateGeometry);
-    }
-
-    geometries.addAll(
+    Coordinate[] coordinates =
         childLocations.stream()
             .map(s -> GeometryUtility.wktToGeometry(s, wktReader))
             .filter(Optional::isPresent)
             .map(Optional::get)
-            .collect(Collectors.toList()));
-
-    List<Coordinate> coordinates =
-        geometries.stream()
             .flatMap(geometry -> Stream.of(geometry.getCoordinates()))
-            .collect(Collectors.toList());
+            .toArray(Coordinate[]::new);
 
-    if (coordinates.isEmpty()) {
+    if (coordinates.length == 0 && lineStringBuilder.isEmpty()) {
       LOGGER.trace("Coordinates are empty, unable to create linestring");
       return;
     }
-    intermediateGeometry =
-        geometryFactory.createLineString(coordinates.toArray(new Coordinate[coordinates.size()]));
+    lineStringBuilder.add(coordinates, context.getGeometryOperatorContext());
   }
 
   private void setFrameCenter(Metacard parentMetacard, Geometry geometry) {
@@ -13,7 +13,9 @@
  */
 package org.codice.alliance.video.stream.mpegts.plugins;
 
+import java.util.concurrent.Executor;
 import org.codice.alliance.libs.klv.GeometryOperator;
+import org.codice.alliance.libs.klv.SegmentedLineStringBuilder;
 import org.locationtech.jts.geom.GeometryFactory;
 
 /** Create a {@link FrameCenterUpdateField} object. */
@@ -23,6 +25,12 @@ public class FrameCenterUpdateFieldFactory implements UpdateParentFactory.Factor
 
   private final GeometryFactory geometryFactory;
 
+  private final GeometryOperator segmentOperator;
+
+  private final int segmentSize;
+
+  private final Executor executor;
+
   /**
    * @param geometryOperator passed to the constructor {@link
    *     FrameCenterUpdateField#FrameCenterUpdateField(GeometryOperator, GeometryFactory)}
@@ -31,13 +39,48 @@ public class FrameCenterUpdateFieldFactory implements UpdateParentFactory.Factor
    */
   public FrameCenterUpdateFieldFactory(
       GeometryOperator geometryOperator, GeometryFactory geometryFactory) {
+    this(
+        geometryOperator,
+        geometryFactory,
+        GeometryOperator.IDENTITY,
+        SegmentedLineStringBuilder.DEFAULT_SEGMENT_SIZE,
+        Runnable::run);
+  }
+
+  /**
+   * @param geometryOperator passed to the constructor {@link
+   *     FrameCenterUpdateField#FrameCenterUpdateField(GeometryOperator, GeometryFactory,
+   *     GeometryOperator, int, Executor)}
+   * @param geometryFactory passed to the constructor {@link
+   *     FrameCenterUpdateField#FrameCenterUpdateField(GeometryOperator, GeometryFactory,
+   *     GeometryOperator, int, Executor)}
+   * @param segmentOperator passed to the constructor {@link
+   *     FrameCenterUpdateField#FrameCenterUpdateField(GeometryOperator, GeometryFactory,
+   *     GeometryOperator, int, Executor)}
+   * @param segmentSize passed to the constructor {@link
+   *     FrameCenterUpdateField#FrameCenterUpdateField(GeometryOperator, GeometryFactory,
+   *     GeometryOperator, int, Executor)}
+   * @param executor passed to the constructor {@link
+   *     FrameCenterUpdateField#FrameCenterUpdateField(GeometryOperator, GeometryFactory,
+   *     GeometryOperator, int, Executor)}
+   */
+  public FrameCenterUpdateFieldFactory(
+      GeometryOperator geometryOperator,
+      GeometryFactory geometryFactory,
+      GeometryOperator segmentOperator,
+      int segmentSize,
+      Executor executor) {
     this.geometryOperator = geometryOperator;
     this.geometryFactory = geometryFactory;
+    this.segmentOperator = segmentOperator;
+    this.segmentSize = segmentSize;
+    this.executor = executor;
   }
 
   @Override
   public UpdateParent.UpdateField build() {
-    return new FrameCenterUpdateField(geometryOperator, geometryFactory);
+    return new FrameCenterUpdateField(
+        geometryOperator, geometryFactory, segmentOperator, segmentSize, executor);
   }
 
   public GeometryOperator getGeometryOperator() {
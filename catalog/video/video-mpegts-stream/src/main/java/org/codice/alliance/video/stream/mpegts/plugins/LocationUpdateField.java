@@ -16,6 +16,7 @@ package org.codice.alliance.video.stream.mpegts.plugins;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.types.Core;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -82,22 +83,25 @@ public class LocationUpdateField extends UpdateParent.BaseUpdateField {
       geometries.add(intermediateGeometry);
     }
 
-    geometries.stream()
-        .reduce(
-            (left, right) -> {
-              final int leftCount = left.getNumGeometries();
-              final int rightCount = right.getNumGeometries();
-              final int total = leftCount + rightCount;
-              final Geometry[] bothGeometries = new Geometry[total];
-              for (int n = 0; n < leftCount; ++n) {
-                bothGeometries[n] = left.getGeometryN(n);
-              }
-              for (int n = 0; n < rightCount; ++n) {
-                bothGeometries[leftCount + n] = right.getGeometryN(n);
-              }
-              return GEOMETRY_FACTORY.createGeometryCollection(bothGeometries).union();
-            })
-        .ifPresent(geometry -> intermediateGeometry = geometry);
+    if (geometries.size() == 1) {
+      intermediateGeometry = geometries.get(0);
+    } else if (!geometries.isEmpty()) {
+      intermediateGeometry = union(geometries);
+    }
+  }
+
+  /**
+   * Unions the components of every geometry at once, which lets JTS use a cascaded union instead
+   * of growing the result one geometry at a time.
+   */
+  private static Geometry union(List<Geometry> geometries) {
+    final List<Geometry> components = new ArrayList<>();
+    for (Geometry geometry : geometries) {
+      for (int n = 0; n < geometry.getNumGeometries(); ++n) {
+        components.add(geometry.getGeometryN(n));
+      }
+    }
+    return GEOMETRY_FACTORY.createGeometryCollection(components.toArray(new Geometry[0])).union();
   }
 
   private List<String> extractChildLocations(List<Metacard> children) {
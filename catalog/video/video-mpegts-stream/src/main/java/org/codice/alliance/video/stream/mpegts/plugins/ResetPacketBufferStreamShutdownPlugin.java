@@ -14,10 +14,15 @@
 package org.codice.alliance.video.stream.mpegts.plugins;
 
 import org.codice.alliance.video.stream.mpegts.Context;
+import org.codice.alliance.video.stream.mpegts.netty.KlvHandlerBuffer;
 
 public class ResetPacketBufferStreamShutdownPlugin extends BaseStreamShutdownPlugin {
   @Override
   protected void doOnShutdown(Context context) throws StreamShutdownException {
     context.getUdpStreamProcessor().getPacketBuffer().reset();
+    KlvHandlerBuffer klvHandlerBuffer = context.getUdpStreamProcessor().getKlvHandlerBuffer();
+    if (klvHandlerBuffer != null) {
+      klvHandlerBuffer.reset();
+    }
   }
 }
@@ -13,29 +13,43 @@
  */
 package org.codice.alliance.video.stream.mpegts.plugins;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
 import org.codice.alliance.video.stream.mpegts.Context;
 import org.codice.alliance.video.stream.mpegts.netty.UdpStreamProcessor;
 import org.codice.alliance.video.stream.mpegts.rollover.CatalogRolloverAction;
 import org.codice.alliance.video.stream.mpegts.rollover.CreateMetacardRolloverAction;
+import org.codice.alliance.video.stream.mpegts.rollover.KlvRolloverAction;
 import org.codice.alliance.video.stream.mpegts.rollover.ListRolloverAction;
+import org.codice.alliance.video.stream.mpegts.rollover.RolloverAction;
 
 public class RolloverStreamCreationPlugin extends BaseStreamCreationPlugin {
 
   @Override
   protected void doOnCreate(Context context) throws StreamCreationException {
     UdpStreamProcessor udpStreamProcessor = context.getUdpStreamProcessor();
-    udpStreamProcessor.setRolloverAction(
-        new ListRolloverAction(
-            Arrays.asList(
-                new CreateMetacardRolloverAction(udpStreamProcessor.getMetacardTypeList()),
-                new CatalogRolloverAction(
-                    udpStreamProcessor.getFilenameGenerator(),
-                    udpStreamProcessor.getFilenameTemplate(),
-                    udpStreamProcessor.getCatalogFramework(),
-                    context,
-                    udpStreamProcessor.getParentMetacardUpdater(),
-                    udpStreamProcessor.getUuidGenerator(),
-                    udpStreamProcessor.getSubjectOperations()))));
+
+    List<RolloverAction> rolloverActions = new ArrayList<>();
+    rolloverActions.add(new CreateMetacardRolloverAction(udpStreamProcessor.getMetacardTypeList()));
+    if (udpStreamProcessor.getKlvHandlerBuffer() != null
+        && udpStreamProcessor.getPrecomputedKlvStore() != null) {
+      rolloverActions.add(
+          new KlvRolloverAction(
+              udpStreamProcessor.getKlvHandlerBuffer(),
+              udpStreamProcessor.getPacketBuffer(),
+              udpStreamProcessor.getPrecomputedKlvStore(),
+              udpStreamProcessor.getUuidGenerator()));
+    }
+    rolloverActions.add(
+        new CatalogRolloverAction(
+            udpStreamProcessor.getFilenameGenerator(),
+            udpStreamProcessor.getFilenameTemplate(),
+            udpStreamProcessor.getCatalogFramework(),
+            context,
+            udpStreamProcessor.getParentMetacardUpdater(),
+            udpStreamProcessor.getUuidGenerator(),
+            udpStreamProcessor.getSubjectOperations()));
+
+    udpStreamProcessor.setRolloverAction(new ListRolloverAction(rolloverActions));
   }
 }
@@ -14,6 +14,7 @@
 package org.codice.alliance.video.stream.mpegts.plugins;
 
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.operation.UpdateRequest;
 import ddf.catalog.operation.impl.UpdateRequestImpl;
 import java.util.List;
@@ -25,7 +26,9 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Update the parent metacard by calling an {@link UpdateField} and then by calling the catalog
- * framework.
+ * framework. The fields are set on a copy of the parent metacard, so that child chunks can be
+ * ingested while the update is in progress. The context lock is only taken to copy the parent and
+ * to swap in the updated parent.
  */
 public class UpdateParent implements FindChildrenStreamEndPlugin.Handler {
 
@@ -55,9 +58,12 @@ public class UpdateParent implements FindChildrenStreamEndPlugin.Handler {
   @Override
   public void end(Context context, Metacard parentMetacard) {
 
-    updateField.end(parentMetacard, context);
+    Metacard updatedParent =
+        context.modifyParentOrChild(isParentDirty -> new MetacardImpl(parentMetacard));
 
-    UpdateRequest updateRequest = createUpdateRequest(parentMetacard);
+    updateField.end(updatedParent, context);
+
+    UpdateRequest updateRequest = createUpdateRequest(updatedParent);
 
     update(context, parentMetacard, updateRequest);
   }
@@ -71,7 +77,28 @@ public class UpdateParent implements FindChildrenStreamEndPlugin.Handler {
         MAX_RETRY_MILLISECONDS,
         update -> {
           LOGGER.debug("updated parent metacard: newMetacard={}", update.getNewMetacard().getId());
-          context.setParentMetacard(update.getNewMetacard());
+          swapParentMetacard(context, parentMetacard, update.getNewMetacard());
+        });
+  }
+
+  /**
+   * Replace the parent metacard with the updated one and mark it as in sync with the children. If
+   * a child chunk or a rollover replaced the parent metacard while it was being updated, then the
+   * current parent is kept and stays dirty, so the next end of the stream updates it again.
+   */
+  private void swapParentMetacard(
+      Context context, Metacard parentMetacard, Metacard updatedParentMetacard) {
+    context.modifyParentOrChild(
+        isParentDirty -> {
+          if (context.getParentMetacard().orElse(null) == parentMetacard) {
+            context.setParentMetacard(updatedParentMetacard);
+            isParentDirty.set(false);
+          } else {
+            LOGGER.debug(
+                "the parent metacard changed during the update, leaving it dirty: metacardId={}",
+                parentMetacard.getId());
+          }
+          return null;
         });
   }
 
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.rollover;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import ddf.catalog.data.impl.MetacardImpl;
+import java.io.File;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.commons.lang3.StringUtils;
+import org.codice.alliance.libs.klv.KlvHandler;
+import org.codice.alliance.libs.klv.PrecomputedKlvStore;
+import org.codice.alliance.video.stream.mpegts.netty.KlvHandlerBuffer;
+import org.codice.alliance.video.stream.mpegts.netty.PacketBuffer;
+import org.codice.ddf.platform.util.uuidgenerator.UuidGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rotates the KLV metadata that was decoded while the video chunk was received and stores it under
+ * the identifier of the chunk's metacard, so that the input transformer does not decode the
+ * metadata of the chunk again. Assigns an identifier to the metacard if it does not have one.
+ */
+public class KlvRolloverAction extends BaseRolloverAction {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(KlvRolloverAction.class);
+
+  private final KlvHandlerBuffer klvHandlerBuffer;
+
+  private final PacketBuffer packetBuffer;
+
+  private final PrecomputedKlvStore precomputedKlvStore;
+
+  private final UuidGenerator uuidGenerator;
+
+  /**
+   * @param klvHandlerBuffer must be non-null
+   * @param packetBuffer the buffer whose rotation produced the chunk, must be non-null
+   * @param precomputedKlvStore must be non-null
+   * @param uuidGenerator must be non-null
+   */
+  public KlvRolloverAction(
+      KlvHandlerBuffer klvHandlerBuffer,
+      PacketBuffer packetBuffer,
+      PrecomputedKlvStore precomputedKlvStore,
+      UuidGenerator uuidGenerator) {
+    notNull(klvHandlerBuffer, "klvHandlerBuffer must be non-null");
+    notNull(packetBuffer, "packetBuffer must be non-null");
+    notNull(precomputedKlvStore, "precomputedKlvStore must be non-null");
+    notNull(uuidGenerator, "uuidGenerator must be non-null");
+
+    this.klvHandlerBuffer = klvHandlerBuffer;
+    this.packetBuffer = packetBuffer;
+    this.precomputedKlvStore = precomputedKlvStore;
+    this.uuidGenerator = uuidGenerator;
+  }
+
+  @Override
+  public MetacardImpl doAction(MetacardImpl metacard, File tempFile) {
+
+    try {
+      Optional<Map<String, KlvHandler>> handlers =
+          klvHandlerBuffer.rotate(packetBuffer.getLastRotatedPresentationTimestamp());
+
+      if (metacard == null || !handlers.isPresent()) {
+        return metacard;
+      }
+
+      if (StringUtils.isEmpty(metacard.getId())) {
+        metacard.setId(uuidGenerator.generateUuid());
+      }
+
+      LOGGER.trace("storing decoded klv for video chunk: id={}", metacard.getId());
+
+      precomputedKlvStore.put(metacard.getId(), handlers.get());
+    } catch (RuntimeException e) {
+      // The store is a service of another bundle and may have gone away. The chunk is still
+      // ingested, and its metadata is decoded again by the input transformer.
+      LOGGER.debug("unable to store the decoded klv of the video chunk", e);
+    }
+
+    return metacard;
+  }
+
+  @Override
+  public String toString() {
+    return "KlvRolloverAction{"
+        + "klvHandlerBuffer="
+        + klvHandlerBuffer
+        + ", precomputedKlvStore="
+        + precomputedKlvStore
+        + '}';
+  }
+}
@@ -65,6 +65,12 @@ public class UdpStreamMonitorTest {
     assertThat(udpStreamMonitor.getStartImmediately(), is(true));
   }
 
+  @Test
+  public void testSetMaxBufferedKlvPackets() {
+    udpStreamMonitor.setMaxBufferedKlvPackets(100);
+    verify(udpStreamProcessor).setMaxBufferedKlvPackets(100);
+  }
+
   @Test
   public void testSetMegabyteCountRolloverCondition() {
     udpStreamMonitor.setMegabyteCountRolloverCondition(
@@ -14,6 +14,7 @@
 package org.codice.alliance.video.stream.mpegts.netty;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -44,7 +45,7 @@ public class DecodedStreamDataHandlerTest {
 
     channel.writeInbound("not a DecodedStreamData.class");
 
-    verify(packetBuffer, never()).frameComplete(any());
+    verify(packetBuffer, never()).frameComplete(any(), anyLong());
   }
 
   @Test
@@ -56,13 +57,14 @@ public class DecodedStreamDataHandlerTest {
 
     Mpeg4DecodedStreamData decodedStreamData = mock(Mpeg4DecodedStreamData.class);
     when(decodedStreamData.getNalUnits()).thenReturn(nalUnitList);
+    when(decodedStreamData.getPresentationTimestamp()).thenReturn(90000L);
     doCallRealMethod().when(decodedStreamData).accept(any());
 
     EmbeddedChannel channel = new EmbeddedChannel(new DecodedStreamDataHandler(packetBuffer));
 
     channel.writeInbound(decodedStreamData);
 
-    verify(packetBuffer).frameComplete(PacketBuffer.FrameType.IDR);
+    verify(packetBuffer).frameComplete(PacketBuffer.FrameType.IDR, 90000L);
   }
 
   @Test
@@ -80,6 +82,6 @@ public class DecodedStreamDataHandlerTest {
 
     channel.writeInbound(decodedStreamData);
 
-    verify(packetBuffer).frameComplete(PacketBuffer.FrameType.NON_IDR);
+    verify(packetBuffer).frameComplete(PacketBuffer.FrameType.NON_IDR, 0L);
   }
 }
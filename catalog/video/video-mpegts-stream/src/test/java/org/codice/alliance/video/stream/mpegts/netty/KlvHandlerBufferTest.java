@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.netty;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.codice.alliance.libs.klv.KlvHandler;
+import org.codice.alliance.libs.klv.PrecomputedKlvStore;
+import org.codice.alliance.libs.stanag4609.DecodedKLVMetadataPacket;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class KlvHandlerBufferTest {
+
+  private static final long MAX_PTS = (1L << 33) - 1;
+
+  private PrecomputedKlvStore precomputedKlvStore;
+
+  private KlvHandlerBuffer klvHandlerBuffer;
+
+  @Before
+  public void setup() {
+    precomputedKlvStore = mock(PrecomputedKlvStore.class);
+    when(precomputedKlvStore.createHandlers()).thenAnswer(invocation -> new HashMap<>());
+    klvHandlerBuffer = new KlvHandlerBuffer(precomputedKlvStore);
+  }
+
+  @Test
+  public void testRotateWithoutMetadata() {
+    assertThat(klvHandlerBuffer.rotate(PresentationTimestamps.NONE).isPresent(), is(false));
+  }
+
+  @Test
+  public void testRotateStartsNewHandlers() {
+    DecodedKLVMetadataPacket packet = packet(PresentationTimestamps.NONE);
+
+    klvHandlerBuffer.handle(257, packet);
+
+    Map<String, KlvHandler> first = klvHandlerBuffer.rotate(PresentationTimestamps.NONE).get();
+
+    Map<Integer, List<DecodedKLVMetadataPacket>> expected =
+        Collections.singletonMap(257, Collections.singletonList(packet));
+    verify(precomputedKlvStore).handle(eq(first), eq(expected));
+    assertThat(klvHandlerBuffer.rotate(PresentationTimestamps.NONE).isPresent(), is(false));
+
+    klvHandlerBuffer.handle(257, packet);
+
+    assertThat(
+        klvHandlerBuffer.rotate(PresentationTimestamps.NONE).get(), is(not(sameInstance(first))));
+  }
+
+  @Test
+  public void testMetadataIsAssignedByPresentationTimestamp() {
+    DecodedKLVMetadataPacket early = packet(1000);
+    DecodedKLVMetadataPacket last = packet(2000);
+    DecodedKLVMetadataPacket late = packet(3000);
+    DecodedKLVMetadataPacket async = packet(PresentationTimestamps.NONE);
+
+    klvHandlerBuffer.handle(257, early);
+    klvHandlerBuffer.handle(257, late);
+    klvHandlerBuffer.handle(257, last);
+    klvHandlerBuffer.handle(258, async);
+
+    klvHandlerBuffer.rotate(2000);
+
+    assertThat(captureHandledMetadata().get(257), is(Arrays.asList(early, last)));
+
+    klvHandlerBuffer.rotate(PresentationTimestamps.NONE);
+
+    assertThat(captureHandledMetadata().get(257), is(Collections.singletonList(late)));
+  }
+
+  @Test
+  public void testPresentationTimestampWrapsAround() {
+    DecodedKLVMetadataPacket beforeWrap = packet(MAX_PTS - 1000);
+    DecodedKLVMetadataPacket afterWrap = packet(1000);
+
+    klvHandlerBuffer.handle(257, beforeWrap);
+    klvHandlerBuffer.handle(257, afterWrap);
+
+    klvHandlerBuffer.rotate(MAX_PTS);
+
+    assertThat(captureHandledMetadata().get(257), is(Collections.singletonList(beforeWrap)));
+  }
+
+  @Test
+  public void testOldestPacketsAreDropped() {
+    klvHandlerBuffer = new KlvHandlerBuffer(precomputedKlvStore, 3);
+    DecodedKLVMetadataPacket oldest = packet(PresentationTimestamps.NONE);
+    klvHandlerBuffer.handle(257, oldest);
+    for (int i = 0; i < 3; i++) {
+      klvHandlerBuffer.handle(257, packet(PresentationTimestamps.NONE));
+    }
+
+    klvHandlerBuffer.rotate(PresentationTimestamps.NONE);
+
+    List<DecodedKLVMetadataPacket> handled = captureHandledMetadata().get(257);
+    assertThat(handled.size(), is(3));
+    assertThat(handled.contains(oldest), is(false));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMaxBufferedPacketsMustBePositive() {
+    new KlvHandlerBuffer(precomputedKlvStore, 0);
+  }
+
+  @Test
+  public void testReset() {
+    klvHandlerBuffer.handle(257, packet(PresentationTimestamps.NONE));
+
+    klvHandlerBuffer.reset();
+
+    assertThat(klvHandlerBuffer.rotate(PresentationTimestamps.NONE).isPresent(), is(false));
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testHandleNullPacket() {
+    klvHandlerBuffer.handle(257, null);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<Integer, List<DecodedKLVMetadataPacket>> captureHandledMetadata() {
+    ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
+    verify(precomputedKlvStore, atLeastOnce()).handle(any(), captor.capture());
+    return captor.getValue();
+  }
+
+  private static DecodedKLVMetadataPacket packet(long presentationTimestamp) {
+    DecodedKLVMetadataPacket packet = mock(DecodedKLVMetadataPacket.class);
+    when(packet.getPresentationTimestamp()).thenReturn(presentationTimestamp);
+    return packet;
+  }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.netty;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.List;
+import org.codice.alliance.libs.mpegts.MpegStreamType;
+import org.codice.alliance.libs.mpegts.PESPacket;
+import org.codice.alliance.libs.stanag4609.KlvPacketStatistics;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PESPacketToKlvDecoderTest {
+
+  private KlvHandlerBuffer klvHandlerBuffer;
+
+  private EmbeddedChannel channel;
+
+  @Before
+  public void setup() {
+    klvHandlerBuffer = mock(KlvHandlerBuffer.class);
+    when(klvHandlerBuffer.getStatistics()).thenReturn(new KlvPacketStatistics());
+    channel = new EmbeddedChannel(new PESPacketToKlvDecoder(klvHandlerBuffer));
+  }
+
+  @Test
+  public void testVideoPacketIsPassedThrough() {
+    PESPacket pesPacket = new PESPacket(new byte[] {0, 0, 1}, MpegStreamType.VIDEO_H264, 256);
+
+    channel.writeInbound(pesPacket);
+
+    List<Object> outputList = NettyUtility.read(channel);
+
+    assertThat(outputList, hasSize(1));
+    assertThat(outputList.get(0), is(pesPacket));
+    verify(klvHandlerBuffer, never()).handle(anyInt(), any());
+  }
+
+  @Test
+  public void testMetadataPacketIsConsumed() {
+    byte[] payload = new byte[] {0, 0, 1, (byte) 0xE0, 0, 3, (byte) 0x80, 0, 0};
+
+    channel.writeInbound(new PESPacket(payload, MpegStreamType.META_PES, 257));
+    channel.writeInbound(new PESPacket(payload, MpegStreamType.PRIVATE_DATA, 258));
+
+    assertThat(NettyUtility.read(channel), is(empty()));
+    verify(klvHandlerBuffer, never()).handle(anyInt(), any());
+  }
+}
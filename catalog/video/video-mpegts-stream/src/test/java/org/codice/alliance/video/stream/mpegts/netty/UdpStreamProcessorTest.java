@@ -13,7 +13,9 @@
  */
 package org.codice.alliance.video.stream.mpegts.netty;
 
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
@@ -31,6 +33,7 @@ import java.net.URI;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import org.codice.alliance.libs.klv.PrecomputedKlvStore;
 import org.codice.alliance.video.stream.mpegts.StreamMonitor;
 import org.codice.alliance.video.stream.mpegts.filename.FilenameGenerator;
 import org.codice.alliance.video.stream.mpegts.metacard.MetacardUpdater;
@@ -137,6 +140,30 @@ public class UdpStreamProcessorTest {
     verify(streamCreationPlugin).onCreate(any());
   }
 
+  @Test
+  public void initUsesFirstPrecomputedKlvStore() throws Exception {
+    prepareSubject();
+    final UdpStreamProcessor udpStreamProcessor =
+        new UdpStreamProcessor(mock(StreamMonitor.class), mockBundleContext);
+    final PrecomputedKlvStore precomputedKlvStore = mock(PrecomputedKlvStore.class);
+    udpStreamProcessor.setStreamCreationPlugin(mock(StreamCreationPlugin.class));
+    udpStreamProcessor.setPrecomputedKlvStores(Collections.singletonList(precomputedKlvStore));
+    udpStreamProcessor.init();
+    assertThat(udpStreamProcessor.getPrecomputedKlvStore(), is(precomputedKlvStore));
+    assertThat(udpStreamProcessor.getKlvHandlerBuffer(), notNullValue());
+  }
+
+  @Test
+  public void initWithoutPrecomputedKlvStore() throws Exception {
+    prepareSubject();
+    final UdpStreamProcessor udpStreamProcessor =
+        new UdpStreamProcessor(mock(StreamMonitor.class), mockBundleContext);
+    udpStreamProcessor.setStreamCreationPlugin(mock(StreamCreationPlugin.class));
+    udpStreamProcessor.init();
+    assertThat(udpStreamProcessor.getPrecomputedKlvStore(), nullValue());
+    assertThat(udpStreamProcessor.getKlvHandlerBuffer(), nullValue());
+  }
+
   @Test
   public void shutdownCallsStreamShutdownPlugin() throws Exception {
     prepareSubject();
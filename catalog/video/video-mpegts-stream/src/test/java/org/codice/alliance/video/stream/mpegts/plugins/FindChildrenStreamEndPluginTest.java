@@ -16,6 +16,7 @@ package org.codice.alliance.video.stream.mpegts.plugins;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -373,7 +374,35 @@ public class FindChildrenStreamEndPluginTest {
 
     assertThat(argumentCaptor.getAllValues().get(firstGoodHandler).get(0), is(metacard1));
     assertThat(argumentCaptor.getAllValues().get(secondGoodHandler).get(0), is(metacard2));
-    assertThat(context.modifyParentOrChild(AtomicBoolean::get), is(false));
+    // the handler clears the dirty flag once it has updated the parent
+    assertThat(context.modifyParentOrChild(AtomicBoolean::get), is(true));
+  }
+
+  /** Test that the context lock isn't held while the children are handled. */
+  @Test
+  public void testChildrenHandledWithoutLock()
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+
+    AtomicBoolean isLockFree = new AtomicBoolean(true);
+
+    doAnswer(
+            invocation -> {
+              Thread thread = new Thread(() -> context.modifyParentOrChild(AtomicBoolean::get));
+              thread.start();
+              thread.join(5000);
+              isLockFree.compareAndSet(true, !thread.isAlive());
+              return null;
+            })
+        .when(handler)
+        .handle(Matchers.eq(context), Matchers.eq(parentMetacard), any(List.class));
+
+    setIsParentDirty(true);
+
+    findChildrenStreamEndPlugin.streamEnded(context);
+
+    verify(handler, times(2))
+        .handle(Matchers.eq(context), Matchers.eq(parentMetacard), any(List.class));
+    assertThat(isLockFree.get(), is(true));
   }
 
   /**
@@ -19,6 +19,7 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 
 import org.codice.alliance.libs.klv.GeometryOperator;
+import org.codice.alliance.libs.klv.SegmentedLineStringBuilder;
 import org.junit.Test;
 import org.locationtech.jts.geom.GeometryFactory;
 
@@ -32,4 +33,19 @@ public class FrameCenterUpdateFieldFactoryTest {
     UpdateParent.UpdateField updateField = factory.build();
     assertThat(updateField, is(instanceOf(FrameCenterUpdateField.class)));
   }
+
+  @Test
+  public void testBuildWithSegmentOperator() {
+    GeometryOperator geometryOperator = mock(GeometryOperator.class);
+    GeometryOperator segmentOperator = mock(GeometryOperator.class);
+    FrameCenterUpdateFieldFactory factory =
+        new FrameCenterUpdateFieldFactory(
+            geometryOperator,
+            new GeometryFactory(),
+            segmentOperator,
+            SegmentedLineStringBuilder.DEFAULT_SEGMENT_SIZE,
+            Runnable::run);
+    UpdateParent.UpdateField updateField = factory.build();
+    assertThat(updateField, is(instanceOf(FrameCenterUpdateField.class)));
+  }
 }
@@ -27,8 +27,12 @@ import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.AttributeImpl;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.codice.alliance.libs.klv.AttributeNameConstants;
 import org.codice.alliance.libs.klv.GeometryOperator;
+import org.codice.alliance.libs.klv.SegmentedLineStringBuilder;
 import org.codice.alliance.video.stream.mpegts.Context;
 import org.junit.Test;
 import org.locationtech.jts.geom.Geometry;
@@ -84,6 +88,55 @@ public class FrameCenterUpdateFieldTest {
         geometryOperatorContext.getSubsampleCount(), is(FrameCenterUpdateField.MAX_SIZE * 2));
   }
 
+  @Test
+  public void testSegmentOperatorIsAppliedToEachSegment() throws ParseException {
+
+    int size = SegmentedLineStringBuilder.DEFAULT_SEGMENT_SIZE + 1;
+    String wktChild =
+        IntStream.range(0, size)
+            .mapToObj(i -> i + " " + i)
+            .collect(Collectors.joining(", ", "LINESTRING (", ")"));
+
+    Metacard parentMetacard = mock(Metacard.class);
+
+    Metacard childMetacard = mock(Metacard.class);
+    when(childMetacard.getAttribute(AttributeNameConstants.FRAME_CENTER))
+        .thenReturn(new AttributeImpl(AttributeNameConstants.FRAME_CENTER, wktChild));
+
+    AtomicInteger segmentCount = new AtomicInteger();
+    GeometryOperator segmentOperator =
+        (geometry, geometryContext) -> {
+          segmentCount.incrementAndGet();
+          return geometry;
+        };
+
+    FrameCenterUpdateField frameCenterUpdateField =
+        new FrameCenterUpdateField(
+            GeometryOperator.IDENTITY,
+            new GeometryFactory(),
+            segmentOperator,
+            SegmentedLineStringBuilder.DEFAULT_SEGMENT_SIZE,
+            Runnable::run);
+
+    Context context = mock(Context.class);
+    GeometryOperator.Context geometryOperatorContext = new GeometryOperator.Context();
+    geometryOperatorContext.setSubsampleCount(FrameCenterUpdateField.MAX_SIZE * 2);
+    when(context.getGeometryOperatorContext()).thenReturn(geometryOperatorContext);
+
+    frameCenterUpdateField.updateField(
+        parentMetacard, Collections.singletonList(childMetacard), context);
+    frameCenterUpdateField.end(parentMetacard, context);
+
+    ArgumentCaptor<Attribute> captor = ArgumentCaptor.forClass(Attribute.class);
+
+    verify(parentMetacard).setAttribute(captor.capture());
+
+    assertThat(segmentCount.get(), is(2));
+    assertThat(
+        new WKTReader().read((String) captor.getValue().getValue()).getNumPoints(),
+        is(FrameCenterUpdateField.MAX_SIZE));
+  }
+
   @Test
   public void testForChildrenWithoutFrameCenter() {
 
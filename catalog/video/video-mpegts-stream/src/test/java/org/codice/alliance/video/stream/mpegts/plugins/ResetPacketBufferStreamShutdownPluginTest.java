@@ -18,6 +18,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.codice.alliance.video.stream.mpegts.Context;
+import org.codice.alliance.video.stream.mpegts.netty.KlvHandlerBuffer;
 import org.codice.alliance.video.stream.mpegts.netty.PacketBuffer;
 import org.codice.alliance.video.stream.mpegts.netty.UdpStreamProcessor;
 import org.junit.Test;
@@ -41,4 +42,20 @@ public class ResetPacketBufferStreamShutdownPluginTest {
 
     verify(packetBuffer).reset();
   }
+
+  @Test
+  public void testOnShutdownResetsKlvHandlerBuffer() throws StreamShutdownException {
+
+    KlvHandlerBuffer klvHandlerBuffer = mock(KlvHandlerBuffer.class);
+    UdpStreamProcessor udpStreamProcessor = mock(UdpStreamProcessor.class);
+    Context context = mock(Context.class);
+
+    when(context.getUdpStreamProcessor()).thenReturn(udpStreamProcessor);
+    when(udpStreamProcessor.getPacketBuffer()).thenReturn(mock(PacketBuffer.class));
+    when(udpStreamProcessor.getKlvHandlerBuffer()).thenReturn(klvHandlerBuffer);
+
+    new ResetPacketBufferStreamShutdownPlugin().onShutdown(context);
+
+    verify(klvHandlerBuffer).reset();
+  }
 }
@@ -13,6 +13,8 @@
  */
 package org.codice.alliance.video.stream.mpegts.plugins;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -20,12 +22,17 @@ import static org.mockito.Mockito.when;
 
 import ddf.catalog.CatalogFramework;
 import ddf.security.SubjectOperations;
+import org.codice.alliance.libs.klv.PrecomputedKlvStore;
 import org.codice.alliance.video.stream.mpegts.Context;
 import org.codice.alliance.video.stream.mpegts.filename.FilenameGenerator;
 import org.codice.alliance.video.stream.mpegts.metacard.MetacardUpdater;
+import org.codice.alliance.video.stream.mpegts.netty.KlvHandlerBuffer;
+import org.codice.alliance.video.stream.mpegts.netty.PacketBuffer;
 import org.codice.alliance.video.stream.mpegts.netty.UdpStreamProcessor;
+import org.codice.alliance.video.stream.mpegts.rollover.RolloverAction;
 import org.codice.ddf.platform.util.uuidgenerator.UuidGenerator;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 public class RolloverStreamCreationPluginTest {
 
@@ -52,4 +59,28 @@ public class RolloverStreamCreationPluginTest {
 
     verify(udpStreamProcessor).setRolloverAction(any());
   }
+
+  @Test
+  public void testOnCreateWithKlvHandlerBuffer() throws StreamCreationException {
+
+    Context context = mock(Context.class);
+    UdpStreamProcessor udpStreamProcessor = mock(UdpStreamProcessor.class);
+
+    when(context.getUdpStreamProcessor()).thenReturn(udpStreamProcessor);
+    when(udpStreamProcessor.getFilenameGenerator()).thenReturn(mock(FilenameGenerator.class));
+    when(udpStreamProcessor.getFilenameTemplate()).thenReturn("template");
+    when(udpStreamProcessor.getCatalogFramework()).thenReturn(mock(CatalogFramework.class));
+    when(udpStreamProcessor.getParentMetacardUpdater()).thenReturn(mock(MetacardUpdater.class));
+    when(udpStreamProcessor.getSubjectOperations()).thenReturn(mock(SubjectOperations.class));
+    when(udpStreamProcessor.getUuidGenerator()).thenReturn(mock(UuidGenerator.class));
+    when(udpStreamProcessor.getKlvHandlerBuffer()).thenReturn(mock(KlvHandlerBuffer.class));
+    when(udpStreamProcessor.getPacketBuffer()).thenReturn(mock(PacketBuffer.class));
+    when(udpStreamProcessor.getPrecomputedKlvStore()).thenReturn(mock(PrecomputedKlvStore.class));
+
+    new RolloverStreamCreationPlugin().onCreate(context);
+
+    ArgumentCaptor<RolloverAction> captor = ArgumentCaptor.forClass(RolloverAction.class);
+    verify(udpStreamProcessor).setRolloverAction(captor.capture());
+    assertThat(captor.getValue().toString(), containsString("KlvRolloverAction"));
+  }
 }
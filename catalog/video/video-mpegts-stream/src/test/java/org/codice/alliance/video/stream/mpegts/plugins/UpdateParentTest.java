@@ -14,14 +14,20 @@
 package org.codice.alliance.video.stream.mpegts.plugins;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.operation.Update;
 import ddf.catalog.operation.UpdateRequest;
 import ddf.catalog.operation.UpdateResponse;
@@ -29,13 +35,46 @@ import ddf.catalog.source.IngestException;
 import ddf.catalog.source.SourceUnavailableException;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.codice.alliance.video.stream.mpegts.Context;
+import org.codice.alliance.video.stream.mpegts.framework.CatalogUpdateRetry;
 import org.codice.alliance.video.stream.mpegts.netty.UdpStreamProcessor;
+import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
 public class UpdateParentTest {
 
+  private static final String PARENT_ID = "parent";
+
+  private CatalogFramework catalogFramework;
+
+  private Context context;
+
+  private MetacardImpl parent;
+
+  private Metacard newParent;
+
+  @Before
+  public void setup() throws SourceUnavailableException, IngestException {
+    catalogFramework = mock(CatalogFramework.class);
+
+    context = new Context(mockUdpStreamProcessor(catalogFramework));
+
+    parent = new MetacardImpl();
+    parent.setId(PARENT_ID);
+    context.setParentMetacard(parent);
+    setIsParentDirty(true);
+
+    newParent = mock(Metacard.class);
+    UpdateResponse updateResponse = mock(UpdateResponse.class);
+    Update update = mock(Update.class);
+    when(update.getNewMetacard()).thenReturn(newParent);
+    when(updateResponse.getUpdatedMetacards()).thenReturn(Collections.singletonList(update));
+
+    when(catalogFramework.update(any(UpdateRequest.class))).thenReturn(updateResponse);
+  }
+
   /** Test that #handle calls the UpdateField object */
   @Test
   public void testHandle() {
@@ -54,40 +93,97 @@ public class UpdateParentTest {
     verify(updateField).updateField(parent, children, context);
   }
 
-  /** Test that #end calls the catalog framework */
+  /** Test that #end updates a copy of the parent, swaps in the new parent and clears the flag */
   @Test
   public void testEnd() throws SourceUnavailableException, IngestException {
 
     UpdateParent.UpdateField updateField = mock(UpdateParent.UpdateField.class);
+    doAnswer(
+            invocation -> {
+              ((Metacard) invocation.getArgument(0))
+                  .setAttribute(new AttributeImpl(Metacard.TITLE, "updated"));
+              return null;
+            })
+        .when(updateField)
+        .end(any(Metacard.class), any(Context.class));
 
     UpdateParent updateParent = new UpdateParent(updateField);
 
-    UdpStreamProcessor udpStreamProcessor = mock(UdpStreamProcessor.class);
-    CatalogFramework catalogFramework = mock(CatalogFramework.class);
-    when(udpStreamProcessor.getCatalogFramework()).thenReturn(catalogFramework);
-    when(udpStreamProcessor.getMetacardUpdateInitialDelay()).thenReturn(1L);
+    updateParent.end(context, parent);
 
-    Context context = mock(Context.class);
-    when(context.getUdpStreamProcessor()).thenReturn(udpStreamProcessor);
+    ArgumentCaptor<UpdateRequest> captor = ArgumentCaptor.forClass(UpdateRequest.class);
 
-    Metacard parent = mock(Metacard.class);
+    verify(catalogFramework).update(captor.capture());
 
-    UpdateResponse updateResponse = mock(UpdateResponse.class);
-    Update update = mock(Update.class);
-    when(update.getNewMetacard()).thenReturn(parent);
-    when(updateResponse.getUpdatedMetacards()).thenReturn(Collections.singletonList(update));
+    Metacard updatedParent = captor.getValue().getUpdates().get(0).getValue();
+    assertThat(updatedParent, not(sameInstance(parent)));
+    assertThat(updatedParent.getId(), is(PARENT_ID));
+    assertThat(updatedParent.getTitle(), is("updated"));
+    assertThat(parent.getTitle(), nullValue());
 
-    when(catalogFramework.update(any(UpdateRequest.class))).thenReturn(updateResponse);
+    assertThat(context.getParentMetacard().get(), is(newParent));
+    assertThat(context.modifyParentOrChild(AtomicBoolean::get), is(false));
+  }
 
-    updateParent.end(context, parent);
+  /** Test that #end doesn't hold the context lock while the catalog is updated */
+  @Test
+  public void testEndUpdatesCatalogWithoutLock()
+      throws SourceUnavailableException, IngestException {
 
-    verify(updateField).end(parent, context);
+    AtomicBoolean isLockFree = new AtomicBoolean(false);
 
-    ArgumentCaptor<UpdateRequest> captor = ArgumentCaptor.forClass(UpdateRequest.class);
+    when(catalogFramework.update(any(UpdateRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              Thread thread = new Thread(() -> context.modifyParentOrChild(isParentDirty -> true));
+              thread.start();
+              thread.join(5000);
+              isLockFree.set(!thread.isAlive());
+              return mock(UpdateResponse.class);
+            });
 
-    verify(catalogFramework).update(captor.capture());
+    new UpdateParent(mock(UpdateParent.UpdateField.class)).end(context, parent);
 
-    assertThat(captor.getValue().getUpdates().get(0).getValue(), is(parent));
+    assertThat(isLockFree.get(), is(true));
+  }
+
+  /** Test that a parent replaced during the update is kept and stays dirty */
+  @Test
+  public void testEndParentReplaced() throws SourceUnavailableException, IngestException {
+
+    Metacard rolloverParent = mock(Metacard.class);
+
+    UpdateParent.UpdateField updateField = mock(UpdateParent.UpdateField.class);
+    doAnswer(
+            invocation -> {
+              context.modifyParentOrChild(
+                  isParentDirty -> {
+                    context.setParentMetacard(rolloverParent);
+                    return null;
+                  });
+              return null;
+            })
+        .when(updateField)
+        .end(any(Metacard.class), any(Context.class));
+
+    new UpdateParent(updateField).end(context, parent);
+
+    verify(catalogFramework).update(any(UpdateRequest.class));
+    assertThat(context.getParentMetacard().get(), is(rolloverParent));
+    assertThat(context.modifyParentOrChild(AtomicBoolean::get), is(true));
+  }
+
+  /** Test that the parent stays dirty if the catalog update doesn't succeed */
+  @Test
+  public void testEndUpdateFailed() {
+
+    UpdateParent updateParent = new UpdateParent(mock(UpdateParent.UpdateField.class));
+    updateParent.setCatalogUpdateRetry(mock(CatalogUpdateRetry.class));
+
+    updateParent.end(context, parent);
+
+    assertThat(context.getParentMetacard().get(), is(parent));
+    assertThat(context.modifyParentOrChild(AtomicBoolean::get), is(true));
   }
 
   @Test(expected = IllegalStateException.class)
@@ -113,4 +209,19 @@ public class UpdateParentTest {
 
     updateField.updateField(parent, Collections.singletonList(child), context);
   }
+
+  private UdpStreamProcessor mockUdpStreamProcessor(CatalogFramework catalogFramework) {
+    UdpStreamProcessor udpStreamProcessor = mock(UdpStreamProcessor.class);
+    when(udpStreamProcessor.getCatalogFramework()).thenReturn(catalogFramework);
+    when(udpStreamProcessor.getMetacardUpdateInitialDelay()).thenReturn(0L);
+    return udpStreamProcessor;
+  }
+
+  private void setIsParentDirty(boolean value) {
+    context.modifyParentOrChild(
+        isParentDirty -> {
+          isParentDirty.set(value);
+          return (Void) null;
+        });
+  }
 }
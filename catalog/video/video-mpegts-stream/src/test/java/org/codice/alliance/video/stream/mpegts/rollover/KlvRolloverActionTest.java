@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.rollover;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.data.impl.MetacardImpl;
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import org.codice.alliance.libs.klv.KlvHandler;
+import org.codice.alliance.libs.klv.KlvHandlerFactory;
+import org.codice.alliance.libs.klv.PrecomputedKlvStore;
+import org.codice.alliance.libs.klv.PrecomputedKlvStoreImpl;
+import org.codice.alliance.libs.klv.Stanag4609Processor;
+import org.codice.alliance.video.stream.mpegts.netty.KlvHandlerBuffer;
+import org.codice.alliance.video.stream.mpegts.netty.PacketBuffer;
+import org.codice.ddf.platform.util.uuidgenerator.UuidGenerator;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KlvRolloverActionTest {
+
+  private KlvHandlerBuffer klvHandlerBuffer;
+
+  private PacketBuffer packetBuffer;
+
+  private UuidGenerator uuidGenerator;
+
+  private PrecomputedKlvStore precomputedKlvStore;
+
+  private Map<String, KlvHandler> handlers;
+
+  private KlvRolloverAction klvRolloverAction;
+
+  @Before
+  public void setup() {
+    klvHandlerBuffer = mock(KlvHandlerBuffer.class);
+    packetBuffer = mock(PacketBuffer.class);
+    when(packetBuffer.getLastRotatedPresentationTimestamp()).thenReturn(90000L);
+    precomputedKlvStore =
+        new PrecomputedKlvStoreImpl(
+            mock(KlvHandlerFactory.class), mock(Stanag4609Processor.class), mock(KlvHandler.class));
+    handlers = Collections.singletonMap("name", mock(KlvHandler.class));
+    uuidGenerator = mock(UuidGenerator.class);
+    when(uuidGenerator.generateUuid()).thenReturn("anId");
+    klvRolloverAction =
+        new KlvRolloverAction(klvHandlerBuffer, packetBuffer, precomputedKlvStore, uuidGenerator);
+  }
+
+  @Test
+  public void testHandlersAreStoredUnderGeneratedId() {
+    when(klvHandlerBuffer.rotate(90000L)).thenReturn(Optional.of(handlers));
+    MetacardImpl metacard = new MetacardImpl();
+
+    MetacardImpl result = klvRolloverAction.doAction(metacard, new File("a"));
+
+    assertThat(result, is(metacard));
+    assertThat(metacard.getId(), is("anId"));
+    assertThat(precomputedKlvStore.remove("anId").get(), is(handlers));
+  }
+
+  @Test
+  public void testHandlersAreStoredUnderExistingId() {
+    when(klvHandlerBuffer.rotate(anyLong())).thenReturn(Optional.of(handlers));
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId("existingId");
+
+    klvRolloverAction.doAction(metacard, new File("a"));
+
+    assertThat(metacard.getId(), is("existingId"));
+    assertThat(precomputedKlvStore.remove("existingId").get(), is(handlers));
+  }
+
+  @Test
+  public void testNoMetadata() {
+    when(klvHandlerBuffer.rotate(anyLong())).thenReturn(Optional.empty());
+    MetacardImpl metacard = new MetacardImpl();
+
+    klvRolloverAction.doAction(metacard, new File("a"));
+
+    assertThat(metacard.getId(), is(nullValue()));
+  }
+
+  @Test
+  public void testUnavailableStoreDoesNotFailRollover() {
+    PrecomputedKlvStore unavailableStore = mock(PrecomputedKlvStore.class);
+    doThrow(new IllegalStateException()).when(unavailableStore).put(eq("anId"), any());
+    when(klvHandlerBuffer.rotate(anyLong())).thenReturn(Optional.of(handlers));
+    KlvRolloverAction action =
+        new KlvRolloverAction(klvHandlerBuffer, packetBuffer, unavailableStore, uuidGenerator);
+    MetacardImpl metacard = new MetacardImpl();
+
+    assertThat(action.doAction(metacard, new File("a")), is(metacard));
+  }
+
+  @Test
+  public void testToString() {
+    assertThat(klvRolloverAction.toString(), notNullValue());
+  }
+}
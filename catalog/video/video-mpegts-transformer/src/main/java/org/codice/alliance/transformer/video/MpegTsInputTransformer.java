@@ -16,6 +16,7 @@ package org.codice.alliance.transformer.video;
 import static org.apache.commons.lang3.Validate.inclusiveBetween;
 import static org.apache.commons.lang3.Validate.notNull;
 
+import com.google.common.io.ByteSource;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.impl.AttributeImpl;
@@ -27,26 +28,42 @@ import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.InputTransformer;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.commons.io.IOUtils;
 import org.codice.alliance.libs.klv.AttributeNameConstants;
 import org.codice.alliance.libs.klv.BaseKlvProcessorVisitor;
 import org.codice.alliance.libs.klv.KlvHandler;
 import org.codice.alliance.libs.klv.KlvHandlerFactory;
 import org.codice.alliance.libs.klv.KlvProcessor;
+import org.codice.alliance.libs.klv.PrecomputedKlvStore;
 import org.codice.alliance.libs.klv.SecurityClassificationKlvProcessor;
 import org.codice.alliance.libs.klv.Stanag4609ParseException;
 import org.codice.alliance.libs.klv.Stanag4609Parser;
 import org.codice.alliance.libs.klv.Stanag4609Processor;
 import org.codice.alliance.libs.klv.StanagParserFactory;
+import org.codice.alliance.libs.mpegts.MappedByteSource;
 import org.codice.alliance.libs.mpegts.MpegStreamType;
 import org.codice.alliance.libs.mpegts.PESPacket;
 import org.codice.alliance.libs.mpegts.TSStream;
 import org.codice.alliance.libs.stanag4609.DecodedKLVMetadataPacket;
+import org.codice.alliance.libs.stanag4609.KlvPacketStatistics;
+import org.codice.alliance.libs.stanag4609.PESUtilities;
+import org.codice.alliance.libs.stanag4609.Stanag4609TransportStreamParser;
+import org.codice.ddf.libs.klv.KlvDecoder;
+import org.codice.ddf.libs.klv.KlvDecodingException;
 import org.codice.ddf.platform.util.TemporaryFileBackedOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -87,6 +104,16 @@ public class MpegTsInputTransformer implements InputTransformer {
 
   private Double distanceTolerance;
 
+  private boolean memoryMapped;
+
+  private boolean parallelDemux;
+
+  private int minSplitPackets = TSStream.DEFAULT_MIN_SPLIT_PACKETS;
+
+  private int maxOverrunPackets = TSStream.DEFAULT_MAX_OVERRUN_PACKETS;
+
+  private PrecomputedKlvStore precomputedKlvStore;
+
   /**
    * @param inputTransformer inner input transformer (must be non-null)
    * @param metacardTypes list of usable metacard types (must be non-null)
@@ -143,6 +170,57 @@ public class MpegTsInputTransformer implements InputTransformer {
     return distanceTolerance;
   }
 
+  /**
+   * @param memoryMapped whether the content is spooled to a temporary file that is memory-mapped
+   *     and read through views of the mapping, instead of through a file backed output stream
+   */
+  public void setMemoryMapped(boolean memoryMapped) {
+    this.memoryMapped = memoryMapped;
+  }
+
+  public boolean isMemoryMapped() {
+    return memoryMapped;
+  }
+
+  /**
+   * @param parallelDemux whether the content is spooled to a temporary file whose metadata streams
+   *     are demuxed and decoded in ranges on the common fork-join pool, instead of in one pass
+   */
+  public void setParallelDemux(boolean parallelDemux) {
+    this.parallelDemux = parallelDemux;
+  }
+
+  public boolean isParallelDemux() {
+    return parallelDemux;
+  }
+
+  /**
+   * @param minSplitPackets when demuxing in parallel, ranges with fewer than twice this many TS
+   *     packets are not split, must be positive
+   */
+  public void setMinSplitPackets(int minSplitPackets) {
+    inclusiveBetween(1, Integer.MAX_VALUE, minSplitPackets, "minSplitPackets must be positive");
+    this.minSplitPackets = minSplitPackets;
+  }
+
+  /**
+   * @param maxOverrunPackets when demuxing in parallel, the most TS packets a range reads past its
+   *     end to complete its metadata packets, must be non-negative
+   */
+  public void setMaxOverrunPackets(int maxOverrunPackets) {
+    inclusiveBetween(
+        0, Integer.MAX_VALUE, maxOverrunPackets, "maxOverrunPackets must be non-negative");
+    this.maxOverrunPackets = maxOverrunPackets;
+  }
+
+  /**
+   * @param precomputedKlvStore handlers of content whose STANAG 4609 metadata was decoded before
+   *     the content was ingested, such as the chunks of a UDP stream (may be null)
+   */
+  public void setPrecomputedKlvStore(PrecomputedKlvStore precomputedKlvStore) {
+    this.precomputedKlvStore = precomputedKlvStore;
+  }
+
   @Override
   public Metacard transform(InputStream inputStream)
       throws IOException, CatalogTransformerException {
@@ -189,29 +267,69 @@ public class MpegTsInputTransformer implements InputTransformer {
   public Metacard transform(InputStream inputStream, final String id)
       throws IOException, CatalogTransformerException {
 
+    if (memoryMapped || parallelDemux) {
+      return transformFile(inputStream, id);
+    }
+
     try (TemporaryFileBackedOutputStream fileBackedOutputStream =
         new TemporaryFileBackedOutputStream()) {
 
-      populateFileBackedOutputStream(inputStream, fileBackedOutputStream);
+      copyContent(inputStream, fileBackedOutputStream);
 
-      MetacardImpl metacard = extractInnerTransformerMetadata(id, fileBackedOutputStream);
+      return transform(id, fileBackedOutputStream.asByteSource(), null);
+    }
+  }
+
+  private Metacard transformFile(InputStream inputStream, String id)
+      throws IOException, CatalogTransformerException {
+
+    Path file = Files.createTempFile("mpegts", ".ts");
+    try {
+      try (OutputStream outputStream = Files.newOutputStream(file)) {
+        copyContent(inputStream, outputStream);
+      }
+
+      ByteSource byteSource =
+          memoryMapped
+              ? MappedByteSource.map(file)
+              : com.google.common.io.Files.asByteSource(file.toFile());
+      return transform(id, byteSource, file);
+    } finally {
+      deleteTemporaryFile(file);
+    }
+  }
 
-      extractStanag4609Metadata(metacard, fileBackedOutputStream);
+  /** @param file the file the content was spooled to, or null if it wasn't spooled to a file */
+  private Metacard transform(String id, ByteSource byteSource, Path file)
+      throws IOException, CatalogTransformerException {
 
-      extractMediaEncodings(metacard, fileBackedOutputStream);
+    MetacardImpl metacard = extractInnerTransformerMetadata(id, byteSource);
 
-      metacard.setAttribute(Core.DATATYPE, DATA_TYPE);
+    extractStanag4609Metadata(id, metacard, byteSource, file);
 
-      return metacard;
+    extractMediaEncodings(metacard, byteSource);
+
+    metacard.setAttribute(Core.DATATYPE, DATA_TYPE);
+
+    return metacard;
+  }
+
+  /** A mapped file can't be deleted on some platforms until the mapping is garbage collected. */
+  private void deleteTemporaryFile(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to delete {}, it will be deleted on exit.", file, e);
+      file.toFile().deleteOnExit();
     }
   }
 
-  private void extractMediaEncodings(Metacard metacard, TemporaryFileBackedOutputStream fbos)
-      throws IOException {
+  private void extractMediaEncodings(Metacard metacard, ByteSource byteSource) throws IOException {
 
     List<Serializable> serializables =
-        TSStream.from(fbos.asByteSource())
-            .map(PESPacket::getStreamType)
+        TSStream.probeStreamTypes(byteSource)
+            .values()
+            .stream()
             .distinct()
             .map(streamTypeToString)
             .collect(Collectors.<Serializable>toList());
@@ -219,12 +337,11 @@ public class MpegTsInputTransformer implements InputTransformer {
     metacard.setAttribute(new AttributeImpl(AttributeNameConstants.MEDIA_ENCODING, serializables));
   }
 
-  private void populateFileBackedOutputStream(
-      InputStream inputStream, TemporaryFileBackedOutputStream fbos)
+  private void copyContent(InputStream inputStream, OutputStream outputStream)
       throws CatalogTransformerException {
     try {
-      int c = IOUtils.copy(inputStream, fbos);
-      LOGGER.debug("copied {} bytes from input stream to file backed output stream", c);
+      int c = IOUtils.copy(inputStream, outputStream);
+      LOGGER.debug("copied {} bytes from input stream", c);
     } catch (IOException e) {
       throw new CatalogTransformerException("Could not copy bytes of content message.", e);
     }
@@ -236,16 +353,15 @@ public class MpegTsInputTransformer implements InputTransformer {
    * {@link #CONTENT_TYPE}.
    *
    * @param id metacard identifier
-   * @param fileBackedOutputStream used to provide a byte source
+   * @param byteSource the content
    * @return metacard
    * @throws IOException
    * @throws CatalogTransformerException
    */
-  private MetacardImpl extractInnerTransformerMetadata(
-      String id, TemporaryFileBackedOutputStream fileBackedOutputStream)
+  private MetacardImpl extractInnerTransformerMetadata(String id, ByteSource byteSource)
       throws IOException, CatalogTransformerException {
 
-    try (InputStream inputStream = fileBackedOutputStream.asByteSource().openStream()) {
+    try (InputStream inputStream = byteSource.openStream()) {
 
       MetacardType metacardType =
           metacardTypes.stream()
@@ -267,26 +383,111 @@ public class MpegTsInputTransformer implements InputTransformer {
   }
 
   private void extractStanag4609Metadata(
-      MetacardImpl metacard, TemporaryFileBackedOutputStream fbos)
+      String id, MetacardImpl metacard, ByteSource byteSource, Path file)
       throws IOException, CatalogTransformerException {
 
-    Stanag4609Parser stanag4609Parser = stanagParserFactory.createParser(fbos.asByteSource());
+    Optional<Map<String, KlvHandler>> precomputedHandlers = findPrecomputedHandlers(id);
+
+    Map<String, KlvHandler> handlers;
+    if (precomputedHandlers.isPresent()) {
+      LOGGER.debug("using the STANAG 4609 metadata decoded while receiving id = {}", id);
+      handlers = precomputedHandlers.get();
+    } else {
+      handlers = decodeStanag4609Metadata(byteSource, file);
+    }
+
+    KlvProcessor.Configuration klvProcessConfiguration = new KlvProcessor.Configuration();
+    klvProcessConfiguration.set(KlvProcessor.Configuration.SUBSAMPLE_COUNT, subsampleCount);
+    klvProcessConfiguration.getGeometryOperatorContext().setDistanceTolerance(distanceTolerance);
+
+    klvProcessor.process(handlers, metacard, klvProcessConfiguration);
+  }
+
+  private Optional<Map<String, KlvHandler>> findPrecomputedHandlers(String id) {
+    if (id == null || precomputedKlvStore == null) {
+      return Optional.empty();
+    }
+    return precomputedKlvStore.remove(id);
+  }
+
+  private Map<String, KlvHandler> decodeStanag4609Metadata(ByteSource byteSource, Path file)
+      throws IOException, CatalogTransformerException {
 
     Map<Integer, List<DecodedKLVMetadataPacket>> decodedMetadata;
-    try {
-      decodedMetadata = stanag4609Parser.parse();
-    } catch (Stanag4609ParseException e) {
-      throw new CatalogTransformerException("failed to extract STANAG 4609 metadata", e);
+    if (parallelDemux && file != null) {
+      decodedMetadata = demuxStanag4609Metadata(file);
+    } else {
+      Stanag4609Parser stanag4609Parser = stanagParserFactory.createParser(byteSource);
+      try {
+        decodedMetadata = stanag4609Parser.parse();
+      } catch (Stanag4609ParseException e) {
+        throw new CatalogTransformerException("failed to extract STANAG 4609 metadata", e);
+      }
     }
 
     Map<String, KlvHandler> handlers = klvHandlerFactory.createStanag4609Handlers();
 
     stanag4609Processor.handle(handlers, defaultKlvHandler, decodedMetadata);
 
-    KlvProcessor.Configuration klvProcessConfiguration = new KlvProcessor.Configuration();
-    klvProcessConfiguration.set(KlvProcessor.Configuration.SUBSAMPLE_COUNT, subsampleCount);
-    klvProcessConfiguration.getGeometryOperatorContext().setDistanceTolerance(distanceTolerance);
+    return handlers;
+  }
 
-    klvProcessor.process(handlers, metacard, klvProcessConfiguration);
+  /**
+   * Demux the metadata streams of a file in ranges on the common fork-join pool, decoding the KLV
+   * of each metadata packet on the thread that reassembled it. The decoded packets of each stream
+   * are in file order, as {@link Stanag4609Parser#parse()} returns them.
+   */
+  private Map<Integer, List<DecodedKLVMetadataPacket>> demuxStanag4609Metadata(Path file)
+      throws IOException {
+
+    KlvPacketStatistics statistics = new KlvPacketStatistics();
+
+    Map<Integer, List<DecodedKLVMetadataPacket>> decodedMetadata;
+    try (Stream<PESPacket> pesPackets =
+        TSStream.from(
+            file,
+            (packetId, streamType) -> isMetadata(streamType),
+            true,
+            minSplitPackets,
+            maxOverrunPackets)) {
+      decodedMetadata =
+          pesPackets.collect(
+              Collectors.groupingBy(
+                  PESPacket::getPacketId,
+                  Collectors.mapping(
+                      pesPacket -> decodeKlv(pesPacket, statistics),
+                      Collectors.toCollection(ArrayList::new))));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+
+    decodedMetadata.values().forEach(packets -> packets.removeIf(Objects::isNull));
+    decodedMetadata.values().removeIf(List::isEmpty);
+    LOGGER.debug("KLV metadata packets: {}", statistics);
+    return decodedMetadata;
+  }
+
+  private static boolean isMetadata(MpegStreamType streamType) {
+    return streamType == MpegStreamType.META_PES || streamType == MpegStreamType.PRIVATE_DATA;
+  }
+
+  /**
+   * Each packet gets its own decoder, since packets are decoded on several threads at once.
+   *
+   * @return the decoded packet, or null if it could not be decoded
+   */
+  private static DecodedKLVMetadataPacket decodeKlv(
+      PESPacket pesPacket, KlvPacketStatistics statistics) {
+    try {
+      return PESUtilities.handlePESPacket(
+          ByteBuffer.wrap(pesPacket.getPayload()),
+          new KlvDecoder(Stanag4609TransportStreamParser.UAS_DATALINK_LOCAL_SET_CONTEXT),
+          statistics);
+    } catch (KlvDecodingException e) {
+      LOGGER.debug("The KLV could not be decoded.", e);
+    } catch (RuntimeException e) {
+      LOGGER.debug("An error occurred while handling the metadata packet bytes.", e);
+    }
+    return null;
   }
 }
@@ -18,7 +18,9 @@ import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -36,11 +38,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 import org.codice.alliance.catalog.core.internal.api.classification.SecurityClassificationService;
 import org.codice.alliance.libs.klv.KlvHandler;
 import org.codice.alliance.libs.klv.KlvHandlerFactory;
 import org.codice.alliance.libs.klv.KlvProcessor;
+import org.codice.alliance.libs.klv.PrecomputedKlvStore;
+import org.codice.alliance.libs.klv.PrecomputedKlvStoreImpl;
 import org.codice.alliance.libs.klv.SecurityClassificationKlvProcessor;
 import org.codice.alliance.libs.klv.Stanag4609ParseException;
 import org.codice.alliance.libs.klv.Stanag4609Processor;
@@ -215,6 +220,115 @@ public class MpegTsInputTransformerTest {
     }
   }
 
+  @Test
+  public void testMemoryMapped() throws Exception {
+
+    metacard.setMetadata("the metadata");
+
+    when(streamParser.parse()).thenReturn(Collections.emptyMap());
+
+    MpegTsInputTransformer t =
+        new MpegTsInputTransformer(
+            inputTransformer,
+            metacardTypes,
+            stanag4609Processor,
+            klvHandlerFactory,
+            defaultKlvHandler,
+            stanagParserFactory,
+            klvProcessor,
+            DISTANCE_TOLERANCE);
+    t.setMemoryMapped(true);
+
+    try (InputStream inputStream = new ByteArrayInputStream(new byte[] {0x47, 0x00})) {
+
+      Metacard finalMetacard = t.transform(inputStream);
+
+      assertThat(t.isMemoryMapped(), is(true));
+      assertThat(finalMetacard.getMetadata(), is("the metadata"));
+      assertThat(
+          finalMetacard.getAttribute(Core.DATATYPE),
+          is(new AttributeImpl(Core.DATATYPE, MpegTsInputTransformer.DATA_TYPE)));
+    }
+  }
+
+  @Test
+  public void testParallelDemux() throws Exception {
+
+    metacard.setMetadata("the metadata");
+
+    MpegTsInputTransformer t =
+        new MpegTsInputTransformer(
+            inputTransformer,
+            metacardTypes,
+            stanag4609Processor,
+            klvHandlerFactory,
+            defaultKlvHandler,
+            stanagParserFactory,
+            klvProcessor,
+            DISTANCE_TOLERANCE);
+    t.setParallelDemux(true);
+    t.setMinSplitPackets(1);
+    t.setMaxOverrunPackets(0);
+
+    try (InputStream inputStream = new ByteArrayInputStream(new byte[] {0x47, 0x00})) {
+
+      Metacard finalMetacard = t.transform(inputStream);
+
+      assertThat(t.isParallelDemux(), is(true));
+      assertThat(finalMetacard.getMetadata(), is("the metadata"));
+    }
+
+    verify(stanagParserFactory, never()).createParser(any());
+    verify(stanag4609Processor).handle(any(), eq(defaultKlvHandler), eq(Collections.emptyMap()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetMinSplitPacketsNotPositive() {
+
+    MpegTsInputTransformer t =
+        new MpegTsInputTransformer(
+            inputTransformer,
+            metacardTypes,
+            stanag4609Processor,
+            klvHandlerFactory,
+            defaultKlvHandler,
+            stanagParserFactory,
+            klvProcessor,
+            DISTANCE_TOLERANCE);
+    t.setMinSplitPackets(0);
+  }
+
+  @Test
+  public void testPrecomputedKlvHandlers() throws Exception {
+
+    when(streamParser.parse()).thenThrow(new RuntimeException());
+
+    Map<String, KlvHandler> handlers = Collections.singletonMap("name", mock(KlvHandler.class));
+    PrecomputedKlvStore precomputedKlvStore =
+        new PrecomputedKlvStoreImpl(klvHandlerFactory, stanag4609Processor, defaultKlvHandler);
+    precomputedKlvStore.put("anId", handlers);
+
+    MpegTsInputTransformer t =
+        new MpegTsInputTransformer(
+            inputTransformer,
+            metacardTypes,
+            stanag4609Processor,
+            klvHandlerFactory,
+            defaultKlvHandler,
+            stanagParserFactory,
+            klvProcessor,
+            DISTANCE_TOLERANCE);
+    t.setPrecomputedKlvStore(precomputedKlvStore);
+
+    try (InputStream inputStream = new ByteArrayInputStream(new byte[] {})) {
+      t.transform(inputStream, "anId");
+    }
+
+    verify(stanagParserFactory, never()).createParser(any());
+    verify(klvProcessor).process(eq(handlers), any(), any());
+    assertThat(precomputedKlvStore.remove("anId").isPresent(), is(false));
+  }
+
   @Test(expected = CatalogTransformerException.class)
   public void testStanagParseError() throws Exception {
 
@@ -44,7 +44,7 @@ public abstract class BaseKlvHandler implements KlvHandler {
     return Optional.of(new AttributeImpl(getAttributeName(), serials));
   }
 
-  protected <T> int getMinimumListSize(Collection<List<T>> lists) {
+  protected <T> int getMinimumListSize(Collection<? extends List<T>> lists) {
     return lists.stream().mapToInt(List::size).min().orElse(0);
   }
 
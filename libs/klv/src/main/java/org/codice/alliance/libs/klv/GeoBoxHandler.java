@@ -15,6 +15,7 @@ package org.codice.alliance.libs.klv;
 
 import ddf.catalog.data.Attribute;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -48,7 +49,9 @@ public class GeoBoxHandler extends BaseKlvHandler implements Trimmable {
 
   private String longitude4;
 
-  private Map<String, List<Double>> map = new HashMap<>();
+  private Map<String, StrideSampledList<Double>> map = new HashMap<>();
+
+  private final int maxValues;
 
   /**
    * @param attributeName the name of the metacard attribute being generated
@@ -71,7 +74,48 @@ public class GeoBoxHandler extends BaseKlvHandler implements Trimmable {
       String longitude3,
       String latitude4,
       String longitude4) {
+    this(
+        attributeName,
+        latitude1,
+        longitude1,
+        latitude2,
+        longitude2,
+        latitude3,
+        longitude3,
+        latitude4,
+        longitude4,
+        StrideSampledList.DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param attributeName the name of the metacard attribute being generated
+   * @param latitude1 the name of the stanag 4609 field
+   * @param longitude1 the name of the stanag 4609 field
+   * @param latitude2 the name of the stanag 4609 field
+   * @param longitude2 the name of the stanag 4609 field
+   * @param latitude3 the name of the stanag 4609 field
+   * @param longitude3 the name of the stanag 4609 field
+   * @param latitude4 the name of the stanag 4609 field
+   * @param longitude4 the name of the stanag 4609 field
+   * @param maxValues the most values held for each field, must be at least 2. Once reached, the
+   *     values are sampled.
+   */
+  public GeoBoxHandler(
+      String attributeName,
+      String latitude1,
+      String longitude1,
+      String latitude2,
+      String longitude2,
+      String latitude3,
+      String longitude3,
+      String latitude4,
+      String longitude4,
+      int maxValues) {
     super(attributeName);
+    if (maxValues < 2) {
+      throw new IllegalArgumentException("maxValues must be at least 2");
+    }
+    this.maxValues = maxValues;
 
     this.latitude1 = latitude1;
     this.longitude1 = longitude1;
@@ -119,7 +163,7 @@ public class GeoBoxHandler extends BaseKlvHandler implements Trimmable {
   }
 
   public Map<String, List<Double>> getRawGeoData() {
-    return map;
+    return Collections.unmodifiableMap(map);
   }
 
   @Override
@@ -170,7 +214,8 @@ public class GeoBoxHandler extends BaseKlvHandler implements Trimmable {
             getLatitude3(),
             getLongitude3(),
             getLatitude4(),
-            getLongitude4());
+            getLongitude4(),
+            maxValues);
 
     subsample(getRawGeoData(), subsampleCount, size, out::accept);
 
@@ -181,15 +226,7 @@ public class GeoBoxHandler extends BaseKlvHandler implements Trimmable {
   @Override
   public void trim() {
 
-    int minListSize = getMinimumListSize();
-
-    map.keySet()
-        .forEach(
-            key ->
-                map.computeIfPresent(
-                    key,
-                    (fieldName, list) ->
-                        list.size() > minListSize ? list.subList(0, minListSize) : list));
+    StrideSampledList.align(map.values());
   }
 
   @Override
@@ -211,8 +248,7 @@ public class GeoBoxHandler extends BaseKlvHandler implements Trimmable {
   }
 
   public void accept(String name, Double value) {
-    map.putIfAbsent(name, new ArrayList<>());
-    map.get(name).add(value);
+    map.computeIfAbsent(name, key -> new StrideSampledList<>(maxValues)).add(value);
   }
 
   private int getMinimumListSize() {
@@ -13,6 +13,8 @@
  */
 package org.codice.alliance.libs.klv;
 
+import static org.apache.commons.lang3.Validate.inclusiveBetween;
+
 import java.util.HashMap;
 import java.util.Map;
 import org.codice.alliance.libs.stanag4609.Stanag4609TransportStreamParser;
@@ -23,23 +25,36 @@ import org.codice.ddf.libs.klv.data.text.KlvString;
 
 public class KlvHandlerFactoryImpl implements KlvHandlerFactory {
 
+  private volatile int maxHandlerValues = StrideSampledList.DEFAULT_CAPACITY;
+
+  /**
+   * @param maxHandlerValues the most values each handler holds for a field, must be at least 2.
+   *     Once reached, the values are sampled so that memory stays bounded on long streams.
+   */
+  public void setMaxHandlerValues(int maxHandlerValues) {
+    inclusiveBetween(2, Integer.MAX_VALUE, maxHandlerValues, "maxHandlerValues must be at least 2");
+    this.maxHandlerValues = maxHandlerValues;
+  }
+
   @Override
   public Map<String, KlvHandler> createStanag4609Handlers() {
     final Map<String, KlvHandler> handlers = new HashMap<>();
+    final int maxValues = maxHandlerValues;
 
     handlers.put(
         Stanag4609TransportStreamParser.MISSION_ID,
-        new ListOfBasicKlvDataTypesHandler<>(AttributeNameConstants.MISSION_ID, KlvString.class));
+        new ListOfBasicKlvDataTypesHandler<>(
+            AttributeNameConstants.MISSION_ID, KlvString.class, maxValues));
 
     handlers.put(
         Stanag4609TransportStreamParser.PLATFORM_TAIL_NUMBER,
         new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.PLATFORM_TAIL_NUMBER, KlvString.class));
+            AttributeNameConstants.PLATFORM_TAIL_NUMBER, KlvString.class, maxValues));
 
     handlers.put(
         Stanag4609TransportStreamParser.PLATFORM_DESIGNATION,
         new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.PLATFORM_DESIGNATION, KlvString.class));
+            AttributeNameConstants.PLATFORM_DESIGNATION, KlvString.class, maxValues));
 
     GeoBoxHandler offsetCornerHandler =
         new GeoBoxHandler(
@@ -51,7 +66,8 @@ public class KlvHandlerFactoryImpl implements KlvHandlerFactory {
             Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_3,
             Stanag4609TransportStreamParser.OFFSET_CORNER_LONGITUDE_3,
             Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_4,
-            Stanag4609TransportStreamParser.OFFSET_CORNER_LONGITUDE_4);
+            Stanag4609TransportStreamParser.OFFSET_CORNER_LONGITUDE_4,
+            maxValues);
     handlers.put(Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_1, offsetCornerHandler);
     handlers.put(Stanag4609TransportStreamParser.OFFSET_CORNER_LONGITUDE_1, offsetCornerHandler);
     handlers.put(Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_2, offsetCornerHandler);
@@ -64,16 +80,16 @@ public class KlvHandlerFactoryImpl implements KlvHandlerFactory {
     handlers.put(
         Stanag4609TransportStreamParser.PLATFORM_CALL_SIGN,
         new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.PLATFORM_CALL_SIGN, KlvString.class));
+            AttributeNameConstants.PLATFORM_CALL_SIGN, KlvString.class, maxValues));
 
     handlers.put(
         Stanag4609TransportStreamParser.EVENT_START_TIME,
-        new ListOfDatesHandler((AttributeNameConstants.EVENT_START_TIME)));
+        new ListOfDatesHandler(AttributeNameConstants.EVENT_START_TIME, maxValues));
 
     handlers.put(
         Stanag4609TransportStreamParser.OPERATIONAL_MODE,
         new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.OPERATIONAL_MODE, KlvUnsignedByte.class));
+            AttributeNameConstants.OPERATIONAL_MODE, KlvUnsignedByte.class, maxValues));
 
     GeoBoxHandler cornerHandler =
         new GeoBoxHandler(
@@ -85,7 +101,8 @@ public class KlvHandlerFactoryImpl implements KlvHandlerFactory {
             Stanag4609TransportStreamParser.CORNER_LATITUDE_3,
             Stanag4609TransportStreamParser.CORNER_LONGITUDE_3,
             Stanag4609TransportStreamParser.CORNER_LATITUDE_4,
-            Stanag4609TransportStreamParser.CORNER_LONGITUDE_4);
+            Stanag4609TransportStreamParser.CORNER_LONGITUDE_4,
+            maxValues);
     handlers.put(Stanag4609TransportStreamParser.CORNER_LATITUDE_1, cornerHandler);
     handlers.put(Stanag4609TransportStreamParser.CORNER_LONGITUDE_1, cornerHandler);
     handlers.put(Stanag4609TransportStreamParser.CORNER_LATITUDE_2, cornerHandler);
@@ -98,83 +115,93 @@ public class KlvHandlerFactoryImpl implements KlvHandlerFactory {
     handlers.put(
         Stanag4609TransportStreamParser.SECURITY_CLASSIFICATION,
         new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.SECURITY_CLASSIFICATION, KlvUnsignedByte.class));
+            AttributeNameConstants.SECURITY_CLASSIFICATION, KlvUnsignedByte.class, maxValues));
 
     handlers.put(
         Stanag4609TransportStreamParser.CLASSIFYING_COUNTRY_CODING_METHOD,
         new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.CLASSIFYING_COUNTRY_CODING_METHOD, KlvUnsignedByte.class));
+            AttributeNameConstants.CLASSIFYING_COUNTRY_CODING_METHOD,
+            KlvUnsignedByte.class,
+            maxValues));
 
     handlers.put(
         Stanag4609TransportStreamParser.CLASSIFYING_COUNTRY,
         new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.CLASSIFYING_COUNTRY, KlvString.class));
+            AttributeNameConstants.CLASSIFYING_COUNTRY, KlvString.class, maxValues));
 
     handlers.put(
         Stanag4609TransportStreamParser.OBJECT_COUNTRY_CODING_METHOD,
         new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.OBJECT_COUNTRY_CODING_METHOD, KlvUnsignedByte.class));
+            AttributeNameConstants.OBJECT_COUNTRY_CODING_METHOD, KlvUnsignedByte.class, maxValues));
 
     handlers.put(
         Stanag4609TransportStreamParser.OBJECT_COUNTRY_CODES,
         new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.OBJECT_COUNTRY_CODES, KlvString.class));
+            AttributeNameConstants.OBJECT_COUNTRY_CODES, KlvString.class, maxValues));
 
     handlers.put(
         Stanag4609TransportStreamParser.TIMESTAMP,
-        new ListOfDatesHandler(AttributeNameConstants.TIMESTAMP));
+        new ListOfDatesHandler(AttributeNameConstants.TIMESTAMP, maxValues));
 
     handlers.put(
         Stanag4609TransportStreamParser.CHECKSUM,
         new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.CHECKSUM, KlvUnsignedShort.class));
+            AttributeNameConstants.CHECKSUM, KlvUnsignedShort.class, maxValues));
 
     handlers.put(
         Stanag4609TransportStreamParser.IMAGE_COORDINATE_SYSTEM,
         new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.IMAGE_COORDINATE_SYSTEM, KlvString.class));
+            AttributeNameConstants.IMAGE_COORDINATE_SYSTEM, KlvString.class, maxValues));
 
     handlers.put(
         Stanag4609TransportStreamParser.IMAGE_SOURCE_SENSOR,
         new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.IMAGE_SOURCE_SENSOR, KlvString.class));
+            AttributeNameConstants.IMAGE_SOURCE_SENSOR, KlvString.class, maxValues));
 
     handlers.put(
         Stanag4609TransportStreamParser.TARGET_WIDTH,
         new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.TARGET_WIDTH_METERS, KlvIntegerEncodedFloatingPoint.class));
+            AttributeNameConstants.TARGET_WIDTH_METERS,
+            KlvIntegerEncodedFloatingPoint.class,
+            maxValues));
 
     handlers.put(
         Stanag4609TransportStreamParser.FRAME_CENTER_ELEVATION,
         new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.FRAME_CENTER_ELEVATION, KlvIntegerEncodedFloatingPoint.class));
+            AttributeNameConstants.FRAME_CENTER_ELEVATION,
+            KlvIntegerEncodedFloatingPoint.class,
+            maxValues));
 
     handlers.put(
         Stanag4609TransportStreamParser.SENSOR_TRUE_ALTITUDE,
         new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.SENSOR_TRUE_ALTITUDE, KlvIntegerEncodedFloatingPoint.class));
+            AttributeNameConstants.SENSOR_TRUE_ALTITUDE,
+            KlvIntegerEncodedFloatingPoint.class,
+            maxValues));
 
     handlers.put(
         Stanag4609TransportStreamParser.GROUND_RANGE,
         new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.GROUND_RANGE, KlvIntegerEncodedFloatingPoint.class));
+            AttributeNameConstants.GROUND_RANGE, KlvIntegerEncodedFloatingPoint.class, maxValues));
 
     handlers.put(
         Stanag4609TransportStreamParser.SLANT_RANGE,
         new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.SLANT_RANGE, KlvIntegerEncodedFloatingPoint.class));
+            AttributeNameConstants.SLANT_RANGE, KlvIntegerEncodedFloatingPoint.class, maxValues));
 
     handlers.put(
         Stanag4609TransportStreamParser.TARGET_LOCATION_ELEVATION,
         new ListOfBasicKlvDataTypesHandler<>(
             AttributeNameConstants.TARGET_LOCATION_ELEVATION,
-            KlvIntegerEncodedFloatingPoint.class));
+            KlvIntegerEncodedFloatingPoint.class,
+            maxValues));
 
     KlvHandler frameCenter =
         new LatitudeLongitudeHandler(
             AttributeNameConstants.FRAME_CENTER,
             Stanag4609TransportStreamParser.FRAME_CENTER_LATITUDE,
-            Stanag4609TransportStreamParser.FRAME_CENTER_LONGITUDE);
+            Stanag4609TransportStreamParser.FRAME_CENTER_LONGITUDE,
+            maxValues);
     handlers.put(Stanag4609TransportStreamParser.FRAME_CENTER_LONGITUDE, frameCenter);
     handlers.put(Stanag4609TransportStreamParser.FRAME_CENTER_LATITUDE, frameCenter);
 
@@ -182,7 +209,8 @@ public class KlvHandlerFactoryImpl implements KlvHandlerFactory {
         new LatitudeLongitudeHandler(
             AttributeNameConstants.TARGET_LOCATION,
             Stanag4609TransportStreamParser.TARGET_LOCATION_LATITUDE,
-            Stanag4609TransportStreamParser.TARGET_LOCATION_LONGITUDE);
+            Stanag4609TransportStreamParser.TARGET_LOCATION_LONGITUDE,
+            maxValues);
     handlers.put(Stanag4609TransportStreamParser.TARGET_LOCATION_LONGITUDE, targetLocation);
     handlers.put(Stanag4609TransportStreamParser.TARGET_LOCATION_LATITUDE, targetLocation);
 
@@ -190,24 +218,26 @@ public class KlvHandlerFactoryImpl implements KlvHandlerFactory {
         new LatitudeLongitudeHandler(
             AttributeNameConstants.SENSOR,
             Stanag4609TransportStreamParser.SENSOR_LATITUDE,
-            Stanag4609TransportStreamParser.SENSOR_LONGITUDE);
+            Stanag4609TransportStreamParser.SENSOR_LONGITUDE,
+            maxValues);
     handlers.put(Stanag4609TransportStreamParser.SENSOR_LONGITUDE, sensor);
     handlers.put(Stanag4609TransportStreamParser.SENSOR_LATITUDE, sensor);
 
     handlers.put(
         Stanag4609TransportStreamParser.SECURITY_SCI_SHI_INFORMATION,
         new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.SECURITY_SCI_SHI_INFORMATION, KlvString.class));
+            AttributeNameConstants.SECURITY_SCI_SHI_INFORMATION, KlvString.class, maxValues));
 
     handlers.put(
         Stanag4609TransportStreamParser.CAVEATS,
-        new ListOfBasicKlvDataTypesHandler<>(AttributeNameConstants.CAVEATS, KlvString.class));
+        new ListOfBasicKlvDataTypesHandler<>(
+            AttributeNameConstants.CAVEATS, KlvString.class, maxValues));
 
     handlers.put(
         Stanag4609TransportStreamParser.RELEASING_INSTRUCTIONS,
         new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.RELEASING_INSTRUCTIONS, KlvString.class));
+            AttributeNameConstants.RELEASING_INSTRUCTIONS, KlvString.class, maxValues));
 
-    return handlers;
+    return KlvHandlerRegistry.of(handlers);
   }
 }
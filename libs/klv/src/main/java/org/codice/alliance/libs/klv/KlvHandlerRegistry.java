@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.klv;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * An unmodifiable map of KLV data element names to {@link KlvHandler}s that resolves the lookups
+ * made by processors and post-processors once, when the map is created, instead of on every call.
+ *
+ * <ul>
+ *   <li>{@link #find(Map, String, Class)} returns a handler by attribute name and type from an
+ *       index instead of scanning every handler.
+ *   <li>{@link #getDistinctHandlers()} returns each handler once, without de-duplicating the
+ *       values of the map.
+ *   <li>{@link #bind(Map, Object, Function)} lets a post-processor resolve the handlers it uses
+ *       once per registry and keep the result for every KLV packet that follows.
+ * </ul>
+ *
+ * The static methods also accept plain maps, in which case the lookup is done on every call.
+ */
+public final class KlvHandlerRegistry extends AbstractMap<String, KlvHandler> {
+
+  private final Map<String, KlvHandler> handlers;
+
+  private final List<KlvHandler> distinctHandlers;
+
+  private final Map<String, List<KlvHandler>> handlersByAttributeName;
+
+  private final Map<Object, Object> bindings = new ConcurrentHashMap<>();
+
+  private KlvHandlerRegistry(Map<String, KlvHandler> handlers) {
+    this.handlers = Collections.unmodifiableMap(new HashMap<>(handlers));
+
+    Set<KlvHandler> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    List<KlvHandler> distinct = new ArrayList<>();
+    Map<String, List<KlvHandler>> byAttributeName = new HashMap<>();
+    for (KlvHandler handler : this.handlers.values()) {
+      if (handler != null && seen.add(handler)) {
+        distinct.add(handler);
+        byAttributeName
+            .computeIfAbsent(handler.getAttributeName(), name -> new ArrayList<>())
+            .add(handler);
+      }
+    }
+    this.distinctHandlers = Collections.unmodifiableList(distinct);
+    this.handlersByAttributeName = byAttributeName;
+  }
+
+  /**
+   * @param handlers map of klv data element names to handlers (must be non-null)
+   * @return a registry that contains the same mappings as {@code handlers}
+   */
+  public static KlvHandlerRegistry of(Map<String, KlvHandler> handlers) {
+    notNull(handlers, "handlers must be non-null");
+    if (handlers instanceof KlvHandlerRegistry) {
+      return (KlvHandlerRegistry) handlers;
+    }
+    return new KlvHandlerRegistry(handlers);
+  }
+
+  /**
+   * Find the first handler of the given type whose attribute name is {@code attributeName}.
+   *
+   * @param handlers map of klv data element names to handlers
+   * @param attributeName the metacard attribute name of the handler
+   * @param clazz the type of the handler
+   * @return the handler, or empty if there is none
+   */
+  public static <T extends KlvHandler> Optional<T> find(
+      Map<String, KlvHandler> handlers, String attributeName, Class<T> clazz) {
+    Collection<KlvHandler> candidates =
+        handlers instanceof KlvHandlerRegistry
+            ? ((KlvHandlerRegistry) handlers)
+                .handlersByAttributeName
+                .getOrDefault(attributeName, Collections.emptyList())
+            : handlers.values();
+
+    for (KlvHandler handler : candidates) {
+      if (handler != null
+          && clazz.isInstance(handler)
+          && Objects.equals(handler.getAttributeName(), attributeName)) {
+        return Optional.of(clazz.cast(handler));
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * @param handlers map of klv data element names to handlers
+   * @return each non-null handler once
+   */
+  public static List<KlvHandler> distinct(Map<String, KlvHandler> handlers) {
+    if (handlers instanceof KlvHandlerRegistry) {
+      return ((KlvHandlerRegistry) handlers).distinctHandlers;
+    }
+    Set<KlvHandler> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    List<KlvHandler> distinct = new ArrayList<>();
+    for (KlvHandler handler : handlers.values()) {
+      if (handler != null && seen.add(handler)) {
+        distinct.add(handler);
+      }
+    }
+    return distinct;
+  }
+
+  /**
+   * Resolve a value from the handlers once per registry. For a plain map, the value is resolved on
+   * every call.
+   *
+   * @param handlers map of klv data element names to handlers
+   * @param key identifies the value, typically the class of the caller
+   * @param resolver computes the value from the handlers, must not depend on anything else
+   * @return the resolved value
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T bind(
+      Map<String, KlvHandler> handlers,
+      Object key,
+      Function<Map<String, KlvHandler>, T> resolver) {
+    if (handlers instanceof KlvHandlerRegistry) {
+      KlvHandlerRegistry registry = (KlvHandlerRegistry) handlers;
+      return (T) registry.bindings.computeIfAbsent(key, k -> resolver.apply(registry));
+    }
+    return resolver.apply(handlers);
+  }
+
+  /** @return each non-null handler once */
+  public List<KlvHandler> getDistinctHandlers() {
+    return distinctHandlers;
+  }
+
+  @Override
+  public KlvHandler get(Object key) {
+    return handlers.get(key);
+  }
+
+  @Override
+  public KlvHandler getOrDefault(Object key, KlvHandler defaultValue) {
+    return handlers.getOrDefault(key, defaultValue);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return handlers.containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return handlers.size();
+  }
+
+  @Override
+  public Set<Entry<String, KlvHandler>> entrySet() {
+    return handlers.entrySet();
+  }
+}
@@ -15,6 +15,7 @@ package org.codice.alliance.libs.klv;
 
 import ddf.catalog.data.Attribute;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,17 +30,35 @@ public class LatitudeLongitudeHandler extends BaseKlvHandler implements Trimmabl
 
   private static final Logger LOGGER = LoggerFactory.getLogger(LatitudeLongitudeHandler.class);
 
-  private Map<String, List<Double>> map = new HashMap<>();
+  private Map<String, StrideSampledList<Double>> map = new HashMap<>();
 
   private String latitudeFieldName;
 
   private String longitudeFieldName;
 
+  private final int maxValues;
+
   public LatitudeLongitudeHandler(
       String attributeName, String latitudeFieldName, String longitudeFieldName) {
+    this(attributeName, latitudeFieldName, longitudeFieldName, StrideSampledList.DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param attributeName the name of the metacard attribute being generated
+   * @param latitudeFieldName the name of the stanag 4609 field
+   * @param longitudeFieldName the name of the stanag 4609 field
+   * @param maxValues the most values held for each field, must be at least 2. Once reached, the
+   *     values are sampled.
+   */
+  public LatitudeLongitudeHandler(
+      String attributeName, String latitudeFieldName, String longitudeFieldName, int maxValues) {
     super(attributeName);
+    if (maxValues < 2) {
+      throw new IllegalArgumentException("maxValues must be at least 2");
+    }
     this.latitudeFieldName = latitudeFieldName;
     this.longitudeFieldName = longitudeFieldName;
+    this.maxValues = maxValues;
   }
 
   public String getLongitudeFieldName() {
@@ -51,7 +70,7 @@ public class LatitudeLongitudeHandler extends BaseKlvHandler implements Trimmabl
   }
 
   public Map<String, List<Double>> getRawGeoData() {
-    return map;
+    return Collections.unmodifiableMap(map);
   }
 
   @Override
@@ -85,7 +104,7 @@ public class LatitudeLongitudeHandler extends BaseKlvHandler implements Trimmabl
 
     LatitudeLongitudeHandler out =
         new LatitudeLongitudeHandler(
-            getAttributeName(), getLatitudeFieldName(), getLongitudeFieldName());
+            getAttributeName(), getLatitudeFieldName(), getLongitudeFieldName(), maxValues);
 
     subsample(getRawGeoData(), subsampleCount, size, out::accept);
 
@@ -95,15 +114,7 @@ public class LatitudeLongitudeHandler extends BaseKlvHandler implements Trimmabl
   /** Trim the arrays of lat and lon values to the same length. */
   @Override
   public void trim() {
-    int minListSize = getMinimumListSize();
-
-    map.keySet()
-        .forEach(
-            key ->
-                map.computeIfPresent(
-                    key,
-                    (fieldName, list) ->
-                        list.size() > minListSize ? list.subList(0, minListSize) : list));
+    StrideSampledList.align(map.values());
   }
 
   @Override
@@ -115,9 +126,7 @@ public class LatitudeLongitudeHandler extends BaseKlvHandler implements Trimmabl
           klvDataElement);
       return;
     }
-    map.putIfAbsent(klvDataElement.getName(), new ArrayList<>());
-    map.get(klvDataElement.getName())
-        .add(((KlvIntegerEncodedFloatingPoint) klvDataElement).getValue());
+    accept(klvDataElement.getName(), ((KlvIntegerEncodedFloatingPoint) klvDataElement).getValue());
   }
 
   @Override
@@ -126,8 +135,7 @@ public class LatitudeLongitudeHandler extends BaseKlvHandler implements Trimmabl
   }
 
   public void accept(String name, Double value) {
-    map.putIfAbsent(name, new ArrayList<>());
-    map.get(name).add(value);
+    map.computeIfAbsent(name, key -> new StrideSampledList<>(maxValues)).add(value);
   }
 
   private int getMinimumListSize() {
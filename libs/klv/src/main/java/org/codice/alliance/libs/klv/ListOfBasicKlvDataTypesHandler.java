@@ -15,7 +15,6 @@ package org.codice.alliance.libs.klv;
 
 import ddf.catalog.data.Attribute;
 import java.io.Serializable;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 import org.codice.ddf.libs.klv.KlvDataElement;
@@ -26,6 +25,10 @@ import org.slf4j.LoggerFactory;
  * This handler expects a KlvDataElement that matches the Class passed into {@link
  * #ListOfBasicKlvDataTypesHandler(String, Class)} generates a list of values returned by {@link
  * KlvDataElement#getValue()}.
+ *
+ * <p>The number of values held is bounded, by default by {@link
+ * StrideSampledList#DEFAULT_CAPACITY}. Below the bound every value is kept, repeats included. Once
+ * the bound is reached, evenly spaced samples of the values are kept.
  */
 class ListOfBasicKlvDataTypesHandler<T extends Serializable> extends BaseKlvHandler {
 
@@ -34,17 +37,31 @@ class ListOfBasicKlvDataTypesHandler<T extends Serializable> extends BaseKlvHand
 
   private Class<? extends KlvDataElement<T>> clazz;
 
-  private List<T> list = new LinkedList<>();
+  private final List<T> values;
 
   public ListOfBasicKlvDataTypesHandler(
       String attributeName, Class<? extends KlvDataElement<T>> clazz) {
+    this(attributeName, clazz, StrideSampledList.DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param attributeName the name of the metacard attribute being generated
+   * @param clazz the type of KlvDataElement accepted
+   * @param maxValues the most values held, must be at least 2
+   */
+  public ListOfBasicKlvDataTypesHandler(
+      String attributeName, Class<? extends KlvDataElement<T>> clazz, int maxValues) {
     super(attributeName);
+    if (maxValues < 2) {
+      throw new IllegalArgumentException("maxValues must be at least 2");
+    }
     this.clazz = clazz;
+    this.values = new StrideSampledList<>(maxValues);
   }
 
   @Override
   public Optional<Attribute> asAttribute() {
-    return asAttribute(list);
+    return asAttribute(values);
   }
 
   @Override
@@ -57,11 +74,11 @@ class ListOfBasicKlvDataTypesHandler<T extends Serializable> extends BaseKlvHand
           klvDataElement);
       return;
     }
-    list.add(clazz.cast(klvDataElement).getValue());
+    values.add(clazz.cast(klvDataElement).getValue());
   }
 
   @Override
   public void reset() {
-    list.clear();
+    values.clear();
   }
 }
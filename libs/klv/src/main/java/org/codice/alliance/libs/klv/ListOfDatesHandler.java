@@ -14,8 +14,8 @@
 package org.codice.alliance.libs.klv;
 
 import ddf.catalog.data.Attribute;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
@@ -24,20 +24,45 @@ import org.codice.ddf.libs.klv.data.numerical.KlvLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** This handler expects dates as microseconds since epoch and it generates a list of Dates. */
+/**
+ * This handler expects dates as microseconds since epoch and it generates a list of Dates.
+ *
+ * <p>The number of dates held is bounded, by default by {@link StrideSampledList#DEFAULT_CAPACITY}.
+ * Below the bound every date is kept. Once the bound is reached, evenly spaced samples of the dates
+ * are kept and the last date is always included.
+ */
 class ListOfDatesHandler extends BaseKlvHandler {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ListOfDatesHandler.class);
 
-  private List<Date> dateList = new LinkedList<>();
+  private final List<Date> dateList;
+
+  private Date last;
 
   public ListOfDatesHandler(String attributeName) {
+    this(attributeName, StrideSampledList.DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param attributeName the name of the metacard attribute being generated
+   * @param maxValues the most dates held, must be at least 2
+   */
+  public ListOfDatesHandler(String attributeName, int maxValues) {
     super(attributeName);
+    if (maxValues < 2) {
+      throw new IllegalArgumentException("maxValues must be at least 2");
+    }
+    this.dateList = new StrideSampledList<>(maxValues);
   }
 
   @Override
   public Optional<Attribute> asAttribute() {
-    return asAttribute(dateList);
+    if (last == null || dateList.get(dateList.size() - 1) == last) {
+      return asAttribute(dateList);
+    }
+    List<Date> dates = new ArrayList<>(dateList);
+    dates.add(last);
+    return asAttribute(dates);
   }
 
   @Override
@@ -49,11 +74,13 @@ class ListOfDatesHandler extends BaseKlvHandler {
           klvDataElement);
       return;
     }
-    dateList.add(new Date(TimeUnit.MICROSECONDS.toMillis(((KlvLong) klvDataElement).getValue())));
+    last = new Date(TimeUnit.MICROSECONDS.toMillis(((KlvLong) klvDataElement).getValue()));
+    dateList.add(last);
   }
 
   @Override
   public void reset() {
     dateList.clear();
+    last = null;
   }
 }
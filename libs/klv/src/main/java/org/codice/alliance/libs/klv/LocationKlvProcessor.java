@@ -20,7 +20,6 @@ import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.AttributeImpl;
 import java.util.Arrays;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import org.locationtech.jts.io.WKTReader;
 import org.locationtech.jts.io.WKTWriter;
@@ -90,12 +89,7 @@ public class LocationKlvProcessor implements KlvProcessor {
 
   private <T extends KlvHandler> Optional<T> find(
       Map<String, KlvHandler> handlers, String name, Class<T> clazz) {
-    return handlers.values().stream()
-        .filter(Objects::nonNull)
-        .filter(handler -> clazz.isAssignableFrom(handler.getClass()))
-        .filter(handler -> handler.getAttributeName().equals(name))
-        .map(clazz::cast)
-        .findFirst();
+    return KlvHandlerRegistry.find(handlers, name, clazz);
   }
 
   private void tryFrameCenterData(
@@ -18,135 +18,110 @@ import org.codice.alliance.libs.stanag4609.Stanag4609TransportStreamParser;
 import org.codice.ddf.libs.klv.KlvDataElement;
 import org.codice.ddf.libs.klv.data.numerical.KlvIntegerEncodedFloatingPoint;
 
-/** Use frame center and offset corner data to calculate the corner data. */
+/**
+ * Use frame center and offset corner data to calculate the corner data. The corner handlers are
+ * resolved once per {@link KlvHandlerRegistry} rather than for every KLV packet.
+ */
 public class OffsetCenterPostProcessor implements PostProcessor {
 
-  private boolean isCornerLatitude(Map<String, KlvHandler> handlers) {
-    return handlers.containsKey(Stanag4609TransportStreamParser.CORNER_LATITUDE_1)
-        && handlers.containsKey(Stanag4609TransportStreamParser.CORNER_LATITUDE_2)
-        && handlers.containsKey(Stanag4609TransportStreamParser.CORNER_LATITUDE_3)
-        && handlers.containsKey(Stanag4609TransportStreamParser.CORNER_LATITUDE_4);
-  }
-
-  private boolean isCornerLongitude(Map<String, KlvHandler> handlers) {
-    return handlers.containsKey(Stanag4609TransportStreamParser.CORNER_LONGITUDE_1)
-        && handlers.containsKey(Stanag4609TransportStreamParser.CORNER_LONGITUDE_2)
-        && handlers.containsKey(Stanag4609TransportStreamParser.CORNER_LONGITUDE_3)
-        && handlers.containsKey(Stanag4609TransportStreamParser.CORNER_LONGITUDE_4);
-  }
-
-  private boolean isOffsetCornerLatitude(Map<String, KlvDataElement> dataElements) {
-    return dataElements.containsKey(Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_1)
-        && dataElements.containsKey(Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_2)
-        && dataElements.containsKey(Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_3)
-        && dataElements.containsKey(Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_4);
-  }
-
-  private boolean isOffsetCornerLongitude(Map<String, KlvDataElement> dataElements) {
-    return dataElements.containsKey(Stanag4609TransportStreamParser.OFFSET_CORNER_LONGITUDE_1)
-        && dataElements.containsKey(Stanag4609TransportStreamParser.OFFSET_CORNER_LONGITUDE_2)
-        && dataElements.containsKey(Stanag4609TransportStreamParser.OFFSET_CORNER_LONGITUDE_3)
-        && dataElements.containsKey(Stanag4609TransportStreamParser.OFFSET_CORNER_LONGITUDE_4);
-  }
-
-  private boolean isFrameCenter(Map<String, KlvDataElement> dataElements) {
-    return dataElements.containsKey(Stanag4609TransportStreamParser.FRAME_CENTER_LATITUDE)
-        && dataElements.containsKey(Stanag4609TransportStreamParser.FRAME_CENTER_LONGITUDE);
-  }
+  private static final String[] CORNER_FIELDS = {
+    Stanag4609TransportStreamParser.CORNER_LATITUDE_1,
+    Stanag4609TransportStreamParser.CORNER_LONGITUDE_1,
+    Stanag4609TransportStreamParser.CORNER_LATITUDE_2,
+    Stanag4609TransportStreamParser.CORNER_LONGITUDE_2,
+    Stanag4609TransportStreamParser.CORNER_LATITUDE_3,
+    Stanag4609TransportStreamParser.CORNER_LONGITUDE_3,
+    Stanag4609TransportStreamParser.CORNER_LATITUDE_4,
+    Stanag4609TransportStreamParser.CORNER_LONGITUDE_4
+  };
+
+  private static final String[] OFFSET_FIELDS = {
+    Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_1,
+    Stanag4609TransportStreamParser.OFFSET_CORNER_LONGITUDE_1,
+    Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_2,
+    Stanag4609TransportStreamParser.OFFSET_CORNER_LONGITUDE_2,
+    Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_3,
+    Stanag4609TransportStreamParser.OFFSET_CORNER_LONGITUDE_3,
+    Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_4,
+    Stanag4609TransportStreamParser.OFFSET_CORNER_LONGITUDE_4
+  };
 
   @Override
   public void postProcess(
       Map<String, KlvDataElement> dataElements, Map<String, KlvHandler> handlers) {
 
-    if (!(isCornerLatitude(handlers) && isCornerLongitude(handlers))) {
+    CornerBinding binding =
+        KlvHandlerRegistry.bind(handlers, OffsetCenterPostProcessor.class, CornerBinding::new);
+    if (!binding.present) {
       return;
     }
 
-    if (isFrameCenter(dataElements)
-        && isOffsetCornerLatitude(dataElements)
-        && isOffsetCornerLongitude(dataElements)) {
-
-      doField(
-          dataElements,
-          handlers,
-          Stanag4609TransportStreamParser.CORNER_LATITUDE_1,
-          Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_1,
-          Stanag4609TransportStreamParser.FRAME_CENTER_LATITUDE);
-
-      doField(
-          dataElements,
-          handlers,
-          Stanag4609TransportStreamParser.CORNER_LONGITUDE_1,
-          Stanag4609TransportStreamParser.OFFSET_CORNER_LONGITUDE_1,
-          Stanag4609TransportStreamParser.FRAME_CENTER_LONGITUDE);
-
-      doField(
-          dataElements,
-          handlers,
-          Stanag4609TransportStreamParser.CORNER_LATITUDE_2,
-          Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_2,
-          Stanag4609TransportStreamParser.FRAME_CENTER_LATITUDE);
-
-      doField(
-          dataElements,
-          handlers,
-          Stanag4609TransportStreamParser.CORNER_LONGITUDE_2,
-          Stanag4609TransportStreamParser.OFFSET_CORNER_LONGITUDE_2,
-          Stanag4609TransportStreamParser.FRAME_CENTER_LONGITUDE);
-
-      doField(
-          dataElements,
-          handlers,
-          Stanag4609TransportStreamParser.CORNER_LATITUDE_3,
-          Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_3,
-          Stanag4609TransportStreamParser.FRAME_CENTER_LATITUDE);
-
-      doField(
-          dataElements,
-          handlers,
-          Stanag4609TransportStreamParser.CORNER_LONGITUDE_3,
-          Stanag4609TransportStreamParser.OFFSET_CORNER_LONGITUDE_3,
-          Stanag4609TransportStreamParser.FRAME_CENTER_LONGITUDE);
+    KlvDataElement frameLatitude =
+        dataElements.get(Stanag4609TransportStreamParser.FRAME_CENTER_LATITUDE);
+    KlvDataElement frameLongitude =
+        dataElements.get(Stanag4609TransportStreamParser.FRAME_CENTER_LONGITUDE);
+    if (frameLatitude == null || frameLongitude == null) {
+      return;
+    }
 
-      doField(
-          dataElements,
-          handlers,
-          Stanag4609TransportStreamParser.CORNER_LATITUDE_4,
-          Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_4,
-          Stanag4609TransportStreamParser.FRAME_CENTER_LATITUDE);
+    KlvDataElement[] offsets = new KlvDataElement[OFFSET_FIELDS.length];
+    for (int i = 0; i < OFFSET_FIELDS.length; i++) {
+      offsets[i] = dataElements.get(OFFSET_FIELDS[i]);
+      if (offsets[i] == null) {
+        return;
+      }
+    }
 
+    for (int i = 0; i < CORNER_FIELDS.length; i++) {
       doField(
-          dataElements,
-          handlers,
-          Stanag4609TransportStreamParser.CORNER_LONGITUDE_4,
-          Stanag4609TransportStreamParser.OFFSET_CORNER_LONGITUDE_4,
-          Stanag4609TransportStreamParser.FRAME_CENTER_LONGITUDE);
+          binding.handlers[i],
+          CORNER_FIELDS[i],
+          offsets[i],
+          i % 2 == 0 ? frameLatitude : frameLongitude);
     }
   }
 
   private void doField(
-      Map<String, KlvDataElement> dataElements,
-      Map<String, KlvHandler> handlers,
+      GeoBoxHandler handler,
       String cornerField,
-      String offsetField,
-      String frameField) {
+      KlvDataElement offsetElement,
+      KlvDataElement frameElement) {
 
-    if (!(handlers.get(cornerField) instanceof GeoBoxHandler)) {
+    if (handler == null) {
       return;
     }
 
-    if (!(dataElements.get(offsetField) instanceof KlvIntegerEncodedFloatingPoint)) {
+    if (!(offsetElement instanceof KlvIntegerEncodedFloatingPoint)) {
       return;
     }
 
-    if (!(dataElements.get(frameField) instanceof KlvIntegerEncodedFloatingPoint)) {
+    if (!(frameElement instanceof KlvIntegerEncodedFloatingPoint)) {
       return;
     }
 
-    ((GeoBoxHandler) handlers.get(cornerField))
-        .accept(
-            cornerField,
-            ((KlvIntegerEncodedFloatingPoint) dataElements.get(offsetField)).getValue()
-                + ((KlvIntegerEncodedFloatingPoint) dataElements.get(frameField)).getValue());
+    handler.accept(
+        cornerField,
+        ((KlvIntegerEncodedFloatingPoint) offsetElement).getValue()
+            + ((KlvIntegerEncodedFloatingPoint) frameElement).getValue());
+  }
+
+  /** The corner handlers, in the order of {@link #CORNER_FIELDS}. */
+  private static class CornerBinding {
+
+    private final boolean present;
+
+    private final GeoBoxHandler[] handlers = new GeoBoxHandler[CORNER_FIELDS.length];
+
+    CornerBinding(Map<String, KlvHandler> handlers) {
+      boolean allPresent = true;
+      for (int i = 0; i < CORNER_FIELDS.length; i++) {
+        allPresent &= handlers.containsKey(CORNER_FIELDS[i]);
+        KlvHandler handler = handlers.get(CORNER_FIELDS[i]);
+        if (handler instanceof GeoBoxHandler) {
+          this.handlers[i] = (GeoBoxHandler) handler;
+        }
+      }
+      this.present = allPresent;
+    }
   }
 }
@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.klv;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.codice.alliance.libs.stanag4609.DecodedKLVMetadataPacket;
+
+/**
+ * Holds the {@link KlvHandler}s of content whose STANAG 4609 metadata was decoded while the content
+ * was being received, so that the content can be ingested without decoding the metadata again. The
+ * handlers are keyed by the identifier of the metacard that will be created for the content.
+ *
+ * <p>The store also creates and fills the handlers, so that the handlers it holds are the ones its
+ * consumer would have created from the same metadata.
+ */
+public interface PrecomputedKlvStore {
+
+  /** @return a new set of handlers for the metadata of one piece of content */
+  Map<String, KlvHandler> createHandlers();
+
+  /**
+   * Pass decoded metadata to a set of handlers.
+   *
+   * @param handlers handlers returned by {@link #createHandlers()}, must be non-null
+   * @param decodedMetadata the decoded metadata packets keyed by the packet ID of their metadata
+   *     stream, must be non-null
+   */
+  void handle(
+      Map<String, KlvHandler> handlers,
+      Map<Integer, List<DecodedKLVMetadataPacket>> decodedMetadata);
+
+  /**
+   * @param id the identifier of the metacard of the content, must be non-null
+   * @param handlers the handlers that accepted the metadata of the content, must be non-null
+   */
+  void put(String id, Map<String, KlvHandler> handlers);
+
+  /**
+   * Remove and return the handlers stored for a metacard. The handlers of a metacard are returned
+   * at most once.
+   *
+   * @param id the identifier of the metacard, must be non-null
+   * @return the handlers, or empty if none were stored or they have been evicted
+   */
+  Optional<Map<String, KlvHandler>> remove(String id);
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.klv;
+
+import static org.apache.commons.lang3.Validate.inclusiveBetween;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.codice.alliance.libs.stanag4609.DecodedKLVMetadataPacket;
+
+/**
+ * A bounded {@link PrecomputedKlvStore}. When the store is full, the oldest handlers are evicted,
+ * so handlers that are never removed (for example, because the ingest of their content failed) do
+ * not accumulate. The handlers are created and filled with the same factory, processor and default
+ * handler as the input transformer that consumes them.
+ */
+public class PrecomputedKlvStoreImpl implements PrecomputedKlvStore {
+
+  static final int DEFAULT_MAX_ENTRIES = 64;
+
+  private final KlvHandlerFactory klvHandlerFactory;
+
+  private final Stanag4609Processor stanag4609Processor;
+
+  private final KlvHandler defaultKlvHandler;
+
+  private final Map<String, Map<String, KlvHandler>> entries = new LinkedHashMap<>();
+
+  private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+  /**
+   * @param klvHandlerFactory must be non-null
+   * @param stanag4609Processor must be non-null
+   * @param defaultKlvHandler must be non-null
+   */
+  public PrecomputedKlvStoreImpl(
+      KlvHandlerFactory klvHandlerFactory,
+      Stanag4609Processor stanag4609Processor,
+      KlvHandler defaultKlvHandler) {
+    notNull(klvHandlerFactory, "klvHandlerFactory must be non-null");
+    notNull(stanag4609Processor, "stanag4609Processor must be non-null");
+    notNull(defaultKlvHandler, "defaultKlvHandler must be non-null");
+
+    this.klvHandlerFactory = klvHandlerFactory;
+    this.stanag4609Processor = stanag4609Processor;
+    this.defaultKlvHandler = defaultKlvHandler;
+  }
+
+  /**
+   * @param maxEntries the maximum number of metacards whose handlers are held, must be positive. If
+   *     the store holds more, the oldest are evicted.
+   */
+  public synchronized void setMaxEntries(int maxEntries) {
+    inclusiveBetween(1, Integer.MAX_VALUE, maxEntries, "maxEntries must be positive");
+    this.maxEntries = maxEntries;
+    evict();
+  }
+
+  @Override
+  public Map<String, KlvHandler> createHandlers() {
+    return klvHandlerFactory.createStanag4609Handlers();
+  }
+
+  @Override
+  public void handle(
+      Map<String, KlvHandler> handlers,
+      Map<Integer, List<DecodedKLVMetadataPacket>> decodedMetadata) {
+    notNull(handlers, "handlers must be non-null");
+    notNull(decodedMetadata, "decodedMetadata must be non-null");
+    stanag4609Processor.handle(handlers, defaultKlvHandler, decodedMetadata);
+  }
+
+  @Override
+  public synchronized void put(String id, Map<String, KlvHandler> handlers) {
+    notNull(id, "id must be non-null");
+    notNull(handlers, "handlers must be non-null");
+    entries.put(id, handlers);
+    evict();
+  }
+
+  @Override
+  public synchronized Optional<Map<String, KlvHandler>> remove(String id) {
+    notNull(id, "id must be non-null");
+    return Optional.ofNullable(entries.remove(id));
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  private void evict() {
+    Iterator<Map<String, KlvHandler>> iterator = entries.values().iterator();
+    while (entries.size() > maxEntries && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+    }
+  }
+}
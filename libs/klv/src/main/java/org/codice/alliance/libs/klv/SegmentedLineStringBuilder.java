@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.klv;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+
+/**
+ * Builds a linestring from coordinates that are added over time. Every time enough coordinates
+ * have been added to fill a segment, the segment is handed to an operator on an executor, so the
+ * segments are transformed in parallel and while more coordinates are still being added. Adjacent
+ * segments share their end coordinates, and the transformed segments are stitched back together
+ * when the linestring is built. The operator must keep the end coordinates of a linestring, as
+ * {@link SimplifyGeometryFunction} does, for the stitched linestring to be continuous.
+ */
+@NotThreadSafe
+public class SegmentedLineStringBuilder {
+
+  public static final int DEFAULT_SEGMENT_SIZE = 5000;
+
+  private final GeometryOperator segmentOperator;
+
+  private final int segmentSize;
+
+  private final Executor executor;
+
+  private final GeometryFactory geometryFactory;
+
+  private final List<CompletableFuture<Geometry>> segments = new ArrayList<>();
+
+  private final List<Coordinate> pending = new ArrayList<>();
+
+  /**
+   * @param segmentOperator applied to each segment (must be non-null)
+   * @param segmentSize the number of coordinates in each segment (must be at least 2)
+   * @param executor runs the segment operator (must be non-null)
+   * @param geometryFactory creates the segments and the linestring (must be non-null)
+   */
+  public SegmentedLineStringBuilder(
+      GeometryOperator segmentOperator,
+      int segmentSize,
+      Executor executor,
+      GeometryFactory geometryFactory) {
+    if (segmentSize < 2) {
+      throw new IllegalArgumentException("segmentSize must be at least 2");
+    }
+    this.segmentOperator = segmentOperator;
+    this.segmentSize = segmentSize;
+    this.executor = executor;
+    this.geometryFactory = geometryFactory;
+  }
+
+  /**
+   * @param coordinates appended to the linestring
+   * @param context passed to the segment operator. It is copied, so later changes to it don't
+   *     affect segments that are already being transformed.
+   */
+  public void add(Coordinate[] coordinates, GeometryOperator.Context context) {
+    for (Coordinate coordinate : coordinates) {
+      pending.add(coordinate);
+      if (pending.size() == segmentSize) {
+        final LineString segment = createSegment();
+        final GeometryOperator.Context segmentContext = copy(context);
+        segments.add(
+            CompletableFuture.supplyAsync(
+                () -> segmentOperator.apply(segment, segmentContext), executor));
+      }
+    }
+  }
+
+  /** @return true if no coordinates have been added */
+  public boolean isEmpty() {
+    return segments.isEmpty() && pending.isEmpty();
+  }
+
+  /**
+   * Waits for every segment to be transformed and stitches them together. The last, partial
+   * segment is transformed on the calling thread. The builder is empty afterwards.
+   *
+   * @param context passed to the segment operator for the last segment
+   * @return the stitched linestring, a point if only one coordinate was added, or null if no
+   *     coordinates were added
+   */
+  public Geometry build(GeometryOperator.Context context) {
+    if (isEmpty()) {
+      return null;
+    }
+    if (segments.isEmpty() && pending.size() == 1) {
+      final Geometry point = geometryFactory.createPoint(pending.get(0));
+      pending.clear();
+      return point;
+    }
+    if (pending.size() > 1) {
+      segments.add(
+          CompletableFuture.completedFuture(segmentOperator.apply(createSegment(), context)));
+    }
+
+    final List<Coordinate> coordinates = new ArrayList<>();
+    for (CompletableFuture<Geometry> segment : segments) {
+      final Coordinate[] segmentCoordinates = segment.join().getCoordinates();
+      final int start =
+          !coordinates.isEmpty()
+                  && segmentCoordinates.length > 0
+                  && segmentCoordinates[0].equals2D(coordinates.get(coordinates.size() - 1))
+              ? 1
+              : 0;
+      for (int i = start; i < segmentCoordinates.length; i++) {
+        coordinates.add(segmentCoordinates[i]);
+      }
+    }
+    segments.clear();
+    pending.clear();
+
+    return coordinates.size() == 1
+        ? geometryFactory.createPoint(coordinates.get(0))
+        : geometryFactory.createLineString(coordinates.toArray(new Coordinate[0]));
+  }
+
+  /** Creates a segment of the pending coordinates and keeps the last one to start the next. */
+  private LineString createSegment() {
+    final LineString segment = geometryFactory.createLineString(pending.toArray(new Coordinate[0]));
+    final Coordinate last = pending.get(pending.size() - 1);
+    pending.clear();
+    pending.add(last);
+    return segment;
+  }
+
+  private static GeometryOperator.Context copy(GeometryOperator.Context context) {
+    final GeometryOperator.Context copy = new GeometryOperator.Context();
+    copy.setDistanceTolerance(context.getDistanceTolerance());
+    copy.setSubsampleCount(context.getSubsampleCount());
+    return copy;
+  }
+}
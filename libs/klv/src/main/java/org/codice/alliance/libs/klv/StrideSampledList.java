@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.klv;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A list that holds at most a fixed number of the values added to it. Until the capacity is
+ * reached every value is kept. After that, every other value is discarded and only every second
+ * value added is kept from then on, so that the list always holds evenly spaced samples of
+ * everything that was added to it, including the first value.
+ *
+ * <p>Lists that are given the same number of values keep the values at the same positions. {@link
+ * #align(Collection)} restores that after some lists were given fewer values than others.
+ */
+class StrideSampledList<T> extends AbstractList<T> {
+
+  static final int DEFAULT_CAPACITY = 10000;
+
+  private final int capacity;
+
+  private final List<T> values = new ArrayList<>();
+
+  private long stride = 1;
+
+  private long offered;
+
+  StrideSampledList() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /** @param capacity the maximum number of values kept, must be at least 2 */
+  StrideSampledList(int capacity) {
+    if (capacity < 2) {
+      throw new IllegalArgumentException("capacity must be at least 2");
+    }
+    this.capacity = capacity;
+  }
+
+  /** @return true if the value was kept, false if it was skipped by sampling */
+  @Override
+  public boolean add(T value) {
+    boolean sampled = offered % stride == 0;
+    offered++;
+    if (!sampled) {
+      return false;
+    }
+    values.add(value);
+    if (values.size() > capacity) {
+      compact();
+    }
+    return true;
+  }
+
+  @Override
+  public T get(int index) {
+    return values.get(index);
+  }
+
+  @Override
+  public int size() {
+    return values.size();
+  }
+
+  @Override
+  public void clear() {
+    values.clear();
+    stride = 1;
+    offered = 0;
+  }
+
+  /**
+   * Bring the lists to the same sampling stride and then discard values from the longer lists, as
+   * though the values that were not given to every list had never been added.
+   */
+  static void align(Collection<? extends StrideSampledList<?>> lists) {
+    long stride = 1;
+    for (StrideSampledList<?> list : lists) {
+      stride = Math.max(stride, list.stride);
+    }
+    for (StrideSampledList<?> list : lists) {
+      while (list.stride < stride) {
+        list.compact();
+      }
+    }
+
+    int size = lists.stream().mapToInt(List::size).min().orElse(0);
+    long offered = Long.MAX_VALUE;
+    for (StrideSampledList<?> list : lists) {
+      list.truncate(size);
+      offered = Math.min(offered, list.offered);
+    }
+    for (StrideSampledList<?> list : lists) {
+      list.offered = offered;
+    }
+  }
+
+  /**
+   * Discard the values after the first {@code size} kept values, as though the values that
+   * followed them had never been added.
+   */
+  void truncate(int size) {
+    if (size >= values.size()) {
+      return;
+    }
+    values.subList(size, values.size()).clear();
+    offered = size == 0 ? 0 : (size - 1) * stride + 1;
+  }
+
+  /** @return the number of values added for each value kept */
+  long getStride() {
+    return stride;
+  }
+
+  private void compact() {
+    int size = 0;
+    for (int i = 0; i < values.size(); i += 2) {
+      values.set(size++, values.get(i));
+    }
+    values.subList(size, values.size()).clear();
+    stride *= 2;
+  }
+}
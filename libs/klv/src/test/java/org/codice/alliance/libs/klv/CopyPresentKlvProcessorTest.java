@@ -22,9 +22,12 @@ import static org.mockito.Mockito.when;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.MetacardImpl;
+import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
+import org.codice.ddf.libs.klv.data.text.KlvString;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -60,6 +63,31 @@ public class CopyPresentKlvProcessorTest {
     assertThat(metacard.getAttribute(name).getValue(), is(value));
   }
 
+  @Test
+  public void testProcessKeepsRepeatedValues() {
+
+    String name = "point-of-contact";
+
+    KlvHandler klvHandler = new ListOfBasicKlvDataTypesHandler<>(name, KlvString.class);
+    Arrays.asList("John Doe", "John Doe", "Jane Doe")
+        .forEach(
+            value -> {
+              KlvString klvString = mock(KlvString.class);
+              when(klvString.getValue()).thenReturn(value);
+              klvHandler.accept(klvString);
+            });
+
+    Map<String, KlvHandler> handlers = Collections.singletonMap("someStanagFieldName", klvHandler);
+
+    MetacardImpl metacard = new MetacardImpl();
+
+    copyPresentKlvProcessor.process(handlers, metacard, new KlvProcessor.Configuration());
+
+    assertThat(
+        metacard.getAttribute(name).getValues(),
+        is(Arrays.<Serializable>asList("John Doe", "John Doe", "Jane Doe")));
+  }
+
   @Test
   public void testAccept() {
     KlvProcessor.Visitor visitor = mock(KlvProcessor.Visitor.class);
@@ -13,6 +13,7 @@
  */
 package org.codice.alliance.libs.klv;
 
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 
@@ -30,4 +31,43 @@ public class KlvHandlerFactoryImplTest {
 
     assertThat(handlers.isEmpty(), is(false));
   }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetMaxHandlerValuesTooSmall() {
+
+    new KlvHandlerFactoryImpl().setMaxHandlerValues(1);
+  }
+
+  @Test
+  public void testCreateStanag4609HandlersWithMaxHandlerValues() {
+
+    KlvHandlerFactoryImpl klvHandlerFactory = new KlvHandlerFactoryImpl();
+    klvHandlerFactory.setMaxHandlerValues(4);
+
+    Map<String, KlvHandler> handlers = klvHandlerFactory.createStanag4609Handlers();
+    LatitudeLongitudeHandler frameCenter =
+        KlvHandlerRegistry.find(
+                handlers, AttributeNameConstants.FRAME_CENTER, LatitudeLongitudeHandler.class)
+            .get();
+    for (int i = 0; i < 100; i++) {
+      frameCenter.accept(frameCenter.getLatitudeFieldName(), (double) i);
+    }
+
+    assertThat(
+        frameCenter.getRawGeoData().get(frameCenter.getLatitudeFieldName()).size() <= 4, is(true));
+  }
+
+  @Test
+  public void testCreateStanag4609HandlersReturnsRegistry() {
+
+    KlvHandlerFactoryImpl klvHandlerFactory = new KlvHandlerFactoryImpl();
+
+    Map<String, KlvHandler> handlers = klvHandlerFactory.createStanag4609Handlers();
+
+    assertThat(handlers, instanceOf(KlvHandlerRegistry.class));
+    assertThat(
+        KlvHandlerRegistry.find(handlers, AttributeNameConstants.CORNER, GeoBoxHandler.class)
+            .isPresent(),
+        is(true));
+  }
 }
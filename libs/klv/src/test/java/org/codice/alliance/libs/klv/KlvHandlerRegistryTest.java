@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.klv;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KlvHandlerRegistryTest {
+
+  private GeoBoxHandler cornerHandler;
+
+  private LatitudeLongitudeHandler frameCenterHandler;
+
+  private Map<String, KlvHandler> handlers;
+
+  @Before
+  public void setup() {
+    cornerHandler = mock(GeoBoxHandler.class);
+    when(cornerHandler.getAttributeName()).thenReturn(AttributeNameConstants.CORNER);
+
+    frameCenterHandler = mock(LatitudeLongitudeHandler.class);
+    when(frameCenterHandler.getAttributeName()).thenReturn(AttributeNameConstants.FRAME_CENTER);
+
+    handlers = new HashMap<>();
+    handlers.put("a", cornerHandler);
+    handlers.put("b", cornerHandler);
+    handlers.put("c", frameCenterHandler);
+  }
+
+  @Test
+  public void testMappings() {
+    KlvHandlerRegistry registry = KlvHandlerRegistry.of(handlers);
+
+    assertThat(registry, is(handlers));
+    assertThat(registry.get("a"), is(cornerHandler));
+    assertThat(registry.containsKey("c"), is(true));
+    assertThat(registry.containsKey("d"), is(false));
+  }
+
+  @Test
+  public void testCopiesHandlers() {
+    KlvHandlerRegistry registry = KlvHandlerRegistry.of(handlers);
+
+    handlers.remove("c");
+
+    assertThat(registry.containsKey("c"), is(true));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testUnmodifiable() {
+    KlvHandlerRegistry.of(handlers).put("d", cornerHandler);
+  }
+
+  @Test
+  public void testOfRegistry() {
+    KlvHandlerRegistry registry = KlvHandlerRegistry.of(handlers);
+
+    assertThat(KlvHandlerRegistry.of(registry), is(sameInstance(registry)));
+  }
+
+  @Test
+  public void testFind() {
+    KlvHandlerRegistry registry = KlvHandlerRegistry.of(handlers);
+
+    assertThat(
+        KlvHandlerRegistry.find(registry, AttributeNameConstants.CORNER, GeoBoxHandler.class)
+            .get(),
+        is(cornerHandler));
+    assertThat(
+        KlvHandlerRegistry.find(
+                registry, AttributeNameConstants.CORNER, LatitudeLongitudeHandler.class)
+            .isPresent(),
+        is(false));
+    assertThat(
+        KlvHandlerRegistry.find(registry, "unknown", KlvHandler.class).isPresent(), is(false));
+  }
+
+  @Test
+  public void testFindPlainMap() {
+    assertThat(
+        KlvHandlerRegistry.find(
+                handlers, AttributeNameConstants.FRAME_CENTER, LatitudeLongitudeHandler.class)
+            .get(),
+        is(frameCenterHandler));
+  }
+
+  @Test
+  public void testDistinct() {
+    KlvHandlerRegistry registry = KlvHandlerRegistry.of(handlers);
+
+    assertThat(registry.getDistinctHandlers().size(), is(2));
+    assertThat(KlvHandlerRegistry.distinct(handlers).size(), is(2));
+  }
+
+  @Test
+  public void testDistinctSkipsNull() {
+    handlers.put("d", null);
+
+    assertThat(KlvHandlerRegistry.of(handlers).getDistinctHandlers().size(), is(2));
+    assertThat(KlvHandlerRegistry.distinct(handlers).size(), is(2));
+  }
+
+  @Test
+  public void testBindResolvesOncePerRegistry() {
+    KlvHandlerRegistry registry = KlvHandlerRegistry.of(handlers);
+    AtomicInteger resolved = new AtomicInteger();
+    Function<Map<String, KlvHandler>, Integer> resolver = map -> resolved.incrementAndGet();
+
+    KlvHandlerRegistry.bind(registry, KlvHandlerRegistryTest.class, resolver);
+    KlvHandlerRegistry.bind(registry, KlvHandlerRegistryTest.class, resolver);
+
+    assertThat(resolved.get(), is(1));
+  }
+
+  @Test
+  public void testBindPlainMap() {
+    AtomicInteger resolved = new AtomicInteger();
+    Function<Map<String, KlvHandler>, Integer> resolver = map -> resolved.incrementAndGet();
+
+    KlvHandlerRegistry.bind(handlers, KlvHandlerRegistryTest.class, resolver);
+    KlvHandlerRegistry.bind(handlers, KlvHandlerRegistryTest.class, resolver);
+
+    assertThat(resolved.get(), is(2));
+  }
+}
@@ -43,6 +43,19 @@ public class LatitudeLongitudeHandlerTest {
     klvHandler = new LatitudeLongitudeHandler("field", LAT, LON);
   }
 
+  @Test
+  public void testConfiguredMaxValues() {
+    LatitudeLongitudeHandler handler = new LatitudeLongitudeHandler("field", LAT, LON, 8);
+
+    for (int i = 0; i < 100; i++) {
+      handler.accept(LAT, (double) i);
+      handler.accept(LON, (double) -i);
+    }
+
+    assertThat(handler.getRawGeoData().get(LAT).size() <= 8, is(true));
+    assertThat(handler.asSubsampledHandler(2).getRawGeoData().get(LAT).size() <= 8, is(true));
+  }
+
   @Test
   public void testGetLongitudeFieldName() {
     assertThat(klvHandler.getLongitudeFieldName(), is(LON));
@@ -173,6 +186,36 @@ public class LatitudeLongitudeHandlerTest {
     assertThatCount(reducedRawData, lon, count);
   }
 
+  @Test
+  public void testLongStreamIsBounded() {
+
+    int packets = StrideSampledList.DEFAULT_CAPACITY * 3 + 7;
+
+    for (int i = 0; i < packets; i++) {
+      klvHandler.accept(LAT, (double) i);
+      // the longitude is missing from every hundredth packet
+      if (i % 100 != 99) {
+        klvHandler.accept(LON, (double) -i);
+      }
+      klvHandler.trim();
+    }
+
+    List<Double> latitudes = klvHandler.getRawGeoData().get(LAT);
+    List<Double> longitudes = klvHandler.getRawGeoData().get(LON);
+
+    assertThat(latitudes.size() <= StrideSampledList.DEFAULT_CAPACITY, is(true));
+    assertThat(longitudes, hasSize(latitudes.size()));
+    assertThat(latitudes.get(0), is(closeTo(0, EPSILON)));
+    for (int i = 0; i < latitudes.size(); i++) {
+      assertThat(longitudes.get(i), is(closeTo(-latitudes.get(i), EPSILON)));
+    }
+
+    Map<String, List<Double>> reducedRawData = klvHandler.asSubsampledHandler(50).getRawGeoData();
+
+    assertThatCount(reducedRawData, LAT, 50);
+    assertThatCount(reducedRawData, LON, 50);
+  }
+
   private void assertThatCount(Map<String, List<Double>> rawData, String name, int count) {
     assertThat(rawData.get(name), hasSize(count));
   }
@@ -17,10 +17,15 @@ import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import org.codice.ddf.libs.klv.KlvDecodingException;
 import org.codice.ddf.libs.klv.data.numerical.KlvInt;
 import org.codice.ddf.libs.klv.data.numerical.KlvIntegerEncodedFloatingPoint;
+import org.codice.ddf.libs.klv.data.text.KlvString;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -59,4 +64,58 @@ public class ListOfBasicKlvDataTypesHandlerTest {
 
     assertThat(((Double) handler.asAttribute().get().getValue()), is(closeTo(expected, 0.001)));
   }
+
+  @Test
+  public void testSampledValuesAreBounded() throws KlvDecodingException {
+
+    for (int i = 0; i < StrideSampledList.DEFAULT_CAPACITY * 4; i++) {
+      handler.accept(KlvUtilities.createTestFloat("a", i));
+    }
+
+    List<Serializable> values = handler.asAttribute().get().getValues();
+
+    assertThat(values.size() <= StrideSampledList.DEFAULT_CAPACITY, is(true));
+    assertThat((Double) values.get(0), is(closeTo(0, 0.001)));
+  }
+
+  @Test
+  public void testRepeatedValuesAreKept() {
+
+    KlvHandler stringHandler = new ListOfBasicKlvDataTypesHandler<>("field", KlvString.class);
+
+    List<String> input = new ArrayList<>();
+    for (int i = 0; i < StrideSampledList.DEFAULT_CAPACITY; i++) {
+      input.add("mission-" + (i / 1000) % 7);
+    }
+
+    input.forEach(value -> stringHandler.accept(createTestString(value)));
+
+    assertThat(stringHandler.asAttribute().get().getValues(), is(new ArrayList<>(input)));
+  }
+
+  @Test
+  public void testConfiguredMaxValues() {
+
+    KlvHandler stringHandler = new ListOfBasicKlvDataTypesHandler<>("field", KlvString.class, 5);
+
+    for (int i = 0; i < 20; i++) {
+      stringHandler.accept(createTestString(Integer.toString(i)));
+    }
+
+    List<Serializable> values = stringHandler.asAttribute().get().getValues();
+
+    assertThat(values.size() <= 5, is(true));
+    assertThat(values.get(0), is("0"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMaxValuesTooSmall() {
+    new ListOfBasicKlvDataTypesHandler<>("field", KlvString.class, 1);
+  }
+
+  private KlvString createTestString(String value) {
+    KlvString klvString = mock(KlvString.class);
+    when(klvString.getValue()).thenReturn(value);
+    return klvString;
+  }
 }
@@ -13,13 +13,17 @@
  */
 package org.codice.alliance.libs.klv;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.Serializable;
 import java.util.Date;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.codice.ddf.libs.klv.data.numerical.KlvInt;
 import org.codice.ddf.libs.klv.data.numerical.KlvLong;
 import org.junit.Before;
@@ -62,4 +66,84 @@ public class ListOfDatesHandlerTest {
 
     assertThat(klvHandler.asAttribute().isPresent(), is(false));
   }
+
+  @Test
+  public void testLongStream() {
+    long start = TimeUnit.DAYS.toMicros(17000);
+    long step = TimeUnit.SECONDS.toMicros(1) / 60;
+    int count = (int) TimeUnit.HOURS.toSeconds(1) * 60;
+
+    AtomicLong micros = new AtomicLong(start);
+    KlvLong klvLong = mock(KlvLong.class);
+    when(klvLong.getValue()).thenAnswer(invocation -> micros.getAndAdd(step));
+
+    for (int i = 0; i < count; i++) {
+      klvHandler.accept(klvLong);
+    }
+
+    long end = start + (count - 1) * step;
+
+    List<Serializable> values = klvHandler.asAttribute().get().getValues();
+
+    assertThat(values.size() <= StrideSampledList.DEFAULT_CAPACITY + 1, is(true));
+    assertThat(values.get(0), is(new Date(TimeUnit.MICROSECONDS.toMillis(start))));
+    assertThat(values.get(values.size() - 1), is(new Date(TimeUnit.MICROSECONDS.toMillis(end))));
+  }
+
+  @Test
+  public void testLastDateIsKeptWhenSampled() {
+    KlvHandler boundedHandler = new ListOfDatesHandler("field", 3);
+
+    for (int i = 0; i < 8; i++) {
+      boundedHandler.accept(createTestLong(TimeUnit.SECONDS.toMicros(i)));
+    }
+
+    List<Serializable> values = boundedHandler.asAttribute().get().getValues();
+
+    assertThat(values.get(0), is(new Date(0)));
+    assertThat(values.get(values.size() - 1), is(new Date(7000)));
+  }
+
+  @Test
+  public void testRepeatedDatesAreKept() {
+    klvHandler.accept(createTestLong(TimeUnit.SECONDS.toMicros(10)));
+    klvHandler.accept(createTestLong(TimeUnit.SECONDS.toMicros(10)));
+    klvHandler.accept(createTestLong(TimeUnit.SECONDS.toMicros(20)));
+
+    assertThat(
+        klvHandler.asAttribute().get().getValues(),
+        contains(new Date(10000), new Date(10000), new Date(20000)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMaxValuesTooSmall() {
+    new ListOfDatesHandler("field", 1);
+  }
+
+  @Test
+  public void testOutOfOrderDates() {
+    klvHandler.accept(createTestLong(TimeUnit.SECONDS.toMicros(20)));
+    klvHandler.accept(createTestLong(TimeUnit.SECONDS.toMicros(10)));
+    klvHandler.accept(createTestLong(TimeUnit.SECONDS.toMicros(40)));
+    klvHandler.accept(createTestLong(TimeUnit.SECONDS.toMicros(30)));
+
+    assertThat(
+        klvHandler.asAttribute().get().getValues(),
+        contains(new Date(20000), new Date(10000), new Date(40000), new Date(30000)));
+  }
+
+  @Test
+  public void testReset() {
+    klvHandler.accept(createTestLong(TimeUnit.SECONDS.toMicros(20)));
+
+    klvHandler.reset();
+
+    assertThat(klvHandler.asAttribute().isPresent(), is(false));
+  }
+
+  private KlvLong createTestLong(long micros) {
+    KlvLong klvLong = mock(KlvLong.class);
+    when(klvLong.getValue()).thenReturn(micros);
+    return klvLong;
+  }
 }
@@ -17,7 +17,9 @@ import static org.hamcrest.Matchers.closeTo;
 import static org.mockito.Matchers.doubleThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -25,6 +27,7 @@ import org.codice.alliance.libs.stanag4609.Stanag4609TransportStreamParser;
 import org.codice.ddf.libs.klv.KlvDataElement;
 import org.codice.ddf.libs.klv.KlvDecodingException;
 import org.junit.Test;
+import org.mockito.verification.VerificationMode;
 
 public class OffsetCenterPostProcessorTest {
 
@@ -98,8 +101,82 @@ public class OffsetCenterPostProcessorTest {
     verifyThat(cornerHandler, Stanag4609TransportStreamParser.CORNER_LONGITUDE_4, lon4 + lon);
   }
 
+  @Test
+  public void testRegistry() throws KlvDecodingException {
+
+    OffsetCenterPostProcessor offsetCenterPostProcessor = new OffsetCenterPostProcessor();
+
+    GeoBoxHandler cornerHandler = mock(GeoBoxHandler.class);
+
+    Map<String, KlvHandler> handlers = new HashMap<>();
+    handlers.put(Stanag4609TransportStreamParser.CORNER_LATITUDE_1, cornerHandler);
+    handlers.put(Stanag4609TransportStreamParser.CORNER_LATITUDE_2, cornerHandler);
+    handlers.put(Stanag4609TransportStreamParser.CORNER_LATITUDE_3, cornerHandler);
+    handlers.put(Stanag4609TransportStreamParser.CORNER_LATITUDE_4, cornerHandler);
+    handlers.put(Stanag4609TransportStreamParser.CORNER_LONGITUDE_1, cornerHandler);
+    handlers.put(Stanag4609TransportStreamParser.CORNER_LONGITUDE_2, cornerHandler);
+    handlers.put(Stanag4609TransportStreamParser.CORNER_LONGITUDE_3, cornerHandler);
+    handlers.put(Stanag4609TransportStreamParser.CORNER_LONGITUDE_4, cornerHandler);
+
+    KlvHandlerRegistry registry = KlvHandlerRegistry.of(handlers);
+
+    Map<String, KlvDataElement> dataElements = new HashMap<>();
+    add(dataElements, Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_1, 1);
+    add(dataElements, Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_2, 2);
+    add(dataElements, Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_3, 3);
+    add(dataElements, Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_4, 4);
+    add(dataElements, Stanag4609TransportStreamParser.OFFSET_CORNER_LONGITUDE_1, 5);
+    add(dataElements, Stanag4609TransportStreamParser.OFFSET_CORNER_LONGITUDE_2, 6);
+    add(dataElements, Stanag4609TransportStreamParser.OFFSET_CORNER_LONGITUDE_3, 7);
+    add(dataElements, Stanag4609TransportStreamParser.OFFSET_CORNER_LONGITUDE_4, 8);
+    add(dataElements, Stanag4609TransportStreamParser.FRAME_CENTER_LATITUDE, 30);
+    add(dataElements, Stanag4609TransportStreamParser.FRAME_CENTER_LONGITUDE, 50);
+
+    offsetCenterPostProcessor.postProcess(dataElements, registry);
+
+    add(dataElements, Stanag4609TransportStreamParser.FRAME_CENTER_LATITUDE, 40);
+
+    offsetCenterPostProcessor.postProcess(dataElements, registry);
+
+    verifyThat(cornerHandler, Stanag4609TransportStreamParser.CORNER_LATITUDE_1, 31);
+    verifyThat(cornerHandler, Stanag4609TransportStreamParser.CORNER_LATITUDE_1, 41);
+    verifyThat(cornerHandler, Stanag4609TransportStreamParser.CORNER_LONGITUDE_4, 58, times(2));
+  }
+
+  @Test
+  public void testMissingOffsetCorner() throws KlvDecodingException {
+
+    OffsetCenterPostProcessor offsetCenterPostProcessor = new OffsetCenterPostProcessor();
+
+    GeoBoxHandler cornerHandler = mock(GeoBoxHandler.class);
+
+    Map<String, KlvHandler> handlers = new HashMap<>();
+    handlers.put(Stanag4609TransportStreamParser.CORNER_LATITUDE_1, cornerHandler);
+    handlers.put(Stanag4609TransportStreamParser.CORNER_LATITUDE_2, cornerHandler);
+    handlers.put(Stanag4609TransportStreamParser.CORNER_LATITUDE_3, cornerHandler);
+    handlers.put(Stanag4609TransportStreamParser.CORNER_LATITUDE_4, cornerHandler);
+    handlers.put(Stanag4609TransportStreamParser.CORNER_LONGITUDE_1, cornerHandler);
+    handlers.put(Stanag4609TransportStreamParser.CORNER_LONGITUDE_2, cornerHandler);
+    handlers.put(Stanag4609TransportStreamParser.CORNER_LONGITUDE_3, cornerHandler);
+    handlers.put(Stanag4609TransportStreamParser.CORNER_LONGITUDE_4, cornerHandler);
+
+    Map<String, KlvDataElement> dataElements = new HashMap<>();
+    add(dataElements, Stanag4609TransportStreamParser.OFFSET_CORNER_LATITUDE_1, 1);
+    add(dataElements, Stanag4609TransportStreamParser.FRAME_CENTER_LATITUDE, 30);
+    add(dataElements, Stanag4609TransportStreamParser.FRAME_CENTER_LONGITUDE, 50);
+
+    offsetCenterPostProcessor.postProcess(dataElements, KlvHandlerRegistry.of(handlers));
+
+    verifyZeroInteractions(cornerHandler);
+  }
+
   private void verifyThat(GeoBoxHandler cornerHandler, String name, double value) {
-    verify(cornerHandler).accept(eq(name), doubleThat(closeTo(value, 0.01)));
+    verifyThat(cornerHandler, name, value, times(1));
+  }
+
+  private void verifyThat(
+      GeoBoxHandler cornerHandler, String name, double value, VerificationMode mode) {
+    verify(cornerHandler, mode).accept(eq(name), doubleThat(closeTo(value, 0.01)));
   }
 
   private void add(Map<String, KlvDataElement> dataElements, String name, double value)
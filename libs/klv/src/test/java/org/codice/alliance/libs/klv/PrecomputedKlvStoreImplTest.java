@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.klv;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.codice.alliance.libs.stanag4609.DecodedKLVMetadataPacket;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PrecomputedKlvStoreImplTest {
+
+  private PrecomputedKlvStoreImpl store;
+
+  private Map<String, KlvHandler> handlers;
+
+  private KlvHandlerFactory klvHandlerFactory;
+
+  private Stanag4609Processor stanag4609Processor;
+
+  private KlvHandler defaultKlvHandler;
+
+  @Before
+  public void setup() {
+    klvHandlerFactory = mock(KlvHandlerFactory.class);
+    stanag4609Processor = mock(Stanag4609Processor.class);
+    defaultKlvHandler = mock(KlvHandler.class);
+    store = new PrecomputedKlvStoreImpl(klvHandlerFactory, stanag4609Processor, defaultKlvHandler);
+    store.setMaxEntries(2);
+    handlers = Collections.singletonMap("name", mock(KlvHandler.class));
+  }
+
+  @Test
+  public void testRemoveReturnsHandlersOnce() {
+    store.put("id", handlers);
+
+    assertThat(store.remove("id").get(), is(handlers));
+    assertThat(store.remove("id").isPresent(), is(false));
+  }
+
+  @Test
+  public void testRemoveUnknownId() {
+    assertThat(store.remove("id").isPresent(), is(false));
+  }
+
+  @Test
+  public void testOldestHandlersAreEvicted() {
+    store.put("id1", handlers);
+    store.put("id2", handlers);
+    store.put("id3", handlers);
+
+    assertThat(store.size(), is(2));
+    assertThat(store.remove("id1").isPresent(), is(false));
+    assertThat(store.remove("id3").isPresent(), is(true));
+  }
+
+  @Test
+  public void testLoweringMaxEntriesEvicts() {
+    store.put("id1", handlers);
+    store.put("id2", handlers);
+
+    store.setMaxEntries(1);
+
+    assertThat(store.size(), is(1));
+    assertThat(store.remove("id2").isPresent(), is(true));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetMaxEntriesNotPositive() {
+    store.setMaxEntries(0);
+  }
+
+  @Test
+  public void testCreateHandlers() {
+    when(klvHandlerFactory.createStanag4609Handlers()).thenReturn(handlers);
+
+    assertThat(store.createHandlers(), is(handlers));
+  }
+
+  @Test
+  public void testHandle() {
+    Map<Integer, List<DecodedKLVMetadataPacket>> decodedMetadata =
+        Collections.singletonMap(1, Collections.emptyList());
+
+    store.handle(handlers, decodedMetadata);
+
+    verify(stanag4609Processor).handle(handlers, defaultKlvHandler, decodedMetadata);
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testPutNullId() {
+    store.put(null, handlers);
+  }
+}
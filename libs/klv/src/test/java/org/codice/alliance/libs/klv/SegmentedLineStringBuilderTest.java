@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.klv;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+public class SegmentedLineStringBuilderTest {
+
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+  private AtomicInteger segmentCount;
+
+  private GeometryOperator countingOperator;
+
+  private GeometryOperator.Context context;
+
+  @Before
+  public void setup() {
+    segmentCount = new AtomicInteger();
+    countingOperator =
+        (geometry, context) -> {
+          segmentCount.incrementAndGet();
+          return geometry;
+        };
+    context = new GeometryOperator.Context();
+  }
+
+  @Test
+  public void testStitchedSegments() throws ParseException {
+    SegmentedLineStringBuilder builder =
+        new SegmentedLineStringBuilder(countingOperator, 3, Runnable::run, GEOMETRY_FACTORY);
+
+    builder.add(coordinates("LINESTRING (0 0, 1 1, 2 2, 3 3)"), context);
+
+    assertThat(segmentCount.get(), is(1));
+
+    builder.add(coordinates("LINESTRING (4 4, 4 4, 5 5)"), context);
+
+    assertThat(segmentCount.get(), is(3));
+
+    Geometry geometry = builder.build(context);
+
+    assertThat(segmentCount.get(), is(3));
+    assertThat(geometry, is(read("LINESTRING (0 0, 1 1, 2 2, 3 3, 4 4, 4 4, 5 5)")));
+    assertThat(builder.isEmpty(), is(true));
+  }
+
+  @Test
+  public void testPartialSegmentIsTransformedOnBuild() throws ParseException {
+    SegmentedLineStringBuilder builder =
+        new SegmentedLineStringBuilder(countingOperator, 3, Runnable::run, GEOMETRY_FACTORY);
+
+    builder.add(coordinates("LINESTRING (0 0, 1 1, 2 2, 3 3)"), context);
+    Geometry geometry = builder.build(context);
+
+    assertThat(segmentCount.get(), is(2));
+    assertThat(geometry, is(read("LINESTRING (0 0, 1 1, 2 2, 3 3)")));
+  }
+
+  @Test
+  public void testSegmentsAreTransformed() throws ParseException {
+    SegmentedLineStringBuilder builder =
+        new SegmentedLineStringBuilder(
+            new SimplifyGeometryFunction(), 3, Runnable::run, GEOMETRY_FACTORY);
+    context.setDistanceTolerance(0.1);
+
+    builder.add(coordinates("LINESTRING (0 0, 1 1, 2 2, 3 3, 4 4)"), context);
+
+    assertThat(builder.build(context), is(read("LINESTRING (0 0, 2 2, 4 4)")));
+  }
+
+  @Test
+  public void testSegmentEndsThatChangeAreKept() throws ParseException {
+    SegmentedLineStringBuilder builder =
+        new SegmentedLineStringBuilder(
+            (geometry, context) -> geometry.reverse(), 3, Runnable::run, GEOMETRY_FACTORY);
+
+    builder.add(coordinates("LINESTRING (0 0, 1 1, 2 2, 3 3)"), context);
+
+    assertThat(builder.build(context), is(read("LINESTRING (2 2, 1 1, 0 0, 3 3, 2 2)")));
+  }
+
+  @Test
+  public void testSingleCoordinate() throws ParseException {
+    SegmentedLineStringBuilder builder =
+        new SegmentedLineStringBuilder(countingOperator, 3, Runnable::run, GEOMETRY_FACTORY);
+
+    builder.add(coordinates("POINT (1 1)"), context);
+
+    assertThat(builder.build(context), is(read("POINT (1 1)")));
+  }
+
+  @Test
+  public void testEmpty() {
+    SegmentedLineStringBuilder builder =
+        new SegmentedLineStringBuilder(countingOperator, 3, Runnable::run, GEOMETRY_FACTORY);
+
+    builder.add(new Coordinate[0], context);
+
+    assertThat(builder.isEmpty(), is(true));
+    assertThat(builder.build(context), nullValue());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSegmentSizeTooSmall() {
+    new SegmentedLineStringBuilder(countingOperator, 1, Runnable::run, GEOMETRY_FACTORY);
+  }
+
+  private static Coordinate[] coordinates(String wkt) throws ParseException {
+    return read(wkt).getCoordinates();
+  }
+
+  private static Geometry read(String wkt) throws ParseException {
+    return new WKTReader().read(wkt);
+  }
+}
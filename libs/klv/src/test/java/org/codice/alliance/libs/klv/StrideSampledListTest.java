@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.klv;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class StrideSampledListTest {
+
+  @Test
+  public void testUnderCapacity() {
+    StrideSampledList<Integer> list = new StrideSampledList<>(10);
+
+    IntStream.range(0, 10).forEach(list::add);
+
+    assertThat(list, is(IntStream.range(0, 10).boxed().collect(Collectors.toList())));
+    assertThat(list.getStride(), is(1L));
+  }
+
+  @Test
+  public void testOverCapacity() {
+    StrideSampledList<Integer> list = new StrideSampledList<>(10);
+
+    IntStream.range(0, 11).forEach(list::add);
+
+    assertThat(list, contains(0, 2, 4, 6, 8, 10));
+    assertThat(list.getStride(), is(2L));
+  }
+
+  @Test
+  public void testLongStreamIsBoundedAndEvenlySpaced() {
+    int capacity = 100;
+    StrideSampledList<Integer> list = new StrideSampledList<>(capacity);
+
+    IntStream.range(0, 1_000_000).forEach(list::add);
+
+    assertThat(list.size() <= capacity, is(true));
+    assertThat(list.get(0), is(0));
+    for (int i = 1; i < list.size(); i++) {
+      assertThat((long) list.get(i) - list.get(i - 1), is(list.getStride()));
+    }
+  }
+
+  @Test
+  public void testAlign() {
+    StrideSampledList<Integer> latitudes = new StrideSampledList<>(10);
+    StrideSampledList<Integer> longitudes = new StrideSampledList<>(10);
+    List<StrideSampledList<Integer>> lists = Arrays.asList(latitudes, longitudes);
+
+    for (int i = 0; i < 1000; i++) {
+      latitudes.add(i);
+      // every seventh longitude is missing, so that latitude is discarded
+      if (i % 7 != 6) {
+        longitudes.add(-i);
+      }
+      StrideSampledList.align(lists);
+    }
+
+    assertThat(latitudes.size() <= 10, is(true));
+    assertThat(longitudes.size(), is(latitudes.size()));
+    assertThat(longitudes.getStride(), is(latitudes.getStride()));
+    for (int i = 0; i < latitudes.size(); i++) {
+      assertThat(longitudes.get(i), is(-latitudes.get(i)));
+    }
+  }
+
+  @Test
+  public void testAlignDifferentStrides() {
+    StrideSampledList<Integer> latitudes = new StrideSampledList<>(10);
+    StrideSampledList<Integer> longitudes = new StrideSampledList<>(10);
+
+    IntStream.range(0, 11).forEach(latitudes::add);
+    IntStream.range(0, 10).forEach(longitudes::add);
+
+    StrideSampledList.align(Arrays.asList(latitudes, longitudes));
+
+    assertThat(latitudes, contains(0, 2, 4, 6, 8));
+    assertThat(longitudes, contains(0, 2, 4, 6, 8));
+
+    latitudes.add(10);
+    longitudes.add(10);
+    latitudes.add(11);
+    longitudes.add(11);
+
+    assertThat(latitudes, contains(0, 2, 4, 6, 8, 11));
+    assertThat(longitudes, contains(0, 2, 4, 6, 8, 11));
+  }
+
+  @Test
+  public void testTruncate() {
+    StrideSampledList<Integer> list = new StrideSampledList<>(10);
+
+    IntStream.range(0, 5).forEach(list::add);
+    list.truncate(3);
+    list.add(5);
+
+    assertThat(list, contains(0, 1, 2, 5));
+  }
+
+  @Test
+  public void testClear() {
+    StrideSampledList<Integer> list = new StrideSampledList<>(10);
+
+    IntStream.range(0, 100).forEach(list::add);
+    list.clear();
+
+    assertThat(list, is(empty()));
+    assertThat(list.getStride(), is(1L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidCapacity() {
+    new StrideSampledList<>(1);
+  }
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.mpegts;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import com.google.common.base.Optional;
+import com.google.common.io.ByteSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.taktik.mpegts.MTSPacket;
+import org.taktik.mpegts.sources.MTSSources;
+import org.taktik.mpegts.sources.ResettableMTSSource;
+
+/**
+ * A {@link ByteSource} over a memory-mapped file. Streams opened from it read straight from the
+ * mapping instead of through file reads, and {@link #openMtsSource()} returns MTSPackets that are
+ * read-only views of the mapping rather than copies.
+ *
+ * <p>The file is mapped in segments of whole TS packets, so files larger than 2 GB can be mapped.
+ * The mapping is released when the source is garbage collected; on some platforms the file can't
+ * be deleted until then.
+ */
+public class MappedByteSource extends ByteSource {
+
+  /** The largest multiple of the TS packet size that can be mapped at once. */
+  static final int MAX_SEGMENT_SIZE =
+      (Integer.MAX_VALUE / Constants.TS_PACKET_SIZE) * Constants.TS_PACKET_SIZE;
+
+  private static final int SYNC_BYTE = 0x47;
+
+  private final List<ByteBuffer> segments;
+
+  private final long size;
+
+  private final int segmentSize;
+
+  MappedByteSource(List<ByteBuffer> segments, long size, int segmentSize) {
+    this.segments = Collections.unmodifiableList(segments);
+    this.size = size;
+    this.segmentSize = segmentSize;
+  }
+
+  /**
+   * Map a file.
+   *
+   * @param file must be non-null
+   * @return a byte source over the mapped file
+   * @throws IOException if the file cannot be mapped
+   */
+  public static MappedByteSource map(Path file) throws IOException {
+    notNull(file, "file must be non-null");
+    return map(file, MAX_SEGMENT_SIZE);
+  }
+
+  static MappedByteSource map(Path file, int segmentSize) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final long size = channel.size();
+      final List<ByteBuffer> segments = new ArrayList<>();
+      for (long offset = 0; offset < size; offset += segmentSize) {
+        segments.add(
+            channel.map(
+                FileChannel.MapMode.READ_ONLY, offset, Math.min(segmentSize, size - offset)));
+      }
+      return new MappedByteSource(segments, size, segmentSize);
+    }
+  }
+
+  /**
+   * Open an MTS source over a byte source, reading the packets of a {@link MappedByteSource} as
+   * views of its mapping.
+   *
+   * @param byteSource must be non-null
+   * @return an MTS source over the byte source
+   * @throws IOException if the byte source cannot be opened
+   */
+  static ResettableMTSSource openMtsSource(ByteSource byteSource) throws IOException {
+    if (byteSource instanceof MappedByteSource) {
+      return ((MappedByteSource) byteSource).openMtsSource();
+    }
+    return MTSSources.from(byteSource);
+  }
+
+  /** @return an MTS source whose packets are read-only views of the mapped file */
+  public ResettableMTSSource openMtsSource() {
+    return new MappedMTSSource();
+  }
+
+  @Override
+  public InputStream openStream() {
+    return new MappedInputStream();
+  }
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public Optional<Long> sizeIfKnown() {
+    return Optional.of(size);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** @return a read-only view of {@code length} bytes at {@code offset}, copied only if needed */
+  private ByteBuffer view(long offset, int length) {
+    final ByteBuffer segment = segments.get((int) (offset / segmentSize));
+    final int position = (int) (offset % segmentSize);
+    if (position + length <= segment.limit()) {
+      final ByteBuffer view = segment.duplicate();
+      view.position(position);
+      view.limit(position + length);
+      return view.slice();
+    }
+
+    final ByteBuffer copy = ByteBuffer.allocate(length);
+    for (long i = offset; i < offset + length; i++) {
+      copy.put(byteAt(i));
+    }
+    copy.flip();
+    return copy.asReadOnlyBuffer();
+  }
+
+  private byte byteAt(long offset) {
+    return segments.get((int) (offset / segmentSize)).get((int) (offset % segmentSize));
+  }
+
+  private class MappedMTSSource implements ResettableMTSSource {
+
+    private long position;
+
+    @Override
+    public MTSPacket nextPacket() {
+      while (position + Constants.TS_PACKET_SIZE <= size
+          && (byteAt(position) & 0xFF) != SYNC_BYTE) {
+        position++;
+      }
+      if (position + Constants.TS_PACKET_SIZE > size) {
+        return null;
+      }
+      final ByteBuffer packet = view(position, Constants.TS_PACKET_SIZE);
+      position += Constants.TS_PACKET_SIZE;
+      return new MTSPacket(packet);
+    }
+
+    @Override
+    public void reset() {
+      position = 0;
+    }
+
+    @Override
+    public void close() {
+      position = size;
+    }
+  }
+
+  private class MappedInputStream extends InputStream {
+
+    private long position;
+
+    private long mark;
+
+    @Override
+    public int read() {
+      return position < size ? byteAt(position++) & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      if (position >= size) {
+        return -1;
+      }
+      final ByteBuffer segment = segments.get((int) (position / segmentSize)).duplicate();
+      segment.position((int) (position % segmentSize));
+      final int read = Math.min(length, segment.remaining());
+      segment.get(bytes, offset, read);
+      position += read;
+      return read;
+    }
+
+    @Override
+    public long skip(long n) {
+      final long skipped = Math.max(0, Math.min(n, size - position));
+      position += skipped;
+      return skipped;
+    }
+
+    @Override
+    public int available() {
+      return (int) Math.min(Integer.MAX_VALUE, size - position);
+    }
+
+    @Override
+    public boolean markSupported() {
+      return true;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+      mark = position;
+    }
+
+    @Override
+    public synchronized void reset() {
+      position = mark;
+    }
+  }
+}
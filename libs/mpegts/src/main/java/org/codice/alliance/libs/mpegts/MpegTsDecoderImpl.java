@@ -17,23 +17,39 @@ import static org.apache.commons.lang3.Validate.notNull;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 import org.apache.commons.lang3.ArrayUtils;
+import org.jcodec.containers.mps.MTSUtils;
 import org.jcodec.containers.mps.psi.PMTSection;
 import org.taktik.mpegts.MTSPacket;
 import org.taktik.mpegts.PATSection;
 
+/**
+ * Reassembles the PES packets of the elementary streams of an MPEG-TS. Only the streams accepted by
+ * the {@link StreamSelector} are reassembled; the payload of the packets of every other stream is
+ * skipped by packet id without being copied, so metadata-only callers don't pay to rebuild the
+ * video packets.
+ */
 public class MpegTsDecoderImpl implements MpegTsDecoder {
 
   private static final int BYTE_MASK = 0xFF;
 
+  private final StreamSelector streamSelector;
+
   private final Set<Integer> programMapTablePacketIdDirectory = new HashSet<>();
 
-  private final Map<Integer, PMTSection.PMTStream> programElementaryStreams = new HashMap<>();
+  private final Set<Integer> parsedProgramMapTablePacketIds = new HashSet<>();
+
+  private final Map<Integer, MpegStreamType> elementaryStreamTypes = new LinkedHashMap<>();
+
+  private final Set<Integer> selectedPacketIds = new HashSet<>();
 
   private final Map<Integer, byte[]> currentPacketBytesByStream = new HashMap<>();
 
@@ -41,6 +57,42 @@ public class MpegTsDecoderImpl implements MpegTsDecoder {
 
   private PMTSectionParser pmtSectionParser = PMTSection::parsePMT;
 
+  /** Reassembles the PES packets of every elementary stream. */
+  public MpegTsDecoderImpl() {
+    this(selectAll());
+  }
+
+  /** @param streamSelector selects the elementary streams to reassemble, must be non-null */
+  public MpegTsDecoderImpl(StreamSelector streamSelector) {
+    notNull(streamSelector, "streamSelector must be non-null");
+    this.streamSelector = streamSelector;
+  }
+
+  /** @return a selector of every elementary stream, including those of an unknown type */
+  public static StreamSelector selectAll() {
+    return (packetId, streamType) -> true;
+  }
+
+  /**
+   * @return a selector of no elementary stream, for callers that only need the program tables
+   * @see #isProgramMapComplete()
+   */
+  public static StreamSelector selectNone() {
+    return (packetId, streamType) -> false;
+  }
+
+  /** @return a selector of the elementary streams with the given packet ids */
+  public static StreamSelector selectPacketIds(Integer... packetIds) {
+    final Set<Integer> selected = new HashSet<>(Arrays.asList(packetIds));
+    return (packetId, streamType) -> selected.contains(packetId);
+  }
+
+  /** @return a selector of the elementary streams of the given types */
+  public static StreamSelector selectStreamTypes(MpegStreamType... streamTypes) {
+    final Set<MpegStreamType> selected = new HashSet<>(Arrays.asList(streamTypes));
+    return (packetId, streamType) -> selected.contains(streamType);
+  }
+
   @Override
   public void read(MTSPacket mtsPacket, Consumer<PESPacket> callback) throws IOException {
     notNull(mtsPacket, "mtsPacket must be non-null");
@@ -56,15 +108,34 @@ public class MpegTsDecoderImpl implements MpegTsDecoder {
 
       handleProgramMapTable(mtsPacket);
 
-    } else if (isElementaryStream(pid)) {
+    } else if (selectedPacketIds.contains(pid)) {
 
       handleElementaryStream(mtsPacket, pid, callback);
     }
   }
 
+  /**
+   * @return true once the program association table and the program map table of every program
+   *     it lists have been read, after which the elementary streams are known and a caller that
+   *     only needs them may stop reading
+   */
+  public boolean isProgramMapComplete() {
+    return !programMapTablePacketIdDirectory.isEmpty()
+        && parsedProgramMapTablePacketIds.containsAll(programMapTablePacketIdDirectory);
+  }
+
+  /**
+   * @return the types of the elementary streams found in the program map tables read so far, keyed
+   *     by packet id in the order they were listed, whether they are selected or not. Streams of an
+   *     unknown type are omitted.
+   */
+  public Map<Integer, MpegStreamType> getElementaryStreamTypes() {
+    return Collections.unmodifiableMap(elementaryStreamTypes);
+  }
+
   private void handleElementaryStream(MTSPacket mtsPacket, int pid, Consumer<PESPacket> callback) {
     if (mtsPacket.isContainsPayload()) {
-      final PMTSection.PMTStream stream = programElementaryStreams.get(pid);
+      final MpegStreamType streamType = elementaryStreamTypes.get(pid);
 
       final byte[] currentPacketBytes = currentPacketBytesByStream.get(pid);
 
@@ -75,8 +146,7 @@ public class MpegTsDecoderImpl implements MpegTsDecoder {
       final byte[] payloadBytes = getByteBufferAsBytes(mtsPacket.getPayload());
 
       if (reachedEndOfCurrentPacket) {
-        callback.accept(
-            new PESPacket(currentPacketBytes, MpegStreamType.lookup(stream.getStreamType()), pid));
+        callback.accept(new PESPacket(currentPacketBytes, streamType, pid));
         currentPacketBytesByStream.put(pid, payloadBytes);
       } else if (startingNewPacket) {
         currentPacketBytesByStream.put(pid, payloadBytes);
@@ -87,12 +157,6 @@ public class MpegTsDecoderImpl implements MpegTsDecoder {
     }
   }
 
-  private boolean isElementaryStream(int pid) {
-    return pid != Constants.PROGRAM_ASSOCIATION_TABLE_PID
-        && !programMapTablePacketIdDirectory.contains(pid)
-        && programElementaryStreams.containsKey(pid);
-  }
-
   private boolean isProgramMapTable(MTSPacket mtsPacket) {
     return programMapTablePacketIdDirectory.contains(mtsPacket.getPid())
         && mtsPacket.isPayloadUnitStartIndicator();
@@ -112,8 +176,26 @@ public class MpegTsDecoderImpl implements MpegTsDecoder {
     final PMTSection pmt = pmtSectionParser.parse(payload);
 
     for (final PMTSection.PMTStream stream : pmt.getStreams()) {
-      programElementaryStreams.put(stream.getPid(), stream);
+      final int pid = stream.getPid();
+      if (pid == Constants.PROGRAM_ASSOCIATION_TABLE_PID
+          || programMapTablePacketIdDirectory.contains(pid)) {
+        continue;
+      }
+
+      final MTSUtils.StreamType tableStreamType = stream.getStreamType();
+      final MpegStreamType streamType =
+          tableStreamType == null ? null : MpegStreamType.lookup(tableStreamType);
+      if (streamType != null) {
+        elementaryStreamTypes.put(pid, streamType);
+      }
+      if (streamSelector.isSelected(pid, streamType)) {
+        selectedPacketIds.add(pid);
+      } else {
+        selectedPacketIds.remove(pid);
+        currentPacketBytesByStream.remove(pid);
+      }
     }
+    parsedProgramMapTablePacketIds.add(mtsPacket.getPid());
   }
 
   private void handleProgramAssociationTable(MTSPacket mtsPacket) throws IOException {
@@ -124,6 +206,7 @@ public class MpegTsDecoderImpl implements MpegTsDecoder {
     final PATSection programAssociationTable = patSectionParser.parse(payload);
     programMapTablePacketIdDirectory.clear();
     programMapTablePacketIdDirectory.addAll(programAssociationTable.getPrograms().values());
+    parsedProgramMapTablePacketIds.retainAll(programMapTablePacketIdDirectory);
 
     if (programMapTablePacketIdDirectory.isEmpty()) {
       throw new IOException("No programs found in transport stream.");
@@ -144,6 +227,18 @@ public class MpegTsDecoderImpl implements MpegTsDecoder {
     this.pmtSectionParser = pmtSectionParser;
   }
 
+  /** Selects the elementary streams whose PES packets are reassembled. */
+  public interface StreamSelector {
+
+    /**
+     * @param packetId the packet id of the elementary stream
+     * @param streamType the type of the elementary stream, or null if its type is unknown, such as
+     *     HEVC (0x24)
+     * @return whether the PES packets of the elementary stream are reassembled
+     */
+    boolean isSelected(int packetId, MpegStreamType streamType);
+  }
+
   public interface PATSectionParser {
     PATSection parse(ByteBuffer payload);
   }
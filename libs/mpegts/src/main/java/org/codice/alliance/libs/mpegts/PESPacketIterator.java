@@ -20,7 +20,6 @@ import java.util.NoSuchElementException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.taktik.mpegts.MTSPacket;
-import org.taktik.mpegts.sources.MTSSources;
 import org.taktik.mpegts.sources.ResettableMTSSource;
 
 /**
@@ -35,10 +34,20 @@ public class PESPacketIterator implements Iterator<PESPacket> {
 
   private ResettableMTSSource source;
 
-  private MpegTsDecoder mpegTsDecoder = new MpegTsDecoderImpl();
+  private MpegTsDecoder mpegTsDecoder;
 
   public PESPacketIterator(ByteSource byteSource) throws IOException {
-    source = MTSSources.from(byteSource);
+    this(byteSource, new MpegTsDecoderImpl());
+  }
+
+  /**
+   * @param byteSource the MPEG-TS
+   * @param mpegTsDecoder the decoder of the PESPackets, such as a {@link MpegTsDecoderImpl} that
+   *     only reassembles some of the elementary streams
+   */
+  public PESPacketIterator(ByteSource byteSource, MpegTsDecoder mpegTsDecoder) throws IOException {
+    source = MappedByteSource.openMtsSource(byteSource);
+    this.mpegTsDecoder = mpegTsDecoder;
   }
 
   private void setPesPacket(PESPacket pesPacket) {
@@ -0,0 +1,258 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.mpegts;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A splittable source of the PESPackets of a transport stream file, so that a parallel stream can
+ * demux ranges of a large file on separate threads.
+ *
+ * <p>The file is divided into ranges of whole 188-byte packets. A range owns the PESPackets that
+ * start in it: packets of a stream before that stream's first payload unit start in the range
+ * belong to the previous range and are skipped, and a PESPacket still open at the end of the range
+ * is completed by reading past the end until that stream's next payload unit start. A range reads
+ * at most a set number of TS packets past its end; the PESPackets still open then are dropped.
+ * Lost sync is recovered by scanning for the next 0x47 sync byte followed by another one a packet
+ * later, without scanning past that same limit.
+ *
+ * <p>The PESPackets of each stream are in file order. Across streams, PESPackets are in the order
+ * they are completed within each range, so the interleaving of streams near range edges may differ
+ * from that of a sequential read. As with {@link PESPacketIterator}, incomplete packets at the end
+ * of the file are not returned.
+ */
+class PESPacketSpliterator implements Spliterator<PESPacket> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PESPacketSpliterator.class);
+
+  private static final int SYNC_BYTE = 0x47;
+
+  private static final int PACKETS_PER_READ = 512;
+
+  private final FileChannel channel;
+
+  private final Map<Integer, MpegStreamType> streamTypes;
+
+  private final long size;
+
+  private final int minSplitPackets;
+
+  private final int maxOverrunPackets;
+
+  private final Map<Integer, ByteArrayOutputStream> openPackets = new HashMap<>();
+
+  private final Deque<PESPacket> completedPackets = new ArrayDeque<>();
+
+  private final ByteBuffer buffer =
+      ByteBuffer.allocate(Constants.TS_PACKET_SIZE * PACKETS_PER_READ);
+
+  private long bufferOffset = -1;
+
+  private long start;
+
+  private long position;
+
+  private final long end;
+
+  /** The offset at which reading past the end of the range stops. */
+  private final long overrunLimit;
+
+  /**
+   * @param channel the transport stream, read with positional reads so that it may be shared by
+   *     every range
+   * @param streamTypes the types of the elementary streams to reassemble, keyed by packet id. A
+   *     stream of an unknown type has a null type.
+   * @param minSplitPackets ranges with fewer than twice this many TS packets are not split
+   * @param maxOverrunPackets the most TS packets a range reads past its end to complete its open
+   *     PESPackets
+   */
+  PESPacketSpliterator(
+      FileChannel channel,
+      Map<Integer, MpegStreamType> streamTypes,
+      int minSplitPackets,
+      int maxOverrunPackets)
+      throws IOException {
+    this.channel = channel;
+    this.streamTypes = streamTypes;
+    this.minSplitPackets = minSplitPackets;
+    this.maxOverrunPackets = maxOverrunPackets;
+    this.size = channel.size();
+    this.end = size;
+    this.overrunLimit = size;
+    this.start = sync(0);
+    this.position = start;
+  }
+
+  private PESPacketSpliterator(PESPacketSpliterator parent, long start, long end) {
+    this.channel = parent.channel;
+    this.streamTypes = parent.streamTypes;
+    this.minSplitPackets = parent.minSplitPackets;
+    this.maxOverrunPackets = parent.maxOverrunPackets;
+    this.size = parent.size;
+    this.start = start;
+    this.position = start;
+    this.end = end;
+    this.overrunLimit = Math.min(size, end + (long) maxOverrunPackets * Constants.TS_PACKET_SIZE);
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super PESPacket> action) {
+    try {
+      while (completedPackets.isEmpty()) {
+        if (!readPacket()) {
+          return false;
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    action.accept(completedPackets.remove());
+    return true;
+  }
+
+  /** Splits off the first half of the range, if the range hasn't been read from yet. */
+  @Override
+  public Spliterator<PESPacket> trySplit() {
+    final long packets = (end - start) / Constants.TS_PACKET_SIZE;
+    if (position != start || packets < 2L * minSplitPackets) {
+      return null;
+    }
+    final long middle = start + (packets / 2) * Constants.TS_PACKET_SIZE;
+    final PESPacketSpliterator prefix = new PESPacketSpliterator(this, start, middle);
+    start = middle;
+    position = middle;
+    return prefix;
+  }
+
+  /** @return the number of TS packets left in the range, which bounds the number of PESPackets */
+  @Override
+  public long estimateSize() {
+    return Math.max(0, end - position) / Constants.TS_PACKET_SIZE;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  }
+
+  /** @return false once the range and its open PESPackets are done */
+  private boolean readPacket() throws IOException {
+    if (position >= end && openPackets.isEmpty()) {
+      return false;
+    }
+    if (position >= overrunLimit || position + Constants.TS_PACKET_SIZE > size) {
+      if (position >= overrunLimit && position < size) {
+        LOGGER.debug(
+            "Dropping {} PESPackets still open {} TS packets past the end of the range.",
+            openPackets.size(),
+            maxOverrunPackets);
+      }
+      openPackets.clear();
+      return false;
+    }
+
+    final ByteBuffer packet = fill(position, Constants.TS_PACKET_SIZE);
+    final int offset = (int) (position - bufferOffset);
+    if ((packet.get(offset) & 0xFF) != SYNC_BYTE) {
+      position = sync(position + 1);
+      return true;
+    }
+
+    final boolean pastEnd = position >= end;
+    position += Constants.TS_PACKET_SIZE;
+
+    final int pid = ((packet.get(offset + 1) & 0x1F) << 8) | (packet.get(offset + 2) & 0xFF);
+    final int adaptationFieldControl = (packet.get(offset + 3) >> 4) & 0x03;
+    if (!streamTypes.containsKey(pid) || (adaptationFieldControl & 0x01) == 0) {
+      return true;
+    }
+
+    int payloadStart = 4;
+    if ((adaptationFieldControl & 0x02) != 0) {
+      payloadStart += 1 + (packet.get(offset + 4) & 0xFF);
+    }
+    if (payloadStart >= Constants.TS_PACKET_SIZE) {
+      return true;
+    }
+
+    final boolean payloadUnitStart = (packet.get(offset + 1) & 0x40) != 0;
+    ByteArrayOutputStream current = openPackets.get(pid);
+    if (payloadUnitStart) {
+      if (current != null) {
+        completedPackets.add(new PESPacket(current.toByteArray(), streamTypes.get(pid), pid));
+        openPackets.remove(pid);
+      }
+      if (pastEnd) {
+        return true;
+      }
+      current = new ByteArrayOutputStream();
+      openPackets.put(pid, current);
+    } else if (current == null) {
+      return true;
+    }
+    current.write(
+        packet.array(), offset + payloadStart, Constants.TS_PACKET_SIZE - payloadStart);
+    return true;
+  }
+
+  /**
+   * @return the offset of the first sync byte at or after {@code from} and before the overrun limit
+   *     that is followed by another one a packet later (or by the end of the file), or the overrun
+   *     limit if there is none
+   */
+  private long sync(long from) throws IOException {
+    for (long candidate = from; candidate < overrunLimit; candidate++) {
+      if (byteAt(candidate) == SYNC_BYTE
+          && (candidate + Constants.TS_PACKET_SIZE >= size
+              || byteAt(candidate + Constants.TS_PACKET_SIZE) == SYNC_BYTE)) {
+        return candidate;
+      }
+    }
+    return overrunLimit;
+  }
+
+  private int byteAt(long offset) throws IOException {
+    return fill(offset, 1).get((int) (offset - bufferOffset)) & 0xFF;
+  }
+
+  /** @return the buffer, filled so that it holds {@code length} bytes from {@code offset} */
+  private ByteBuffer fill(long offset, int length) throws IOException {
+    if (bufferOffset >= 0
+        && offset >= bufferOffset
+        && offset + length <= bufferOffset + buffer.limit()) {
+      return buffer;
+    }
+    buffer.clear();
+    while (buffer.hasRemaining() && offset + buffer.position() < size) {
+      if (channel.read(buffer, offset + buffer.position()) < 0) {
+        break;
+      }
+    }
+    buffer.flip();
+    bufferOffset = offset;
+    return buffer;
+  }
+}
@@ -13,17 +13,35 @@
  */
 package org.codice.alliance.libs.mpegts;
 
+import static org.apache.commons.lang3.Validate.isTrue;
 import static org.apache.commons.lang3.Validate.notNull;
 
 import com.google.common.io.ByteSource;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.taktik.mpegts.MTSPacket;
+import org.taktik.mpegts.sources.ResettableMTSSource;
 
 public class TSStream {
 
+  /** The default number of TS packets below which half a range of a file is not split off. */
+  public static final int DEFAULT_MIN_SPLIT_PACKETS = 65536;
+
+  /** The default number of TS packets a range reads past its end to complete its PESPackets. */
+  public static final int DEFAULT_MAX_OVERRUN_PACKETS = 16384;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TSStream.class);
+
   /**
    * Create a stream of PESPackets from a byte source.
    *
@@ -32,10 +50,154 @@ public class TSStream {
    * @throws IOException
    */
   public static Stream<PESPacket> from(ByteSource byteSource) throws IOException {
+    return from(byteSource, MpegTsDecoderImpl.selectAll());
+  }
+
+  /**
+   * Create a stream of the PESPackets of some of the elementary streams of a byte source. The
+   * packets of the other elementary streams are skipped without being reassembled.
+   *
+   * @param byteSource must be non-null
+   * @param streamSelector selects the elementary streams, must be non-null
+   * @return stream of PESPackets
+   * @throws IOException
+   */
+  public static Stream<PESPacket> from(
+      ByteSource byteSource, MpegTsDecoderImpl.StreamSelector streamSelector) throws IOException {
     notNull(byteSource, "byteSource must be non-null");
     return StreamSupport.stream(
         Spliterators.spliteratorUnknownSize(
-            new PESPacketIterator(byteSource), Spliterator.ORDERED | Spliterator.NONNULL),
+            new PESPacketIterator(byteSource, new MpegTsDecoderImpl(streamSelector)),
+            Spliterator.ORDERED | Spliterator.NONNULL),
         false);
   }
+
+  /**
+   * Create a stream of the PESPackets of some of the elementary streams of a transport stream file.
+   * The stream can be made parallel, in which case the file is split into ranges of TS packets
+   * that are demuxed on separate threads. The PESPackets of each elementary stream are in file
+   * order, but the PESPackets of different elementary streams may interleave differently than in
+   * {@link #from(ByteSource, MpegTsDecoderImpl.StreamSelector)}. Closing the stream closes the
+   * file. Ranges are split and overrun as set by {@link #DEFAULT_MIN_SPLIT_PACKETS} and {@link
+   * #DEFAULT_MAX_OVERRUN_PACKETS}.
+   *
+   * @param file must be non-null
+   * @param streamSelector selects the elementary streams, must be non-null
+   * @param parallel whether the stream is parallel
+   * @return stream of PESPackets
+   * @throws IOException if the file cannot be opened or its program tables cannot be read
+   */
+  public static Stream<PESPacket> from(
+      Path file, MpegTsDecoderImpl.StreamSelector streamSelector, boolean parallel)
+      throws IOException {
+    return from(
+        file, streamSelector, parallel, DEFAULT_MIN_SPLIT_PACKETS, DEFAULT_MAX_OVERRUN_PACKETS);
+  }
+
+  /**
+   * Create a stream of the PESPackets of some of the elementary streams of a transport stream file,
+   * as {@link #from(Path, MpegTsDecoderImpl.StreamSelector, boolean)} does, with the given limits
+   * on the ranges of the file. A PESPacket still open after a range has read {@code
+   * maxOverrunPackets} TS packets past its end is dropped.
+   *
+   * @param file must be non-null
+   * @param streamSelector selects the elementary streams, must be non-null
+   * @param parallel whether the stream is parallel
+   * @param minSplitPackets ranges with fewer than twice this many TS packets are not split, must be
+   *     positive
+   * @param maxOverrunPackets the most TS packets a range reads past its end, must be non-negative
+   * @return stream of PESPackets
+   * @throws IOException if the file cannot be opened or its program tables cannot be read
+   */
+  public static Stream<PESPacket> from(
+      Path file,
+      MpegTsDecoderImpl.StreamSelector streamSelector,
+      boolean parallel,
+      int minSplitPackets,
+      int maxOverrunPackets)
+      throws IOException {
+    notNull(file, "file must be non-null");
+    notNull(streamSelector, "streamSelector must be non-null");
+    isTrue(minSplitPackets > 0, "minSplitPackets must be positive");
+    isTrue(maxOverrunPackets >= 0, "maxOverrunPackets must be non-negative");
+
+    // The selected streams are recorded as the program map tables are read, so that streams of an
+    // unknown type are kept, with a null type.
+    final Map<Integer, MpegStreamType> streamTypes = new HashMap<>();
+    readProgramTables(
+        MappedByteSource.map(file),
+        new MpegTsDecoderImpl(
+            (packetId, streamType) -> {
+              if (streamSelector.isSelected(packetId, streamType)) {
+                streamTypes.put(packetId, streamType);
+              } else {
+                streamTypes.remove(packetId);
+              }
+              return false;
+            }));
+
+    final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      return StreamSupport.stream(
+              new PESPacketSpliterator(channel, streamTypes, minSplitPackets, maxOverrunPackets),
+              parallel)
+          .onClose(() -> closeQuietly(channel));
+    } catch (IOException | RuntimeException e) {
+      closeQuietly(channel);
+      throw e;
+    }
+  }
+
+  /**
+   * Read the types of the elementary streams of a byte source from its program tables, stopping
+   * as soon as the program map table of every program has been read. No PESPackets are
+   * reassembled.
+   *
+   * @param byteSource must be non-null
+   * @return the stream types keyed by packet id, in the order the program map tables list them.
+   *     As with {@link #from(ByteSource)}, the streams found before an error are returned.
+   * @throws IOException if the byte source cannot be opened
+   */
+  public static Map<Integer, MpegStreamType> probeStreamTypes(ByteSource byteSource)
+      throws IOException {
+    notNull(byteSource, "byteSource must be non-null");
+    final MpegTsDecoderImpl decoder = new MpegTsDecoderImpl(MpegTsDecoderImpl.selectNone());
+    readProgramTables(byteSource, decoder);
+    return decoder.getElementaryStreamTypes();
+  }
+
+  /**
+   * Read packets into a decoder until the program map table of every program has been read, or
+   * until an error, which is logged.
+   */
+  private static void readProgramTables(ByteSource byteSource, MpegTsDecoderImpl decoder)
+      throws IOException {
+    final ResettableMTSSource source = MappedByteSource.openMtsSource(byteSource);
+    try {
+      MTSPacket mtsPacket;
+      while (!decoder.isProgramMapComplete() && (mtsPacket = source.nextPacket()) != null) {
+        decoder.read(mtsPacket, pesPacket -> {});
+      }
+    } catch (Exception e) {
+      LOGGER.debug("Unable to read the program tables.", e);
+    } finally {
+      closeQuietly(source);
+    }
+  }
+
+  private static void closeQuietly(FileChannel channel) {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      LOGGER.debug("Unable to close the transport stream file.", e);
+    }
+  }
+
+  private static void closeQuietly(ResettableMTSSource source) {
+    try {
+      source.close();
+    } catch (Exception e) {
+      LOGGER.debug("Unable to close the MTS source.", e);
+    }
+  }
 }
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.mpegts;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.io.ByteStreams;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.taktik.mpegts.MTSPacket;
+import org.taktik.mpegts.sources.ResettableMTSSource;
+
+public class MappedByteSourceTest {
+
+  private static final int PACKET_COUNT = 5;
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private byte[] bytes;
+
+  private File file;
+
+  @Before
+  public void setUp() throws IOException {
+    bytes = new byte[3 + PACKET_COUNT * Constants.TS_PACKET_SIZE];
+    for (int i = 0; i < PACKET_COUNT; i++) {
+      int offset = 3 + i * Constants.TS_PACKET_SIZE;
+      bytes[offset] = 0x47;
+      bytes[offset + 1] = (byte) ((0x100 + i) >> 8);
+      bytes[offset + 2] = (byte) (0x100 + i);
+      bytes[offset + 3] = 0x10;
+    }
+    file = temporaryFolder.newFile("test.ts");
+    Files.write(file.toPath(), bytes);
+  }
+
+  @Test
+  public void testReadAcrossSegments() throws IOException {
+    MappedByteSource byteSource = MappedByteSource.map(file.toPath(), 100);
+
+    assertThat(byteSource.size(), is((long) bytes.length));
+    assertThat(byteSource.read(), is(bytes));
+    try (InputStream inputStream = byteSource.openStream()) {
+      assertThat(inputStream.skip(250), is(250L));
+      assertThat(inputStream.read(), is(bytes[250] & 0xFF));
+      assertThat(ByteStreams.toByteArray(inputStream).length, is(bytes.length - 251));
+      assertThat(inputStream.read(), is(-1));
+    }
+  }
+
+  @Test
+  public void testMtsSourceSkipsToSync() throws Exception {
+    assertPackets(MappedByteSource.map(file.toPath()).openMtsSource());
+  }
+
+  @Test
+  public void testMtsSourcePacketsAcrossSegments() throws Exception {
+    assertPackets(MappedByteSource.map(file.toPath(), 100).openMtsSource());
+  }
+
+  @Test
+  public void testEmptyFile() throws Exception {
+    File empty = temporaryFolder.newFile("empty.ts");
+    MappedByteSource byteSource = MappedByteSource.map(empty.toPath());
+
+    assertThat(byteSource.isEmpty(), is(true));
+    assertThat(byteSource.openMtsSource().nextPacket(), is(nullValue()));
+  }
+
+  private void assertPackets(ResettableMTSSource source) throws Exception {
+    for (int pass = 0; pass < 2; pass++) {
+      for (int i = 0; i < PACKET_COUNT; i++) {
+        MTSPacket packet = source.nextPacket();
+        assertThat(packet.getPid(), is(0x100 + i));
+      }
+      assertThat(source.nextPacket(), is(nullValue()));
+      source.reset();
+    }
+    source.close();
+  }
+}
@@ -13,17 +13,22 @@
  */
 package org.codice.alliance.libs.mpegts;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -117,6 +122,175 @@ public class MpegTsDecoderTest {
         is(new byte[] {expectedByte1, expectedByte2, expectedByte3, expectedByte4}));
   }
 
+  @Test
+  public void testUnselectedStreamIsSkipped() throws IOException {
+    int programMapTableId = 1;
+    int videoPacketId = 2;
+    int metadataPacketId = 3;
+
+    MpegTsDecoderImpl decoder =
+        createDecoder(
+            MpegTsDecoderImpl.selectStreamTypes(MpegStreamType.META_PES),
+            programMapTableId,
+            createPmtStream(MTSUtils.StreamType.VIDEO_H264, videoPacketId),
+            createPmtStream(MTSUtils.StreamType.META_PES, metadataPacketId));
+
+    MTSPacket videoPacket1 = createElementary(true, videoPacketId, (byte) 0x01);
+    MTSPacket videoPacket2 = createElementary(true, videoPacketId, (byte) 0x02);
+
+    List<PESPacket> outputList = new LinkedList<>();
+    for (MTSPacket mtsPacket :
+        Arrays.asList(
+            createProgramAssociationTablePacket(),
+            createProgramMapTablePacket(programMapTableId),
+            videoPacket1,
+            createElementary(true, metadataPacketId, (byte) 0x03),
+            videoPacket2,
+            createElementary(true, metadataPacketId, (byte) 0x04))) {
+      decoder.read(mtsPacket, outputList::add);
+    }
+
+    assertThat(outputList, hasSize(1));
+    assertThat(outputList.get(0).getPacketId(), is(metadataPacketId));
+    assertThat(outputList.get(0).getPayload(), is(new byte[] {0x03}));
+    verify(videoPacket1, never()).getPayload();
+    verify(videoPacket2, never()).getPayload();
+  }
+
+  @Test
+  public void testProgramMapComplete() throws IOException {
+    int programMapTableId = 1;
+    int videoPacketId = 2;
+    int metadataPacketId = 3;
+
+    MpegTsDecoderImpl decoder =
+        createDecoder(
+            MpegTsDecoderImpl.selectNone(),
+            programMapTableId,
+            createPmtStream(MTSUtils.StreamType.VIDEO_H264, videoPacketId),
+            createPmtStream(MTSUtils.StreamType.META_PES, metadataPacketId));
+
+    assertThat(decoder.isProgramMapComplete(), is(false));
+
+    decoder.read(createProgramAssociationTablePacket(), pesPacket -> fail());
+    assertThat(decoder.isProgramMapComplete(), is(false));
+
+    decoder.read(createProgramMapTablePacket(programMapTableId), pesPacket -> fail());
+    assertThat(decoder.isProgramMapComplete(), is(true));
+    assertThat(
+        decoder.getElementaryStreamTypes().keySet(), contains(videoPacketId, metadataPacketId));
+    assertThat(
+        decoder.getElementaryStreamTypes().values(),
+        contains(MpegStreamType.VIDEO_H264, MpegStreamType.META_PES));
+  }
+
+  @Test
+  public void testUnknownStreamTypeIsSelected() throws IOException {
+    int programMapTableId = 1;
+    int hevcPacketId = 2;
+    int metadataPacketId = 3;
+
+    for (MpegTsDecoderImpl decoder :
+        Arrays.asList(
+            createDecoder(
+                MpegTsDecoderImpl.selectAll(),
+                programMapTableId,
+                createPmtStream(null, hevcPacketId),
+                createPmtStream(MTSUtils.StreamType.META_PES, metadataPacketId)),
+            createDecoder(
+                MpegTsDecoderImpl.selectPacketIds(hevcPacketId),
+                programMapTableId,
+                createPmtStream(null, hevcPacketId),
+                createPmtStream(MTSUtils.StreamType.META_PES, metadataPacketId)))) {
+      List<PESPacket> outputList = new LinkedList<>();
+      for (MTSPacket mtsPacket :
+          Arrays.asList(
+              createProgramAssociationTablePacket(),
+              createProgramMapTablePacket(programMapTableId),
+              createElementary(true, hevcPacketId, (byte) 0x01),
+              createElementary(false, hevcPacketId, (byte) 0x02),
+              createElementary(true, hevcPacketId, (byte) 0x03))) {
+        decoder.read(mtsPacket, outputList::add);
+      }
+
+      assertThat(outputList, hasSize(1));
+      assertThat(outputList.get(0).getPacketId(), is(hevcPacketId));
+      assertThat(outputList.get(0).getStreamType(), is(nullValue()));
+      assertThat(outputList.get(0).getPayload(), is(new byte[] {0x01, 0x02}));
+      assertThat(decoder.getElementaryStreamTypes().keySet(), contains(metadataPacketId));
+    }
+  }
+
+  @Test
+  public void testUnknownStreamTypeIsNotSelectedByType() throws IOException {
+    int programMapTableId = 1;
+    int hevcPacketId = 2;
+
+    MpegTsDecoderImpl decoder =
+        createDecoder(
+            MpegTsDecoderImpl.selectStreamTypes(MpegStreamType.META_PES),
+            programMapTableId,
+            createPmtStream(null, hevcPacketId));
+
+    MTSPacket hevcPacket = createElementary(true, hevcPacketId, (byte) 0x01);
+    for (MTSPacket mtsPacket :
+        Arrays.asList(
+            createProgramAssociationTablePacket(),
+            createProgramMapTablePacket(programMapTableId),
+            hevcPacket,
+            createElementary(true, hevcPacketId, (byte) 0x02))) {
+      decoder.read(mtsPacket, pesPacket -> fail());
+    }
+
+    verify(hevcPacket, never()).getPayload();
+  }
+
+  private MpegTsDecoderImpl createDecoder(
+      MpegTsDecoderImpl.StreamSelector streamSelector,
+      int programMapTableId,
+      PMTSection.PMTStream... pmtStreams) {
+    MpegTsDecoderImpl decoder = new MpegTsDecoderImpl(streamSelector);
+
+    PATSection patSection = mock(PATSection.class);
+    when(patSection.getPrograms()).thenReturn(Collections.singletonMap(1, programMapTableId));
+    MpegTsDecoderImpl.PATSectionParser patSectionParser =
+        mock(MpegTsDecoderImpl.PATSectionParser.class);
+    when(patSectionParser.parse(any())).thenReturn(patSection);
+    decoder.setPatSectionParser(patSectionParser);
+
+    PMTSection pmtSection = mock(PMTSection.class);
+    when(pmtSection.getStreams()).thenReturn(pmtStreams);
+    MpegTsDecoderImpl.PMTSectionParser pmtSectionParser =
+        mock(MpegTsDecoderImpl.PMTSectionParser.class);
+    when(pmtSectionParser.parse(any())).thenReturn(pmtSection);
+    decoder.setPmtSectionParser(pmtSectionParser);
+
+    return decoder;
+  }
+
+  private PMTSection.PMTStream createPmtStream(MTSUtils.StreamType streamType, int pid) {
+    PMTSection.PMTStream pmtStream = mock(PMTSection.PMTStream.class);
+    when(pmtStream.getStreamType()).thenReturn(streamType);
+    when(pmtStream.getPid()).thenReturn(pid);
+    return pmtStream;
+  }
+
+  private MTSPacket createProgramAssociationTablePacket() {
+    return createProgramTablePacket(Constants.PROGRAM_ASSOCIATION_TABLE_PID);
+  }
+
+  private MTSPacket createProgramMapTablePacket(int programMapTableId) {
+    return createProgramTablePacket(programMapTableId);
+  }
+
+  private MTSPacket createProgramTablePacket(int pid) {
+    MTSPacket packet = mock(MTSPacket.class);
+    when(packet.getPid()).thenReturn(pid);
+    when(packet.isPayloadUnitStartIndicator()).thenReturn(true);
+    when(packet.getPayload()).thenReturn(ByteBuffer.wrap(new byte[] {0x00}));
+    return packet;
+  }
+
   private MTSPacket createElementary(boolean isStart, int pid, byte data) {
     MTSPacket elementaryStreamPacket = mock(MTSPacket.class);
     when(elementaryStreamPacket.getPid()).thenReturn(pid);
@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.mpegts;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PESPacketSpliteratorTest {
+
+  private static final int VIDEO_PID = 0x100;
+
+  private static final int METADATA_PID = 0x101;
+
+  private static final int OTHER_PID = 0x102;
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final Map<Integer, List<String>> expected = new LinkedHashMap<>();
+
+  private final Map<Integer, MpegStreamType> streamTypes = new HashMap<>();
+
+  private final ByteArrayOutputStream transportStream = new ByteArrayOutputStream();
+
+  private int counter;
+
+  private File file;
+
+  @Before
+  public void setUp() throws IOException {
+    streamTypes.put(VIDEO_PID, MpegStreamType.VIDEO_H264);
+    streamTypes.put(METADATA_PID, MpegStreamType.META_PES);
+    expected.put(VIDEO_PID, new ArrayList<>());
+    expected.put(METADATA_PID, new ArrayList<>());
+
+    // continuations of packets that started before the file
+    writeTsPacket(VIDEO_PID, false, false);
+    writeTsPacket(METADATA_PID, false, true);
+
+    for (int i = 0; i < 40; i++) {
+      writePesPacket(VIDEO_PID, 1 + i % 7);
+      writePesPacket(METADATA_PID, 1 + i % 2);
+      writeTsPacket(OTHER_PID, true, false);
+      if (i == 20) {
+        transportStream.write(new byte[37], 0, 37);
+      }
+    }
+
+    // packets that are never completed, so aren't returned
+    writeTsPacket(VIDEO_PID, true, false);
+    writeTsPacket(METADATA_PID, true, false);
+
+    file = temporaryFolder.newFile("test.ts");
+    Files.write(file.toPath(), transportStream.toByteArray());
+  }
+
+  @Test
+  public void testSequential() throws IOException {
+    assertThat(read(Integer.MAX_VALUE, false), is(expected));
+  }
+
+  @Test
+  public void testParallelRangesKeepPerStreamOrder() throws IOException {
+    assertThat(read(2, true), is(expected));
+  }
+
+  @Test
+  public void testSplitOnlyBeforeReading() throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      PESPacketSpliterator spliterator =
+          new PESPacketSpliterator(channel, streamTypes, 2, Integer.MAX_VALUE);
+      spliterator.tryAdvance(pesPacket -> {});
+      assertThat(spliterator.trySplit(), is(nullValue()));
+    }
+  }
+
+  @Test
+  public void testUnselectedStreamsAreSkipped() throws IOException {
+    streamTypes.remove(VIDEO_PID);
+    assertThat(read(2, true).keySet(), contains(METADATA_PID));
+  }
+
+  @Test
+  public void testStreamOfUnknownTypeIsReassembled() throws IOException {
+    streamTypes.put(VIDEO_PID, null);
+    assertThat(read(2, true), is(expected));
+  }
+
+  @Test
+  public void testOverrunIsCapped() throws IOException {
+    Map<Integer, List<String>> actual = read(2, true, 1);
+    int dropped = 0;
+    for (Map.Entry<Integer, List<String>> entry : expected.entrySet()) {
+      List<String> packets = actual.get(entry.getKey());
+      assertThat(entry.getValue().containsAll(packets), is(true));
+      dropped += entry.getValue().size() - packets.size();
+    }
+    assertThat(dropped > 0, is(true));
+  }
+
+  @Test
+  public void testOverrunCapDoesNotApplyToTheWholeFile() throws IOException {
+    assertThat(read(Integer.MAX_VALUE, false, 0), is(expected));
+  }
+
+  private Map<Integer, List<String>> read(int minSplitPackets, boolean parallel)
+      throws IOException {
+    return read(minSplitPackets, parallel, Integer.MAX_VALUE);
+  }
+
+  private Map<Integer, List<String>> read(
+      int minSplitPackets, boolean parallel, int maxOverrunPackets) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      return StreamSupport.stream(
+              new PESPacketSpliterator(
+                  channel, streamTypes, minSplitPackets, maxOverrunPackets),
+              parallel)
+          .collect(
+              Collectors.groupingBy(
+                  PESPacket::getPacketId,
+                  LinkedHashMap::new,
+                  Collectors.mapping(
+                      pesPacket -> Arrays.toString(pesPacket.getPayload()),
+                      Collectors.toList())));
+    }
+  }
+
+  /** Every other TS packet after the first of the PES packet has an adaptation field. */
+  private void writePesPacket(int pid, int tsPackets) {
+    ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    payload.write(writeTsPacket(pid, true, false), 0, 184);
+    for (int i = 1; i < tsPackets; i++) {
+      byte[] bytes = writeTsPacket(pid, false, i % 2 == 0);
+      payload.write(bytes, 0, bytes.length);
+    }
+    expected.get(pid).add(Arrays.toString(payload.toByteArray()));
+  }
+
+  /** @return the payload of the TS packet */
+  private byte[] writeTsPacket(int pid, boolean payloadUnitStart, boolean adaptationField) {
+    byte[] packet = new byte[Constants.TS_PACKET_SIZE];
+    packet[0] = 0x47;
+    packet[1] = (byte) ((payloadUnitStart ? 0x40 : 0) | (pid >> 8));
+    packet[2] = (byte) pid;
+    int payloadStart = 4;
+    if (adaptationField) {
+      packet[3] = 0x30;
+      packet[4] = 10;
+      payloadStart += 11;
+    } else {
+      packet[3] = 0x10;
+    }
+    for (int i = payloadStart; i < packet.length; i++) {
+      packet[i] = (byte) counter++;
+      if (packet[i] == 0x47) {
+        packet[i] = 0;
+      }
+    }
+    transportStream.write(packet, 0, packet.length);
+    return Arrays.copyOfRange(packet, payloadStart, packet.length);
+  }
+}
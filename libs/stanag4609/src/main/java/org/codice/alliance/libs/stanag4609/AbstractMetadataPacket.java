@@ -13,17 +13,20 @@
  */
 package org.codice.alliance.libs.stanag4609;
 
-import java.util.Arrays;
+import java.nio.ByteBuffer;
 import javax.xml.bind.DatatypeConverter;
 import org.codice.ddf.libs.klv.KlvContext;
 import org.codice.ddf.libs.klv.KlvDecoder;
 import org.codice.ddf.libs.klv.KlvDecodingException;
-import org.codice.ddf.libs.klv.data.numerical.KlvUnsignedShort;
-import org.codice.ddf.libs.klv.data.set.KlvLocalSet;
 import org.jcodec.containers.mps.MPSDemuxer.PESPacket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * A metadata PES packet. The payload and KLV are read through views of the packet's buffer, so the
+ * only copy made of a packet is the one handed to the {@link KlvDecoder}, and none at all when the
+ * KLV fills its whole backing array.
+ */
 abstract class AbstractMetadataPacket {
   private static final Logger LOGGER = LoggerFactory.getLogger(AbstractMetadataPacket.class);
 
@@ -35,7 +38,10 @@ abstract class AbstractMetadataPacket {
 
   private static final int BASE_PES_PACKET_HEADER_LENGTH = 9;
 
-  private final byte[] pesPacketBytes;
+  /** Counts the packets decoded by callers that don't keep their own counts. */
+  static final KlvPacketStatistics UNTRACKED = new KlvPacketStatistics();
+
+  private final ByteBuffer pesPacket;
 
   private final PESPacket pesHeader;
 
@@ -43,78 +49,123 @@ abstract class AbstractMetadataPacket {
 
   AbstractMetadataPacket(
       final byte[] pesPacketBytes, final PESPacket pesHeader, final KlvDecoder decoder) {
-    this.pesPacketBytes = pesPacketBytes;
+    this(ByteBuffer.wrap(pesPacketBytes), pesHeader, decoder);
+  }
+
+  /**
+   * @param pesPacket the PES packet, from its position to its limit. The buffer's position and
+   *     limit are not changed.
+   */
+  AbstractMetadataPacket(
+      final ByteBuffer pesPacket, final PESPacket pesHeader, final KlvDecoder decoder) {
+    this.pesPacket = pesPacket.slice();
     this.pesHeader = pesHeader;
     this.decoder = decoder;
   }
 
-  private boolean validateChecksum(final KlvContext klvContext, final byte[] klvBytes)
-      throws KlvDecodingException {
-    if (!klvContext.hasDataElement(Stanag4609TransportStreamParser.UAS_DATALINK_LOCAL_SET)) {
-      throw new KlvDecodingException("KLV did not contain the UAS Datalink Local Set");
-    }
+  /**
+   * The checksum is a 16-bit sum from the beginning of the KLV set to the 1-byte checksum length
+   * (the checksum value is 2 bytes, which is why the last 2 bytes are not summed).
+   */
+  static int calculateChecksum(final ByteBuffer klv) {
+    return calculateChecksum(klv, klv.position(), klv.limit() - 2);
+  }
 
-    final KlvContext localSetContext =
-        ((KlvLocalSet)
-                klvContext.getDataElementByName(
-                    Stanag4609TransportStreamParser.UAS_DATALINK_LOCAL_SET))
-            .getValue();
-
-    if (localSetContext.hasDataElement(Stanag4609TransportStreamParser.CHECKSUM)) {
-      final int packetChecksum =
-          ((KlvUnsignedShort)
-                  localSetContext.getDataElementByName(Stanag4609TransportStreamParser.CHECKSUM))
-              .getValue();
-
-      short calculatedChecksum = 0;
-      // Checksum is calculated by a 16-bit sum from the beginning of the KLV set to the 1-byte
-      // checksum length (the checksum value is 2 bytes, which is why we subtract 2).
-      for (int i = 0; i < klvBytes.length - 2; ++i) {
-        calculatedChecksum += (klvBytes[i] & 0xFF) << (8 * ((i + 1) % 2));
-      }
-
-      return (calculatedChecksum & 0xFFFF) == packetChecksum;
+  /** @return the 16-bit sum of the bytes of {@code buffer} from {@code start} to {@code end} */
+  static int calculateChecksum(final ByteBuffer buffer, final int start, final int end) {
+    short calculatedChecksum = 0;
+    for (int i = start; i < end; ++i) {
+      calculatedChecksum += (buffer.get(i) & 0xFF) << (8 * ((i - start + 1) % 2));
     }
-
-    throw new KlvDecodingException(
-        "Decoded KLV packet didn't contain checksum (which is required).");
+    return calculatedChecksum & 0xFFFF;
   }
 
-  protected final byte[] getPESPacketPayload() {
+  /** @return a view of the PES packet payload, otherwise null */
+  protected final ByteBuffer getPESPacketPayload() {
 
-    if (this.pesPacketBytes.length < BASE_PES_PACKET_HEADER_LENGTH) {
+    if (pesPacket.remaining() < BASE_PES_PACKET_HEADER_LENGTH) {
       return null;
     }
 
-    int additionalHeaderBytes = Byte.toUnsignedInt(pesPacketBytes[PES_HEADER_LENGTH_INDEX]);
+    int additionalHeaderBytes = Byte.toUnsignedInt(pesPacket.get(PES_HEADER_LENGTH_INDEX));
 
     int payloadLength = pesHeader.length - 3 - additionalHeaderBytes;
     int headerLength = BASE_PES_PACKET_HEADER_LENGTH + additionalHeaderBytes;
 
-    final int payloadEnd = Math.min(pesPacketBytes.length, headerLength + payloadLength);
-    return Arrays.copyOfRange(pesPacketBytes, headerLength, payloadEnd);
+    final int payloadEnd = Math.min(pesPacket.remaining(), headerLength + payloadLength);
+    return slice(pesPacket, headerLength, payloadEnd);
+  }
+
+  /**
+   * @return a view of {@code buffer} from {@code start} to {@code end}, relative to its position,
+   *     or an empty view if {@code end} is before {@code start}.
+   */
+  static ByteBuffer slice(final ByteBuffer buffer, final int start, final int end) {
+    final ByteBuffer view = buffer.duplicate();
+    view.position(Math.min(buffer.position() + start, buffer.limit()));
+    view.limit(Math.max(view.position(), Math.min(buffer.position() + end, buffer.limit())));
+    return view.slice();
   }
 
-  /** @return klv payload bytes, otherwise null */
-  protected abstract byte[] getKLVBytes();
+  /** @return a view of the klv payload, otherwise null */
+  protected abstract ByteBuffer getKLVPayload();
 
   final DecodedKLVMetadataPacket decodeKLV() throws KlvDecodingException {
-    final byte[] klvBytes = getKLVBytes();
+    return decodeKLV(UNTRACKED);
+  }
 
-    if (klvBytes != null && klvBytes.length > 0) {
-      if (LOGGER.isTraceEnabled()) {
-        LOGGER.trace("KLV bytes: {}", DatatypeConverter.printHexBinary(klvBytes));
-      }
+  /**
+   * Checks the checksum of the KLV against its raw bytes and only decodes it if the checksum
+   * matches, so corrupt packets are rejected without being decoded.
+   *
+   * @param statistics the counts to update with whether the packet was decoded or rejected
+   */
+  final DecodedKLVMetadataPacket decodeKLV(final KlvPacketStatistics statistics)
+      throws KlvDecodingException {
+    final ByteBuffer klv = getKLVPayload();
 
-      final KlvContext decodedKLV = decoder.decode(klvBytes);
+    if (klv == null || !klv.hasRemaining()) {
+      return null;
+    }
 
-      if (validateChecksum(decodedKLV, klvBytes)) {
-        return new DecodedKLVMetadataPacket(pesHeader.pts, decodedKLV);
-      } else {
-        throw new KlvDecodingException("KLV packet checksum does not match.");
-      }
+    final byte[] klvBytes = toArray(klv);
+
+    if (LOGGER.isTraceEnabled()) {
+      LOGGER.trace("KLV bytes: {}", DatatypeConverter.printHexBinary(klvBytes));
     }
 
-    return null;
+    final UasLocalSetValidator.Result result = UasLocalSetValidator.validate(klv);
+    if (result != UasLocalSetValidator.Result.VALID) {
+      statistics.rejected(result);
+      throw new KlvDecodingException(result.getMessage());
+    }
+
+    final KlvContext decodedKLV;
+    try {
+      decodedKLV = decoder.decode(klvBytes);
+    } catch (KlvDecodingException | RuntimeException e) {
+      statistics.rejected(UasLocalSetValidator.Result.MALFORMED);
+      throw e;
+    }
+
+    if (!decodedKLV.hasDataElement(Stanag4609TransportStreamParser.UAS_DATALINK_LOCAL_SET)) {
+      statistics.rejected(UasLocalSetValidator.Result.NOT_UAS_LOCAL_SET);
+      throw new KlvDecodingException(UasLocalSetValidator.Result.NOT_UAS_LOCAL_SET.getMessage());
+    }
+
+    statistics.decoded();
+    return new DecodedKLVMetadataPacket(pesHeader.pts, decodedKLV);
+  }
+
+  /** The decoder only accepts arrays, so this is the one place the KLV may be copied. */
+  private static byte[] toArray(final ByteBuffer klv) {
+    if (klv.hasArray()
+        && klv.arrayOffset() + klv.position() == 0
+        && klv.remaining() == klv.array().length) {
+      return klv.array();
+    }
+    final byte[] bytes = new byte[klv.remaining()];
+    klv.duplicate().get(bytes);
+    return bytes;
   }
 }
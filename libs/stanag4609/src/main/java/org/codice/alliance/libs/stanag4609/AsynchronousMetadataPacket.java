@@ -13,6 +13,7 @@
  */
 package org.codice.alliance.libs.stanag4609;
 
+import java.nio.ByteBuffer;
 import org.codice.ddf.libs.klv.KlvDecoder;
 import org.jcodec.containers.mps.MPSDemuxer.PESPacket;
 
@@ -23,8 +24,13 @@ class AsynchronousMetadataPacket extends AbstractMetadataPacket {
     super(pesPacketBytes, pesHeader, decoder);
   }
 
+  AsynchronousMetadataPacket(
+      final ByteBuffer pesPacket, final PESPacket pesHeader, final KlvDecoder decoder) {
+    super(pesPacket, pesHeader, decoder);
+  }
+
   @Override
-  protected byte[] getKLVBytes() {
+  protected ByteBuffer getKLVPayload() {
     return getPESPacketPayload();
   }
 }
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.stanag4609;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Counts the KLV metadata packets that were decoded and those that were rejected, and why. */
+public class KlvPacketStatistics {
+
+  private final AtomicLong decoded = new AtomicLong();
+
+  private final AtomicLong checksumMismatches = new AtomicLong();
+
+  private final AtomicLong missingChecksums = new AtomicLong();
+
+  private final AtomicLong malformed = new AtomicLong();
+
+  /** @return the number of packets whose KLV was decoded */
+  public long getDecoded() {
+    return decoded.get();
+  }
+
+  /** @return the number of packets rejected for any reason */
+  public long getRejected() {
+    return checksumMismatches.get() + missingChecksums.get() + malformed.get();
+  }
+
+  /** @return the number of packets rejected because their checksum did not match */
+  public long getChecksumMismatches() {
+    return checksumMismatches.get();
+  }
+
+  /** @return the number of packets rejected because they had no checksum */
+  public long getMissingChecksums() {
+    return missingChecksums.get();
+  }
+
+  /**
+   * @return the number of packets rejected because they were not a UAS Datalink Local Set, were
+   *     truncated, or could not be decoded
+   */
+  public long getMalformed() {
+    return malformed.get();
+  }
+
+  void decoded() {
+    decoded.incrementAndGet();
+  }
+
+  void rejected(final UasLocalSetValidator.Result result) {
+    switch (result) {
+      case CHECKSUM_MISMATCH:
+        checksumMismatches.incrementAndGet();
+        break;
+      case MISSING_CHECKSUM:
+        missingChecksums.incrementAndGet();
+        break;
+      default:
+        malformed.incrementAndGet();
+        break;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "decoded=%d, checksumMismatches=%d, missingChecksums=%d, malformed=%d",
+        getDecoded(), getChecksumMismatches(), getMissingChecksums(), getMalformed());
+  }
+}
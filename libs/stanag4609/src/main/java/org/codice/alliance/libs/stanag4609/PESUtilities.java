@@ -31,13 +31,44 @@ public class PESUtilities {
 
   public static DecodedKLVMetadataPacket handlePESPacketBytes(
       final byte[] pesPacketBytes, KlvDecoder decoder) throws KlvDecodingException {
-    final MPSDemuxer.PESPacket pesHeader =
-        MPSUtils.readPESHeader(ByteBuffer.wrap(pesPacketBytes), 0);
+    return handlePESPacket(ByteBuffer.wrap(pesPacketBytes), decoder);
+  }
+
+  /**
+   * Decodes the KLV of a metadata PES packet without copying the packet.
+   *
+   * @param pesPacket the PES packet, from the buffer's position to its limit. The buffer's position
+   *     and limit are not changed.
+   * @param decoder the decoder of the KLV
+   * @return the decoded packet, or null if the packet is not a metadata packet or has no KLV
+   * @throws KlvDecodingException if the KLV could not be decoded or its checksum does not match
+   */
+  public static DecodedKLVMetadataPacket handlePESPacket(
+      final ByteBuffer pesPacket, KlvDecoder decoder) throws KlvDecodingException {
+    return handlePESPacket(pesPacket, decoder, AbstractMetadataPacket.UNTRACKED);
+  }
+
+  /**
+   * Decodes the KLV of a metadata PES packet without copying the packet, counting whether it was
+   * decoded or rejected. Packets whose checksum is missing or does not match are rejected before
+   * being decoded.
+   *
+   * @param pesPacket the PES packet, from the buffer's position to its limit. The buffer's position
+   *     and limit are not changed.
+   * @param decoder the decoder of the KLV
+   * @param statistics the counts to update
+   * @return the decoded packet, or null if the packet is not a metadata packet or has no KLV
+   * @throws KlvDecodingException if the KLV could not be decoded or its checksum does not match
+   */
+  public static DecodedKLVMetadataPacket handlePESPacket(
+      final ByteBuffer pesPacket, KlvDecoder decoder, KlvPacketStatistics statistics)
+      throws KlvDecodingException {
+    final MPSDemuxer.PESPacket pesHeader = MPSUtils.readPESHeader(pesPacket.duplicate(), 0);
 
     if (pesHeader.streamId == METADATA_STREAM_ID) {
-      return new SynchronousMetadataPacket(pesPacketBytes, pesHeader, decoder).decodeKLV();
+      return new SynchronousMetadataPacket(pesPacket, pesHeader, decoder).decodeKLV(statistics);
     } else if (pesHeader.streamId == PRIVATE_STREAM_ID) {
-      return new AsynchronousMetadataPacket(pesPacketBytes, pesHeader, decoder).decodeKLV();
+      return new AsynchronousMetadataPacket(pesPacket, pesHeader, decoder).decodeKLV(statistics);
     } else {
       LOGGER.debug("Unknown stream type {}. Skipping this packet.", pesHeader.streamId);
     }
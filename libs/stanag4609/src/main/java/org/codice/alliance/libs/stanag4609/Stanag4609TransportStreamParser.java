@@ -17,6 +17,7 @@ import static org.codice.ddf.libs.klv.data.Klv.KeyLength;
 import static org.codice.ddf.libs.klv.data.Klv.LengthEncoding;
 
 import com.google.common.io.ByteSource;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -147,6 +148,11 @@ public class Stanag4609TransportStreamParser {
   private static final Logger LOGGER =
       LoggerFactory.getLogger(Stanag4609TransportStreamParser.class);
 
+  /** The 16-byte universal key of the UAS Datalink Local Set. Must not be modified. */
+  static final byte[] UAS_DATALINK_LOCAL_SET_KEY = {
+    0x06, 0x0E, 0x2B, 0x34, 0x02, 0x0B, 0x01, 0x01, 0x0E, 0x01, 0x03, 0x01, 0x01, 0x00, 0x00, 0x00
+  };
+
   private static final int MAX_UNSIGNED_SHORT = (1 << 16) - 1;
 
   private static final long MAX_UNSIGNED_INT = (1L << 32) - 1;
@@ -154,13 +160,7 @@ public class Stanag4609TransportStreamParser {
   static {
     final KlvContext localSetContext = new KlvContext(Klv.KeyLength.ONE_BYTE, LengthEncoding.BER);
     final KlvLocalSet outerSet =
-        new KlvLocalSet(
-            new byte[] {
-              0x06, 0x0E, 0x2B, 0x34, 0x02, 0x0B, 0x01, 0x01, 0x0E, 0x01, 0x03, 0x01, 0x01, 0x00,
-              0x00, 0x00
-            },
-            UAS_DATALINK_LOCAL_SET,
-            localSetContext);
+        new KlvLocalSet(UAS_DATALINK_LOCAL_SET_KEY, UAS_DATALINK_LOCAL_SET, localSetContext);
 
     localSetContext.addDataElement(new KlvUnsignedShort(new byte[] {1}, CHECKSUM));
     localSetContext.addDataElement(new KlvLong(new byte[] {2}, TIMESTAMP));
@@ -400,6 +400,8 @@ public class Stanag4609TransportStreamParser {
 
   private final KlvDecoder decoder;
 
+  private final KlvPacketStatistics statistics = new KlvPacketStatistics();
+
   /**
    * Constructs a {@code Stanag4609TransportStreamParser} with the given {@link ByteSource} as the
    * provider of the transport stream bytes.
@@ -436,6 +438,15 @@ public class Stanag4609TransportStreamParser {
             LOGGER.debug("An error occurred while handling the metadata packet bytes.", e);
           }
         });
+    LOGGER.debug("KLV metadata packets: {}", statistics);
+  }
+
+  /**
+   * @return the counts of the KLV metadata packets that were decoded and rejected by this parser,
+   *     including those rejected for a bad checksum before being decoded
+   */
+  public KlvPacketStatistics getStatistics() {
+    return statistics;
   }
 
   /**
@@ -463,6 +474,6 @@ public class Stanag4609TransportStreamParser {
 
   private DecodedKLVMetadataPacket handlePESPacketBytes(final byte[] pesPacketBytes)
       throws KlvDecodingException {
-    return PESUtilities.handlePESPacketBytes(pesPacketBytes, decoder);
+    return PESUtilities.handlePESPacket(ByteBuffer.wrap(pesPacketBytes), decoder, statistics);
   }
 }
@@ -13,7 +13,7 @@
  */
 package org.codice.alliance.libs.stanag4609;
 
-import java.util.Arrays;
+import java.nio.ByteBuffer;
 import org.codice.ddf.libs.klv.KlvDecoder;
 import org.jcodec.containers.mps.MPSDemuxer.PESPacket;
 
@@ -26,27 +26,33 @@ class SynchronousMetadataPacket extends AbstractMetadataPacket {
     super(pesPacketBytes, pesHeader, decoder);
   }
 
+  SynchronousMetadataPacket(
+      final ByteBuffer pesPacket, final PESPacket pesHeader, final KlvDecoder decoder) {
+    super(pesPacket, pesHeader, decoder);
+  }
+
   @Override
-  protected byte[] getKLVBytes() {
+  protected ByteBuffer getKLVPayload() {
 
-    final byte[] metadataAccessUnit = getPESPacketPayload();
+    final ByteBuffer metadataAccessUnit = getPESPacketPayload();
 
     if (metadataAccessUnit == null) {
       return null;
     }
 
-    if (metadataAccessUnit.length > METADATA_ACCESS_UNIT_HEADER_LENGTH) {
+    if (metadataAccessUnit.remaining() > METADATA_ACCESS_UNIT_HEADER_LENGTH) {
       return getKLVPayloadFromMetadataAccessUnit(metadataAccessUnit);
     }
 
     return null;
   }
 
-  private byte[] getKLVPayloadFromMetadataAccessUnit(final byte[] metadataAccessUnit) {
+  private ByteBuffer getKLVPayloadFromMetadataAccessUnit(final ByteBuffer metadataAccessUnit) {
     final int payloadLength =
-        ((metadataAccessUnit[3] & 0xFF) << 8) | (metadataAccessUnit[4] & 0xFF);
+        ((metadataAccessUnit.get(3) & 0xFF) << 8) | (metadataAccessUnit.get(4) & 0xFF);
     final int payloadEnd =
-        Math.min(metadataAccessUnit.length, METADATA_ACCESS_UNIT_HEADER_LENGTH + payloadLength);
-    return Arrays.copyOfRange(metadataAccessUnit, METADATA_ACCESS_UNIT_HEADER_LENGTH, payloadEnd);
+        Math.min(
+            metadataAccessUnit.remaining(), METADATA_ACCESS_UNIT_HEADER_LENGTH + payloadLength);
+    return slice(metadataAccessUnit, METADATA_ACCESS_UNIT_HEADER_LENGTH, payloadEnd);
   }
 }
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.stanag4609;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Checks the raw bytes of a UAS Datalink Local Set (MISB ST 0601) before it is decoded. The items
+ * of the set are walked by their tags and lengths alone, without building any decoded elements, to
+ * find the checksum item and verify it, so that corrupt packets are rejected before paying for a
+ * full decode.
+ */
+final class UasLocalSetValidator {
+
+  enum Result {
+    VALID(null),
+    NOT_UAS_LOCAL_SET("KLV did not contain the UAS Datalink Local Set"),
+    MALFORMED("KLV packet is truncated or has an invalid length."),
+    MISSING_CHECKSUM("KLV packet didn't contain checksum (which is required)."),
+    CHECKSUM_MISMATCH("KLV packet checksum does not match.");
+
+    private final String message;
+
+    Result(String message) {
+      this.message = message;
+    }
+
+    String getMessage() {
+      return message;
+    }
+  }
+
+  private static final int CHECKSUM_TAG = 1;
+
+  private static final int CHECKSUM_LENGTH = 2;
+
+  /** Longer BER lengths can't describe a packet that fits in a buffer. */
+  private static final int MAX_LENGTH_BYTES = 4;
+
+  private UasLocalSetValidator() {}
+
+  /**
+   * @param klv the KLV, from the buffer's position to its limit. The buffer's position and limit
+   *     are not changed.
+   * @return whether the KLV starts with a UAS Datalink Local Set whose checksum is correct, or why
+   *     it doesn't.
+   */
+  static Result validate(final ByteBuffer klv) {
+    final int start = klv.position();
+    final int end = klv.limit();
+    final byte[] key = Stanag4609TransportStreamParser.UAS_DATALINK_LOCAL_SET_KEY;
+
+    if (end - start < key.length) {
+      return Result.NOT_UAS_LOCAL_SET;
+    }
+    for (int i = 0; i < key.length; i++) {
+      if (klv.get(start + i) != key[i]) {
+        return Result.NOT_UAS_LOCAL_SET;
+      }
+    }
+
+    final int[] position = {start + key.length};
+    final long setLength = readBerLength(klv, position, end);
+    if (setLength < 0 || setLength > end - position[0]) {
+      return Result.MALFORMED;
+    }
+    final int setEnd = position[0] + (int) setLength;
+
+    while (position[0] < setEnd) {
+      final long tag = readBerOidTag(klv, position, setEnd);
+      final long length = tag < 0 ? -1 : readBerLength(klv, position, setEnd);
+      if (length < 0 || length > setEnd - position[0]) {
+        return Result.MALFORMED;
+      }
+
+      final int valueStart = position[0];
+      if (tag == CHECKSUM_TAG) {
+        if (length != CHECKSUM_LENGTH) {
+          return Result.MALFORMED;
+        }
+        final int packetChecksum =
+            ((klv.get(valueStart) & 0xFF) << 8) | (klv.get(valueStart + 1) & 0xFF);
+        return AbstractMetadataPacket.calculateChecksum(klv, start, valueStart) == packetChecksum
+            ? Result.VALID
+            : Result.CHECKSUM_MISMATCH;
+      }
+      position[0] = valueStart + (int) length;
+    }
+
+    return Result.MISSING_CHECKSUM;
+  }
+
+  /** @return the tag, or -1 if it runs past {@code end} */
+  private static long readBerOidTag(final ByteBuffer klv, final int[] position, final int end) {
+    long tag = 0;
+    int b;
+    do {
+      if (position[0] >= end || tag > Integer.MAX_VALUE) {
+        return -1;
+      }
+      b = klv.get(position[0]++) & 0xFF;
+      tag = (tag << 7) | (b & 0x7F);
+    } while ((b & 0x80) != 0);
+    return tag;
+  }
+
+  /** @return the length, or -1 if it is invalid or runs past {@code end} */
+  private static long readBerLength(final ByteBuffer klv, final int[] position, final int end) {
+    if (position[0] >= end) {
+      return -1;
+    }
+    final int first = klv.get(position[0]++) & 0xFF;
+    if (first < 0x80) {
+      return first;
+    }
+
+    final int lengthBytes = first & 0x7F;
+    if (lengthBytes == 0 || lengthBytes > MAX_LENGTH_BYTES || lengthBytes > end - position[0]) {
+      return -1;
+    }
+    long length = 0;
+    for (int i = 0; i < lengthBytes; i++) {
+      length = (length << 8) | (klv.get(position[0]++) & 0xFF);
+    }
+    return length;
+  }
+}
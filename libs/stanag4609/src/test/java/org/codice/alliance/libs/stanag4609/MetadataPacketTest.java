@@ -16,10 +16,13 @@ package org.codice.alliance.libs.stanag4609;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.lessThan;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 import java.nio.ByteBuffer;
+import javax.xml.bind.DatatypeConverter;
 import org.codice.ddf.libs.klv.KlvContext;
 import org.codice.ddf.libs.klv.KlvDataElement;
 import org.codice.ddf.libs.klv.KlvDecoder;
@@ -474,6 +477,96 @@ public class MetadataPacketTest {
     assertThat(decodedPacket.getPresentationTimestamp(), is(lessThan(0L)));
   }
 
+  @Test
+  public void testPESPacketInsideLargerBuffer() throws Exception {
+    final byte[] pesPacketBytes =
+        DatatypeConverter.parseHexBinary(
+            "000001BD001885000006" + "0E2B34020B01010E01030101000000" + "0401024C51");
+    final int offset = 7;
+    final byte[] buffer = new byte[offset + pesPacketBytes.length + 11];
+    System.arraycopy(pesPacketBytes, 0, buffer, offset, pesPacketBytes.length);
+    final ByteBuffer pesPacket = ByteBuffer.wrap(buffer, offset, buffer.length - offset);
+
+    final DecodedKLVMetadataPacket decodedPacket =
+        PESUtilities.handlePESPacket(
+            pesPacket,
+            new KlvDecoder(Stanag4609TransportStreamParser.UAS_DATALINK_LOCAL_SET_CONTEXT));
+
+    verifyDecodedKLV(decodedPacket);
+    assertThat(pesPacket.position(), is(offset));
+    assertThat(pesPacket.limit(), is(buffer.length));
+  }
+
+  @Test
+  public void testChecksumOfSlice() {
+    final byte[] bytes = DatatypeConverter.parseHexBinary("7F060E2B340201020304");
+    final ByteBuffer slice = AbstractMetadataPacket.slice(ByteBuffer.wrap(bytes), 1, 8);
+
+    assertThat(slice.remaining(), is(7));
+    assertThat(
+        AbstractMetadataPacket.calculateChecksum(slice),
+        is(((0x06 + 0x2B + 0x02) << 8) + 0x0E + 0x34));
+  }
+
+  @Test
+  public void testBitErrorsAreRejectedBeforeDecoding() throws Exception {
+    final byte[] pesPacketBytes =
+        DatatypeConverter.parseHexBinary(
+            "000001BD0018850000" + "060E2B34020B01010E01030101000000" + "0401024C51");
+    final int klvStart = 9;
+    final KlvDecoder decoder =
+        new KlvDecoder(Stanag4609TransportStreamParser.UAS_DATALINK_LOCAL_SET_CONTEXT);
+    final KlvPacketStatistics statistics = new KlvPacketStatistics();
+
+    verifyDecodedKLV(
+        PESUtilities.handlePESPacket(ByteBuffer.wrap(pesPacketBytes), decoder, statistics));
+
+    int corruptPackets = 0;
+    for (int bit = klvStart * 8; bit < pesPacketBytes.length * 8; bit++) {
+      final byte[] corrupt = pesPacketBytes.clone();
+      corrupt[bit / 8] ^= 1 << (bit % 8);
+      corruptPackets++;
+      try {
+        PESUtilities.handlePESPacket(ByteBuffer.wrap(corrupt), decoder, statistics);
+        fail("A packet with bit " + bit + " flipped was decoded.");
+      } catch (KlvDecodingException e) {
+        // expected
+      }
+    }
+
+    assertThat(statistics.getDecoded(), is(1L));
+    assertThat(statistics.getRejected(), is((long) corruptPackets));
+    assertThat(statistics.getChecksumMismatches(), is(greaterThan(0L)));
+    assertThat(statistics.getMissingChecksums(), is(greaterThan(0L)));
+    assertThat(statistics.getMalformed(), is(greaterThan(0L)));
+  }
+
+  @Test
+  public void testValidateChecksumFollowedByOtherBytes() {
+    final ByteBuffer klv =
+        ByteBuffer.wrap(
+            DatatypeConverter.parseHexBinary(
+                "060E2B34020B01010E01030101000000" + "0401024C51" + "FFFF"));
+    klv.limit(klv.limit() - 2);
+    final ByteBuffer withTrailingItem =
+        ByteBuffer.wrap(
+            DatatypeConverter.parseHexBinary(
+                "060E2B34020B01010E01030101000000" + "0801025051" + "06020101"));
+
+    assertThat(UasLocalSetValidator.validate(klv), is(UasLocalSetValidator.Result.VALID));
+    assertThat(
+        UasLocalSetValidator.validate(withTrailingItem), is(UasLocalSetValidator.Result.VALID));
+  }
+
+  @Test
+  public void testValidateTruncatedLocalSet() {
+    final ByteBuffer klv =
+        ByteBuffer.wrap(
+            DatatypeConverter.parseHexBinary("060E2B34020B01010E01030101000000" + "0401024C"));
+
+    assertThat(UasLocalSetValidator.validate(klv), is(UasLocalSetValidator.Result.MALFORMED));
+  }
+
   private void verifyDecodedKLV(final DecodedKLVMetadataPacket decodedPacket) {
     assertThat(decodedPacket, notNullValue());
 